@@ -29,6 +29,9 @@ plugins {
 
     // ktlint linter - read more: https://github.com/JLLeitschuh/ktlint-gradle
     id("org.jlleitschuh.gradle.ktlint") version "10.2.1"
+
+    // JMH benchmarks - read more: https://github.com/melix/jmh-gradle-plugin
+    id("me.champeau.jmh") version "0.6.6"
 }
 
 // Import variables from gradle.properties file
@@ -70,6 +73,7 @@ dependencies {
     antlr("org.antlr:antlr4:4.9.3")
 
     implementation(project(":vim-engine"))
+    testImplementation(testFixtures(project(":vim-engine")))
 }
 
 configurations {
@@ -215,6 +219,24 @@ tasks.register<Test>("testUi") {
     include("/ui/**")
 }
 
+// --- Benchmarks
+
+// Benchmarks in src/jmh don't start the IDE, but the code they measure is compiled against the platform classes.
+// The test classpath of the intellij plugin provides them. Run with `./gradlew jmh -PjmhIncludes=RegExp`
+sourceSets.named("jmh") {
+    compileClasspath += sourceSets.test.get().compileClasspath
+    runtimeClasspath += sourceSets.test.get().runtimeClasspath
+}
+
+jmh {
+    jmhVersion.set("1.34")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+}
+
 // --- Changelog
 
 changelog {
@@ -0,0 +1,151 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.common.CommandNode
+import com.maddyhome.idea.vim.common.CommandPartNode
+import com.maddyhome.idea.vim.common.MappingMode
+import com.maddyhome.idea.vim.common.Node
+import com.maddyhome.idea.vim.common.RootNode
+import com.maddyhome.idea.vim.common.addLeafs
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.w3c.dom.Element
+import java.util.EnumMap
+import java.util.concurrent.TimeUnit
+import javax.swing.KeyStroke
+import javax.xml.parsers.DocumentBuilderFactory
+
+/**
+ * Building the command trees of all modes and walking the normal mode tree key by key the same way the key handler
+ *   does.
+ *
+ * The trees are built from the `vimAction` declarations of the plugin, the same way `KeyGroup.registerCommandAction`
+ *   builds them. The actions that compute their keys in code (`ComplicatedKeysAction`) are left out, because they
+ *   can't be instantiated without the IDE. Only the tree is measured: mappings, the command state and the actions
+ *   themselves are not involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class CommandTreeBenchmark {
+  private lateinit var actions: List<ActionDeclaration>
+  private lateinit var roots: Map<MappingMode, RootNode<String>>
+  private lateinit var typed: List<List<KeyStroke>>
+
+  @Setup
+  fun setUp() {
+    actions = readDeclarations()
+    roots = buildTrees()
+    typed = listOf("j", "w", "gg", "<C-W>v", "zz", "]m", "<C-D>").map { parseKeys(it) }
+    for (keys in typed) {
+      check(walk(roots.getValue(MappingMode.NORMAL), keys) is CommandNode) { "No normal mode command for $keys" }
+    }
+  }
+
+  @Benchmark
+  fun build(): Map<MappingMode, RootNode<String>> = buildTrees()
+
+  @Benchmark
+  fun dispatch(): Int {
+    val root = roots.getValue(MappingMode.NORMAL)
+    var found = 0
+    for (keys in typed) {
+      if (walk(root, keys) is CommandNode) found++
+    }
+    return found
+  }
+
+  private fun walk(root: RootNode<String>, keys: List<KeyStroke>): Node<String>? {
+    var node: Node<String> = root
+    for (key in keys) {
+      node = (node as? CommandPartNode<String>)?.get(key) ?: return null
+    }
+    return node
+  }
+
+  private fun buildTrees(): Map<MappingMode, RootNode<String>> {
+    val trees = EnumMap<MappingMode, RootNode<String>>(MappingMode::class.java)
+    for (action in actions) {
+      for (keys in action.keys) {
+        for (mode in action.modes) {
+          trees.getOrPut(mode) { RootNode() }.addLeafs(keys, action.implementation)
+        }
+      }
+    }
+    return trees
+  }
+
+  private fun readDeclarations(): List<ActionDeclaration> {
+    val stream = javaClass.classLoader.getResourceAsStream(ACTIONS_FILE) ?: error("Cannot find $ACTIONS_FILE")
+    val document = stream.use { DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(it) }
+    val elements = document.getElementsByTagName("vimAction")
+    val declarations = ArrayList<ActionDeclaration>()
+    for (i in 0 until elements.length) {
+      val element = elements.item(i) as Element
+      val keys = element.getAttribute("keys")
+      if (keys.isEmpty()) continue
+      declarations += ActionDeclaration(
+        element.getAttribute("implementation"),
+        keys.split(',').map { parseKeys(it) },
+        parseModes(element.getAttribute("mappingModes")),
+      )
+    }
+    return declarations
+  }
+
+  /**
+   * Same letters as `ActionBeanClass.getParsedModes`
+   */
+  private fun parseModes(modes: String): Set<MappingMode> {
+    if (modes == "ALL") return MappingMode.ALL
+    val res = HashSet<MappingMode>()
+    for (c in modes) {
+      when (c) {
+        'N' -> res += MappingMode.NORMAL
+        'X' -> res += MappingMode.VISUAL
+        'V' -> {
+          res += MappingMode.VISUAL
+          res += MappingMode.SELECT
+        }
+        'S' -> res += MappingMode.SELECT
+        'O' -> res += MappingMode.OP_PENDING
+        'I' -> res += MappingMode.INSERT
+        'C' -> res += MappingMode.CMD_LINE
+        else -> error("Wrong mapping mode: $c")
+      }
+    }
+    return res
+  }
+
+  private data class ActionDeclaration(
+    val implementation: String,
+    val keys: List<List<KeyStroke>>,
+    val modes: Set<MappingMode>,
+  )
+
+  companion object {
+    private const val ACTIONS_FILE = "META-INF/includes/VimActions.xml"
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.headless.HeadlessExecutionContext
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import com.maddyhome.idea.vim.vimscript.model.CommandLineVimLContext
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
+import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
+import com.maddyhome.idea.vim.vimscript.parser.VimscriptParser
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Parsing and evaluation of vimscript expressions.
+ *
+ * The expressions don't refer to variables, options or functions, so they are evaluated on the headless editor.
+ *   The comparison is case-sensitive, `>` would read 'ignorecase' from the option service of the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class ExpressionBenchmark {
+  @Param(
+    "1 + 2 * 3 - 4 / 2",
+    "'abc' . 'def' . 'ghi'",
+    "[1, 2, 3] + [4, 5]",
+    "{'a': 1, 'b': 2}['b']",
+    "10 ># 3 ? 'yes' : 'no'",
+  )
+  @JvmField
+  var text: String = ""
+
+  private lateinit var expression: Expression
+  private lateinit var editor: HeadlessVimEditor
+  private lateinit var context: HeadlessExecutionContext
+
+  @Setup
+  fun setUp() {
+    expression = VimscriptParser.parseExpression(text) ?: error("Cannot parse the expression: $text")
+    editor = HeadlessVimInjector.install().createEditor()
+    context = HeadlessExecutionContext(editor)
+  }
+
+  @Benchmark
+  fun parse(): Expression? = VimscriptParser.parseExpression(text)
+
+  @Benchmark
+  fun evaluate(): VimDataType = expression.evaluate(editor, context, CommandLineVimLContext)
+}
@@ -0,0 +1,75 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.common.VimRange
+import com.maddyhome.idea.vim.common.offset
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Edits of a large file done through the engine API on the headless editor, without the IDE document and undo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class HeadlessEditorBenchmark {
+  @Param("1000", "100000")
+  @JvmField
+  var lineCount: Int = 0
+
+  private lateinit var vim: HeadlessVimInjector
+  private lateinit var editor: HeadlessVimEditor
+  private var middle = 0
+
+  @Setup(Level.Iteration)
+  fun setUp() {
+    vim = HeadlessVimInjector.install()
+    editor = vim.createEditor((0 until lineCount).joinToString("") { "line number $it\n" })
+    middle = editor.document.getLineStartOffset(lineCount / 2)
+    editor.primaryCaret().moveToOffset(middle)
+  }
+
+  @Benchmark
+  fun typeAndDeleteChar(): Int {
+    editor.insertText(middle.offset, "x")
+    editor.deleteRange(middle.offset, (middle + 1).offset)
+    return editor.primaryCaret().offset.point
+  }
+
+  @Benchmark
+  fun insertAndDeleteLine(): Int {
+    editor.insertText(middle.offset, "new line\n")
+    vim.vimMachine.delete(VimRange.Line.Offsets(middle.offset, middle.offset), editor, editor.primaryCaret())
+    return editor.lineCount()
+  }
+
+  @Benchmark
+  fun lineOfOffset(): Int = editor.document.getLineNumber(middle)
+}
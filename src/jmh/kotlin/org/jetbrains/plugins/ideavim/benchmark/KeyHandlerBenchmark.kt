@@ -0,0 +1,87 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.KeyHandler
+import com.maddyhome.idea.vim.headless.HeadlessExecutionContext
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+import javax.swing.KeyStroke
+
+/**
+ * Keys typed on the headless editor and dispatched by [KeyHandler]: the command tree lookup, the count and
+ *   the mode handling, and the execution of the command.
+ *
+ * Each benchmark types keys that bring the caret and the text back, so the iterations measure the same work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class KeyHandlerBenchmark {
+  private lateinit var vim: HeadlessVimInjector
+  private lateinit var editor: HeadlessVimEditor
+  private lateinit var context: HeadlessExecutionContext
+
+  private lateinit var wordForwardAndBack: List<KeyStroke>
+  private lateinit var countedWordForwardAndBack: List<KeyStroke>
+  private lateinit var lineDownAndUp: List<KeyStroke>
+  private lateinit var insertAndDeleteChar: List<KeyStroke>
+
+  @Setup(Level.Iteration)
+  fun setUp() {
+    vim = HeadlessVimInjector.install()
+    editor = vim.createEditor((0 until 1000).joinToString("") { "line number $it: foo bar baz\n" })
+    editor.primaryCaret().moveToOffset(editor.document.getLineStartOffset(500))
+    context = HeadlessExecutionContext(editor)
+
+    wordForwardAndBack = vim.parser.parseKeys("wb")
+    countedWordForwardAndBack = vim.parser.parseKeys("5w5b")
+    lineDownAndUp = vim.parser.parseKeys("jk")
+    insertAndDeleteChar = vim.parser.parseKeys("ix<Esc>x")
+  }
+
+  @Benchmark
+  fun wordForwardAndBack(): Int = type(wordForwardAndBack)
+
+  @Benchmark
+  fun countedWordForwardAndBack(): Int = type(countedWordForwardAndBack)
+
+  @Benchmark
+  fun lineDownAndUp(): Int = type(lineDownAndUp)
+
+  @Benchmark
+  fun insertAndDeleteChar(): Int = type(insertAndDeleteChar)
+
+  private fun type(keys: List<KeyStroke>): Int {
+    val keyHandler = KeyHandler.getInstance()
+    for (key in keys) {
+      keyHandler.handleKey(editor, key, context)
+    }
+    return editor.primaryCaret().offset.point
+  }
+}
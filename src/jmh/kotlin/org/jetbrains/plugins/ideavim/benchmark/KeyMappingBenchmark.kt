@@ -0,0 +1,83 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import com.maddyhome.idea.vim.key.KeyMapping
+import com.maddyhome.idea.vim.key.MappingOwner
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+import javax.swing.KeyStroke
+
+/**
+ * Lookups done by the key handler for each typed key: the complete mapping and the mapping prefix checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class KeyMappingBenchmark {
+  @Param("10", "1000", "10000")
+  @JvmField
+  var mappingCount: Int = 0
+
+  private lateinit var mapping: KeyMapping
+  private lateinit var existing: List<KeyStroke>
+  private lateinit var prefix: List<KeyStroke>
+  private lateinit var missing: List<KeyStroke>
+
+  @Setup
+  fun setUp() {
+    mapping = KeyMapping()
+    for (i in 0 until mappingCount) {
+      mapping.put(parseKeys(",${name(i)}"), parseKeys(":action Action$i<CR>"), MappingOwner.IdeaVim, false)
+    }
+    existing = parseKeys(",${name(mappingCount / 2)}")
+    prefix = existing.subList(0, 2)
+    missing = parseKeys("gUiw")
+  }
+
+  @Benchmark
+  fun getExisting(): Any? = mapping.get(existing)
+
+  @Benchmark
+  fun getMissing(): Any? = mapping.get(missing)
+
+  @Benchmark
+  fun isPrefix(): Boolean = mapping.isPrefix(prefix)
+
+  @Benchmark
+  fun isPrefixMissing(): Boolean = mapping.isPrefix(missing)
+
+  private fun name(index: Int): String {
+    val builder = StringBuilder()
+    var rest = index
+    repeat(3) {
+      builder.append('a' + rest % 26)
+      rest /= 26
+    }
+    return builder.toString()
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import com.maddyhome.idea.vim.helper.SearchHelper
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Word motions over [wordCount] words of prose on the headless editor.
+ *
+ * The `headless` benchmarks go through the search helper of the headless injector, the `ide` ones call the
+ *   `SearchHelper` of the IDE on the same text. Sentence motions depend on the folding of the IJ editor,
+ *   they are measured by the motion performance tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class MotionBenchmark {
+  @Param("1", "100")
+  @JvmField
+  var wordCount: Int = 0
+
+  private lateinit var editor: HeadlessVimEditor
+  private var middle = 0
+  private var size = 0
+
+  @Setup(Level.Trial)
+  fun setUp() {
+    editor = HeadlessVimInjector.install().createEditor(
+      (0 until 1000).joinToString("") { "The quick brown fox jumps over the lazy dog. It barked: foo_bar($it);\n" }
+    )
+    middle = editor.document.getLineStartOffset(500)
+    size = editor.fileSize().toInt()
+    editor.primaryCaret().moveToOffset(middle)
+  }
+
+  @Benchmark
+  fun nextWordHeadless(): Int = injector.searchHelper.findNextWord(editor, middle, wordCount, false)
+
+  @Benchmark
+  fun previousWordHeadless(): Int = injector.searchHelper.findNextWord(editor, middle, -wordCount, false)
+
+  @Benchmark
+  fun nextBigWordHeadless(): Int = injector.searchHelper.findNextWord(editor, middle, wordCount, true)
+
+  @Benchmark
+  fun nextWordEndHeadless(): Int =
+    injector.searchHelper.findNextWordEnd(editor, editor.primaryCaret(), wordCount, false)
+
+  @Benchmark
+  fun nextWordIde(): Int = SearchHelper.findNextWord(editor.text(), middle, size, wordCount, false, false)
+
+  @Benchmark
+  fun nextWordEndIde(): Int = SearchHelper.findNextWordEnd(editor.text(), middle, size, wordCount, false, false)
+}
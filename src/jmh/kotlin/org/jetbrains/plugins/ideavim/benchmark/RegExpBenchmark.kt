@@ -0,0 +1,97 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import com.maddyhome.idea.vim.regexp.CharPointer
+import com.maddyhome.idea.vim.regexp.RegExp
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compilation and matching of the patterns typed in search and `:s` commands.
+ *
+ * [findAll] walks the lines of a headless editor like `SearchHelper.findAll` does.
+ *   `findAll` itself matches through `vim_regexec_multi`, which reads the lines from the IJ editor,
+ *   so the single line [RegExp.vim_regexec] is used here. The patterns don't span lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class RegExpBenchmark {
+  @Param(
+    "hello",
+    "\\cHello",
+    "\\<\\w\\+\\>",
+    "foo\\|bar\\|baz",
+    "[a-z]\\+\\d\\{2,}",
+    "^\\s*\\(let\\|set\\)\\s\\+\\k\\+",
+  )
+  @JvmField
+  var pattern: String = ""
+
+  private val regExp = RegExp()
+  private val match = RegExp.regmatch_T()
+  private lateinit var editor: HeadlessVimEditor
+
+  @Setup(Level.Trial)
+  fun setUp() {
+    match.regprog = regExp.vim_regcomp(pattern, 1) ?: error("Cannot compile the pattern: $pattern")
+    editor = HeadlessVimInjector.install().createEditor(
+      (0 until 1000).joinToString("") {
+        when (it % 4) {
+          0 -> "let g:hello_$it = 'foo bar baz'\n"
+          1 -> "    set number$it relativenumber\n"
+          2 -> "Hello world, this is line number $it\n"
+          else -> "\n"
+        }
+      }
+    )
+  }
+
+  @Benchmark
+  fun compile(): Any? = RegExp().vim_regcomp(pattern, 1)
+
+  @Benchmark
+  fun findAll(): Int {
+    val document = editor.document
+    var count = 0
+    for (line in 0 until document.lineCount) {
+      val text = CharPointer(document.getText(document.getLineStartOffset(line), document.getLineEndOffset(line)))
+      var col = 0
+      while (regExp.vim_regexec(match, text, col)) {
+        count++
+        val end = match.endp[0].pointer()
+        // An empty match would be found again at the same column
+        col = if (end > col) end else col + 1
+        if (col > text.strlen()) break
+      }
+    }
+    return count
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.diagnostic.TraceCategory
+import com.maddyhome.idea.vim.diagnostic.VimTracer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.util.concurrent.TimeUnit
+
+/**
+ * Overhead of a trace span on the hot path, with `ideatracetime` switched off and on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class VimTracerBenchmark {
+  @Param("false", "true")
+  @JvmField
+  var enabled: Boolean = false
+
+  private var counter = 0
+
+  @Setup
+  fun setUp() {
+    VimTracer.isEnabled = enabled
+  }
+
+  @TearDown
+  fun tearDown() {
+    VimTracer.isEnabled = false
+    VimTracer.reset()
+  }
+
+  @Benchmark
+  fun span(): Int = VimTracer.trace(TraceCategory.ACTION, "benchmark") { counter++ }
+}
@@ -0,0 +1,78 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.benchmark
+
+import com.maddyhome.idea.vim.vimscript.model.Script
+import com.maddyhome.idea.vim.vimscript.parser.VimscriptParser
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Parsing of a generated vimrc with options, variables, mappings, conditions and functions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+open class VimscriptParserBenchmark {
+  @Param("100", "10000")
+  @JvmField
+  var lineCount: Int = 0
+
+  private lateinit var vimrc: String
+
+  @Setup
+  fun setUp() {
+    val builder = StringBuilder()
+    var lines = 0
+    var block = 0
+    while (lines < lineCount) {
+      builder.append(
+        """
+          |set scrolloff=$block
+          |let g:var_$block = $block * 2 + 1
+          |nnoremap ,b$block :action Action$block<CR>
+          |if exists('g:var_$block') && g:var_$block > 10
+          |  echo "value " . g:var_$block
+          |endif
+          |function! F$block(x) abort
+          |  return a:x + $block
+          |endfunction
+          |
+        """.trimMargin()
+      )
+      lines += BLOCK_LINES
+      block++
+    }
+    vimrc = builder.toString()
+  }
+
+  @Benchmark
+  fun parse(): Script = VimscriptParser.parse(vimrc)
+
+  companion object {
+    private const val BLOCK_LINES = 9
+  }
+}
@@ -114,7 +114,7 @@ command:
         | SELECT_LAST_FILE | SELECT_FIRST_FILE | SELECT_FILE | AT | REDO | Q_LOWERCASE | QUIT | PUT_LINES | PROMPT_FIND
         | PROMPT_REPLACE | P_LOWERCASE | P_UPPERCASE | PRINT | PREVIOUS_TAB | N_UPPERCASE | PREVIOUS_FILE | PLUG
         | ONLY | NO_HL_SEARCH | NEXT_TAB | N_LOWERCASE | NEXT_FILE | M_LOWERCASE | MOVE_TEXT | MARKS | K_LOWERCASE
-        | MARK_COMMAND | JUMPS | J_LOWERCASE | JOIN_LINES | HISTORY | GO_TO_CHAR | SYMBOL | FIND | CLASS | F_LOWERCASE
+        | MARK_COMMAND | JUMPS | J_LOWERCASE | JOIN_LINES | HISTORY | IDEAPERF | GO_TO_CHAR | SYMBOL | FIND | CLASS | F_LOWERCASE
         | FILE | EXIT | E_LOWERCASE | EDIT_FILE | DUMP_LINE | DIGRAPH | DEL_MARKS | D_LOWERCASE | DEL_LINES | DELCMD
         | T_LOWERCASE | COPY | CMD_CLEAR | BUFFER_LIST | BUFFER_CLOSE | B_LOWERCASE | BUFFER | ASCII
         | ACTIONLIST | ACTION | LOCKVAR | UNLOCKVAR | PACKADD | TABMOVE
@@ -445,6 +445,7 @@ existingCommands:       RETURN
                     |   GO_TO_CHAR
                     |   HELP
                     |   HISTORY
+                    |   IDEAPERF
                     |   JOIN_LINES
                     |   JUMPS
                     |   MARK_COMMAND
@@ -616,6 +617,7 @@ GLOBAL:                 'gl' | 'glo' | 'glob' | 'globa' | 'global';
 GO_TO_CHAR:             'go' | 'got' | 'goto';
 HELP:                   'he' | 'hel' | 'help';
 HISTORY:                'his' | 'hist' | 'histo' | 'histor' | 'history';
+IDEAPERF:               'ideaperf';
 JOIN_LINES:             'jo' | 'joi' | 'join';
 JUMPS:                  'ju' | 'jum' | 'jump' | 'jumps';
 LET:                    'let';
@@ -29,8 +29,6 @@ import com.maddyhome.idea.vim.helper.inInsertMode
 import com.maddyhome.idea.vim.helper.isIdeaVimDisabledHere
 import com.maddyhome.idea.vim.key.KeyHandlerKeeper
 import com.maddyhome.idea.vim.newapi.vim
-import com.maddyhome.idea.vim.options.OptionConstants
-import com.maddyhome.idea.vim.options.OptionScope
 import java.awt.event.KeyAdapter
 import java.awt.event.KeyEvent
 import javax.swing.KeyStroke
@@ -42,7 +40,6 @@ import javax.swing.KeyStroke
  */
 class VimTypedActionHandler(origHandler: TypedActionHandler) : TypedActionHandlerEx {
   private val handler = KeyHandler.getInstance()
-  private val traceTime = VimPlugin.getOptionService().isSet(OptionScope.GLOBAL, OptionConstants.ideatracetimeName)
 
   init {
     KeyHandlerKeeper.getInstance().originalHandler = origHandler
@@ -84,12 +81,7 @@ class VimTypedActionHandler(origHandler: TypedActionHandler) : TypedActionHandle
       LOG.trace("Executing typed action")
       val modifiers = if (charTyped == ' ' && VimKeyListener.isSpaceShift) KeyEvent.SHIFT_DOWN_MASK else 0
       val keyStroke = KeyStroke.getKeyStroke(charTyped, modifiers)
-      val startTime = if (traceTime) System.currentTimeMillis() else null
       handler.handleKey(editor.vim, keyStroke, EditorDataContext.init(editor, context).vim)
-      if (startTime != null) {
-        val duration = System.currentTimeMillis() - startTime
-        LOG.info("VimTypedAction '$charTyped': $duration ms")
-      }
     } catch (e: ProcessCanceledException) {
       // Nothing
     } catch (e: Throwable) {
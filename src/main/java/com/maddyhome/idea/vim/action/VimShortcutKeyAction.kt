@@ -34,6 +34,8 @@ import com.intellij.openapi.util.Key
 import com.intellij.ui.KeyStrokeAdapter
 import com.maddyhome.idea.vim.KeyHandler
 import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.diagnostic.TraceCategory
+import com.maddyhome.idea.vim.diagnostic.VimTracer
 import com.maddyhome.idea.vim.helper.EditorDataContext
 import com.maddyhome.idea.vim.helper.EditorHelper
 import com.maddyhome.idea.vim.helper.HandlerInjector
@@ -48,7 +50,6 @@ import com.maddyhome.idea.vim.key.ShortcutOwner
 import com.maddyhome.idea.vim.key.ShortcutOwnerInfo
 import com.maddyhome.idea.vim.listener.AceJumpService
 import com.maddyhome.idea.vim.listener.AppCodeTemplates.appCodeTemplateCaptured
-import com.maddyhome.idea.vim.newapi.IjVimEditor
 import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.options.OptionChangeListener
 import com.maddyhome.idea.vim.options.OptionConstants
@@ -66,8 +67,6 @@ import javax.swing.KeyStroke
  * These keys are not passed to [com.maddyhome.idea.vim.VimTypedActionHandler] and should be handled by actions.
  */
 class VimShortcutKeyAction : AnAction(), DumbAware/*, LightEditCompatible*/ {
-  private val traceTime = VimPlugin.getOptionService().isSet(OptionScope.GLOBAL, OptionConstants.ideatracetimeName)
-
   override fun actionPerformed(e: AnActionEvent) {
     LOG.trace("Executing shortcut key action")
     val editor = getEditor(e)
@@ -79,12 +78,7 @@ class VimShortcutKeyAction : AnAction(), DumbAware/*, LightEditCompatible*/ {
       }
       // Should we use HelperKt.getTopLevelEditor(editor) here, as we did in former EditorKeyHandler?
       try {
-        val start = if (traceTime) System.currentTimeMillis() else null
         KeyHandler.getInstance().handleKey(editor.vim, keyStroke, EditorDataContext.init(editor, e.dataContext).vim)
-        if (start != null) {
-          val duration = System.currentTimeMillis() - start
-          LOG.info("VimShortcut update '$keyStroke': $duration ms")
-        }
       } catch (ignored: ProcessCanceledException) {
         // Control-flow exceptions (like ProcessCanceledException) should never be logged
         // See {@link com.intellij.openapi.diagnostic.Logger.checkException}
@@ -95,14 +89,8 @@ class VimShortcutKeyAction : AnAction(), DumbAware/*, LightEditCompatible*/ {
   }
 
   override fun update(e: AnActionEvent) {
-    val start = if (traceTime) System.currentTimeMillis() else null
-    e.presentation.isEnabled = isEnabled(e)
+    e.presentation.isEnabled = VimTracer.trace(TraceCategory.KEY, "VimShortcutKeyAction.update") { isEnabled(e) }
     LOG.debug { "Shortcut key. Enabled: ${e.presentation.isEnabled}" }
-    if (start != null) {
-      val keyStroke = getKeyStroke(e)
-      val duration = System.currentTimeMillis() - start
-      LOG.info("VimShortcut update '$keyStroke': $duration ms")
-    }
   }
 
   private fun isEnabled(e: AnActionEvent): Boolean {
@@ -200,7 +188,7 @@ class VimShortcutKeyAction : AnAction(), DumbAware/*, LightEditCompatible*/ {
   }
 
   private fun isEnabledForEscape(editor: Editor): Boolean {
-    val ideaVimSupportValue = (VimPlugin.getOptionService().getOptionValue(OptionScope.LOCAL(IjVimEditor(editor)), OptionConstants.ideavimsupportName) as VimString).value
+    val ideaVimSupportValue = (VimPlugin.getOptionService().getOptionValue(OptionScope.LOCAL(editor.vim), OptionConstants.ideavimsupportName) as VimString).value
     return editor.isPrimaryEditor() ||
       EditorHelper.isFileEditor(editor) && !editor.inNormalMode ||
       ideaVimSupportValue.contains("dialog") && !editor.inNormalMode
@@ -24,9 +24,10 @@ import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.Command
 import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.group.MultiCaretEdits
 import com.maddyhome.idea.vim.handler.ChangeEditorActionHandler
 
-class ChangeCaseToggleCharacterAction : ChangeEditorActionHandler.ForEachCaret() {
+class ChangeCaseToggleCharacterAction : ChangeEditorActionHandler.ForEachCaretBatched() {
   override val type: Command.Type = Command.Type.CHANGE
 
   override fun execute(
@@ -38,4 +39,15 @@ class ChangeCaseToggleCharacterAction : ChangeEditorActionHandler.ForEachCaret()
   ): Boolean {
     return VimPlugin.getChange().changeCaseToggleCharacter(editor, caret, operatorArguments.count1)
   }
+
+  override fun plan(
+    editor: Editor,
+    caret: Caret,
+    context: DataContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+    edits: MultiCaretEdits,
+  ): Boolean {
+    return VimPlugin.getChange().planChangeCaseToggleCharacter(editor, caret, operatorArguments.count1, edits)
+  }
 }
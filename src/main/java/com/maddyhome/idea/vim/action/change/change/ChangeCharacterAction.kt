@@ -25,11 +25,12 @@ import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.Command
 import com.maddyhome.idea.vim.command.CommandFlags
 import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.group.MultiCaretEdits
 import com.maddyhome.idea.vim.handler.ChangeEditorActionHandler
 import com.maddyhome.idea.vim.helper.enumSetOf
 import java.util.*
 
-class ChangeCharacterAction : ChangeEditorActionHandler.ForEachCaret() {
+class ChangeCharacterAction : ChangeEditorActionHandler.ForEachCaretBatched() {
   override val type: Command.Type = Command.Type.CHANGE
 
   override val argumentType: Argument.Type = Argument.Type.DIGRAPH
@@ -45,4 +46,19 @@ class ChangeCharacterAction : ChangeEditorActionHandler.ForEachCaret() {
   ): Boolean {
     return argument != null && VimPlugin.getChange().changeCharacter(editor, caret, operatorArguments.count1, argument.character)
   }
+
+  // Replacing with a newline also indents the new line, so it's done caret by caret
+  override fun canBatch(argument: Argument?): Boolean = argument != null && argument.character != '\n'
+
+  override fun plan(
+    editor: Editor,
+    caret: Caret,
+    context: DataContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+    edits: MultiCaretEdits,
+  ): Boolean {
+    return argument != null &&
+      VimPlugin.getChange().planChangeCharacter(editor, caret, operatorArguments.count1, argument.character, edits)
+  }
 }
@@ -24,13 +24,14 @@ import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.Command
 import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.group.MultiCaretEdits
 import com.maddyhome.idea.vim.handler.ChangeEditorActionHandler
 
 class DeleteCharacterAction : DeleteCharacter({ 1 })
 class DeleteCharacterLeftAction : DeleteCharacter({ -it })
 class DeleteCharacterRightAction : DeleteCharacter({ it })
 
-abstract class DeleteCharacter(private val countModifier: (Int) -> Int) : ChangeEditorActionHandler.ForEachCaret() {
+abstract class DeleteCharacter(private val countModifier: (Int) -> Int) : ChangeEditorActionHandler.ForEachCaretBatched() {
   override val type: Command.Type = Command.Type.DELETE
 
   override fun execute(
@@ -42,4 +43,15 @@ abstract class DeleteCharacter(private val countModifier: (Int) -> Int) : Change
   ): Boolean {
     return VimPlugin.getChange().deleteCharacter(editor, caret, countModifier(operatorArguments.count1), false)
   }
+
+  override fun plan(
+    editor: Editor,
+    caret: Caret,
+    context: DataContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+    edits: MultiCaretEdits,
+  ): Boolean {
+    return VimPlugin.getChange().planDeleteCharacter(editor, caret, countModifier(operatorArguments.count1), false, edits)
+  }
 }
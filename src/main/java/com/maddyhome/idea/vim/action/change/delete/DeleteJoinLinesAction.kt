@@ -26,7 +26,7 @@ import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.Command
 import com.maddyhome.idea.vim.command.OperatorArguments
 import com.maddyhome.idea.vim.handler.ChangeEditorActionHandler
-import com.maddyhome.idea.vim.newapi.IjVimEditor
+import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.options.OptionConstants
 import com.maddyhome.idea.vim.options.OptionScope
 
@@ -40,7 +40,7 @@ class DeleteJoinLinesAction : ChangeEditorActionHandler.SingleExecution() {
     operatorArguments: OperatorArguments,
   ): Boolean {
     if (editor.isOneLineMode) return false
-    if (VimPlugin.getOptionService().isSet(OptionScope.LOCAL(IjVimEditor(editor)), OptionConstants.ideajoinName)) {
+    if (VimPlugin.getOptionService().isSet(OptionScope.LOCAL(editor.vim), OptionConstants.ideajoinName)) {
       return VimPlugin.getChange().joinViaIdeaByCount(editor, context, operatorArguments.count1)
     }
     VimPlugin.getEditor().notifyIdeaJoin(editor.project)
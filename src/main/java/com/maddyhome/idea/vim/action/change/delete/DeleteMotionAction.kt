@@ -25,11 +25,12 @@ import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.Command
 import com.maddyhome.idea.vim.command.DuplicableOperatorAction
 import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.group.MultiCaretEdits
 import com.maddyhome.idea.vim.handler.ChangeEditorActionHandler
 import com.maddyhome.idea.vim.helper.experimentalApi
 import com.maddyhome.idea.vim.newapi.deleteRange
 
-class DeleteMotionAction : ChangeEditorActionHandler.ForEachCaret(), DuplicableOperatorAction {
+class DeleteMotionAction : ChangeEditorActionHandler.ForEachCaretBatched(), DuplicableOperatorAction {
   override val type: Command.Type = Command.Type.DELETE
 
   override val argumentType: Argument.Type = Argument.Type.MOTION
@@ -56,4 +57,21 @@ class DeleteMotionAction : ChangeEditorActionHandler.ForEachCaret(), DuplicableO
       return VimPlugin.getChange().deleteRange(editor, caret, first, second, false)
     }
   }
+
+  override fun canBatch(argument: Argument?): Boolean = argument != null && !experimentalApi()
+
+  override fun plan(
+    editor: Editor,
+    caret: Caret,
+    context: DataContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+    edits: MultiCaretEdits,
+  ): Boolean {
+    if (argument == null) return false
+    val (range, type) = VimPlugin.getChange()
+      .getDeleteRangeAndType(editor, caret, context, argument, false, operatorArguments)
+      ?: return false
+    return VimPlugin.getChange().planDeleteRange(editor, caret, range, type, false, edits)
+  }
 }
@@ -23,26 +23,72 @@ import com.maddyhome.idea.vim.helper.vimExOutput
 import com.maddyhome.idea.vim.ui.ExOutputPanel
 
 /**
+ * Output of the ex commands shown in the [ExOutputPanel].
+ *
+ * The output is kept as a list of lines, so the panel renders only the visible page of a large output, and more
+ *   output can be appended without copying the text collected so far.
+ *
  * @author vlan
  */
 class ExOutputModel private constructor(private val myEditor: Editor) {
-  var text: String? = null
-    private set
+  /**
+   * Lines of the output, the last one is continued by the appended output. Empty if there is no output.
+   */
+  private val lines = ArrayList<String>()
+
+  val text: String?
+    get() = if (lines.isEmpty()) null else lines.joinToString(separator = "\n")
+
+  /**
+   * Number of the lines to show. The line after the trailing new line isn't counted.
+   */
+  val lineCount: Int
+    get() = if (lines.isNotEmpty() && lines.last().isEmpty()) lines.size - 1 else lines.size
+
+  fun getLine(index: Int): String = lines[index]
 
   fun output(text: String) {
-    this.text = text
+    lines.clear()
+    addText(text)
     if (!ApplicationManager.getApplication().isUnitTestMode) {
-      ExOutputPanel.getInstance(myEditor).setText(text)
+      ExOutputPanel.getInstance(myEditor).outputChanged()
+    }
+  }
+
+  /**
+   * Adds [text] to the end of the current output, e.g. for the output that arrives in parts
+   */
+  fun append(text: CharSequence) {
+    val oldLineCount = lineCount
+    addText(text)
+    if (!ApplicationManager.getApplication().isUnitTestMode) {
+      ExOutputPanel.getInstance(myEditor).outputAppended(oldLineCount)
     }
   }
 
   fun clear() {
-    text = null
+    lines.clear()
     if (!ApplicationManager.getApplication().isUnitTestMode) {
       ExOutputPanel.getInstance(myEditor).deactivate(false)
     }
   }
 
+  private fun addText(text: CharSequence) {
+    if (lines.isEmpty()) lines.add("")
+    var start = 0
+    while (true) {
+      val end = text.indexOf('\n', start)
+      val line = text.substring(start, if (end == -1) text.length else end)
+      if (start == 0) {
+        lines[lines.lastIndex] = lines.last() + line
+      } else {
+        lines.add(line)
+      }
+      if (end == -1) break
+      start = end + 1
+    }
+  }
+
   companion object {
     @JvmStatic
     fun getInstance(editor: Editor): ExOutputModel {
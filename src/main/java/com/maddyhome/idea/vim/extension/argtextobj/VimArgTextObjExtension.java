@@ -34,19 +34,20 @@ import com.maddyhome.idea.vim.extension.VimExtensionHandler;
 import com.maddyhome.idea.vim.handler.TextObjectActionHandler;
 import com.maddyhome.idea.vim.helper.InlayHelperKt;
 import com.maddyhome.idea.vim.helper.MessageHelper;
+import com.maddyhome.idea.vim.helper.QuoteIndex;
 import com.maddyhome.idea.vim.helper.VimNlsSafe;
 import com.maddyhome.idea.vim.listener.SelectionVimListenerSuppressor;
 import com.maddyhome.idea.vim.listener.VimListenerSuppressor;
 import com.maddyhome.idea.vim.newapi.IjExecutionContext;
 import com.maddyhome.idea.vim.newapi.IjVimCaret;
+import com.maddyhome.idea.vim.newapi.IjVimCaretKt;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimString;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.EnumSet;
 
 import static com.maddyhome.idea.vim.extension.VimExtensionFacade.putExtensionHandlerMapping;
@@ -177,6 +178,20 @@ public class VimArgTextObjExtension implements VimExtension {
 
   public static final BracketPairs DEFAULT_BRACKET_PAIRS = new BracketPairs("(", ")");
 
+  /**
+   * The last parsed value of the {@code argtextobj_pairs} variable, so it's not parsed on each invocation.
+   */
+  private static @Nullable String lastBracketPairsVariable = null;
+  private static @Nullable BracketPairs lastBracketPairs = null;
+
+  private static @NotNull BracketPairs parseBracketPairs(@NotNull String bracketPairsVar) throws BracketPairs.ParseException {
+    if (!bracketPairsVar.equals(lastBracketPairsVariable)) {
+      lastBracketPairs = BracketPairs.fromBracketPairList(bracketPairsVar);
+      lastBracketPairsVariable = bracketPairsVar;
+    }
+    return lastBracketPairs;
+  }
+
   @Nullable
   private static String bracketPairsVariable() {
     final Object value = VimPlugin.getVariableService().getGlobalVariableValue("argtextobj_pairs");
@@ -216,7 +231,7 @@ public class VimArgTextObjExtension implements VimExtension {
         final String bracketPairsVar = bracketPairsVariable();
         if (bracketPairsVar != null) {
           try {
-            bracketPairs = BracketPairs.fromBracketPairList(bracketPairsVar);
+            bracketPairs = parseBracketPairs(bracketPairsVar);
           } catch (BracketPairs.ParseException parseException) {
             @VimNlsSafe String message =
               MessageHelper.message("argtextobj.invalid.value.of.g.argtextobj.pairs.0", parseException.getMessage());
@@ -259,7 +274,7 @@ public class VimArgTextObjExtension implements VimExtension {
     @Override
     public void execute(@NotNull Editor editor, @NotNull DataContext context) {
 
-      IjVimEditor vimEditor = new IjVimEditor(editor);
+      IjVimEditor vimEditor = IjVimEditorKt.getVim(editor);
       @NotNull CommandState commandState = CommandState.getInstance(vimEditor);
       int count = Math.max(1, commandState.getCommandBuilder().getCount());
 
@@ -267,7 +282,7 @@ public class VimArgTextObjExtension implements VimExtension {
       //noinspection DuplicatedCode
       if (!commandState.isOperatorPending()) {
         editor.getCaretModel().runForEachCaret((Caret caret) -> {
-          final TextRange range = textObjectHandler.getRange(vimEditor, new IjVimCaret(caret), new IjExecutionContext(context), count, 0, null);
+          final TextRange range = textObjectHandler.getRange(vimEditor, IjVimCaretKt.getVim(caret), new IjExecutionContext(context), count, 0, null);
           if (range != null) {
             try (VimListenerSuppressor.Locked ignored = SelectionVimListenerSuppressor.INSTANCE.lock()) {
               if (commandState.getMode() == CommandState.Mode.VISUAL) {
@@ -294,6 +309,8 @@ public class VimArgTextObjExtension implements VimExtension {
     @NotNull private final CharSequence text;
     @NotNull private final Document document;
     @NotNull private final BracketPairs brackets;
+    @NotNull private final SexpDirection forward;
+    @NotNull private final SexpDirection backward;
     private int leftBound = Integer.MAX_VALUE;
     private int rightBound = Integer.MIN_VALUE;
     private int leftBracket;
@@ -308,6 +325,8 @@ public class VimArgTextObjExtension implements VimExtension {
       this.text = document.getImmutableCharSequence();
       this.document = document;
       this.brackets = bracketPairs;
+      this.forward = SexpDirection.forward(bracketPairs);
+      this.backward = SexpDirection.backward(bracketPairs);
     }
 
     /**
@@ -428,27 +447,12 @@ public class VimArgTextObjExtension implements VimExtension {
     /**
      * Detects if current position is inside a quoted string and adjusts
      * left and right bounds to the boundaries of the string.
-     *
-     * NOTE: Does not support line continuations for quoted string ('\' at the end of line).
      */
     private void getOutOfQuotedText() {
-      // TODO this method should use IdeaVim methods to determine if the current position is in the string
-      final int lineNo = document.getLineNumber(leftBound);
-      final int lineStartOffset = document.getLineStartOffset(lineNo);
-      final int lineEndOffset = document.getLineEndOffset(lineNo);
-      int i = lineStartOffset;
-      while (i <= leftBound) {
-        if (isQuote(i)) {
-          final int endOfQuotedText = skipQuotedTextForward(i, lineEndOffset);
-          if (endOfQuotedText >= leftBound) {
-            leftBound = i - 1;
-            rightBound = endOfQuotedText + 1;
-            break;
-          } else {
-            i = endOfQuotedText;
-          }
-        }
-        ++i;
+      final TextRange quotedText = QuoteIndex.forDocument(document).findQuotedText(leftBound);
+      if (quotedText != null) {
+        rightBound = quotedText.getEndOffset();
+        leftBound = quotedText.getStartOffset() - 1;
       }
     }
 
@@ -459,7 +463,7 @@ public class VimArgTextObjExtension implements VimExtension {
           break;
         }
         if (brackets.isOpenBracket(ch)) {
-          rightBound = skipSexp(rightBound, rightBracket, SexpDirection.forward(brackets));
+          rightBound = skipSexp(rightBound, rightBracket, forward);
         } else {
           if (isQuoteChar(ch)) {
             rightBound = skipQuotedTextForward(rightBound, rightBracket);
@@ -476,7 +480,7 @@ public class VimArgTextObjExtension implements VimExtension {
           break;
         }
         if (brackets.isCloseBracket(ch)) {
-          leftBound = skipSexp(leftBound, leftBracket, SexpDirection.backward(brackets));
+          leftBound = skipSexp(leftBound, leftBracket, backward);
         } else {
           if (isQuoteChar(ch)) {
             leftBound = skipQuotedTextBackward(leftBound, leftBracket);
@@ -626,24 +630,25 @@ public class VimArgTextObjExtension implements VimExtension {
      * unbalanced.
      */
     private int skipSexp(final int start, final int end, SexpDirection dir) {
-      char lastChar = getCharAt(start);
-      assert dir.isOpenBracket(lastChar);
-      Deque<Character> bracketStack = new ArrayDeque<>();
-      bracketStack.push(lastChar);
+      final char startChar = getCharAt(start);
+      assert dir.isOpenBracket(startChar);
+      // Unmatched brackets are always compared with the starting bracket, so only the depth of the nested brackets
+      // needs to be tracked.
+      int depth = 1;
       int i = start + dir.delta();
-      while (!bracketStack.isEmpty() && i != end) {
+      while (depth > 0 && i != end) {
         final char ch = getCharAt(i);
         if (dir.isOpenBracket(ch)) {
-          bracketStack.push(ch);
+          ++depth;
         } else {
           if (dir.isCloseBracket(ch)) {
-            if (bracketStack.getLast() == brackets.matchingBracket(ch)) {
-              bracketStack.pop();
+            if (startChar == brackets.matchingBracket(ch)) {
+              --depth;
             } else {
               //noinspection StatementWithEmptyBody
-              if (brackets.getBracketPrio(ch) < brackets.getBracketPrio(bracketStack.getLast())) {
+              if (brackets.getBracketPrio(ch) < brackets.getBracketPrio(startChar)) {
                 // (<...) ->  (...)
-                bracketStack.pop();
+                --depth;
                 // Retry the same character again for cases like (...<<...).
                 continue;
               } else {                        // Unbalanced brackets -- check ranking.
@@ -659,7 +664,7 @@ public class VimArgTextObjExtension implements VimExtension {
         }
         i += dir.delta();
       }
-      if (bracketStack.isEmpty()) {
+      if (depth == 0) {
         return i;
       } else {
         return start + dir.delta();
@@ -712,7 +717,7 @@ public class VimArgTextObjExtension implements VimExtension {
       char ch;
       while (!brackets.isOpenBracket(ch = getCharAt(leftBracket))) {
         if (brackets.isCloseBracket(ch)) {
-          leftBracket = skipSexp(leftBracket, start, SexpDirection.backward(brackets));
+          leftBracket = skipSexp(leftBracket, start, backward);
         } else {
           if (isQuoteChar(ch)) {
             leftBracket = skipQuotedTextBackward(leftBracket, start);
@@ -737,7 +742,7 @@ public class VimArgTextObjExtension implements VimExtension {
       char ch;
       while (!brackets.isCloseBracket(ch = getCharAt(rightBracket))) {
         if (brackets.isOpenBracket(ch)) {
-          rightBracket = skipSexp(rightBracket, end, SexpDirection.forward(brackets));
+          rightBracket = skipSexp(rightBracket, end, forward);
         } else {
           if (isQuoteChar(ch)) {
             rightBracket = skipQuotedTextForward(rightBracket, end);
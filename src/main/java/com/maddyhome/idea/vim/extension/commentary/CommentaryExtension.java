@@ -36,7 +36,7 @@ import com.maddyhome.idea.vim.common.TextRange;
 import com.maddyhome.idea.vim.extension.VimExtension;
 import com.maddyhome.idea.vim.extension.VimExtensionHandler;
 import com.maddyhome.idea.vim.key.OperatorFunction;
-import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -106,7 +106,7 @@ public class CommentaryExtension implements VimExtension {
       final TextRange range = getCommentRange(editor);
       if (range == null) return false;
 
-      if (CommandState.getInstance(new IjVimEditor(editor)).getMode() != CommandState.Mode.VISUAL) {
+      if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() != CommandState.Mode.VISUAL) {
         editor.getSelectionModel().setSelection(range.getStartOffset(), range.getEndOffset());
       }
 
@@ -139,10 +139,10 @@ public class CommentaryExtension implements VimExtension {
     }
 
     private @Nullable TextRange getCommentRange(@NotNull Editor editor) {
-      final CommandState.Mode mode = CommandState.getInstance(new IjVimEditor(editor)).getMode();
+      final CommandState.Mode mode = CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode();
       switch (mode) {
         case COMMAND:
-          return VimPlugin.getMark().getChangeMarks(new IjVimEditor(editor));
+          return VimPlugin.getMark().getChangeMarks(IjVimEditorKt.getVim(editor));
         case VISUAL:
           Caret primaryCaret = editor.getCaretModel().getPrimaryCaret();
           return new TextRange(primaryCaret.getSelectionStart(), primaryCaret.getSelectionEnd());
@@ -164,7 +164,7 @@ public class CommentaryExtension implements VimExtension {
       final int line = editor.getDocument().getLineNumber(offset);
       final int lineStart = editor.getDocument().getLineStartOffset(line);
       final int lineEnd = editor.getDocument().getLineEndOffset(line);
-      VimPlugin.getMark().setChangeMarks(new IjVimEditor(editor), new TextRange(lineStart, lineEnd));
+      VimPlugin.getMark().setChangeMarks(IjVimEditorKt.getVim(editor), new TextRange(lineStart, lineEnd));
       new Operator().apply(editor, context, SelectionType.LINE_WISE);
     }
   }
@@ -21,6 +21,7 @@ package com.maddyhome.idea.vim.extension.matchit
 import com.intellij.openapi.actionSystem.DataContext
 import com.intellij.openapi.editor.Caret
 import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.util.Key
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiComment
 import com.intellij.psi.PsiElement
@@ -385,7 +386,7 @@ private fun getMatchitSearchParams(editor: Editor, caretOffset: Int, patternsTab
   val currentLineStart = EditorHelper.getLineStartForOffset(editor, caretOffset)
   val currentLineEnd = EditorHelper.getLineEndForOffset(editor, caretOffset)
   val currentLineChars = editor.document.charsSequence.subSequence(currentLineStart, currentLineEnd)
-  val currentPsiElement = PsiHelper.getFile(editor)!!.findElementAt(caretOffset)
+  val currentPsiElement = PsiHelper.getFile(editor)?.findElementAt(caretOffset)
 
   val targetOpeningPattern: String
   val targetClosingPattern: String
@@ -417,57 +418,49 @@ private fun getMatchitSearchParams(editor: Editor, caretOffset: Int, patternsTab
 
 private fun findClosingPair(editor: Editor, isInOpPending: Boolean, searchParams: MatchitSearchParams): Int {
   val (caretOffset, searchStartOffset, openingPattern, closingPattern, skipComments, skipStrings) = searchParams
-  val chars = editor.document.charsSequence
-  val searchSpace = chars.subSequence(searchStartOffset, chars.length)
 
-  val compiledClosingPattern = Pattern.compile(closingPattern)
-  val compiledSearchPattern = Pattern.compile(String.format("(?<opening>%s)|(?<closing>%s)", openingPattern, closingPattern))
-  val matcher = compiledSearchPattern.matcher(searchSpace)
+  var matches = getDocumentMatches(editor, openingPattern, closingPattern)
+  var first = matches.firstEndingAfter(searchStartOffset)
+  if (first < matches.size && matches.starts[first] < searchStartOffset) {
+    // The search starts inside a match, so the matches found after the start may differ from the document ones.
+    val chars = editor.document.charsSequence
+    matches = collectMatches(chars, searchStartOffset, chars.length, openingPattern, closingPattern)
+    first = 0
+  }
 
   // We're looking for the first closing pair that isn't already matched by an opening.
-  // As we find opening patterns, we push their offsets to this stack and pop whenever we find a closing pattern,
-  // effectively crossing off that item from our search. We have to track both the start and end of the pattern since
+  // As we find opening patterns, we push their indexes to this stack and pop whenever we find a closing pattern,
+  // effectively crossing off that item from our search. The match keeps both the start and end of the pattern since
   // the motion depends on whether we're in op pending mode or not.
-  var closingPairRange: Pair<Int, Int>? = null
-  val unmatchedOpeningPairs: Deque<Pair<Int, Int>> = ArrayDeque()
-  while (matcher.find()) {
-    val matchStartOffset = searchStartOffset + matcher.start()
-    val matchEndOffset = searchStartOffset + matcher.end()
-
-    if (matchShouldBeSkipped(editor, matchStartOffset, skipComments, skipStrings)) {
+  var closingPair = -1
+  val unmatchedOpeningPairs = ArrayList<Int>()
+  for (i in first until matches.size) {
+    if (matches.shouldBeSkipped(editor, i, skipComments, skipStrings)) {
       continue
     }
 
-    val foundOpeningPattern = matcher.group("opening") != null
-    // Middle patterns e.g. "elsif" can appear any number of times between a strict opening and a strict closing.
-    val foundMiddlePattern = foundOpeningPattern && compiledClosingPattern.matcher(matcher.group("opening")).matches()
-
-    if (foundMiddlePattern) {
-      if (!unmatchedOpeningPairs.isEmpty()) {
-        unmatchedOpeningPairs.pop()
-        unmatchedOpeningPairs.push(Pair(matchStartOffset, matchEndOffset))
+    when (matches.kinds[i]) {
+      // Middle patterns e.g. "elsif" can appear any number of times between a strict opening and a strict closing.
+      MatchitMatches.MIDDLE -> if (!unmatchedOpeningPairs.isEmpty()) {
+        unmatchedOpeningPairs[unmatchedOpeningPairs.lastIndex] = i
       } else {
-        closingPairRange = Pair(matchStartOffset, matchEndOffset)
-        break
+        closingPair = i
       }
-    } else if (foundOpeningPattern) {
-      unmatchedOpeningPairs.push(Pair(matchStartOffset, matchEndOffset))
-    } else {
-      // Found a closing pattern
-      if (!unmatchedOpeningPairs.isEmpty()) {
-        unmatchedOpeningPairs.pop()
+      MatchitMatches.OPENING -> unmatchedOpeningPairs.add(i)
+      else -> if (!unmatchedOpeningPairs.isEmpty()) {
+        unmatchedOpeningPairs.removeLast()
       } else {
-        closingPairRange = Pair(matchStartOffset, matchEndOffset)
-        break
+        closingPair = i
       }
     }
+    if (closingPair >= 0) break
   }
 
-  if (closingPairRange != null) {
-    return if (isInOpPending && caretOffset < closingPairRange.first) {
-      closingPairRange.second - 1 // Jump to the last char of the match
+  if (closingPair >= 0) {
+    return if (isInOpPending && caretOffset < matches.starts[closingPair]) {
+      matches.ends[closingPair] - 1 // Jump to the last char of the match
     } else {
-      closingPairRange.first
+      matches.starts[closingPair]
     }
   }
 
@@ -476,53 +469,172 @@ private fun findClosingPair(editor: Editor, isInOpPending: Boolean, searchParams
 
 private fun findOpeningPair(editor: Editor, isInOpPending: Boolean, searchParams: MatchitSearchParams): Int {
   val (caretOffset, _, openingPattern, closingPattern, skipComments, skipStrings) = searchParams
-  val chars = editor.document.charsSequence
-  val searchSpace = chars.subSequence(0, caretOffset)
 
-  val compiledClosingPattern = Pattern.compile(closingPattern)
-  val compiledSearchPattern = Pattern.compile(String.format("(?<opening>%s)|(?<closing>%s)", openingPattern, closingPattern))
-  val matcher = compiledSearchPattern.matcher(searchSpace)
-
-  val unmatchedOpeningPairs: Deque<Pair<Int, Int>> = ArrayDeque()
-  while (matcher.find()) {
-    val matchStartOffset = matcher.start()
-    val matchEndOffset = matcher.end()
+  // Only the matches that end before the caret are found.
+  var matches = getDocumentMatches(editor, openingPattern, closingPattern)
+  var end = matches.firstEndingAfter(caretOffset)
+  if (end < matches.size && matches.starts[end] < caretOffset) {
+    // A match goes over the caret, so the search before the caret may find a shorter match there.
+    matches = collectMatches(editor.document.charsSequence, 0, caretOffset, openingPattern, closingPattern)
+    end = matches.size
+  }
 
-    if (matchShouldBeSkipped(editor, matchStartOffset, skipComments, skipStrings)) {
+  val unmatchedOpeningPairs = ArrayList<Int>()
+  for (i in 0 until end) {
+    if (matches.shouldBeSkipped(editor, i, skipComments, skipStrings)) {
       continue
     }
 
-    val foundOpeningPattern = matcher.group("opening") != null
-    val foundMiddlePattern = foundOpeningPattern && compiledClosingPattern.matcher(matcher.group("opening")).matches()
-
-    if (foundMiddlePattern) {
-      if (!unmatchedOpeningPairs.isEmpty()) {
-        unmatchedOpeningPairs.pop()
-        unmatchedOpeningPairs.push(Pair(matchStartOffset, matchEndOffset))
+    when (matches.kinds[i]) {
+      MatchitMatches.MIDDLE -> if (!unmatchedOpeningPairs.isEmpty()) {
+        unmatchedOpeningPairs[unmatchedOpeningPairs.lastIndex] = i
       } else {
-        unmatchedOpeningPairs.push(Pair(matchStartOffset, matchEndOffset))
+        unmatchedOpeningPairs.add(i)
       }
-    } else if (foundOpeningPattern) {
-      unmatchedOpeningPairs.push(Pair(matchStartOffset, matchEndOffset))
-    } else if (!unmatchedOpeningPairs.isEmpty()) {
+      MatchitMatches.OPENING -> unmatchedOpeningPairs.add(i)
       // Found a closing pattern. We check the stack isn't empty to handle malformed code.
-      unmatchedOpeningPairs.pop()
+      else -> if (!unmatchedOpeningPairs.isEmpty()) unmatchedOpeningPairs.removeLast()
     }
   }
 
   if (!unmatchedOpeningPairs.isEmpty()) {
-    val openingPairRange = unmatchedOpeningPairs.pop()
+    val openingPair = unmatchedOpeningPairs.last()
 
-    return if (isInOpPending && caretOffset < openingPairRange.first) {
-      openingPairRange.second - 1
+    return if (isInOpPending && caretOffset < matches.starts[openingPair]) {
+      matches.ends[openingPair] - 1
     } else {
-      openingPairRange.first
+      matches.starts[openingPair]
     }
   }
 
   return -1
 }
 
+/**
+ * Matches of a search pair in the text, in the order of the text.
+ *
+ * Whether a match is in a comment or a string is looked up in the PSI once per match and stored with the match.
+ */
+private class MatchitMatches(val starts: IntArray, val ends: IntArray, val kinds: ByteArray) {
+  private val psiFlags = ByteArray(starts.size)
+
+  val size: Int
+    get() = starts.size
+
+  /**
+   * Returns the index of the first match that ends after [offset] or [size] if there is no such match.
+   */
+  fun firstEndingAfter(offset: Int): Int {
+    var low = 0
+    var high = size
+    while (low < high) {
+      val mid = (low + high) ushr 1
+      if (ends[mid] <= offset) low = mid + 1 else high = mid
+    }
+    return low
+  }
+
+  fun shouldBeSkipped(editor: Editor, index: Int, skipComments: Boolean, skipStrings: Boolean): Boolean {
+    var flags = psiFlags[index].toInt()
+    if (flags == 0) {
+      val psiElement = PsiHelper.getFile(editor)?.findElementAt(starts[index])
+      flags = PSI_CHECKED
+      if (isSkippedRubyKeyword(psiElement)) flags = flags or PSI_SKIPPED_KEYWORD
+      if (isComment(psiElement)) flags = flags or PSI_COMMENT
+      if (isQuoted(psiElement)) flags = flags or PSI_QUOTED
+      psiFlags[index] = flags.toByte()
+    }
+
+    // TODO: as we add support for more languages, we should store the ignored keywords for each language in its own
+    //  data structure. The original plugin stores that information in strings called match_skip.
+    if (flags and PSI_SKIPPED_KEYWORD != 0) {
+      return true
+    }
+
+    val insideComment = flags and PSI_COMMENT != 0
+    val insideQuotes = flags and PSI_QUOTED != 0
+    return (skipComments && insideComment) || (!skipComments && !insideComment) ||
+      (skipStrings && insideQuotes) || (!skipStrings && !insideQuotes)
+  }
+
+  companion object {
+    const val OPENING: Byte = 0
+    const val MIDDLE: Byte = 1
+    const val CLOSING: Byte = 2
+
+    private const val PSI_CHECKED = 1
+    private const val PSI_SKIPPED_KEYWORD = 2
+    private const val PSI_COMMENT = 4
+    private const val PSI_QUOTED = 8
+  }
+}
+
+/**
+ * Matches of the search pairs in the document. They are collected when a pair is searched for the first time and
+ * kept until the document or its PSI is changed, so repeated jumps don't search the whole file again.
+ *
+ * Every HTML tag name is a search pair of its own, so only the [MAX_CACHED_PAIRS] most recently used pairs are kept.
+ */
+private class MatchitDocumentMatches(val documentStamp: Long, val psiStamp: Long) {
+  val matches = object : LinkedHashMap<MatchitSearchPair, MatchitMatches>(16, 0.75f, true) {
+    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<MatchitSearchPair, MatchitMatches>?): Boolean {
+      return size > MAX_CACHED_PAIRS
+    }
+  }
+
+  companion object {
+    const val MAX_CACHED_PAIRS = 16
+  }
+}
+
+private val DOCUMENT_MATCHES = Key<MatchitDocumentMatches>("IdeaVimMatchitMatches")
+
+private fun getDocumentMatches(editor: Editor, openingPattern: String, closingPattern: String): MatchitMatches {
+  val document = editor.document
+  // Without PSI the matches depend on the document text only
+  val psiStamp = PsiHelper.getFile(editor)?.modificationStamp ?: document.modificationStamp
+  var documentMatches = document.getUserData(DOCUMENT_MATCHES)
+  if (documentMatches == null || documentMatches.documentStamp != document.modificationStamp ||
+    documentMatches.psiStamp != psiStamp
+  ) {
+    documentMatches = MatchitDocumentMatches(document.modificationStamp, psiStamp)
+    document.putUserData(DOCUMENT_MATCHES, documentMatches)
+  }
+  return documentMatches.matches.getOrPut(Pair(openingPattern, closingPattern)) {
+    collectMatches(document.charsSequence, 0, document.textLength, openingPattern, closingPattern)
+  }
+}
+
+private fun collectMatches(
+  chars: CharSequence,
+  start: Int,
+  end: Int,
+  openingPattern: String,
+  closingPattern: String,
+): MatchitMatches {
+  val compiledClosingPattern = Pattern.compile(closingPattern)
+  val compiledSearchPattern = Pattern.compile(String.format("(?<opening>%s)|(?<closing>%s)", openingPattern, closingPattern))
+  val matcher = compiledSearchPattern.matcher(chars.subSequence(start, end))
+
+  val starts = ArrayList<Int>()
+  val ends = ArrayList<Int>()
+  val kinds = ArrayList<Byte>()
+  while (matcher.find()) {
+    starts.add(start + matcher.start())
+    ends.add(start + matcher.end())
+
+    val opening = matcher.group("opening")
+    kinds.add(
+      when {
+        opening == null -> MatchitMatches.CLOSING
+        compiledClosingPattern.matcher(opening).matches() -> MatchitMatches.MIDDLE
+        else -> MatchitMatches.OPENING
+      }
+    )
+  }
+  return MatchitMatches(starts.toIntArray(), ends.toIntArray(), kinds.toByteArray())
+}
+
 /**
  * If the char sequence at the given offset matches the pattern, this will return the final offset of the match
  * as well as any back references that were captured.
@@ -546,22 +658,6 @@ private fun parsePatternAtOffset(chars: CharSequence, offset: Int, pattern: Stri
   return Pair(-1, "")
 }
 
-private fun matchShouldBeSkipped(editor: Editor, offset: Int, skipComments: Boolean, skipStrings: Boolean): Boolean {
-  val psiFile = PsiHelper.getFile(editor)
-  val psiElement = psiFile!!.findElementAt(offset)
-
-  // TODO: as we add support for more languages, we should store the ignored keywords for each language in its own
-  //  data structure. The original plugin stores that information in strings called match_skip.
-  if (isSkippedRubyKeyword(psiElement)) {
-    return true
-  }
-
-  val insideComment = isComment(psiElement)
-  val insideQuotes = isQuoted(psiElement)
-  return (skipComments && insideComment) || (!skipComments && !insideComment) ||
-    (skipStrings && insideQuotes) || (!skipStrings && !insideQuotes)
-}
-
 private fun isSkippedRubyKeyword(psiElement: PsiElement?): Boolean {
   // In Ruby code, we want to ignore anything inside of a regular expression like "/ class /" and identifiers like
   // "Foo.class". Matchit also ignores any "do" keywords that follow a loop or an if condition, as well as any inline
@@ -43,7 +43,6 @@ import com.maddyhome.idea.vim.helper.mode
 import com.maddyhome.idea.vim.helper.subMode
 import com.maddyhome.idea.vim.helper.vimForEachCaret
 import com.maddyhome.idea.vim.key.OperatorFunction
-import com.maddyhome.idea.vim.newapi.IjVimEditor
 import com.maddyhome.idea.vim.newapi.vim
 import org.jetbrains.annotations.NonNls
 
@@ -69,7 +68,7 @@ class ReplaceWithRegister : VimExtension {
         val selectionStart = caret.selectionStart
         val selectionEnd = caret.selectionEnd
 
-        caretsAndSelections += caret to VimSelection.create(selectionStart, selectionEnd - 1, typeInEditor, IjVimEditor(editor))
+        caretsAndSelections += caret to VimSelection.create(selectionStart, selectionEnd - 1, typeInEditor, editor.vim)
       }
       doReplace(editor, PutData.VisualSelection(caretsAndSelections, typeInEditor))
       editor.exitVisualMode()
@@ -95,7 +94,7 @@ class ReplaceWithRegister : VimExtension {
         val lineStart = editor.document.getLineStartOffset(logicalLine)
         val lineEnd = editor.document.getLineEndOffset(logicalLine)
 
-        caretsAndSelections += caret to VimSelection.create(lineStart, lineEnd, SelectionType.LINE_WISE, IjVimEditor(editor))
+        caretsAndSelections += caret to VimSelection.create(lineStart, lineEnd, SelectionType.LINE_WISE, editor.vim)
       }
 
       val visualSelection = PutData.VisualSelection(caretsAndSelections, SelectionType.LINE_WISE)
@@ -119,7 +118,7 @@ class ReplaceWithRegister : VimExtension {
             range.startOffset,
             range.endOffset - 1,
             selectionType,
-            IjVimEditor(editor)
+            editor.vim
           )
         ),
         selectionType
@@ -34,8 +34,9 @@ import com.maddyhome.idea.vim.helper.InlayHelperKt;
 import com.maddyhome.idea.vim.listener.SelectionVimListenerSuppressor;
 import com.maddyhome.idea.vim.listener.VimListenerSuppressor;
 import com.maddyhome.idea.vim.newapi.IjExecutionContext;
-import com.maddyhome.idea.vim.newapi.IjVimCaret;
+import com.maddyhome.idea.vim.newapi.IjVimCaretKt;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -142,14 +143,14 @@ public class VimTextObjEntireExtension implements VimExtension {
 
     @Override
     public void execute(@NotNull Editor editor, @NotNull DataContext context) {
-      @NotNull CommandState commandState = CommandState.getInstance(new IjVimEditor(editor));
+      @NotNull CommandState commandState = CommandState.getInstance(IjVimEditorKt.getVim(editor));
       int count = Math.max(1, commandState.getCommandBuilder().getCount());
 
       final EntireTextObjectHandler textObjectHandler = new EntireTextObjectHandler(ignoreLeadingAndTrailing);
       //noinspection DuplicatedCode
       if (!commandState.isOperatorPending()) {
         editor.getCaretModel().runForEachCaret((Caret caret) -> {
-          final TextRange range = textObjectHandler.getRange(new IjVimEditor(editor), new IjVimCaret(caret), new IjExecutionContext(context), count, 0, null);
+          final TextRange range = textObjectHandler.getRange(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), new IjExecutionContext(context), count, 0, null);
           if (range != null) {
             try (VimListenerSuppressor.Locked ignored = SelectionVimListenerSuppressor.INSTANCE.lock()) {
               if (commandState.getMode() == CommandState.Mode.VISUAL) {
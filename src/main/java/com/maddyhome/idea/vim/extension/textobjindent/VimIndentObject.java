@@ -20,6 +20,7 @@ package com.maddyhome.idea.vim.extension.textobjindent;
 
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.editor.Caret;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.maddyhome.idea.vim.api.ExecutionContext;
 import com.maddyhome.idea.vim.api.VimCaret;
@@ -30,12 +31,15 @@ import com.maddyhome.idea.vim.common.TextRange;
 import com.maddyhome.idea.vim.extension.VimExtension;
 import com.maddyhome.idea.vim.extension.VimExtensionHandler;
 import com.maddyhome.idea.vim.handler.TextObjectActionHandler;
+import com.maddyhome.idea.vim.helper.IndentIndex;
 import com.maddyhome.idea.vim.helper.InlayHelperKt;
 import com.maddyhome.idea.vim.listener.SelectionVimListenerSuppressor;
 import com.maddyhome.idea.vim.listener.VimListenerSuppressor;
 import com.maddyhome.idea.vim.newapi.IjExecutionContext;
 import com.maddyhome.idea.vim.newapi.IjVimCaret;
+import com.maddyhome.idea.vim.newapi.IjVimCaretKt;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -112,21 +116,17 @@ public class VimIndentObject implements VimExtension {
                                 int count,
                                 int rawCount,
                                 @Nullable Argument argument) {
-        final CharSequence charSequence = ((IjVimEditor)editor).getEditor().getDocument().getCharsSequence();
+        final Document document = ((IjVimEditor)editor).getEditor().getDocument();
+        final CharSequence charSequence = document.getCharsSequence();
         final int caretOffset = ((IjVimCaret)caret).getCaret().getOffset();
 
         // Part 1: Find the start of the caret line.
         int caretLineStartOffset = caretOffset;
-        int accumulatedWhitespace = 0;
         while (--caretLineStartOffset >= 0) {
           final char ch = charSequence.charAt(caretLineStartOffset);
-          if (ch == ' ' || ch == '\t') {
-            ++accumulatedWhitespace;
-          } else if (ch == '\n') {
+          if (ch == '\n') {
             ++caretLineStartOffset;
             break;
-          } else {
-            accumulatedWhitespace = 0;
           }
         }
         if (caretLineStartOffset < 0) {
@@ -150,39 +150,21 @@ public class VimIndentObject implements VimExtension {
 
         // `indentSize` contains the amount of indent to be used for the text object range to be returned.
 
-        Integer upperBoundaryOffset = null;
+        final IndentIndex indents = IndentIndex.forDocument(document);
+        final int caretLine = document.getLineNumber(caretLineStartOffset);
+
         // Part 3: Find a line above the caret line, that has an indentation lower than `indentSize`.
-        int pos1 = caretLineStartOffset - 1;
-        boolean isUpperBoundaryFound = false;
-        while (upperBoundaryOffset == null) {
-          // 3.1: Going backwards from `caretLineStartOffset`, find the first non-whitespace character.
-          while (--pos1 >= 0) {
-            final char ch = charSequence.charAt(pos1);
-            if (ch != ' ' && ch != '\t' && ch != '\n') {
-              break;
-            }
-          }
-          // 3.2: Find the indent size of the line with this non-whitespace character and check against `indentSize`.
-          accumulatedWhitespace = 0;
-          while (--pos1 >= 0) {
-            final char ch = charSequence.charAt(pos1);
-            if (ch == ' ' || ch == '\t') {
-              ++accumulatedWhitespace;
-            } else if (ch == '\n') {
-              if (accumulatedWhitespace < indentSize) {
-                upperBoundaryOffset = pos1 + 1;
-                isUpperBoundaryFound = true;
-              }
-              break;
-            } else {
-              accumulatedWhitespace = 0;
-            }
-          }
-          if (pos1 < 0) {
-            // Reached start of the buffer.
-            upperBoundaryOffset = 0;
-            isUpperBoundaryFound = accumulatedWhitespace < indentSize;
-          }
+        // Blank lines are skipped.
+        int upperBoundaryOffset = 0;
+        boolean isUpperBoundaryFound;
+        final int upperBoundaryLine = indents.findLineAbove(caretLine, indentSize);
+        if (upperBoundaryLine >= 0) {
+          upperBoundaryOffset = document.getLineStartOffset(upperBoundaryLine);
+          isUpperBoundaryFound = true;
+        }
+        else {
+          // Reached start of the buffer. It's the boundary only if there is no text above.
+          isUpperBoundaryFound = indents.findLineAbove(caretLine, Integer.MAX_VALUE) < 0 && 0 < indentSize;
         }
 
         // Now `upperBoundaryOffset` marks the beginning of an `ai` text object.
@@ -194,7 +176,7 @@ public class VimIndentObject implements VimExtension {
               break;
             }
           }
-          while (charSequence.charAt(upperBoundaryOffset) == '\n') {
+          while (upperBoundaryOffset < charSequence.length() && charSequence.charAt(upperBoundaryOffset) == '\n') {
             ++upperBoundaryOffset;
           }
         }
@@ -211,35 +193,20 @@ public class VimIndentObject implements VimExtension {
 
         // `caretLineEndOffset` points to the first charater in the line below caret line.
 
-        Integer lowerBoundaryOffset = null;
         // Part 5: Find a line below the caret line, that has an indentation lower than `indentSize`.
-        int pos2 = caretLineEndOffset - 1;
+        // Blank lines are skipped.
+        int lowerBoundaryOffset;
         boolean isLowerBoundaryFound = false;
-        while (lowerBoundaryOffset == null) {
-          int accumulatedWhitespace2 = 0;
-          int lastNewlinePos = caretLineEndOffset - 1;
-          boolean isInIndent = true;
-          while (++pos2 < charSequence.length()) {
-            final char ch = charSequence.charAt(pos2);
-            if (isIndentChar(ch) && isInIndent) {
-              ++accumulatedWhitespace2;
-            } else if (ch == '\n') {
-              accumulatedWhitespace2 = 0;
-              lastNewlinePos = pos2;
-              isInIndent = true;
-            } else {
-              if (isInIndent && accumulatedWhitespace2 < indentSize) {
-                lowerBoundaryOffset = lastNewlinePos;
-                isLowerBoundaryFound = true;
-                break;
-              }
-              isInIndent = false;
-            }
-          }
-          if (pos2 >= charSequence.length()) {
-            // Reached end of the buffer.
-            lowerBoundaryOffset = charSequence.length() - 1;
-          }
+        final int lowerBoundaryLine = caretLineEndOffset < charSequence.length()
+                                      ? indents.findLineBelow(document.getLineNumber(caretLineEndOffset), indentSize)
+                                      : -1;
+        if (lowerBoundaryLine >= 0) {
+          lowerBoundaryOffset = document.getLineStartOffset(lowerBoundaryLine) - 1;
+          isLowerBoundaryFound = true;
+        }
+        else {
+          // Reached end of the buffer.
+          lowerBoundaryOffset = charSequence.length() - 1;
         }
 
         // Now `lowerBoundaryOffset` marks the end of an `ii` text object.
@@ -261,15 +228,11 @@ public class VimIndentObject implements VimExtension {
         return TextObjectVisualType.LINE_WISE;
       }
 
-      private boolean isIndentChar(char ch) {
-        return ch == ' ' || ch == '\t';
-      }
-
     }
 
     @Override
     public void execute(@NotNull Editor editor, @NotNull DataContext context) {
-      IjVimEditor vimEditor = new IjVimEditor(editor);
+      IjVimEditor vimEditor = IjVimEditorKt.getVim(editor);
       @NotNull CommandState commandState = CommandState.getInstance(vimEditor);
       int count = Math.max(1, commandState.getCommandBuilder().getCount());
 
@@ -277,7 +240,7 @@ public class VimIndentObject implements VimExtension {
 
       if (!commandState.isOperatorPending()) {
         editor.getCaretModel().runForEachCaret((Caret caret) -> {
-          final TextRange range = textObjectHandler.getRange(vimEditor, new IjVimCaret(caret), new IjExecutionContext(context), count, 0, null);
+          final TextRange range = textObjectHandler.getRange(vimEditor, IjVimCaretKt.getVim(caret), new IjExecutionContext(context), count, 0, null);
           if (range != null) {
             try (VimListenerSuppressor.Locked ignored = SelectionVimListenerSuppressor.INSTANCE.lock()) {
               if (commandState.getMode() == CommandState.Mode.VISUAL) {
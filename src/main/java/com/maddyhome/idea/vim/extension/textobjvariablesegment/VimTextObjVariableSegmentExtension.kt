@@ -0,0 +1,168 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.extension.textobjvariablesegment
+
+import com.intellij.openapi.actionSystem.DataContext
+import com.intellij.openapi.editor.Editor
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.command.Argument
+import com.maddyhome.idea.vim.command.Command
+import com.maddyhome.idea.vim.command.CommandFlags
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.command.TextObjectVisualType
+import com.maddyhome.idea.vim.common.MappingMode
+import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.extension.VimExtension
+import com.maddyhome.idea.vim.extension.VimExtensionFacade.putExtensionHandlerMapping
+import com.maddyhome.idea.vim.extension.VimExtensionFacade.putKeyMappingIfMissing
+import com.maddyhome.idea.vim.extension.VimExtensionHandler
+import com.maddyhome.idea.vim.group.visual.vimSetSelection
+import com.maddyhome.idea.vim.handler.TextObjectActionHandler
+import com.maddyhome.idea.vim.helper.CamelHumpScanner
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import com.maddyhome.idea.vim.helper.commandState
+import com.maddyhome.idea.vim.helper.moveToInlayAwareOffset
+import com.maddyhome.idea.vim.listener.SelectionVimListenerSuppressor
+import com.maddyhome.idea.vim.newapi.ij
+import com.maddyhome.idea.vim.newapi.vim
+import java.util.*
+
+/**
+ * Port of vim-textobj-variable-segment:
+ * https://github.com/Julian/vim-textobj-variable-segment
+ *
+ * Provides two text objects for the segments of a variable name, like `Bar` in `fooBarBaz` or `bar` in `foo_bar_baz`:
+ *
+ * * `iv` targets the segment under the caret
+ * * `av` also includes the `_` or `-` separator after the segment (or before it, for the last segment)
+ *
+ * Segments are found with [CamelHumpScanner], the same boundaries are used by the `[w` and `]w` motions.
+ * Unlike the original plugin, `-` (as in kebab-case) is treated as a separator too.
+ */
+class VimTextObjVariableSegmentExtension : VimExtension {
+  override fun getName(): String = "textobj-variable-segment"
+
+  override fun init() {
+    putExtensionHandlerMapping(MappingMode.XO, parseKeys("<Plug>(textobj-variable-a)"), owner, SegmentHandler(true), false)
+    putExtensionHandlerMapping(MappingMode.XO, parseKeys("<Plug>(textobj-variable-i)"), owner, SegmentHandler(false), false)
+
+    putKeyMappingIfMissing(MappingMode.XO, parseKeys("av"), owner, parseKeys("<Plug>(textobj-variable-a)"), true)
+    putKeyMappingIfMissing(MappingMode.XO, parseKeys("iv"), owner, parseKeys("<Plug>(textobj-variable-i)"), true)
+  }
+
+  private class SegmentTextObjectHandler(private val around: Boolean) : TextObjectActionHandler() {
+    override val visualType: TextObjectVisualType = TextObjectVisualType.CHARACTER_WISE
+
+    override fun getRange(
+      editor: VimEditor,
+      caret: VimCaret,
+      context: ExecutionContext,
+      count: Int,
+      rawCount: Int,
+      argument: Argument?,
+    ): TextRange? {
+      val chars = editor.ij.document.charsSequence
+      return findSegment(chars, caret.offset.point, chars.length, count, around)
+    }
+  }
+
+  private class SegmentHandler(private val around: Boolean) : VimExtensionHandler {
+    override fun execute(editor: Editor, context: DataContext) {
+      val commandState = editor.vim.commandState
+      val count = commandState.commandBuilder.count.coerceAtLeast(1)
+
+      val textObjectHandler = SegmentTextObjectHandler(around)
+      if (commandState.isOperatorPending) {
+        commandState.commandBuilder.completeCommandPart(
+          Argument(Command(count, textObjectHandler, Command.Type.MOTION, EnumSet.noneOf(CommandFlags::class.java)))
+        )
+        return
+      }
+
+      editor.caretModel.runForEachCaret { caret ->
+        val chars = editor.document.charsSequence
+        val range = findSegment(chars, caret.offset, chars.length, count, around) ?: return@runForEachCaret
+        SelectionVimListenerSuppressor.lock().use {
+          if (commandState.mode == CommandState.Mode.VISUAL) {
+            caret.vimSetSelection(range.startOffset, range.endOffset - 1, true)
+          } else {
+            caret.moveToInlayAwareOffset(range.startOffset)
+          }
+        }
+      }
+    }
+  }
+
+  companion object {
+    /**
+     * Finds [count] segments starting with the one at [pos].
+     *
+     * @return the range of the segments or null if there is no variable name at [pos]
+     */
+    @JvmStatic
+    fun findSegment(chars: CharSequence, pos: Int, size: Int, count: Int, around: Boolean): TextRange? {
+      if (pos !in 0 until size || !CamelHumpScanner.isHumpChar(chars[pos])) return null
+
+      var start = pos
+      while (start > 0 && !CamelHumpScanner.isStart(chars, start, size) && CamelHumpScanner.isHumpChar(chars[start - 1])) {
+        start--
+      }
+
+      var end = findSegmentEnd(chars, pos, size)
+      for (i in 1 until count) {
+        val next = skipSeparators(chars, end + 1, size)
+        if (next >= size || !CamelHumpScanner.isHumpChar(chars[next])) break
+        end = findSegmentEnd(chars, next, size)
+      }
+
+      if (around) {
+        val trailing = skipSeparators(chars, end + 1, size)
+        if (trailing > end + 1 && trailing < size && CamelHumpScanner.isHumpChar(chars[trailing])) {
+          end = trailing - 1
+        } else {
+          var leading = start - 1
+          while (leading >= 0 && isSeparator(chars[leading])) leading--
+          if (leading < start - 1 && leading >= 0 && CamelHumpScanner.isHumpChar(chars[leading])) {
+            start = leading + 1
+          }
+        }
+      }
+
+      return TextRange(start, end + 1)
+    }
+
+    private fun findSegmentEnd(chars: CharSequence, pos: Int, size: Int): Int {
+      var end = pos
+      while (end < size - 1 && !CamelHumpScanner.isEnd(chars, end, size) && CamelHumpScanner.isHumpChar(chars[end + 1])) {
+        end++
+      }
+      return end
+    }
+
+    private fun skipSeparators(chars: CharSequence, pos: Int, size: Int): Int {
+      var res = pos
+      while (res < size && isSeparator(chars[res])) res++
+      return res
+    }
+
+    private fun isSeparator(ch: Char): Boolean = ch == '_' || ch == '-'
+  }
+}
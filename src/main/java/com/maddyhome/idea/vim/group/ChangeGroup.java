@@ -40,6 +40,7 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.codeStyle.CodeStyleManager;
 import com.intellij.psi.util.PsiUtilBase;
+import com.intellij.util.DocumentUtil;
 import com.intellij.util.ObjectUtils;
 import com.intellij.util.containers.ContainerUtil;
 import com.maddyhome.idea.vim.EventFacade;
@@ -61,6 +62,8 @@ import com.maddyhome.idea.vim.listener.SelectionVimListenerSuppressor;
 import com.maddyhome.idea.vim.listener.VimInsertListener;
 import com.maddyhome.idea.vim.listener.VimListenerSuppressor;
 import com.maddyhome.idea.vim.newapi.*;
+import com.maddyhome.idea.vim.newapi.IjVimCaretKt;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.option.StrictMode;
 import com.maddyhome.idea.vim.options.OptionConstants;
 import com.maddyhome.idea.vim.options.OptionScope;
@@ -99,6 +102,13 @@ public class ChangeGroup implements VimChangeGroup {
 
   @NonNls private static final String HEX_START = "0x";
   @NonNls private static final String MAX_HEX_INTEGER = "ffffffffffffffff";
+  /**
+   * Numbers that are not longer than this can be changed with long arithmetic without overflow
+   */
+  private static final int MAX_LONG_HEX_DIGITS = 15;
+  private static final int MAX_LONG_OCTAL_DIGITS = 20;
+  private static final int MAX_LONG_DECIMAL_DIGITS = 18;
+  private static final int BULK_CHANGE_THRESHOLD = 100;
 
   private @Nullable Command lastInsert;
 
@@ -150,8 +160,8 @@ public class ChangeGroup implements VimChangeGroup {
    */
   public void insertAfterCursor(@NotNull Editor editor, @NotNull DataContext context) {
     for (Caret caret : editor.getCaretModel().getAllCarets()) {
-      MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().getOffsetOfHorizontalMotion(new IjVimEditor(editor),
-                                                                                             new IjVimCaret(caret), 1, true));
+      MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor),
+                                                                                             IjVimCaretKt.getVim(caret), 1, true));
     }
     initInsert(editor, context, CommandState.Mode.INSERT);
   }
@@ -190,7 +200,7 @@ public class ChangeGroup implements VimChangeGroup {
         firstLiners.add(caret);
       }
       else {
-        offset = VimPlugin.getMotion().moveCaretToLineEnd(new IjVimEditor(editor), caret.getLogicalPosition().line - 1, true);
+        offset = VimPlugin.getMotion().moveCaretToLineEnd(IjVimEditorKt.getVim(editor), caret.getLogicalPosition().line - 1, true);
       }
       moves.add(new Pair<>(caret, offset));
     }
@@ -208,7 +218,7 @@ public class ChangeGroup implements VimChangeGroup {
 
       for (Caret caret : editor.getCaretModel().getAllCarets()) {
         if (firstLiners.contains(caret)) {
-          final int offset = VimPlugin.getMotion().moveCaretToLineEnd(new IjVimEditor(editor), 0, true);
+          final int offset = VimPlugin.getMotion().moveCaretToLineEnd(IjVimEditorKt.getVim(editor), 0, true);
           MotionGroup.moveCaret(editor, caret, offset);
         }
       }
@@ -236,7 +246,7 @@ public class ChangeGroup implements VimChangeGroup {
       firstLiner = true;
     }
     else {
-      MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().getVerticalMotionOffset(new IjVimEditor(editor), new IjVimCaret(caret), -1));
+      MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().getVerticalMotionOffset(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), -1));
       MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().moveCaretToLineEnd(editor, caret));
     }
 
@@ -244,7 +254,7 @@ public class ChangeGroup implements VimChangeGroup {
     insertText(editor, caret, "\n" + IndentConfig.create(editor).createIndentBySize(col));
 
     if (firstLiner) {
-      MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().getVerticalMotionOffset(new IjVimEditor(editor), new IjVimCaret(caret), -1));
+      MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().getVerticalMotionOffset(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), -1));
     }
   }
 
@@ -283,24 +293,24 @@ public class ChangeGroup implements VimChangeGroup {
   }
 
   private void runEnterAction(Editor editor, @NotNull DataContext context) {
-    CommandState state = CommandState.getInstance(new IjVimEditor(editor));
+    CommandState state = CommandState.getInstance(IjVimEditorKt.getVim(editor));
     if (!state.isDotRepeatInProgress()) {
       // While repeating the enter action has been already executed because `initInsert` repeats the input
       final NativeAction action = VimInjectorKt.getInjector().getNativeActionManager().getEnterAction();
       if (action != null) {
-        strokes.add(action);
+        strokes.addAction(action);
         VimInjectorKt.getInjector().getActionExecutor().executeAction(action, new IjExecutionContext(context));
       }
     }
   }
 
   private void runEnterAboveAction(Editor editor, @NotNull DataContext context) {
-    CommandState state = CommandState.getInstance(new IjVimEditor(editor));
+    CommandState state = CommandState.getInstance(IjVimEditorKt.getVim(editor));
     if (!state.isDotRepeatInProgress()) {
       // While repeating the enter action has been already executed because `initInsert` repeats the input
       final NativeAction action = VimInjectorKt.getInjector().getNativeActionManager().getCreateLineAboveCaret();
       if (action != null) {
-        strokes.add(action);
+        strokes.addAction(action);
         VimInjectorKt.getInjector().getActionExecutor().executeAction(action, new IjExecutionContext(context));
       }
     }
@@ -352,7 +362,7 @@ public class ChangeGroup implements VimChangeGroup {
     if (register != null) {
       final List<KeyStroke> keys = register.getKeys();
       for (KeyStroke k : keys) {
-        processKey(new IjVimEditor(editor), new IjExecutionContext(context), k);
+        processKey(IjVimEditorKt.getVim(editor), new IjExecutionContext(context), k);
       }
       return true;
     }
@@ -407,7 +417,7 @@ public class ChangeGroup implements VimChangeGroup {
         deleteTo = pointer + 1;
       }
       else {
-        Motion motion = VimPlugin.getMotion().findOffsetOfNextWord(new IjVimEditor(editor), pointer + 1, -1, false);
+        Motion motion = VimPlugin.getMotion().findOffsetOfNextWord(IjVimEditorKt.getVim(editor), pointer + 1, -1, false);
         if (motion instanceof Motion.AbsoluteOffset) {
           deleteTo = ((Motion.AbsoluteOffset)motion).getOffset();
         }
@@ -431,14 +441,14 @@ public class ChangeGroup implements VimChangeGroup {
    * @param mode    The mode - indicate insert or replace
    */
   public void initInsert(@NotNull Editor editor, @NotNull DataContext context, @NotNull CommandState.Mode mode) {
-    final CommandState state = CommandState.getInstance(new IjVimEditor(editor));
+    final CommandState state = CommandState.getInstance(IjVimEditorKt.getVim(editor));
 
     final CaretModel caretModel = editor.getCaretModel();
     for (Caret caret : caretModel.getAllCarets()) {
       UserDataManager
         .setVimInsertStart(caret, editor.getDocument().createRangeMarker(caret.getOffset(), caret.getOffset()));
       if (caret == caretModel.getPrimaryCaret()) {
-        VimPlugin.getMark().setMark(new IjVimEditor(editor), MARK_CHANGE_START, caret.getOffset());
+        VimPlugin.getMark().setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_START, caret.getOffset());
       }
     }
 
@@ -449,12 +459,12 @@ public class ChangeGroup implements VimChangeGroup {
         setInsertEditorState(editor, false);
       }
       if (cmd.getFlags().contains(CommandFlags.FLAG_NO_REPEAT_INSERT)) {
-        CommandState commandState = CommandState.getInstance(new IjVimEditor(editor));
+        CommandState commandState = CommandState.getInstance(IjVimEditorKt.getVim(editor));
         repeatInsert(editor, context, 1, false,
                      new OperatorArguments(false, 1, commandState.getMode(), commandState.getSubMode()));
       }
       else {
-        CommandState commandState = CommandState.getInstance(new IjVimEditor(editor));
+        CommandState commandState = CommandState.getInstance(IjVimEditorKt.getVim(editor));
         repeatInsert(editor, context, cmd.getCount(), false,
                      new OperatorArguments(false, cmd.getCount(), commandState.getMode(), commandState.getSubMode()));
       }
@@ -513,34 +523,52 @@ public class ChangeGroup implements VimChangeGroup {
                                 @NotNull DataContext context,
                                 int count,
                                 @NotNull OperatorArguments operatorArguments) {
-    if (lastStrokes == null) {
+    if (count <= 0 || lastStrokes.isEmpty()) {
       return;
     }
 
     for (Caret caret : editor.getCaretModel().getAllCarets()) {
-      for (int i = 0; i < count; i++) {
-        for (Object lastStroke : lastStrokes) {
-          if (lastStroke instanceof AnAction) {
-            VimInjectorKt.getInjector().getActionExecutor().executeAction(new IjNativeAction((AnAction)lastStroke), new IjExecutionContext(context));
-            strokes.add(lastStroke);
-          }
-          if (lastStroke instanceof NativeAction) {
-            VimInjectorKt.getInjector().getActionExecutor().executeAction((NativeAction)lastStroke, new IjExecutionContext(context));
-            strokes.add(lastStroke);
-          }
-          else if (lastStroke instanceof EditorActionHandlerBase) {
-            VimInjectorKt.getInjector().getActionExecutor().executeVimAction(new IjVimEditor(editor), (EditorActionHandlerBase)lastStroke, new IjExecutionContext(context), operatorArguments);
-            strokes.add(lastStroke);
-          }
-          else if (lastStroke instanceof char[]) {
-            final char[] chars = (char[])lastStroke;
-            insertText(editor, caret, new String(chars));
+      if (!lastStrokes.hasActions()) {
+        // Plain typed text is repeated as a single insertion
+        insertText(editor, caret, StringUtil.repeat(lastStrokes.getText(), count));
+        continue;
+      }
+
+      final InsertRepeatBuffer.Consumer consumer = new InsertRepeatBuffer.Consumer() {
+        @Override
+        public void text(@NotNull String text) {
+          insertText(editor, caret, text);
+        }
+
+        @Override
+        public void action(@NotNull Object action, int actionCount) {
+          for (int i = 0; i < actionCount; i++) {
+            executeStroke(editor, context, action, operatorArguments);
           }
+          strokes.addAction(action, actionCount);
         }
+      };
+      for (int i = 0; i < count; i++) {
+        lastStrokes.replay(consumer);
       }
     }
   }
 
+  private static void executeStroke(@NotNull Editor editor,
+                                    @NotNull DataContext context,
+                                    @NotNull Object stroke,
+                                    @NotNull OperatorArguments operatorArguments) {
+    if (stroke instanceof AnAction) {
+      VimInjectorKt.getInjector().getActionExecutor().executeAction(new IjNativeAction((AnAction)stroke), new IjExecutionContext(context));
+    }
+    else if (stroke instanceof NativeAction) {
+      VimInjectorKt.getInjector().getActionExecutor().executeAction((NativeAction)stroke, new IjExecutionContext(context));
+    }
+    else if (stroke instanceof EditorActionHandlerBase) {
+      VimInjectorKt.getInjector().getActionExecutor().executeVimAction(IjVimEditorKt.getVim(editor), (EditorActionHandlerBase)stroke, new IjExecutionContext(context), operatorArguments);
+    }
+  }
+
   /**
    * Terminate insert/replace mode after the user presses Escape or Ctrl-C
    * <p>
@@ -554,10 +582,10 @@ public class ChangeGroup implements VimChangeGroup {
     // column offset.
     int offset = editor.getCaretModel().getPrimaryCaret().getOffset();
     final MarkGroup markGroup = VimPlugin.getMark();
-    markGroup.setMark(new IjVimEditor(editor), '^', offset);
-    markGroup.setMark(new IjVimEditor(editor), MARK_CHANGE_END, offset);
+    markGroup.setMark(IjVimEditorKt.getVim(editor), '^', offset);
+    markGroup.setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_END, offset);
 
-    if (CommandState.getInstance(new IjVimEditor(editor)).getMode() == CommandState.Mode.REPLACE) {
+    if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() == CommandState.Mode.REPLACE) {
       setInsertEditorState(editor, true);
     }
 
@@ -571,21 +599,21 @@ public class ChangeGroup implements VimChangeGroup {
       documentListener = null;
     }
 
-    lastStrokes = new ArrayList<>(strokes);
+    lastStrokes.copyFrom(strokes);
 
     if (context != null) {
       repeatInsert(editor, context, cnt == 0 ? 0 : cnt - 1, true, operatorArguments);
     }
 
-    if (CommandState.getInstance(new IjVimEditor(editor)).getMode() == CommandState.Mode.INSERT) {
+    if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() == CommandState.Mode.INSERT) {
       updateLastInsertedTextRegister();
     }
 
     // The change pos '.' mark is the offset AFTER processing escape, and after switching to overtype
     offset = editor.getCaretModel().getPrimaryCaret().getOffset();
-    markGroup.setMark(new IjVimEditor(editor), MARK_CHANGE_POS, offset);
+    markGroup.setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, offset);
 
-    CommandState.getInstance(new IjVimEditor(editor)).popModes();
+    CommandState.getInstance(IjVimEditorKt.getVim(editor)).popModes();
     exitAllSingleCommandInsertModes(editor);
   }
 
@@ -599,7 +627,7 @@ public class ChangeGroup implements VimChangeGroup {
    * @param context The data context
    */
   public void processEnter(@NotNull Editor editor, @NotNull DataContext context) {
-    if (CommandState.getInstance(new IjVimEditor(editor)).getMode() == CommandState.Mode.REPLACE) {
+    if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() == CommandState.Mode.REPLACE) {
       setInsertEditorState(editor, true);
     }
     final KeyStroke enterKeyStroke = KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0);
@@ -609,7 +637,7 @@ public class ChangeGroup implements VimChangeGroup {
         break;
       }
     }
-    if (CommandState.getInstance(new IjVimEditor(editor)).getMode() == CommandState.Mode.REPLACE) {
+    if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() == CommandState.Mode.REPLACE) {
       setInsertEditorState(editor, false);
     }
   }
@@ -635,7 +663,7 @@ public class ChangeGroup implements VimChangeGroup {
         char ch = charsSequence.charAt(offset);
         editor.getDocument().insertString(caret.getOffset(), Character.toString(ch));
         MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion()
-          .getOffsetOfHorizontalMotion(new IjVimEditor(editor), new IjVimCaret(caret), 1, true));
+          .getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), 1, true));
         res = true;
       }
     }
@@ -684,26 +712,28 @@ public class ChangeGroup implements VimChangeGroup {
         final int logicalLine = caret.getLogicalPosition().line;
         final int position = editor.logicalPositionToOffset(new LogicalPosition(logicalLine, repeatColumn));
 
-        for (int i = 0; i < repeatLines; i++) {
-          if (repeatAppend &&
-              repeatColumn < VimMotionGroupBase.LAST_COLUMN &&
-              EditorHelper.getVisualLineLength(editor, visualLine + i) < repeatColumn) {
-            final String pad = EditorHelper.pad(editor, context, logicalLine + i, repeatColumn);
-            if (pad.length() > 0) {
-              final int offset = editor.getDocument().getLineEndOffset(logicalLine + i);
-              insertText(editor, caret, offset, pad);
+        if (!repeatBlockInsertAtOnce(editor, context, count, started, visualLine, logicalLine)) {
+          for (int i = 0; i < repeatLines; i++) {
+            if (repeatAppend &&
+                repeatColumn < VimMotionGroupBase.LAST_COLUMN &&
+                EditorHelper.getVisualLineLength(editor, visualLine + i) < repeatColumn) {
+              final String pad = EditorHelper.pad(editor, context, logicalLine + i, repeatColumn);
+              if (pad.length() > 0) {
+                final int offset = editor.getDocument().getLineEndOffset(logicalLine + i);
+                insertText(editor, caret, offset, pad);
+              }
+            }
+            int updatedCount = started ? (i == 0 ? count : count + 1) : count;
+            if (repeatColumn >= VimMotionGroupBase.LAST_COLUMN) {
+              caret.moveToOffset(VimPlugin.getMotion().moveCaretToLineEnd(IjVimEditorKt.getVim(editor), logicalLine + i, true));
+              repeatInsertText(editor, context, updatedCount, operatorArguments);
+            }
+            else if (EditorHelper.getVisualLineLength(editor, visualLine + i) >= repeatColumn) {
+              VisualPosition visualPosition = new VisualPosition(visualLine + i, repeatColumn);
+              int inlaysCount = InlayHelperKt.amountOfInlaysBeforeVisualPosition(editor, visualPosition);
+              caret.moveToVisualPosition(new VisualPosition(visualLine + i, repeatColumn + inlaysCount));
+              repeatInsertText(editor, context, updatedCount, operatorArguments);
             }
-          }
-          int updatedCount = started ? (i == 0 ? count : count + 1) : count;
-          if (repeatColumn >= VimMotionGroupBase.LAST_COLUMN) {
-            caret.moveToOffset(VimPlugin.getMotion().moveCaretToLineEnd(new IjVimEditor(editor), logicalLine + i, true));
-            repeatInsertText(editor, context, updatedCount, operatorArguments);
-          }
-          else if (EditorHelper.getVisualLineLength(editor, visualLine + i) >= repeatColumn) {
-            VisualPosition visualPosition = new VisualPosition(visualLine + i, repeatColumn);
-            int inlaysCount = InlayHelperKt.amountOfInlaysBeforeVisualPosition(editor, visualPosition);
-            caret.moveToVisualPosition(new VisualPosition(visualLine + i, repeatColumn + inlaysCount));
-            repeatInsertText(editor, context, updatedCount, operatorArguments);
           }
         }
 
@@ -711,8 +741,8 @@ public class ChangeGroup implements VimChangeGroup {
       }
       else {
         repeatInsertText(editor, context, count, operatorArguments);
-        final int position = VimPlugin.getMotion().getOffsetOfHorizontalMotion(new IjVimEditor(editor),
-                                                                               new IjVimCaret(caret), -1, false);
+        final int position = VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor),
+                                                                               IjVimCaretKt.getVim(caret), -1, false);
 
         MotionGroup.moveCaret(editor, caret, position);
       }
@@ -723,6 +753,96 @@ public class ChangeGroup implements VimChangeGroup {
     repeatAppend = false;
   }
 
+  /**
+   * Repeats the typed text on the lines of the visual block as a single document change. The text is placed as
+   * {@link #repeatInsert} places it line by line.
+   * <p>
+   * Only the plain typed text on the lines without folds, soft wraps, tabs and inlays is repeated this way.
+   *
+   * @return false if the text can't be repeated at once. Nothing is changed in this case.
+   */
+  private boolean repeatBlockInsertAtOnce(@NotNull Editor editor,
+                                          @NotNull DataContext context,
+                                          int count,
+                                          boolean started,
+                                          int visualLine,
+                                          int logicalLine) {
+    if (editor.getCaretModel().getCaretCount() > 1 ||
+        lastStrokes.hasActions() ||
+        editor.getSettings().isUseSoftWraps()) {
+      return false;
+    }
+    final String text = lastStrokes.getText();
+    if (text.indexOf('\n') >= 0) return false;
+    final int lastLine = logicalLine + repeatLines - 1;
+    if (lastLine >= EditorHelper.getLineCount(editor) ||
+        editor.logicalToVisualPosition(new LogicalPosition(lastLine, 0)).line != visualLine + repeatLines - 1) {
+      return false;
+    }
+
+    final Document document = editor.getDocument();
+    // The columns match the offsets only on the lines without tabs and inlays, other blocks are repeated line by line
+    for (int line = logicalLine; line <= lastLine; line++) {
+      if (!isPlainLine(editor, line, document.getLineStartOffset(line), document.getLineEndOffset(line))) return false;
+    }
+
+    final ColumnarEdit edit = new ColumnarEdit(editor);
+    // MARK_CHANGE_POS is set to the last inserted text
+    int markedEdit = -1;
+    int markedShift = 0;
+    for (int i = 0; i < repeatLines; i++) {
+      final int line = logicalLine + i;
+      final int lineLength = EditorHelper.getLineLength(editor, line);
+      final int updatedCount = started ? (i == 0 ? count : count + 1) : count;
+      final String repeated = updatedCount > 0 ? StringUtil.repeat(text, updatedCount) : "";
+
+      if (repeatColumn >= VimMotionGroupBase.LAST_COLUMN) {
+        if (repeated.isEmpty()) continue;
+        edit.insert(VimPlugin.getMotion().moveCaretToLineEnd(IjVimEditorKt.getVim(editor), line, true), repeated);
+        markedEdit = edit.getSize() - 1;
+        markedShift = 0;
+      }
+      else if (repeatAppend && lineLength < repeatColumn) {
+        final String pad = EditorHelper.pad(editor, context, line, repeatColumn);
+        // A tab in the padding takes several columns, so the padded length isn't known from the text
+        if (pad.indexOf('\t') >= 0) return false;
+        final boolean textFits = !repeated.isEmpty() && lineLength + pad.length() >= repeatColumn;
+
+        edit.insert(document.getLineEndOffset(line), textFits ? pad + repeated : pad);
+        markedEdit = edit.getSize() - 1;
+        markedShift = textFits ? pad.length() : 0;
+      }
+      else if (lineLength >= repeatColumn && !repeated.isEmpty()) {
+        final VisualPosition visualPosition = new VisualPosition(visualLine + i, repeatColumn);
+        final int inlaysCount = InlayHelperKt.amountOfInlaysBeforeVisualPosition(editor, visualPosition);
+        edit.insert(editor.visualPositionToOffset(new VisualPosition(visualLine + i, repeatColumn + inlaysCount)),
+                    repeated);
+        markedEdit = edit.getSize() - 1;
+        markedShift = 0;
+      }
+    }
+
+    edit.apply();
+    if (markedEdit != -1) {
+      VimPlugin.getMark()
+        .setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, edit.newStartOffset(markedEdit) + markedShift);
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the columns of the line match the offsets: the line has no tabs and inlays
+   */
+  private static boolean isPlainLine(@NotNull Editor editor, int line, int lineStart, int lineEnd) {
+    final CharSequence chars = editor.getDocument().getCharsSequence();
+    for (int i = lineStart; i < lineEnd; i++) {
+      if (chars.charAt(i) == '\t') return false;
+    }
+    final InlayModel inlayModel = editor.getInlayModel();
+    return inlayModel.getInlineElementsInRange(lineStart, lineEnd).isEmpty() &&
+           inlayModel.getAfterLineEndElementsForLogicalLine(line).isEmpty();
+  }
+
   /**
    * Processes the user pressing the Insert key while in INSERT or REPLACE mode. This simply toggles the
    * Insert/Overwrite state which updates the status bar.
@@ -733,7 +853,7 @@ public class ChangeGroup implements VimChangeGroup {
     final EditorEx editorEx = ObjectUtils.tryCast(editor, EditorEx.class);
     if (editorEx == null) return;
     editorEx.setInsertMode(!editorEx.isInsertMode());
-    CommandState.getInstance(new IjVimEditor(editor)).toggleInsertOverwrite();
+    CommandState.getInstance(IjVimEditorKt.getVim(editor)).toggleInsertOverwrite();
   }
 
   /**
@@ -747,7 +867,7 @@ public class ChangeGroup implements VimChangeGroup {
   public void processCommand(@NotNull VimEditor editor, @NotNull Command cmd) {
     // return value never used here
     if (cmd.getFlags().contains(CommandFlags.FLAG_SAVE_STROKE)) {
-      strokes.add(cmd.getAction());
+      strokes.addAction(cmd.getAction());
     }
     else if (cmd.getFlags().contains(CommandFlags.FLAG_CLEAR_STROKES)) {
       clearStrokes(((IjVimEditor)editor).getEditor());
@@ -777,30 +897,62 @@ public class ChangeGroup implements VimChangeGroup {
    * @return true if able to delete, false if not
    */
   public boolean deleteCharacter(@NotNull Editor editor, @NotNull Caret caret, int count, boolean isChange) {
-    final int endOffset = VimPlugin.getMotion().getOffsetOfHorizontalMotion(new IjVimEditor(editor),
-                                                                            new IjVimCaret(caret), count, true);
+    final int endOffset = VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor),
+                                                                            IjVimCaretKt.getVim(caret), count, true);
     if (endOffset != -1) {
       final boolean res = deleteText(editor, new TextRange(caret.getOffset(), endOffset), SelectionType.CHARACTER_WISE);
-
-      final int pos = caret.getOffset();
-      final int norm = EditorHelper.normalizeOffset(editor, caret.getLogicalPosition().line, pos, isChange);
-      if (norm != pos ||
-          editor.offsetToVisualPosition(norm) != EditorUtil.inlayAwareOffsetToVisualPosition(editor, norm)) {
-        MotionGroup.moveCaret(editor, caret, norm);
-      }
-      // Always move the caret. Our position might or might not have changed, but an inlay might have been moved to our
-      // location, or deleting the character(s) might have caused us to scroll sideways in long files. Moving the caret
-      // will make sure it's in the right place, and visible
-      final int offset =
-        EditorHelper.normalizeOffset(editor, caret.getLogicalPosition().line, caret.getOffset(), isChange);
-      MotionGroup.moveCaret(editor, caret, offset);
-
+      moveCaretAfterDeleteCharacter(editor, caret, isChange);
       return res;
     }
 
     return false;
   }
 
+  /**
+   * Plans {@link #deleteCharacter} for one of multiple carets
+   *
+   * @param edits The changes of all carets, the change of this caret is added to them
+   * @return true if able to delete, false if not
+   */
+  public boolean planDeleteCharacter(@NotNull Editor editor,
+                                     @NotNull Caret caret,
+                                     int count,
+                                     boolean isChange,
+                                     @NotNull MultiCaretEdits edits) {
+    final int endOffset = VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor),
+                                                                            IjVimCaretKt.getVim(caret), count, true);
+    if (endOffset == -1) {
+      return false;
+    }
+
+    final TextRange range = normalizeDeletedRange(editor, new TextRange(caret.getOffset(), endOffset));
+    final MultiCaretEdits.AppliedListener moveCaret = offset -> {
+      caret.moveToOffset(offset);
+      moveCaretAfterDeleteCharacter(editor, caret, isChange);
+    };
+    if (range == null) {
+      edits.keep(caret, moveCaret);
+      return false;
+    }
+    edits.delete(caret, range, SelectionType.CHARACTER_WISE, moveCaret);
+    return true;
+  }
+
+  private void moveCaretAfterDeleteCharacter(@NotNull Editor editor, @NotNull Caret caret, boolean isChange) {
+    final int pos = caret.getOffset();
+    final int norm = EditorHelper.normalizeOffset(editor, caret.getLogicalPosition().line, pos, isChange);
+    if (norm != pos ||
+        editor.offsetToVisualPosition(norm) != EditorUtil.inlayAwareOffsetToVisualPosition(editor, norm)) {
+      MotionGroup.moveCaret(editor, caret, norm);
+    }
+    // Always move the caret. Our position might or might not have changed, but an inlay might have been moved to our
+    // location, or deleting the character(s) might have caused us to scroll sideways in long files. Moving the caret
+    // will make sure it's in the right place, and visible
+    final int offset =
+      EditorHelper.normalizeOffset(editor, caret.getLogicalPosition().line, caret.getOffset(), isChange);
+    MotionGroup.moveCaret(editor, caret, offset);
+  }
+
   /**
    * While in INSERT or REPLACE mode the user can enter a single NORMAL mode command and then automatically
    * return to INSERT or REPLACE mode.
@@ -808,7 +960,7 @@ public class ChangeGroup implements VimChangeGroup {
    * @param editor The editor to put into NORMAL mode for one command
    */
   public void processSingleCommand(@NotNull Editor editor) {
-    CommandState.getInstance(new IjVimEditor(editor)).pushModes(CommandState.Mode.INSERT_NORMAL, CommandState.SubMode.NONE);
+    CommandState.getInstance(IjVimEditorKt.getVim(editor)).pushModes(CommandState.Mode.INSERT_NORMAL, CommandState.SubMode.NONE);
     clearStrokes(editor);
   }
 
@@ -839,7 +991,7 @@ public class ChangeGroup implements VimChangeGroup {
         MotionGroup.moveCaret(editor, caret, startOffset);
       }
       else {
-        int pos = VimPlugin.getMotion().getOffsetOfHorizontalMotion(new IjVimEditor(editor), new IjVimCaret(caret), -1, false);
+        int pos = VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), -1, false);
         if (pos != -1) {
           MotionGroup.moveCaret(editor, caret, pos);
         }
@@ -967,8 +1119,8 @@ public class ChangeGroup implements VimChangeGroup {
       boolean res = deleteText(editor, new TextRange(start, offset), SelectionType.LINE_WISE);
       if (res && caret.getOffset() >= EditorHelperRt.getFileSize(editor) && caret.getOffset() != 0) {
         MotionGroup
-          .moveCaret(editor, caret, VimPlugin.getMotion().moveCaretToLineStartSkipLeadingOffset(new IjVimEditor(editor),
-                                                                                                new IjVimCaret(caret), -1));
+          .moveCaret(editor, caret, VimPlugin.getMotion().moveCaretToLineStartSkipLeadingOffset(IjVimEditorKt.getVim(editor),
+                                                                                                IjVimCaretKt.getVim(caret), -1));
       }
 
       return res;
@@ -1016,7 +1168,7 @@ public class ChangeGroup implements VimChangeGroup {
                                    int count,
                                    boolean spaces) {
     // start my moving the cursor to the very end of the first line
-    MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().moveCaretToLineEnd(new IjVimEditor(editor), startLine, true));
+    MotionGroup.moveCaret(editor, caret, VimPlugin.getMotion().moveCaretToLineEnd(IjVimEditorKt.getVim(editor), startLine, true));
     for (int i = 1; i < count; i++) {
       int start = VimPlugin.getMotion().moveCaretToLineEnd(editor, caret);
       int trailingWhitespaceStart = VimPlugin.getMotion().moveCaretToLineEndSkipLeadingOffset(editor, caret, 0);
@@ -1025,18 +1177,18 @@ public class ChangeGroup implements VimChangeGroup {
       MotionGroup.moveCaret(editor, caret, start);
       int offset;
       if (spaces) {
-        offset = VimPlugin.getMotion().moveCaretToLineStartSkipLeadingOffset(new IjVimEditor(editor),
-                                                                             new IjVimCaret(caret), 1);
+        offset = VimPlugin.getMotion().moveCaretToLineStartSkipLeadingOffset(IjVimEditorKt.getVim(editor),
+                                                                             IjVimCaretKt.getVim(caret), 1);
       }
       else {
-        offset = VimPlugin.getMotion().moveCaretToLineStart(new IjVimEditor(editor), caret.getLogicalPosition().line + 1);
+        offset = VimPlugin.getMotion().moveCaretToLineStart(IjVimEditorKt.getVim(editor), caret.getLogicalPosition().line + 1);
       }
       deleteText(editor, new TextRange(caret.getOffset(), offset), null);
       if (spaces && !hasTrailingWhitespace) {
         insertText(editor, caret, " ");
         MotionGroup
-          .moveCaret(editor, caret, VimPlugin.getMotion().getOffsetOfHorizontalMotion(new IjVimEditor(editor),
-                                                                                      new IjVimCaret(caret), -1, true));
+          .moveCaret(editor, caret, VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor),
+                                                                                      IjVimCaretKt.getVim(caret), -1, true));
       }
     }
 
@@ -1102,7 +1254,7 @@ public class ChangeGroup implements VimChangeGroup {
    */
   public boolean changeCharacter(@NotNull Editor editor, @NotNull Caret caret, int count, char ch) {
     int col = caret.getLogicalPosition().column;
-    int len = EditorHelper.getLineLength(editor);
+    int len = EditorHelper.getLineLength(editor, caret.getLogicalPosition().line);
     int offset = caret.getOffset();
     if (len - col < count) {
       return false;
@@ -1139,6 +1291,29 @@ public class ChangeGroup implements VimChangeGroup {
     return true;
   }
 
+  /**
+   * Plans {@link #changeCharacter} for one of multiple carets. Replacing with a newline can't be planned.
+   *
+   * @param edits The changes of all carets, the change of this caret is added to them
+   * @return true if able to change count characters, false if not
+   */
+  public boolean planChangeCharacter(@NotNull Editor editor,
+                                     @NotNull Caret caret,
+                                     int count,
+                                     char ch,
+                                     @NotNull MultiCaretEdits edits) {
+    int col = caret.getLogicalPosition().column;
+    int len = EditorHelper.getLineLength(editor, caret.getLogicalPosition().line);
+    int offset = caret.getOffset();
+    if (len - col < count) {
+      return false;
+    }
+
+    edits.replace(caret, offset, offset + count, StringUtil.repeatSymbol(ch, count),
+                  newOffset -> caret.moveToOffset(newOffset));
+    return true;
+  }
+
   /**
    * Each character in the supplied range gets replaced with the character ch
    *
@@ -1155,12 +1330,33 @@ public class ChangeGroup implements VimChangeGroup {
     CharSequence chars = editor.getDocument().getCharsSequence();
     int[] starts = range.getStartOffsets();
     int[] ends = range.getEndOffsets();
-    for (int j = ends.length - 1; j >= 0; j--) {
-      for (int i = starts[j]; i < ends[j]; i++) {
-        if (i < chars.length() && '\n' != chars.charAt(i)) {
-          replaceText(editor, i, i + 1, Character.toString(ch));
+    // All the lines are replaced at once. The replaced text has the same length, so the offsets don't change.
+    final ColumnarEdit edit = new ColumnarEdit(editor);
+    // The change marks are set to the last replaced character of the first changed line
+    int markedOffset = -1;
+    for (int j = 0; j < ends.length; j++) {
+      final int end = Math.min(ends[j], chars.length());
+      if (starts[j] >= end) continue;
+
+      final StringBuilder replacement = new StringBuilder(end - starts[j]);
+      for (int i = starts[j]; i < end; i++) {
+        if ('\n' != chars.charAt(i)) {
+          replacement.append(ch);
+          if (markedOffset == -1 || markedOffset >= starts[j]) {
+            markedOffset = i;
+          }
+        }
+        else {
+          replacement.append('\n');
         }
       }
+      edit.replace(starts[j], end, replacement);
+    }
+    edit.apply();
+
+    if (markedOffset != -1) {
+      VimPlugin.getMark().setChangeMarks(IjVimEditorKt.getVim(editor), new TextRange(markedOffset, markedOffset + 1));
+      VimPlugin.getMark().setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, markedOffset + 1);
     }
 
     return true;
@@ -1265,14 +1461,51 @@ public class ChangeGroup implements VimChangeGroup {
       int pos = EditorHelper.normalizeOffset(editor, range.getStartOffset(), isChange);
       if (type == SelectionType.LINE_WISE) {
         pos = VimPlugin.getMotion()
-          .moveCaretToLineWithStartOfLineOption(new IjVimEditor(editor), editor.offsetToLogicalPosition(pos).line,
-                                                new IjVimCaret(caret));
+          .moveCaretToLineWithStartOfLineOption(IjVimEditorKt.getVim(editor), editor.offsetToLogicalPosition(pos).line,
+                                                IjVimCaretKt.getVim(caret));
       }
       MotionGroup.moveCaret(editor, caret, pos);
     }
     return res;
   }
 
+  /**
+   * Plans {@link #deleteRange} for one of multiple carets. Block ranges and deleting the last line of a file without a
+   * trailing new line can't be planned, all the changes are cancelled then.
+   *
+   * @param edits The changes of all carets, the change of this caret is added to them
+   * @return true if able to delete the text, false if not
+   */
+  public boolean planDeleteRange(@NotNull Editor editor,
+                                 @NotNull Caret caret,
+                                 @NotNull TextRange range,
+                                 @NotNull SelectionType type,
+                                 boolean isChange,
+                                 @NotNull MultiCaretEdits edits) {
+    if (range.isMultiple() || removeLastNewLine(editor, range, type)) {
+      edits.cancel();
+      return false;
+    }
+    final TextRange updatedRange = normalizeDeletedRange(editor, range);
+    if (updatedRange == null) {
+      return false;
+    }
+
+    UserDataManager.setVimLastColumn(caret, InlayHelperKt.getInlayAwareVisualColumn(caret));
+    // The caret goes to the start of the range before normalization, as deleteRange moves it
+    final int startShift = range.getStartOffset() - updatedRange.getStartOffset();
+    edits.delete(caret, updatedRange, type, offset -> {
+      int pos = EditorHelper.normalizeOffset(editor, offset + startShift, isChange);
+      if (type == SelectionType.LINE_WISE) {
+        pos = VimPlugin.getMotion()
+          .moveCaretToLineWithStartOfLineOption(IjVimEditorKt.getVim(editor), editor.offsetToLogicalPosition(pos).line,
+                                                IjVimCaretKt.getVim(caret));
+      }
+      MotionGroup.moveCaret(editor, caret, pos);
+    });
+    return true;
+  }
+
   private boolean removeLastNewLine(@NotNull Editor editor, @NotNull TextRange range, @Nullable SelectionType type) {
     int endOffset = range.getEndOffset();
     int fileSize = EditorHelperRt.getFileSize(editor);
@@ -1448,7 +1681,7 @@ public class ChangeGroup implements VimChangeGroup {
    * @return true if able to change count characters
    */
   public boolean changeCaseToggleCharacter(@NotNull Editor editor, @NotNull Caret caret, int count) {
-    final int offset = VimPlugin.getMotion().getOffsetOfHorizontalMotion(new IjVimEditor(editor), new IjVimCaret(caret), count, true);
+    final int offset = VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), count, true);
     if (offset == -1) {
       return false;
     }
@@ -1457,6 +1690,30 @@ public class ChangeGroup implements VimChangeGroup {
     return true;
   }
 
+  /**
+   * Plans {@link #changeCaseToggleCharacter} for one of multiple carets
+   *
+   * @param edits The changes of all carets, the change of this caret is added to them
+   * @return true if able to change count characters
+   */
+  public boolean planChangeCaseToggleCharacter(@NotNull Editor editor,
+                                               @NotNull Caret caret,
+                                               int count,
+                                               @NotNull MultiCaretEdits edits) {
+    final int offset = VimPlugin.getMotion().getOffsetOfHorizontalMotion(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), count, true);
+    if (offset == -1) {
+      return false;
+    }
+    int start = Math.min(caret.getOffset(), offset);
+    int end = EditorHelper.normalizeOffset(editor, Math.max(caret.getOffset(), offset));
+
+    final String text = getChangedCase(editor, start, end, CharacterHelper.CASE_TOGGLE);
+    final int caretShift = offset - start;
+    edits.replace(caret, start, end, text, newStart ->
+      MotionGroup.moveCaret(editor, caret, EditorHelper.normalizeOffset(editor, newStart + caretShift, false)));
+    return true;
+  }
+
   public boolean blockInsert(@NotNull Editor editor,
                              @NotNull DataContext context,
                              @NotNull TextRange range,
@@ -1517,8 +1774,21 @@ public class ChangeGroup implements VimChangeGroup {
   public boolean changeCaseRange(@NotNull Editor editor, @NotNull Caret caret, @NotNull TextRange range, char type) {
     int[] starts = range.getStartOffsets();
     int[] ends = range.getEndOffsets();
-    for (int i = ends.length - 1; i >= 0; i--) {
-      changeCase(editor, starts[i], ends[i], type);
+    if (range.isMultiple()) {
+      // All the lines are changed at once. The changed text has the same length, so the offsets don't change.
+      final ColumnarEdit edit = new ColumnarEdit(editor);
+      for (int i = 0; i < ends.length; i++) {
+        final int end = EditorHelper.normalizeOffset(editor, ends[i]);
+        edit.replace(starts[i], end, getChangedCase(editor, starts[i], end, type));
+      }
+      edit.apply();
+
+      final int firstEnd = EditorHelper.normalizeOffset(editor, ends[0]);
+      VimPlugin.getMark().setChangeMarks(IjVimEditorKt.getVim(editor), new TextRange(starts[0], firstEnd));
+      VimPlugin.getMark().setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, firstEnd);
+    }
+    else {
+      changeCase(editor, starts[0], ends[0], type);
     }
     MotionGroup.moveCaret(editor, caret, range.getStartOffset());
     return true;
@@ -1540,12 +1810,16 @@ public class ChangeGroup implements VimChangeGroup {
     }
     end = EditorHelper.normalizeOffset(editor, end);
 
+    replaceText(editor, start, end, getChangedCase(editor, start, end, type));
+  }
+
+  private static @NotNull String getChangedCase(@NotNull Editor editor, int start, int end, char type) {
     CharSequence chars = editor.getDocument().getCharsSequence();
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = new StringBuilder(end - start);
     for (int i = start; i < end; i++) {
       sb.append(CharacterHelper.changeCase(chars.charAt(i), type));
     }
-    replaceText(editor, start, end, sb.toString());
+    return sb.toString();
   }
 
   /**
@@ -1607,7 +1881,7 @@ public class ChangeGroup implements VimChangeGroup {
   private void restoreCursor(@NotNull Editor editor, @NotNull Caret caret, int startLine) {
     if (caret != editor.getCaretModel().getPrimaryCaret()) {
       editor.getCaretModel().addCaret(
-        editor.offsetToVisualPosition(VimPlugin.getMotion().moveCaretToLineStartSkipLeading(new IjVimEditor(editor), startLine)), false);
+        editor.offsetToVisualPosition(VimPlugin.getMotion().moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), startLine)), false);
     }
   }
 
@@ -1656,7 +1930,7 @@ public class ChangeGroup implements VimChangeGroup {
       final int endOffset = EditorHelper.getLineEndForOffset(editor, ends[i] - (startOffset == ends[i] ? 0 : 1));
       reformatCode(editor, startOffset, endOffset);
     }
-    final int newOffset = VimPlugin.getMotion().moveCaretToLineStartSkipLeading(new IjVimEditor(editor), firstLine);
+    final int newOffset = VimPlugin.getMotion().moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), firstLine);
     MotionGroup.moveCaret(editor, caret, newOffset);
     return true;
   }
@@ -1698,7 +1972,7 @@ public class ChangeGroup implements VimChangeGroup {
     }
 
     final int firstLine = editor.offsetToLogicalPosition(Math.min(startOffset, endOffset)).line;
-    final int newOffset = VimPlugin.getMotion().moveCaretToLineStartSkipLeading(new IjVimEditor(editor), firstLine);
+    final int newOffset = VimPlugin.getMotion().moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), firstLine);
     MotionGroup.moveCaret(editor, caret, newOffset);
     restoreCursor(editor, caret, caret.getLogicalPosition().line);
   }
@@ -1720,14 +1994,14 @@ public class ChangeGroup implements VimChangeGroup {
    * @param caret  The caret to start insertion in
    * @param str    The text to insert
    */
-  public void insertText(@NotNull Editor editor, @NotNull Caret caret, int offset, @NotNull String str) {
+  public void insertText(@NotNull Editor editor, @NotNull Caret caret, int offset, @NotNull CharSequence str) {
     editor.getDocument().insertString(offset, str);
     InlayHelperKt.moveToInlayAwareOffset(caret, offset + str.length());
 
-    VimPlugin.getMark().setMark(new IjVimEditor(editor), MARK_CHANGE_POS, offset);
+    VimPlugin.getMark().setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, offset);
   }
 
-  public void insertText(@NotNull Editor editor, @NotNull Caret caret, @NotNull String str) {
+  public void insertText(@NotNull Editor editor, @NotNull Caret caret, @NotNull CharSequence str) {
     insertText(editor, caret, caret.getOffset(), str);
   }
 
@@ -1763,8 +2037,8 @@ public class ChangeGroup implements VimChangeGroup {
     editor.getDocument().replaceString(start, end, str);
 
     final int newEnd = start + str.length();
-    VimPlugin.getMark().setChangeMarks(new IjVimEditor(editor), new TextRange(start, newEnd));
-    VimPlugin.getMark().setMark(new IjVimEditor(editor), MARK_CHANGE_POS, newEnd);
+    VimPlugin.getMark().setChangeMarks(IjVimEditorKt.getVim(editor), new TextRange(start, newEnd));
+    VimPlugin.getMark().setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, newEnd);
   }
 
   public void indentRange(@NotNull Editor editor,
@@ -1829,7 +2103,7 @@ public class ChangeGroup implements VimChangeGroup {
       for (int l = sline; l <= eline; l++) {
         final int soff = EditorHelper.getLineStartOffset(editor, l);
         final int eoff = EditorHelper.getLineEndOffset(editor, l, true);
-        final int woff = VimPlugin.getMotion().moveCaretToLineStartSkipLeading(new IjVimEditor(editor), l);
+        final int woff = VimPlugin.getMotion().moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), l);
         final int col = editor.offsetToVisualPosition(woff).column;
         final int limit = Math.max(0, col + dir * indentConfig.getTotalIndent(count));
         if (col > 0 || soff != eoff) {
@@ -1842,8 +2116,8 @@ public class ChangeGroup implements VimChangeGroup {
     if (!CommandStateHelper.inInsertMode(editor)) {
       if (!range.isMultiple()) {
         MotionGroup
-          .moveCaret(editor, caret, VimPlugin.getMotion().moveCaretToLineWithStartOfLineOption(new IjVimEditor(editor), sline,
-                                                                                               new IjVimCaret(caret)));
+          .moveCaret(editor, caret, VimPlugin.getMotion().moveCaretToLineWithStartOfLineOption(IjVimEditorKt.getVim(editor), sline,
+                                                                                               IjVimCaretKt.getVim(caret)));
       }
       else {
         MotionGroup.moveCaret(editor, caret, range.getStartOffset());
@@ -1874,33 +2148,31 @@ public class ChangeGroup implements VimChangeGroup {
   private boolean deleteText(final @NotNull Editor editor,
                              final @NotNull TextRange range,
                              @Nullable SelectionType type) {
-    TextRange updatedRange = range;
-    // Fix for https://youtrack.jetbrains.net/issue/VIM-35
-    if (!range.normalize(EditorHelperRt.getFileSize(editor))) {
-      if (range.getStartOffset() == range.getEndOffset() &&
-          range.getStartOffset() == EditorHelperRt.getFileSize(editor) &&
-          range.getStartOffset() != 0) {
-        updatedRange = new TextRange(range.getStartOffset() - 1, range.getEndOffset());
-      }
-      else {
-        return false;
-      }
+    final TextRange updatedRange = normalizeDeletedRange(editor, range);
+    if (updatedRange == null) {
+      return false;
     }
 
     if (type == null ||
         CommandStateHelper.inInsertMode(editor) ||
-        VimPlugin.getRegister().storeText(new IjVimEditor(editor), updatedRange, type, true)) {
-      final Document document = editor.getDocument();
+        VimPlugin.getRegister().storeText(IjVimEditorKt.getVim(editor), updatedRange, type, true)) {
       final int[] startOffsets = updatedRange.getStartOffsets();
       final int[] endOffsets = updatedRange.getEndOffsets();
-      for (int i = updatedRange.size() - 1; i >= 0; i--) {
-        document.deleteString(startOffsets[i], endOffsets[i]);
+      if (updatedRange.isMultiple()) {
+        final ColumnarEdit edit = new ColumnarEdit(editor);
+        for (int i = 0; i < updatedRange.size(); i++) {
+          edit.replace(startOffsets[i], endOffsets[i], "");
+        }
+        edit.apply();
+      }
+      else {
+        editor.getDocument().deleteString(startOffsets[0], endOffsets[0]);
       }
 
       if (type != null) {
         final int start = updatedRange.getStartOffset();
-        VimPlugin.getMark().setMark(new IjVimEditor(editor), MARK_CHANGE_POS, start);
-        VimPlugin.getMark().setChangeMarks(new IjVimEditor(editor), new TextRange(start, start + 1));
+        VimPlugin.getMark().setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, start);
+        VimPlugin.getMark().setChangeMarks(IjVimEditorKt.getVim(editor), new TextRange(start, start + 1));
       }
 
       return true;
@@ -1909,6 +2181,24 @@ public class ChangeGroup implements VimChangeGroup {
     return false;
   }
 
+  /**
+   * Normalizes the range before deleting it
+   *
+   * @return the range to delete or null if the range can't be deleted
+   */
+  private @Nullable TextRange normalizeDeletedRange(@NotNull Editor editor, @NotNull TextRange range) {
+    // Fix for https://youtrack.jetbrains.net/issue/VIM-35
+    if (!range.normalize(EditorHelperRt.getFileSize(editor))) {
+      if (range.getStartOffset() == range.getEndOffset() &&
+          range.getStartOffset() == EditorHelperRt.getFileSize(editor) &&
+          range.getStartOffset() != 0) {
+        return new TextRange(range.getStartOffset() - 1, range.getEndOffset());
+      }
+      return null;
+    }
+    return range;
+  }
+
   /**
    * Sort range of text with a given comparator
    *
@@ -1969,7 +2259,7 @@ public class ChangeGroup implements VimChangeGroup {
                                         @NotNull TextRange selectedRange,
                                         final int count,
                                         boolean avalanche) {
-    String nf = ((VimString) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.nrformatsName, OptionConstants.nrformatsName)).getValue();
+    String nf = ((VimString) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(IjVimEditorKt.getVim(editor)), OptionConstants.nrformatsName, OptionConstants.nrformatsName)).getValue();
     boolean alpha = nf.contains("alpha");
     boolean hex = nf.contains("hex");
     boolean octal = nf.contains("octal");
@@ -1985,12 +2275,28 @@ public class ChangeGroup implements VimChangeGroup {
       newNumbers.add(newNumber);
     }
 
-    for (int i = newNumbers.size() - 1; i >= 0; i--) {
-      // Replace text bottom up. In other direction ranges will be desynchronized after inc numbers like 99
-      Pair<TextRange, SearchHelper.NumberType> rangeToReplace = numberRanges.get(i);
-      String newNumber = newNumbers.get(i);
-      replaceText(editor, rangeToReplace.getFirst().getStartOffset(), rangeToReplace.getFirst().getEndOffset(),
-                  newNumber);
+    // All the numbers are replaced as a single bulk change, so the editor is updated once and not per number
+    DocumentUtil.executeInBulk(editor.getDocument(), newNumbers.size() > BULK_CHANGE_THRESHOLD, () -> {
+      for (int i = newNumbers.size() - 1; i >= 0; i--) {
+        // Replace text bottom up. In other direction ranges will be desynchronized after inc numbers like 99
+        TextRange rangeToReplace = numberRanges.get(i).getFirst();
+        String newNumber = newNumbers.get(i);
+        if (newNumber != null) {
+          editor.getDocument()
+            .replaceString(rangeToReplace.getStartOffset(), rangeToReplace.getEndOffset(), newNumber);
+        }
+      }
+    });
+
+    // The marks are set as after replacing the first number, as the numbers were replaced bottom up
+    for (int i = 0; i < newNumbers.size(); i++) {
+      if (newNumbers.get(i) != null) {
+        final int start = numberRanges.get(i).getFirst().getStartOffset();
+        final int newEnd = start + newNumbers.get(i).length();
+        VimPlugin.getMark().setChangeMarks(IjVimEditorKt.getVim(editor), new TextRange(start, newEnd));
+        VimPlugin.getMark().setMark(IjVimEditorKt.getVim(editor), MARK_CHANGE_POS, newEnd);
+        break;
+      }
     }
 
     InlayHelperKt.moveToInlayAwareOffset(caret, selectedRange.getStartOffset());
@@ -1999,19 +2305,19 @@ public class ChangeGroup implements VimChangeGroup {
 
   private void exitAllSingleCommandInsertModes(@NotNull Editor editor) {
     while (CommandStateHelper.inSingleCommandMode(editor)) {
-      CommandState.getInstance(new IjVimEditor(editor)).popModes();
+      CommandState.getInstance(IjVimEditorKt.getVim(editor)).popModes();
       if (CommandStateHelper.inInsertMode(editor)) {
-        CommandState.getInstance(new IjVimEditor(editor)).popModes();
+        CommandState.getInstance(IjVimEditorKt.getVim(editor)).popModes();
       }
     }
   }
 
-  private final List<Object> strokes = new ArrayList<>();
+  private final InsertRepeatBuffer strokes = new InsertRepeatBuffer();
   private int repeatCharsCount;
-  private @Nullable List<Object> lastStrokes;
+  private final InsertRepeatBuffer lastStrokes = new InsertRepeatBuffer();
 
   public boolean changeNumber(final @NotNull Editor editor, @NotNull Caret caret, final int count) {
-    final String nf = ((VimString) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.nrformatsName, OptionConstants.nrformatsName)).getValue();
+    final String nf = ((VimString) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(IjVimEditorKt.getVim(editor)), OptionConstants.nrformatsName, OptionConstants.nrformatsName)).getValue();
     final boolean alpha = nf.contains("alpha");
     final boolean hex = nf.contains("hex");
     final boolean octal = nf.contains("octal");
@@ -2037,14 +2343,11 @@ public class ChangeGroup implements VimChangeGroup {
   public void reset() {
     strokes.clear();
     repeatCharsCount = 0;
-    if (lastStrokes != null) {
-      lastStrokes.clear();
-    }
+    lastStrokes.clear();
   }
 
   public void saveStrokes(String newStrokes) {
-    char[] chars = newStrokes.toCharArray();
-    strokes.add(chars);
+    strokes.addText(newStrokes);
   }
 
   private int repeatLines;
@@ -2083,12 +2386,18 @@ public class ChangeGroup implements VimChangeGroup {
         }
       }
 
-      BigInteger num = new BigInteger(text.substring(2), 16);
-      num = num.add(BigInteger.valueOf(count));
-      if (num.compareTo(BigInteger.ZERO) < 0) {
-        num = new BigInteger(MAX_HEX_INTEGER, 16).add(BigInteger.ONE).add(num);
+      if (text.length() - 2 <= MAX_LONG_HEX_DIGITS) {
+        // Negative values wrap around as unsigned 64-bit numbers, same as below
+        number = Long.toHexString(Long.parseLong(text.substring(2), 16) + count);
+      }
+      else {
+        BigInteger num = new BigInteger(text.substring(2), 16);
+        num = num.add(BigInteger.valueOf(count));
+        if (num.compareTo(BigInteger.ZERO) < 0) {
+          num = new BigInteger(MAX_HEX_INTEGER, 16).add(BigInteger.ONE).add(num);
+        }
+        number = num.toString(16);
       }
-      number = num.toString(16);
       number = StringsKt.padStart(number, text.length() - 2, '0');
 
       if (!lastLower) {
@@ -2099,12 +2408,18 @@ public class ChangeGroup implements VimChangeGroup {
     }
     else if (octal && SearchHelper.NumberType.OCT.equals(numberType) && text.length() > 1) {
       if (!text.startsWith("0")) throw new RuntimeException("Oct number should start with 0: " + text);
-      BigInteger num = new BigInteger(text, 8).add(BigInteger.valueOf(count));
+      if (text.length() <= MAX_LONG_OCTAL_DIGITS) {
+        // Negative values wrap around as unsigned 64-bit numbers, same as below
+        number = Long.toOctalString(Long.parseLong(text, 8) + count);
+      }
+      else {
+        BigInteger num = new BigInteger(text, 8).add(BigInteger.valueOf(count));
 
-      if (num.compareTo(BigInteger.ZERO) < 0) {
-        num = new BigInteger("1777777777777777777777", 8).add(BigInteger.ONE).add(num);
+        if (num.compareTo(BigInteger.ZERO) < 0) {
+          num = new BigInteger("1777777777777777777777", 8).add(BigInteger.ONE).add(num);
+        }
+        number = num.toString(8);
       }
-      number = num.toString(8);
       number = "0" + StringsKt.padStart(number, text.length() - 1, '0');
     }
     else if (alpha && SearchHelper.NumberType.ALPHA.equals(numberType)) {
@@ -2123,9 +2438,12 @@ public class ChangeGroup implements VimChangeGroup {
         len--;
       }
 
-      BigInteger num = new BigInteger(text);
-      num = num.add(BigInteger.valueOf(count));
-      number = num.toString();
+      if (text.length() <= MAX_LONG_DECIMAL_DIGITS) {
+        number = Long.toString(Long.parseLong(text) + count);
+      }
+      else {
+        number = new BigInteger(text).add(BigInteger.valueOf(count)).toString();
+      }
 
       if (!octal && pad) {
         boolean neg = false;
@@ -2161,16 +2479,7 @@ public class ChangeGroup implements VimChangeGroup {
   }
 
   private void updateLastInsertedTextRegister() {
-    StringBuilder textToPutRegister = new StringBuilder();
-    if (lastStrokes != null) {
-      for (Object lastStroke : lastStrokes) {
-        if (lastStroke instanceof char[]) {
-          final char[] chars = (char[])lastStroke;
-          textToPutRegister.append(new String(chars));
-        }
-      }
-    }
-    VimPlugin.getRegister().storeTextSpecial(LAST_INSERTED_TEXT_REGISTER, textToPutRegister.toString());
+    VimPlugin.getRegister().storeTextSpecial(LAST_INSERTED_TEXT_REGISTER, lastStrokes.getText());
   }
 
   private int oldOffset = -1;
@@ -2191,7 +2500,7 @@ public class ChangeGroup implements VimChangeGroup {
       // <Enter> is added to strokes as an action during processing in order to indent code properly in the repeat
       // command
       if (newFragment.startsWith("\n") && newFragment.trim().isEmpty()) {
-        strokes.addAll(getAdjustCaretActions(e));
+        addAdjustCaretActions(e);
         oldOffset = -1;
         return;
       }
@@ -2202,35 +2511,29 @@ public class ChangeGroup implements VimChangeGroup {
       }
       tabAction = false;
 
-      strokes.addAll(getAdjustCaretActions(e));
+      addAdjustCaretActions(e);
 
       if (oldFragmentLength > 0) {
         final AnAction editorDelete = ActionManager.getInstance().getAction("EditorDelete");
-        for (int i = 0; i < oldFragmentLength; i++) {
-          strokes.add(editorDelete);
-        }
+        strokes.addAction(editorDelete, oldFragmentLength);
       }
 
       if (newFragmentLength > 0) {
-        strokes.add(newFragment.toCharArray());
+        strokes.addText(newFragment);
       }
       repeatCharsCount += newFragmentLength;
       oldOffset = e.getOffset() + newFragmentLength;
     }
 
-    private @NotNull List<EditorActionHandlerBase> getAdjustCaretActions(@NotNull DocumentEvent e) {
+    private void addAdjustCaretActions(@NotNull DocumentEvent e) {
       final int delta = e.getOffset() - oldOffset;
       if (oldOffset >= 0 && delta != 0) {
-        final List<EditorActionHandlerBase> positionCaretActions = new ArrayList<>();
         final String motionName = delta < 0 ? "VimMotionLeftAction" : "VimMotionRightAction";
         final EditorActionHandlerBase action = RegisterActions.findAction(motionName);
-        final int count = Math.abs(delta);
-        for (int i = 0; i < count; i++) {
-          positionCaretActions.add(action);
+        if (action != null) {
+          strokes.addAction(action, Math.abs(delta));
         }
-        return positionCaretActions;
       }
-      return Collections.emptyList();
     }
   }
 
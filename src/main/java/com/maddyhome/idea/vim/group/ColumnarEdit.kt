@@ -0,0 +1,92 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.group
+
+import com.intellij.openapi.editor.Editor
+import com.intellij.util.DocumentUtil
+
+/**
+ * Changes of the lines of a block, applied to the document as a single update.
+ *
+ * The changes are added from the top line to the bottom one, with the offsets of the original text. [apply] makes
+ *   them bottom up, so the planned offsets stay valid, and large blocks are changed in a bulk update, so the editor
+ *   handles one change instead of a change per line.
+ */
+class ColumnarEdit(private val editor: Editor) {
+  private var starts = IntArray(INITIAL_CAPACITY)
+  private var ends = IntArray(INITIAL_CAPACITY)
+  private val texts = ArrayList<CharSequence>()
+
+  /**
+   * Number of planned changes
+   */
+  val size: Int
+    get() = texts.size
+
+  /**
+   * Plans replacing the text between [startOffset] and [endOffset] with [text]. The change should go after the
+   *   previously planned changes.
+   */
+  fun replace(startOffset: Int, endOffset: Int, text: CharSequence) {
+    val index = size
+    require(startOffset <= endOffset) { "Wrong change range: $startOffset..$endOffset" }
+    require(index == 0 || startOffset >= ends[index - 1]) { "Changes should be planned in the document order" }
+    if (index == starts.size) {
+      starts = starts.copyOf(index * 2)
+      ends = ends.copyOf(index * 2)
+    }
+    starts[index] = startOffset
+    ends[index] = endOffset
+    texts += text
+  }
+
+  fun insert(offset: Int, text: CharSequence) {
+    replace(offset, offset, text)
+  }
+
+  /**
+   * Returns the start offset of the change with the given [index] in the changed text
+   */
+  fun newStartOffset(index: Int): Int {
+    var shift = 0
+    for (i in 0 until index) {
+      shift += texts[i].length - (ends[i] - starts[i])
+    }
+    return starts[index] + shift
+  }
+
+  /**
+   * Applies all planned changes
+   */
+  fun apply() {
+    val document = editor.document
+    DocumentUtil.executeInBulk(document, size > BULK_CHANGE_THRESHOLD) {
+      for (i in size - 1 downTo 0) {
+        if (starts[i] != ends[i] || texts[i].isNotEmpty()) {
+          document.replaceString(starts[i], ends[i], texts[i])
+        }
+      }
+    }
+  }
+
+  companion object {
+    private const val INITIAL_CAPACITY = 16
+    private const val BULK_CHANGE_THRESHOLD = 100
+  }
+}
@@ -24,32 +24,32 @@ import com.maddyhome.idea.vim.VimPlugin;
 import com.maddyhome.idea.vim.api.VimDigraphGroup;
 import com.maddyhome.idea.vim.ex.ExOutputModel;
 import com.maddyhome.idea.vim.helper.EditorHelper;
+import com.maddyhome.idea.vim.helper.MessageHelper;
+import com.maddyhome.idea.vim.helper.Msg;
 import com.maddyhome.idea.vim.helper.StringHelper;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
-import java.util.HashMap;
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TreeMap;
 
 public class DigraphGroup implements VimDigraphGroup {
-  public DigraphGroup() {
-    loadDigraphs();
-  }
-
   @Override
   public char getDigraph(char ch1, char ch2) {
-    String key = new String(new char[]{ch1, ch2});
-    Character ch = digraphs.get(key);
-    if (ch == null) {
-      key = new String(new char[]{ch2, ch1});
-      ch = digraphs.get(key);
+    int ch = findDigraph(ch1, ch2);
+    if (ch == NO_DIGRAPH) {
+      ch = findDigraph(ch2, ch1);
     }
 
-    if (ch == null) {
+    if (ch == NO_DIGRAPH) {
       return ch2;
     }
     else {
-      return ch;
+      return (char)ch;
     }
   }
 
@@ -59,7 +59,7 @@ public class DigraphGroup implements VimDigraphGroup {
     if (charsSequence.length() == 0 || offset >= charsSequence.length()) return;
     char ch = charsSequence.charAt(offset);
 
-    final String digraph = keys.get(ch);
+    final String digraph = findKey(ch);
     final String digraphText = digraph == null ? "" : ", Digr " + digraph;
 
     if (ch < 0x100) {
@@ -79,16 +79,73 @@ public class DigraphGroup implements VimDigraphGroup {
       return true;
     }
 
-    return true;
+    return addCustomDigraphs(args);
+  }
+
+  /**
+   * Parses {@code {char1}{char2} {number} ...} pairs of the {@code :digraphs} command
+   */
+  private boolean addCustomDigraphs(@NotNull String args) {
+    int i = 0;
+    while (true) {
+      while (i < args.length() && Character.isWhitespace(args.charAt(i))) i++;
+      if (i >= args.length()) return true;
+
+      if (i + 1 >= args.length()) {
+        VimPlugin.showMessage(MessageHelper.message("E39"));
+        return false;
+      }
+      final char ch1 = args.charAt(i);
+      final char ch2 = args.charAt(i + 1);
+      if (ch1 == KeyEvent.VK_ESCAPE || ch2 == KeyEvent.VK_ESCAPE) {
+        VimPlugin.showMessage(MessageHelper.message("E104"));
+        return false;
+      }
+      i += 2;
+
+      while (i < args.length() && Character.isWhitespace(args.charAt(i))) i++;
+      final int numberStart = i;
+      while (i < args.length() && Character.isDigit(args.charAt(i))) i++;
+      if (numberStart == i) {
+        VimPlugin.showMessage(MessageHelper.message("E39"));
+        return false;
+      }
+      final int code;
+      try {
+        code = Integer.parseInt(args.substring(numberStart, i));
+      }
+      catch (NumberFormatException e) {
+        VimPlugin.showMessage(MessageHelper.message("E39"));
+        return false;
+      }
+      // Only the characters of the Basic Multilingual Plane fit into a single char
+      if (code > Character.MAX_VALUE) {
+        VimPlugin.showMessage(MessageHelper.message(Msg.E475, args.substring(numberStart, i)));
+        return false;
+      }
+      // The same key may be redefined, the newest definition goes last
+      final int key = packKey(ch1, ch2);
+      customDigraphs.remove(key);
+      customDigraphs.put(key, (char)code);
+    }
+  }
+
+  /**
+   * Removes the digraphs added with {@code :digraphs}
+   */
+  public void clearCustomDigraphs() {
+    customDigraphs.clear();
   }
 
   private void showDigraphs(@NotNull Editor editor) {
+    final TreeMap<Character, String> keys = collectKeys();
+
     int width = EditorHelper.getApproximateScreenWidth(editor);
     if (width < 10) {
       width = 80;
     }
     int colCount = width / 12;
-    int height = (int)Math.ceil((double)digraphs.size() / (double)colCount);
+    int height = (int)Math.ceil((double)keys.size() / (double)colCount);
 
     if (logger.isDebugEnabled()) {
       logger.debug("width=" + width);
@@ -98,8 +155,9 @@ public class DigraphGroup implements VimDigraphGroup {
 
     StringBuilder res = new StringBuilder();
     int cnt = 0;
-    for (Character code : keys.keySet()) {
-      String key = keys.get(code);
+    for (Map.Entry<Character, String> entry : keys.entrySet()) {
+      char code = entry.getKey();
+      String key = entry.getValue();
 
       res.append(key);
       res.append(' ');
@@ -138,19 +196,110 @@ public class DigraphGroup implements VimDigraphGroup {
     ExOutputModel.getInstance(editor).output(res.toString());
   }
 
-  private void loadDigraphs() {
+  /**
+   * @return the digraph for the exact key sequence or {@link #NO_DIGRAPH}. Custom digraphs override the default ones.
+   */
+  private int findDigraph(char ch1, char ch2) {
+    final int key = packKey(ch1, ch2);
+    if (!customDigraphs.isEmpty()) {
+      final Character custom = customDigraphs.get(key);
+      if (custom != null) return custom;
+    }
+    return DefaultDigraphTable.find(key);
+  }
+
+  /**
+   * Finds the key sequence for the character for {@code :ascii}. The latest definition wins, as in {@link #collectKeys()}.
+   */
+  private @Nullable String findKey(char ch) {
+    String result = null;
+    for (Map.Entry<Integer, Character> entry : customDigraphs.entrySet()) {
+      if (entry.getValue() == ch) result = unpackKey(entry.getKey());
+    }
+    if (result != null) return result;
+
+    for (int i = defaultDigraphs.length - 3; i >= 0; i -= 3) {
+      if (defaultDigraphs[i + 2] == ch && defaultDigraphs[i] != '\0' && defaultDigraphs[i + 1] != '\0') {
+        return new String(defaultDigraphs, i, 2);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Builds the character to key sequence map for {@code :digraphs}. It's only needed for the output, so it's not stored.
+   */
+  private @NotNull TreeMap<Character, String> collectKeys() {
+    final TreeMap<Character, String> keys = new TreeMap<>();
     for (int i = 0; i < defaultDigraphs.length; i += 3) {
       if (defaultDigraphs[i] != '\0' && defaultDigraphs[i + 1] != '\0') {
-        char ch = defaultDigraphs[i + 2];
-        String key = new String(new char[]{defaultDigraphs[i], defaultDigraphs[i + 1]});
-        digraphs.put(key, ch);
-        keys.put(ch, key);
+        keys.put(defaultDigraphs[i + 2], new String(defaultDigraphs, i, 2));
       }
     }
+    for (Map.Entry<Integer, Character> entry : customDigraphs.entrySet()) {
+      keys.put(entry.getValue(), unpackKey(entry.getKey()));
+    }
+    return keys;
+  }
 
-    // TODO - load custom digraphs from .ideavimrc
+  private static int packKey(char ch1, char ch2) {
+    return (ch1 << 16) | ch2;
   }
 
+  private static @NotNull String unpackKey(int key) {
+    return new String(new char[]{(char)(key >>> 16), (char)key});
+  }
+
+  /**
+   * Lookup table for {@link #defaultDigraphs}.
+   * <p>
+   * Both key chars are packed into a single int, the keys are sorted and searched with the binary search, so the table
+   * takes two primitive arrays instead of a boxed map. The table is shared and built on the first digraph lookup,
+   * the holder class makes the initialization lazy and thread-safe.
+   */
+  private static final class DefaultDigraphTable {
+    private static final int[] keys;
+    private static final char[] values;
+
+    static {
+      // Sort entries by the key and then by their position, the later definition of the same key wins
+      final int count = defaultDigraphs.length / 3;
+      final long[] entries = new long[count];
+      int size = 0;
+      for (int i = 0; i < defaultDigraphs.length; i += 3) {
+        if (defaultDigraphs[i] != '\0' && defaultDigraphs[i + 1] != '\0') {
+          entries[size++] = ((long)packKey(defaultDigraphs[i], defaultDigraphs[i + 1]) << 32) | i;
+        }
+      }
+      Arrays.sort(entries, 0, size);
+
+      final int[] sortedKeys = new int[size];
+      final char[] sortedValues = new char[size];
+      int unique = 0;
+      for (int i = 0; i < size; i++) {
+        final int key = (int)(entries[i] >>> 32);
+        final char value = defaultDigraphs[(int)entries[i] + 2];
+        if (unique > 0 && sortedKeys[unique - 1] == key) {
+          sortedValues[unique - 1] = value;
+        }
+        else {
+          sortedKeys[unique] = key;
+          sortedValues[unique] = value;
+          unique++;
+        }
+      }
+      keys = Arrays.copyOf(sortedKeys, unique);
+      values = Arrays.copyOf(sortedValues, unique);
+    }
+
+    static int find(int key) {
+      final int index = Arrays.binarySearch(keys, key);
+      return index >= 0 ? values[index] : NO_DIGRAPH;
+    }
+  }
+
+  private static final int NO_DIGRAPH = -1;
+
   private static final char[] defaultDigraphs = {
     /*
     'N', 'U', // 0   ^@
@@ -1749,8 +1898,7 @@ public class DigraphGroup implements VimDigraphGroup {
     'f', 't', '\ufb05', // LATIN SMALL LIGATURE FT
     's', 't', '\ufb06', // LATIN SMALL LIGATURE ST
   };
-  private final @NotNull HashMap<String, Character> digraphs = new HashMap<>(defaultDigraphs.length);
-  private final @NotNull TreeMap<Character, String> keys = new TreeMap<>();
+  private final @NotNull LinkedHashMap<Integer, Character> customDigraphs = new LinkedHashMap<>();
 
   private static final Logger logger = Logger.getInstance(DigraphGroup.class.getName());
 }
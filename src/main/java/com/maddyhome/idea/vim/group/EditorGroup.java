@@ -36,6 +36,7 @@ import com.maddyhome.idea.vim.VimPlugin;
 import com.maddyhome.idea.vim.helper.*;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
 import com.maddyhome.idea.vim.api.VimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType;
 import com.maddyhome.idea.vim.options.LocalOptionChangeListener;
 import com.maddyhome.idea.vim.options.OptionConstants;
@@ -63,7 +64,7 @@ public class EditorGroup implements PersistentStateComponent<Element> {
     @Override
     public void caretPositionChanged(@NotNull CaretEvent e) {
       final boolean requiresRepaint = e.getNewPosition().line != e.getOldPosition().line;
-      if (requiresRepaint && VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(new IjVimEditor(e.getEditor())), OptionConstants.relativenumberName, OptionConstants.relativenumberName)) {
+      if (requiresRepaint && VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(IjVimEditorKt.getVim(e.getEditor())), OptionConstants.relativenumberName, OptionConstants.relativenumberName)) {
         repaintRelativeLineNumbers(e.getEditor());
       }
     }
@@ -111,8 +112,8 @@ public class EditorGroup implements PersistentStateComponent<Element> {
   }
 
   private static void updateLineNumbers(final @NotNull Editor editor) {
-    final boolean relativeNumber = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.relativenumberName, OptionConstants.relativenumberName);
-    final boolean number = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.numberName, OptionConstants.numberName);
+    final boolean relativeNumber = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(IjVimEditorKt.getVim(editor)), OptionConstants.relativenumberName, OptionConstants.relativenumberName);
+    final boolean number = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(IjVimEditorKt.getVim(editor)), OptionConstants.numberName, OptionConstants.numberName);
 
     final boolean showBuiltinEditorLineNumbers = shouldShowBuiltinLineNumbers(editor, number, relativeNumber);
 
@@ -223,7 +224,7 @@ public class EditorGroup implements PersistentStateComponent<Element> {
         editor.getDocument().isWritable() &&
         !CommandStateHelper.inInsertMode(editor)) {
       VimPlugin.getChange().insertBeforeCursor(editor, EditorDataContext.init(editor, null));
-      KeyHandler.getInstance().reset(new IjVimEditor(editor));
+      KeyHandler.getInstance().reset(IjVimEditorKt.getVim(editor));
     }
     updateCaretsVisualAttributes(editor);
     editor.getSettings().setRefrainFromScrolling(REFRAIN_FROM_SCROLLING_VIM_VALUE);
@@ -290,7 +291,7 @@ public class EditorGroup implements PersistentStateComponent<Element> {
   private static class RelativeLineNumberConverter implements LineNumberConverter {
     @Override
     public Integer convert(@NotNull Editor editor, int lineNumber) {
-      final boolean number = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.numberName, OptionConstants.numberName);
+      final boolean number = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(IjVimEditorKt.getVim(editor)), OptionConstants.numberName, OptionConstants.numberName);
       final int caretLine = editor.getCaretModel().getLogicalPosition().line;
 
       // lineNumber is 1 based
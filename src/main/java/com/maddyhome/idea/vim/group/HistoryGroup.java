@@ -23,10 +23,14 @@ import com.intellij.openapi.components.RoamingType;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.diagnostic.Logger;
+import com.maddyhome.idea.vim.VimPlugin;
 import com.maddyhome.idea.vim.helper.StringHelper;
 import com.maddyhome.idea.vim.history.HistoryBlock;
 import com.maddyhome.idea.vim.history.HistoryEntry;
 import com.maddyhome.idea.vim.history.VimHistoryBase;
+import com.maddyhome.idea.vim.options.OptionChangeListener;
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType;
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles;
 import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -89,7 +93,7 @@ public class HistoryGroup extends VimHistoryBase implements PersistentStateCompo
       return;
     }
 
-    block = new HistoryBlock();
+    block = new HistoryBlock(getMaxLength());
     getHistories().put(key, block);
 
     final Element root = element.getChild("history-" + key);
@@ -122,5 +126,20 @@ public class HistoryGroup extends VimHistoryBase implements PersistentStateCompo
     getHistories().clear();
   }
 
+  /**
+   * Keeps the history length in sync with the 'history' option, so the option isn't read on each new entry
+   */
+  public static class HistoryOptionChangeListener implements OptionChangeListener<VimDataType> {
+    public static HistoryOptionChangeListener INSTANCE = new HistoryOptionChangeListener();
+
+    private HistoryOptionChangeListener() {
+    }
+
+    @Override
+    public void processGlobalValueChange(@Nullable VimDataType oldValue) {
+      VimPlugin.getHistory().setMaxLength(OptionHandles.history.get(null));
+    }
+  }
+
   private static final Logger logger = Logger.getInstance(HistoryGroup.class.getName());
 }
@@ -0,0 +1,124 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.group;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the text and actions of the current insert so it can be repeated with {@code .} or a count.
+ * <p>
+ * All typed text is kept in a single growable char buffer. Actions (IDE actions, vim actions, deletes) are stored
+ * separately together with the text position they were recorded at and a repeat count, so a run of identical actions
+ * (e.g. several backspaces or caret adjustments) takes a single entry.
+ */
+final class InsertRepeatBuffer {
+  private final @NotNull StringBuilder text = new StringBuilder();
+  private final @NotNull List<Object> actions = new ArrayList<>();
+  private int[] actionOffsets = new int[8];
+  private int[] actionCounts = new int[8];
+
+  public interface Consumer {
+    void text(@NotNull String text);
+
+    void action(@NotNull Object action, int count);
+  }
+
+  public void addText(@NotNull CharSequence chars) {
+    text.append(chars);
+  }
+
+  public void addAction(@NotNull Object action) {
+    addAction(action, 1);
+  }
+
+  public void addAction(@NotNull Object action, int count) {
+    if (count <= 0) return;
+    final int size = actions.size();
+    if (size > 0 && actions.get(size - 1) == action && actionOffsets[size - 1] == text.length()) {
+      actionCounts[size - 1] += count;
+      return;
+    }
+    if (size == actionOffsets.length) {
+      actionOffsets = Arrays.copyOf(actionOffsets, size * 2);
+      actionCounts = Arrays.copyOf(actionCounts, size * 2);
+    }
+    actions.add(action);
+    actionOffsets[size] = text.length();
+    actionCounts[size] = count;
+  }
+
+  public void clear() {
+    text.setLength(0);
+    actions.clear();
+  }
+
+  /**
+   * Replaces the contents of this buffer with the contents of {@code other}, reusing the allocated storage
+   */
+  public void copyFrom(@NotNull InsertRepeatBuffer other) {
+    clear();
+    text.append(other.text);
+    final int size = other.actions.size();
+    if (actionOffsets.length < size) {
+      actionOffsets = new int[other.actionOffsets.length];
+      actionCounts = new int[other.actionCounts.length];
+    }
+    System.arraycopy(other.actionOffsets, 0, actionOffsets, 0, size);
+    System.arraycopy(other.actionCounts, 0, actionCounts, 0, size);
+    actions.addAll(other.actions);
+  }
+
+  public boolean isEmpty() {
+    return text.length() == 0 && actions.isEmpty();
+  }
+
+  public boolean hasActions() {
+    return !actions.isEmpty();
+  }
+
+  /**
+   * @return all the recorded text without the actions
+   */
+  public @NotNull String getText() {
+    return text.toString();
+  }
+
+  /**
+   * Feeds the recorded strokes to the consumer in the order they were recorded. Text between two actions is passed
+   * as a single chunk.
+   */
+  public void replay(@NotNull Consumer consumer) {
+    int start = 0;
+    for (int i = 0; i < actions.size(); i++) {
+      final int end = actionOffsets[i];
+      if (end > start) {
+        consumer.text(text.substring(start, end));
+        start = end;
+      }
+      consumer.action(actions.get(i), actionCounts[i]);
+    }
+    if (start < text.length()) {
+      consumer.text(text.substring(start));
+    }
+  }
+}
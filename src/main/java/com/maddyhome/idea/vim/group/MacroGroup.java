@@ -29,11 +29,11 @@ import com.intellij.openapi.progress.util.PotemkinProgress;
 import com.intellij.openapi.project.Project;
 import com.maddyhome.idea.vim.KeyHandler;
 import com.maddyhome.idea.vim.VimPlugin;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.register.Register;
 import com.maddyhome.idea.vim.helper.MessageHelper;
 import com.maddyhome.idea.vim.helper.StringHelper;
 import com.maddyhome.idea.vim.newapi.IjExecutionContext;
-import com.maddyhome.idea.vim.newapi.IjVimEditor;
 import com.maddyhome.idea.vim.options.OptionConstants;
 import com.maddyhome.idea.vim.options.OptionScope;
 import org.jetbrains.annotations.NotNull;
@@ -142,7 +142,7 @@ public class MacroGroup {
           logger.debug("processing key " + pos);
         }
         // Handle one keystroke then queue up the next key
-        KeyHandler.getInstance().handleKey(new IjVimEditor(editor), keys.get(pos), new IjExecutionContext(context));
+        KeyHandler.getInstance().handleKey(IjVimEditorKt.getVim(editor), keys.get(pos), new IjExecutionContext(context));
         if (pos < keys.size() - 1) {
           playbackKeys(editor, context, project, keys, pos + 1, cnt, total);
         }
@@ -174,7 +174,7 @@ public class MacroGroup {
               return;
             }
             ProgressManager.getInstance().executeNonCancelableSection(() -> {
-              KeyHandler.getInstance().handleKey(new IjVimEditor(editor), key, new IjExecutionContext(context));
+              KeyHandler.getInstance().handleKey(IjVimEditorKt.getVim(editor), key, new IjExecutionContext(context));
             });
           }
         }
@@ -46,14 +46,17 @@ import com.maddyhome.idea.vim.helper.EditorHelper;
 import com.maddyhome.idea.vim.helper.HelperKt;
 import com.maddyhome.idea.vim.mark.*;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
+import com.maddyhome.idea.vim.options.OptionChangeListener;
 import com.maddyhome.idea.vim.options.OptionConstants;
 import com.maddyhome.idea.vim.options.OptionScope;
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType;
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimInt;
 import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static com.maddyhome.idea.vim.mark.VimMarkConstants.*;
 
@@ -64,10 +67,44 @@ import static com.maddyhome.idea.vim.mark.VimMarkConstants.*;
   @Storage(value = "$APP_CONFIG$/vim_settings_local.xml", roamingType = RoamingType.DISABLED)
 })
 public class MarkGroup extends VimMarkGroupBase implements PersistentStateComponent<Element> {
+  public void editorCreated(@NotNull Editor editor) {
+    // Start tracking the marks of the file with the document
+    Document doc = editor.getDocument();
+    HashMap<Character, Mark> marks = getAllFileMarks(doc);
+    if (marks == null) return;
+    for (Mark mark : marks.values()) {
+      if (mark instanceof DocumentMark && !((DocumentMark)mark).isAnchored()) {
+        ((DocumentMark)mark).anchor(doc);
+      }
+    }
+  }
+
   public void editorReleased(@NotNull EditorFactoryEvent event) {
     // Save off the last caret position of the file before it is closed
     Editor editor = event.getEditor();
-    setMark(new IjVimEditor(editor), '"', editor.getCaretModel().getOffset());
+    setMark(IjVimEditorKt.getVim(editor), '"', editor.getCaretModel().getOffset());
+
+    // The document is closed, so the marks are not tracked anymore
+    Document doc = editor.getDocument();
+    if (HelperKt.localEditors(doc).stream().anyMatch(it -> it != editor)) return;
+    HashMap<Character, Mark> marks = getAllFileMarks(doc);
+    if (marks == null) return;
+    for (Mark mark : marks.values()) {
+      if (mark instanceof DocumentMark) {
+        ((DocumentMark)mark).materialize();
+      }
+    }
+  }
+
+  @Override
+  protected @NotNull Mark createMark(@NotNull VimEditor editor, char ch, int line, int col, @NotNull String path) {
+    Document doc = ((IjVimEditor)editor).getEditor().getDocument();
+    return DocumentMark.create(ch, line, col, path, editor.extractProtocol(), doc);
+  }
+
+  @Override
+  protected boolean isSystemMark(@NotNull Mark mark) {
+    return mark instanceof IntellijMark;
   }
 
   @Override
@@ -148,19 +185,16 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
 
     Element fileMarksElem = new Element("filemarks");
 
-    List<FileMarks<Character, Mark>> files = new ArrayList<>(fileMarks.values());
-    files.sort(Comparator.comparing(FileMarks<Character, Mark>::getMyTimestamp));
-
-    if (files.size() > SAVE_MARK_COUNT) {
-      files = files.subList(files.size() - SAVE_MARK_COUNT, files.size());
+    // File marks are kept in the least recently used order, so the most recent files are at the end
+    List<Map.Entry<String, FileMarks<Character, Mark>>> files = new ArrayList<>(fileMarks.entrySet());
+    int saveCount = Math.min(SAVE_MARK_COUNT, maxFileMarksCount());
+    if (files.size() > saveCount) {
+      files = files.subList(files.size() - saveCount, files.size());
     }
 
-    for (String file : fileMarks.keySet()) {
-      FileMarks<Character, Mark> marks = fileMarks.get(file);
-      if (!files.contains(marks)) {
-        continue;
-      }
-
+    for (Map.Entry<String, FileMarks<Character, Mark>> entry : files) {
+      String file = entry.getKey();
+      FileMarks<Character, Mark> marks = entry.getValue();
       if (marks.size() > 0) {
         Element fileMarkElem = new Element("file");
         fileMarkElem.setAttribute("name", file);
@@ -204,11 +238,11 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
     if (marksElem != null && !VimPlugin.getOptionService().isSet(OptionScope.GLOBAL.INSTANCE, OptionConstants.ideamarksName, OptionConstants.ideamarksName)) {
       List<Element> markList = marksElem.getChildren("mark");
       for (Element aMarkList : markList) {
-        Mark mark = VimMark.create(aMarkList.getAttributeValue("key").charAt(0),
-                                   Integer.parseInt(aMarkList.getAttributeValue("line")),
-                                   Integer.parseInt(aMarkList.getAttributeValue("column")),
-                                   aMarkList.getAttributeValue("filename"),
-                                   aMarkList.getAttributeValue("protocol"));
+        Mark mark = readMark(aMarkList.getAttributeValue("key"),
+                               aMarkList.getAttributeValue("line"),
+                               aMarkList.getAttributeValue("column"),
+                               aMarkList.getAttributeValue("filename"),
+                               aMarkList.getAttributeValue("protocol"));
 
         if (mark != null) {
           globalMarks.put(mark.getKey(), mark);
@@ -238,11 +272,11 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
         FileMarks<Character, Mark> fmarks = getFileMarks(filename);
         List<Element> markList = aFileList.getChildren("mark");
         for (Element aMarkList : markList) {
-          Mark mark = VimMark.create(aMarkList.getAttributeValue("key").charAt(0),
-                                     Integer.parseInt(aMarkList.getAttributeValue("line")),
-                                     Integer.parseInt(aMarkList.getAttributeValue("column")),
-                                     filename,
-                                     aMarkList.getAttributeValue("protocol"));
+          Mark mark = readMark(aMarkList.getAttributeValue("key"),
+                                 aMarkList.getAttributeValue("line"),
+                                 aMarkList.getAttributeValue("column"),
+                                 filename,
+                                 aMarkList.getAttributeValue("protocol"));
 
           if (mark != null) fmarks.put(mark.getKey(), mark);
         }
@@ -254,7 +288,7 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
       logger.debug("fileMarks=" + fileMarks);
     }
 
-    jumps.clear();
+    jumps.reset();
     Element jumpsElem = element.getChild("jumps");
     if (jumpsElem != null) {
       List<Element> jumpList = jumpsElem.getChildren("jump");
@@ -263,7 +297,7 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
                              Integer.parseInt(aJumpList.getAttributeValue("column")),
                              aJumpList.getAttributeValue("filename"));
 
-        jumps.add(jump);
+        jumps.push(jump);
       }
     }
 
@@ -273,16 +307,37 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
   }
 
   /**
-   * This updates all the marks for a file whenever text is deleted from the file. If the line that contains a mark
-   * is completely deleted then the mark is deleted too. If the deleted text is before the marked line, the mark is
-   * moved up by the number of deleted lines.
+   * Creates a mark read from the saved state. The mark starts tracking the document when an editor for the file is
+   * opened.
+   */
+  private static @Nullable Mark readMark(@Nullable String key,
+                                         @Nullable String line,
+                                         @Nullable String column,
+                                         @Nullable String filename,
+                                         @Nullable String protocol) {
+    if (key == null || key.isEmpty() || line == null || filename == null) return null;
+    int col = column != null ? Integer.parseInt(column) : 0;
+    return DocumentMark.create(key.charAt(0), Integer.parseInt(line), col, filename, StringUtil.notNullize(protocol),
+                               null);
+  }
+
+  /**
+   * This updates all the marks for a file whenever text is about to be deleted from the file. If the line that
+   * contains a mark is completely deleted then the mark is deleted too. Marks don't need to be shifted here: they
+   * follow the document changes with their range markers. Only the marks whose line start is about to be removed
+   * are moved to the first line of the deletion and collected to be tracked again after the change.
    *
-   * @param editor      The modified editor
-   * @param marks       The editor's marks to update
-   * @param delStartOff The offset within the editor where the deletion occurred
-   * @param delLength   The length of the deleted text
+   * @param editor        The modified editor
+   * @param marks         The editor's marks to update
+   * @param delStartOff   The offset within the editor where the deletion occurred
+   * @param delLength     The length of the deleted text
+   * @param marksToAnchor The marks that should start tracking the document again after the change
    */
-  public static void updateMarkFromDelete(@Nullable Editor editor, @Nullable HashMap<Character, Mark> marks, int delStartOff, int delLength) {
+  public static void updateMarkFromDelete(@Nullable Editor editor,
+                                          @Nullable HashMap<Character, Mark> marks,
+                                          int delStartOff,
+                                          int delLength,
+                                          @NotNull List<DocumentMark> marksToAnchor) {
     // Skip all this work if there are no marks
     if (marks != null && marks.size() > 0 && editor != null) {
       // Calculate the logical position of the start and end of the deleted text
@@ -294,23 +349,17 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
       // Now analyze each mark to determine if it needs to be updated or removed
       for (Character ch : marks.keySet()) {
         Mark myMark = marks.get(ch);
-        if (!(myMark instanceof VimMark)) continue;
-        VimMark mark = (VimMark) myMark;
+        if (!(myMark instanceof DocumentMark)) continue;
+        DocumentMark mark = (DocumentMark) myMark;
+        int markLine = mark.getLogicalLine();
 
         if (logger.isDebugEnabled()) logger.debug("mark = " + mark);
-        // If the end of the deleted text is prior to the marked line, simply shift the mark up by the
-        // proper number of lines.
-        if (delEnd.line < mark.getLogicalLine()) {
-          int lines = delEnd.line - delStart.line;
-          if (logger.isDebugEnabled()) logger.debug("Shifting mark by " + lines + " lines");
-          mark.setLogicalLine(mark.getLogicalLine() - lines);
-        }
-        // If the deleted text begins before the mark and ends after the mark then it may be shifted or deleted
-        else if (delStart.line <= mark.getLogicalLine() && delEnd.line >= mark.getLogicalLine()) {
-          int markLineStartOff = EditorHelper.getLineStartOffset(editor, mark.getLogicalLine());
-          int markLineEndOff = EditorHelper.getLineEndOffset(editor, mark.getLogicalLine(), true);
+        // If the deleted text begins before the mark and ends after the mark then it may be moved or deleted
+        if (delStart.line <= markLine && delEnd.line >= markLine) {
+          int markLineStartOff = EditorHelper.getLineStartOffset(editor, markLine);
+          int markLineEndOff = EditorHelper.getLineEndOffset(editor, markLine, true);
 
-          Command command = CommandState.getInstance(new IjVimEditor(editor)).getExecutingCommand();
+          Command command = CommandState.getInstance(IjVimEditorKt.getVim(editor)).getExecutingCommand();
           // If text is being changed from the start of the mark line (a special case for mark deletion)
           boolean changeFromMarkLineStart = command != null && command.getType() == Command.Type.CHANGE
                                             && delStartOff == markLineStartOff;
@@ -319,47 +368,18 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
             VimPlugin.getMark().removeMark(ch, mark);
             logger.debug("Removed mark");
           }
-          // The deletion only covers part of the marked line so shift the mark only if the deletion begins
+          // The deletion only covers part of the marked line so move the mark only if the deletion begins
           // on a line prior to the marked line (which means the deletion must end on the marked line).
-          else if (delStart.line < mark.getLogicalLine()) {
-            // shift mark
-            mark.setLogicalLine(delStart.line);
-            if (logger.isDebugEnabled()) logger.debug("Shifting mark to line " + delStart.line);
+          else if (delStart.line < markLine) {
+            mark.moveToLine(delStart.line);
+            marksToAnchor.add(mark);
+            if (logger.isDebugEnabled()) logger.debug("Moving mark to line " + delStart.line);
           }
         }
       }
     }
   }
 
-  /**
-   * This updates all the marks for a file whenever text is inserted into the file. If the line that contains a mark
-   * that is after the start of the insertion point, shift the mark by the number of new lines added.
-   *
-   * @param editor      The editor that was updated
-   * @param marks       The editor's marks
-   * @param insStartOff The insertion point
-   * @param insLength   The length of the insertion
-   */
-  public static void updateMarkFromInsert(@Nullable Editor editor, @Nullable HashMap<Character, Mark> marks, int insStartOff, int insLength) {
-    if (marks != null && marks.size() > 0 && editor != null) {
-      int insEndOff = insStartOff + insLength;
-      LogicalPosition insStart = editor.offsetToLogicalPosition(insStartOff);
-      LogicalPosition insEnd = editor.offsetToLogicalPosition(insEndOff);
-      if (logger.isDebugEnabled()) logger.debug("mark insert. insStart = " + insStart + ", insEnd = " + insEnd);
-      int lines = insEnd.line - insStart.line;
-      if (lines == 0) return;
-
-      for (VimMark mark : marks.values().stream().filter(VimMark.class::isInstance).map(VimMark.class::cast).collect(Collectors.toList())) {
-        if (logger.isDebugEnabled()) logger.debug("mark = " + mark);
-        // Shift the mark if the insertion began on a line prior to the marked line.
-        if (insStart.line < mark.getLogicalLine()) {
-          mark.setLogicalLine(mark.getLogicalLine() + lines);
-          if (logger.isDebugEnabled()) logger.debug("Shifting mark by " + lines + " lines");
-        }
-      }
-    }
-  }
-
   @Nullable
   @Override
   public Element getState() {
@@ -379,6 +399,9 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
   public static class MarkUpdater implements DocumentListener {
 
     public static MarkUpdater INSTANCE = new MarkUpdater();
+
+    private final List<DocumentMark> marksToAnchor = new ArrayList<>();
+
     /**
      * Creates the listener for the supplied editor
      */
@@ -400,26 +423,26 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
 
       Document doc = event.getDocument();
       updateMarkFromDelete(getAnEditor(doc), VimPlugin.getMark().getAllFileMarks(doc), event.getOffset(),
-                           event.getOldLength());
+                           event.getOldLength(), marksToAnchor);
       // TODO - update jumps
     }
 
     /**
-     * This event indicates that a document was just changed. We use this event to update all the editor's
-     * marks if text was just added.
+     * This event indicates that a document was just changed. The marks moved by the deletion start tracking the
+     * document again.
      *
      * @param event The change event
      */
     @Override
     public void documentChanged(@NotNull DocumentEvent event) {
-      if (!VimPlugin.isEnabled()) return;
+      if (marksToAnchor.isEmpty()) return;
 
       if (logger.isDebugEnabled()) logger.debug("MarkUpdater after, event = " + event);
-      if (event.getNewLength() == 0 || (event.getNewLength() == 1 && event.getNewFragment().charAt(0) != '\n')) return;
-
       Document doc = event.getDocument();
-      updateMarkFromInsert(getAnEditor(doc), VimPlugin.getMark().getAllFileMarks(doc), event.getOffset(),
-                           event.getNewLength());
+      for (DocumentMark mark : marksToAnchor) {
+        if (!mark.isClear()) mark.anchor(doc);
+      }
+      marksToAnchor.clear();
       // TODO - update jumps
     }
 
@@ -435,6 +458,20 @@ public class MarkGroup extends VimMarkGroupBase implements PersistentStateCompon
     }
   }
 
+  public static class JumpListSizeChangeListener implements OptionChangeListener<VimDataType> {
+    public static JumpListSizeChangeListener INSTANCE = new JumpListSizeChangeListener();
+
+    private JumpListSizeChangeListener() {
+    }
+
+    @Override
+    public void processGlobalValueChange(@Nullable VimDataType oldValue) {
+      int size = ((VimInt)VimPlugin.getOptionService()
+        .getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.ideajumplistsizeName, OptionConstants.ideajumplistsizeName)).getValue();
+      VimPlugin.getMark().setJumpListSize(size);
+    }
+  }
+
   public static class VimBookmarksListener implements com.intellij.ide.bookmark.BookmarksListener {
     private final Project myProject;
 
@@ -48,13 +48,16 @@ import com.maddyhome.idea.vim.mark.Jump;
 import com.maddyhome.idea.vim.mark.Mark;
 import com.maddyhome.idea.vim.newapi.IjExecutionContext;
 import com.maddyhome.idea.vim.newapi.IjVimCaret;
+import com.maddyhome.idea.vim.newapi.IjVimCaretKt;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.options.LocalOptionChangeListener;
 import com.maddyhome.idea.vim.options.OptionConstants;
 import com.maddyhome.idea.vim.options.OptionScope;
 import com.maddyhome.idea.vim.ui.ex.ExEntryPanel;
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType;
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimInt;
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles;
 import kotlin.Pair;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -94,7 +97,7 @@ public class MotionGroup extends VimMotionGroupBase {
     int start;
     int end;
     if (argument.getType() == Argument.Type.OFFSETS) {
-      final VimSelection offsets = argument.getOffsets().get(new IjVimCaret(caret));
+      final VimSelection offsets = argument.getOffsets().get(IjVimCaretKt.getVim(caret));
       if (offsets == null) return null;
 
       final Pair<Integer, Integer> nativeStartAndEnd = offsets.getNativeStartAndEnd();
@@ -114,7 +117,7 @@ public class MotionGroup extends VimMotionGroupBase {
 
         // Execute the motion (without moving the cursor) and get where we end
         Motion motion =
-          action.getHandlerOffset(new IjVimEditor(editor), new IjVimCaret(caret), new IjExecutionContext(context), cmd.getArgument(), operatorArguments.withCount0(raw));
+          action.getHandlerOffset(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), new IjExecutionContext(context), cmd.getArgument(), operatorArguments.withCount0(raw));
 
         // Invalid motion
         if (Motion.Error.INSTANCE.equals(motion)) return null;
@@ -134,7 +137,7 @@ public class MotionGroup extends VimMotionGroupBase {
       else if (cmd.getAction() instanceof TextObjectActionHandler) {
         TextObjectActionHandler action = (TextObjectActionHandler)cmd.getAction();
 
-        TextRange range = action.getRange(new IjVimEditor(editor), new IjVimCaret(caret), new IjExecutionContext(context), cnt, raw, cmd.getArgument());
+        TextRange range = action.getRange(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), new IjExecutionContext(context), cnt, raw, cmd.getArgument());
 
         if (range == null) return null;
 
@@ -194,7 +197,7 @@ public class MotionGroup extends VimMotionGroupBase {
     int start;
     int end;
     if (argument.getType() == Argument.Type.OFFSETS) {
-      final VimSelection offsets = argument.getOffsets().get(new IjVimCaret(caret));
+      final VimSelection offsets = argument.getOffsets().get(IjVimCaretKt.getVim(caret));
       if (offsets == null) return null;
 
       final Pair<Integer, Integer> nativeStartAndEnd = offsets.getNativeStartAndEnd();
@@ -214,7 +217,7 @@ public class MotionGroup extends VimMotionGroupBase {
 
         // Execute the motion (without moving the cursor) and get where we end
         Motion motion =
-          action.getHandlerOffset(new IjVimEditor(editor), new IjVimCaret(caret), new IjExecutionContext(context), cmd.getArgument(), operatorArguments.withCount0(raw));
+          action.getHandlerOffset(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(caret), new IjExecutionContext(context), cmd.getArgument(), operatorArguments.withCount0(raw));
 
         // Invalid motion
         if (Motion.Error.INSTANCE.equals(motion)) return null;
@@ -235,8 +238,8 @@ public class MotionGroup extends VimMotionGroupBase {
         TextObjectActionHandler action = (TextObjectActionHandler)cmd.getAction();
 
         TextRange range = action.getRange(
-          new IjVimEditor(editor),
-          new IjVimCaret(caret),
+          IjVimEditorKt.getVim(editor),
+          IjVimCaretKt.getVim(caret),
           new IjExecutionContext(context),
           cnt,
           raw,
@@ -277,7 +280,7 @@ public class MotionGroup extends VimMotionGroupBase {
     final int topVisualLine = getVisualLineAtTopOfScreen(editor);
     final int bottomVisualLine = getVisualLineAtBottomOfScreen(editor);
     final int caretVisualLine = editor.getCaretModel().getVisualPosition().line;
-    final int lastVisualLine = EditorHelper.getVisualLineCount(new IjVimEditor(editor)) - 1;
+    final int lastVisualLine = EditorHelper.getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1;
 
     final int newVisualLine;
     if (caretVisualLine < topVisualLine + scrollOffset) {
@@ -388,12 +391,12 @@ public class MotionGroup extends VimMotionGroupBase {
   }
 
   private static int getNormalizedScrollOffset(final @NotNull Editor editor) {
-    final int scrollOffset = ((VimInt) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.scrolloffName, OptionConstants.scrolloffName)).getValue();
+    final int scrollOffset = OptionHandles.scrolloff.get(IjVimEditorKt.getVim(editor));
     return normalizeScrollOffset(editor, scrollOffset);
   }
 
   private static int getNormalizedSideScrollOffset(final @NotNull Editor editor) {
-    final int sideScrollOffset = ((VimInt) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.sidescrolloffName, OptionConstants.sidescrolloffName)).getValue();
+    final int sideScrollOffset = OptionHandles.sidescrolloff.get(IjVimEditorKt.getVim(editor));
     return normalizeSideScrollOffset(editor, sideScrollOffset);
   }
 
@@ -520,10 +523,10 @@ public class MotionGroup extends VimMotionGroupBase {
     int pos = SearchHelper.findNextWordEnd(editor, caret, count, bigWord);
     if (pos == -1) {
       if (count < 0) {
-        return new Motion.AbsoluteOffset(moveCaretToLineStart(new IjVimEditor(editor), 0));
+        return new Motion.AbsoluteOffset(moveCaretToLineStart(IjVimEditorKt.getVim(editor), 0));
       }
       else {
-        return new Motion.AbsoluteOffset(moveCaretToLineEnd(new IjVimEditor(editor), getLineCount(editor) - 1, false));
+        return new Motion.AbsoluteOffset(moveCaretToLineEnd(IjVimEditorKt.getVim(editor), getLineCount(editor) - 1, false));
       }
     }
     else {
@@ -668,10 +671,10 @@ public class MotionGroup extends VimMotionGroupBase {
 
     final int topLine = getVisualLineAtTopOfScreen(editor);
     final int bottomLine = getVisualLineAtBottomOfScreen(editor);
-    final int lastLine = EditorHelper.getVisualLineCount(new IjVimEditor(editor)) - 1;
+    final int lastLine = EditorHelper.getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1;
 
     // We need the non-normalised value here, so we can handle cases such as so=999 to keep the current line centred
-    final int scrollOffset = ((VimInt) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.scrolloffName, OptionConstants.scrolloffName)).getValue();
+    final int scrollOffset = OptionHandles.scrolloff.get(IjVimEditorKt.getVim(editor));
     final int topBound = topLine + scrollOffset;
     final int bottomBound = max(topBound, bottomLine - scrollOffset);
 
@@ -744,7 +747,7 @@ public class MotionGroup extends VimMotionGroupBase {
         // the line heights of the lines above and below caretLine (up to scrolloff or end of file).
         // Our implementation ignores soft wrap line heights. Folds already have a line height of 1.
         final int usedAbove = caretLine - newTopLine;
-        final int usedBelow = min(scrollOffset, getVisualLineCount(new IjVimEditor(editor)) - caretLine);
+        final int usedBelow = min(scrollOffset, getVisualLineCount(IjVimEditorKt.getVim(editor)) - caretLine);
         final int used = 1 + usedAbove + usedBelow;
         if (used > height) {
           scrollVisualLineToMiddleOfScreen(editor, caretLine, false);
@@ -778,7 +781,7 @@ public class MotionGroup extends VimMotionGroupBase {
         // The minus one is for the current line
         //noinspection UnnecessaryLocalVariable
         final int usedAbove = scrolledAbove;
-        final int usedBelow = min(getVisualLineCount(new IjVimEditor(editor)) - caretLine, usedAbove - 1);
+        final int usedBelow = min(getVisualLineCount(IjVimEditorKt.getVim(editor)) - caretLine, usedAbove - 1);
         final int used = min(height + 1, usedAbove + usedBelow);
 
         // If we've expanded more than a screen full, redraw with the cursor in the middle of the screen. If we're going
@@ -795,13 +798,13 @@ public class MotionGroup extends VimMotionGroupBase {
   }
 
   private static int getScrollJump(@NotNull Editor editor, int height) {
-    final EnumSet<CommandFlags> flags = CommandState.getInstance(new IjVimEditor(editor)).getExecutingCommandFlags();
+    final EnumSet<CommandFlags> flags = CommandState.getInstance(IjVimEditorKt.getVim(editor)).getExecutingCommandFlags();
     final boolean scrollJump = !flags.contains(CommandFlags.FLAG_IGNORE_SCROLL_JUMP);
 
     // Default value is 1. Zero is a valid value, but we normalise to 1 - we always want to scroll at least one line
     // If the value is negative, it's a percentage of the height.
     if (scrollJump) {
-      final int scrollJumpSize = ((VimInt) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.scrolljumpName, OptionConstants.scrolljumpName)).getValue();
+      final int scrollJumpSize = OptionHandles.scrolljump.get(IjVimEditorKt.getVim(editor));
       if (scrollJumpSize < 0) {
         return (int)(height * (min(100, -scrollJumpSize) / 100.0));
       }
@@ -820,9 +823,9 @@ public class MotionGroup extends VimMotionGroupBase {
     final int halfWidth = getApproximateScreenWidth(editor) / 2;
     final int scrollOffset = getNormalizedSideScrollOffset(editor);
 
-    final EnumSet<CommandFlags> flags = CommandState.getInstance(new IjVimEditor(editor)).getExecutingCommandFlags();
+    final EnumSet<CommandFlags> flags = CommandState.getInstance(IjVimEditorKt.getVim(editor)).getExecutingCommandFlags();
     final boolean allowSidescroll = !flags.contains(CommandFlags.FLAG_IGNORE_SIDE_SCROLL_JUMP);
-    int sidescroll = ((VimInt) VimPlugin.getOptionService().getOptionValue(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.sidescrollName, OptionConstants.sidescrollName)).getValue();
+    int sidescroll = OptionHandles.sidescroll.get(IjVimEditorKt.getVim(editor));
 
     final int offsetLeft = caretColumn - currentVisualLeftColumn - scrollOffset;
     final int offsetRight = caretColumn - (currentVisualRightColumn - scrollOffset);
@@ -891,7 +894,7 @@ public class MotionGroup extends VimMotionGroupBase {
                                          boolean isBig) {
     int dir = 1;
     boolean selection = false;
-    if (CommandState.getInstance(new IjVimEditor(editor)).getMode() == CommandState.Mode.VISUAL) {
+    if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() == CommandState.Mode.VISUAL) {
       if (UserDataManager.getVimSelectionStart(caret) > caret.getOffset()) {
         dir = -1;
       }
@@ -904,17 +907,17 @@ public class MotionGroup extends VimMotionGroupBase {
   }
 
   public int moveCaretToFileMark(@NotNull Editor editor, char ch, boolean toLineStart) {
-    final Mark mark = VimPlugin.getMark().getFileMark(new IjVimEditor(editor), ch);
+    final Mark mark = VimPlugin.getMark().getFileMark(IjVimEditorKt.getVim(editor), ch);
     if (mark == null) return -1;
 
     final int line = mark.getLogicalLine();
     return toLineStart
-           ? moveCaretToLineStartSkipLeading(new IjVimEditor(editor), line)
+           ? moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), line)
            : editor.logicalPositionToOffset(new LogicalPosition(line, mark.getCol()));
   }
 
   public int moveCaretToMark(@NotNull Editor editor, char ch, boolean toLineStart) {
-    final Mark mark = VimPlugin.getMark().getMark(new IjVimEditor(editor), ch);
+    final Mark mark = VimPlugin.getMark().getMark(IjVimEditorKt.getVim(editor), ch);
     if (mark == null) return -1;
 
     final VirtualFile vf = getVirtualFile(editor);
@@ -923,7 +926,7 @@ public class MotionGroup extends VimMotionGroupBase {
     final int line = mark.getLogicalLine();
     if (vf.getPath().equals(mark.getFilename())) {
       return toLineStart
-             ? moveCaretToLineStartSkipLeading(new IjVimEditor(editor), line)
+             ? moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), line)
              : editor.logicalPositionToOffset(new LogicalPosition(line, mark.getCol()));
     }
 
@@ -931,7 +934,7 @@ public class MotionGroup extends VimMotionGroupBase {
     if (selectedEditor != null) {
       for (Caret caret : selectedEditor.getCaretModel().getAllCarets()) {
         moveCaret(selectedEditor, caret, toLineStart
-                                         ? moveCaretToLineStartSkipLeading(new IjVimEditor(selectedEditor), line)
+                                         ? moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(selectedEditor), line)
                                          : selectedEditor.logicalPositionToOffset(
                                            new LogicalPosition(line, mark.getCol())));
       }
@@ -964,7 +967,7 @@ public class MotionGroup extends VimMotionGroupBase {
       final Editor newEditor = selectEditor(editor, newFile);
       if (newEditor != null) {
         if (spot == -1) {
-          VimPlugin.getMark().addJump(new IjVimEditor(editor), false);
+          VimPlugin.getMark().addJump(IjVimEditorKt.getVim(editor), false);
         }
         moveCaret(newEditor, newEditor.getCaretModel().getCurrentCaret(),
                   normalizeOffset(newEditor, newEditor.logicalPositionToOffset(lp), false));
@@ -974,7 +977,7 @@ public class MotionGroup extends VimMotionGroupBase {
     }
     else {
       if (spot == -1) {
-        VimPlugin.getMark().addJump(new IjVimEditor(editor), false);
+        VimPlugin.getMark().addJump(IjVimEditorKt.getVim(editor), false);
       }
 
       return editor.logicalPositionToOffset(lp);
@@ -997,7 +1000,7 @@ public class MotionGroup extends VimMotionGroupBase {
 
   public int moveCaretToLineStartSkipLeading(@NotNull Editor editor, @NotNull Caret caret) {
     int logicalLine = caret.getLogicalPosition().line;
-    return moveCaretToLineStartSkipLeading(new IjVimEditor(editor), logicalLine);
+    return moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), logicalLine);
   }
 
   @Override
@@ -1010,7 +1013,7 @@ public class MotionGroup extends VimMotionGroupBase {
     final VisualPosition visualPosition = caret.getVisualPosition();
     final int lastVisualLineColumn = EditorUtil.getLastVisualLineColumnNumber(editor, visualPosition.line);
     final VisualPosition visualEndOfLine = new VisualPosition(visualPosition.line, lastVisualLineColumn, true);
-    return moveCaretToLineEnd(new IjVimEditor(editor), editor.visualToLogicalPosition(visualEndOfLine).line, true);
+    return moveCaretToLineEnd(IjVimEditorKt.getVim(editor), editor.visualToLogicalPosition(visualEndOfLine).line, true);
   }
 
   public boolean scrollColumns(@NotNull Editor editor, int columns) {
@@ -1045,7 +1048,7 @@ public class MotionGroup extends VimMotionGroupBase {
   public @Range(from = 0, to = Integer.MAX_VALUE) int moveCaretToLineStart(@NotNull Editor editor,
                                                                            @NotNull Caret caret) {
     int logicalLine = caret.getLogicalPosition().line;
-    return moveCaretToLineStart(new IjVimEditor(editor), logicalLine);
+    return moveCaretToLineStart(IjVimEditorKt.getVim(editor), logicalLine);
   }
 
   public Motion moveCaretToLineScreenStart(@NotNull Editor editor, @NotNull Caret caret) {
@@ -1204,7 +1207,7 @@ public class MotionGroup extends VimMotionGroupBase {
     }
 
     int logicalLine = visualLineToLogicalLine(editor, targetCaretVisualLine);
-    int caretOffset = moveCaretToLineWithStartOfLineOption(new IjVimEditor(editor), logicalLine, new IjVimCaret(caret));
+    int caretOffset = moveCaretToLineWithStartOfLineOption(IjVimEditorKt.getVim(editor), logicalLine, IjVimCaretKt.getVim(caret));
     moveCaret(editor, caret, caretOffset);
 
     return true;
@@ -1263,10 +1266,10 @@ public class MotionGroup extends VimMotionGroupBase {
     if (visualLine != editor.getCaretModel().getVisualPosition().line || start) {
       int offset;
       if (start) {
-        offset = moveCaretToLineStartSkipLeading(new IjVimEditor(editor), visualLineToLogicalLine(editor, visualLine));
+        offset = moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), visualLineToLogicalLine(editor, visualLine));
       }
       else {
-        offset = getVerticalMotionOffset(new IjVimEditor(editor), new IjVimCaret(editor.getCaretModel().getPrimaryCaret()),
+        offset = getVerticalMotionOffset(IjVimEditorKt.getVim(editor), IjVimCaretKt.getVim(editor.getCaretModel().getPrimaryCaret()),
                                    visualLineToLogicalLine(editor, visualLine) -
                                    editor.getCaretModel().getLogicalPosition().line);
       }
@@ -1322,9 +1325,9 @@ public class MotionGroup extends VimMotionGroupBase {
     if (fileEditor instanceof TextEditor) {
       final Editor editor = ((TextEditor)fileEditor).getEditor();
       ExOutputModel.getInstance(editor).clear();
-      if (CommandState.getInstance(new IjVimEditor(editor)).getMode() == CommandState.Mode.VISUAL) {
+      if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() == CommandState.Mode.VISUAL) {
         ModeHelper.exitVisualMode(editor);
-        KeyHandler.getInstance().reset(new IjVimEditor(editor));
+        KeyHandler.getInstance().reset(IjVimEditorKt.getVim(editor));
       }
     }
   }
@@ -1353,7 +1356,7 @@ public class MotionGroup extends VimMotionGroupBase {
 
     final int scrollOffset = normalizeToScreen ? getNormalizedScrollOffset(editor) : 0;
 
-    final int maxVisualLine = getVisualLineCount(new IjVimEditor(editor));
+    final int maxVisualLine = getVisualLineCount(IjVimEditorKt.getVim(editor));
 
     final int topVisualLine = getVisualLineAtTopOfScreen(editor);
     final int topScrollOff = topVisualLine > 0 ? scrollOffset : 0;
@@ -1378,7 +1381,7 @@ public class MotionGroup extends VimMotionGroupBase {
     }
 
     final int targetLogicalLine = visualLineToLogicalLine(editor, targetVisualLine);
-    return moveCaretToLineWithStartOfLineOption(new IjVimEditor(editor), targetLogicalLine, new IjVimCaret(caret));
+    return moveCaretToLineWithStartOfLineOption(IjVimEditorKt.getVim(editor), targetLogicalLine, IjVimCaretKt.getVim(caret));
   }
 
   public @Range(from = 0, to = Integer.MAX_VALUE) int moveCaretToLineEndOffset(@NotNull Editor editor,
@@ -1391,7 +1394,7 @@ public class MotionGroup extends VimMotionGroupBase {
       return 0;
     }
     else {
-      return moveCaretToLineEnd(new IjVimEditor(editor), visualLineToLogicalLine(editor, line), allowPastEnd);
+      return moveCaretToLineEnd(IjVimEditorKt.getVim(editor), visualLineToLogicalLine(editor, line), allowPastEnd);
     }
   }
 
@@ -0,0 +1,190 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.group
+
+import com.intellij.openapi.editor.Caret
+import com.intellij.openapi.editor.Editor
+import com.intellij.util.DocumentUtil
+import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.command.SelectionType
+import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.helper.inInsertMode
+import com.maddyhome.idea.vim.mark.VimMarkConstants.MARK_CHANGE_POS
+import com.maddyhome.idea.vim.newapi.vim
+
+/**
+ * Text changes planned by all carets of a command and applied at once.
+ *
+ * Changing the document caret by caret makes the platform shift all the other carets and range markers on each
+ *   change. Here the carets only plan their changes of the original text. The changes are applied bottom up as a
+ *   single bulk update, and then each caret is moved to its new place in one pass.
+ *
+ * Registers and marks are updated in the order the changes were planned, so the carets that are planned last win,
+ *   as if the changes were applied one by one.
+ */
+class MultiCaretEdits(private val editor: Editor) {
+  private val edits = ArrayList<CaretEdit>()
+
+  /**
+   * True if some of the changes were not applied because the deleted text couldn't be stored to the register
+   */
+  var hasFailures: Boolean = false
+    private set
+
+  private var cancelled = false
+
+  /**
+   * Number of planned changes
+   */
+  val size: Int
+    get() = edits.size
+
+  fun interface AppliedListener {
+    /**
+     * Called when all changes are applied, [startOffset] is the start of the change in the new text
+     */
+    fun applied(startOffset: Int)
+  }
+
+  /**
+   * Plans deleting [range] and storing the deleted text to the register, as [ChangeGroup] deletes text
+   */
+  fun delete(caret: Caret, range: TextRange, type: SelectionType, listener: AppliedListener) {
+    edits += CaretEdit(caret, range.startOffset, range.endOffset, "", Kind.DELETE, type, listener)
+  }
+
+  /**
+   * Plans replacing the text between [startOffset] and [endOffset] with [text]
+   */
+  fun replace(caret: Caret, startOffset: Int, endOffset: Int, text: String, listener: AppliedListener) {
+    edits += CaretEdit(caret, startOffset, endOffset, text, Kind.REPLACE, null, listener)
+  }
+
+  /**
+   * Plans inserting [text] at [offset], as [ChangeGroup.insertText] does
+   */
+  fun insert(caret: Caret, offset: Int, text: CharSequence, listener: AppliedListener) {
+    edits += CaretEdit(caret, offset, offset, text, Kind.INSERT, null, listener)
+  }
+
+  /**
+   * Plans no change, but the caret will be notified about its new offset after the changes of the other carets
+   */
+  fun keep(caret: Caret, listener: AppliedListener) {
+    edits += CaretEdit(caret, caret.offset, caret.offset, "", Kind.NONE, null, listener)
+  }
+
+  /**
+   * Cancels all changes if a caret needs a change that can't be planned. The carets should be changed one by one then.
+   */
+  fun cancel() {
+    cancelled = true
+  }
+
+  /**
+   * Applies all planned changes.
+   *
+   * @return false if the changes overlap or were cancelled and can't be applied at once. Nothing is changed in this
+   *   case.
+   */
+  fun apply(): Boolean {
+    if (cancelled) return false
+    val sorted = edits.sortedWith(compareBy({ it.startOffset }, { it.endOffset }))
+    for (i in 1 until sorted.size) {
+      if (sorted[i].startOffset < sorted[i - 1].endOffset) return false
+    }
+
+    for (edit in edits) {
+      edit.storeDeletedText()
+    }
+
+    val document = editor.document
+    DocumentUtil.executeInBulk(document, sorted.size > BULK_CHANGE_THRESHOLD) {
+      for (i in sorted.indices.reversed()) {
+        val edit = sorted[i]
+        if (edit.kind != Kind.NONE) {
+          document.replaceString(edit.startOffset, edit.endOffset, edit.text)
+        }
+      }
+    }
+
+    var shift = 0
+    for (edit in sorted) {
+      edit.newStartOffset = edit.startOffset + shift
+      if (edit.kind != Kind.NONE) {
+        shift += edit.text.length - (edit.endOffset - edit.startOffset)
+      }
+    }
+
+    for (edit in edits) {
+      edit.setChangeMarks()
+    }
+    for (edit in edits) {
+      if (edit.caret.isValid) {
+        edit.listener.applied(edit.newStartOffset)
+      }
+    }
+    return true
+  }
+
+  private fun CaretEdit.storeDeletedText() {
+    if (kind != Kind.DELETE || editor.inInsertMode) return
+    if (!VimPlugin.getRegister().storeText(editor.vim, TextRange(startOffset, endOffset), registerType!!, true)) {
+      hasFailures = true
+      kind = Kind.NONE
+    }
+  }
+
+  private fun CaretEdit.setChangeMarks() {
+    when (kind) {
+      Kind.DELETE -> {
+        VimPlugin.getMark().setMark(editor.vim, MARK_CHANGE_POS, newStartOffset)
+        VimPlugin.getMark().setChangeMarks(editor.vim, TextRange(newStartOffset, newStartOffset + 1))
+      }
+      Kind.REPLACE -> {
+        val newEnd = newStartOffset + text.length
+        VimPlugin.getMark().setChangeMarks(editor.vim, TextRange(newStartOffset, newEnd))
+        VimPlugin.getMark().setMark(editor.vim, MARK_CHANGE_POS, newEnd)
+      }
+      Kind.INSERT -> {
+        VimPlugin.getMark().setMark(editor.vim, MARK_CHANGE_POS, newStartOffset)
+        VimPlugin.getMark().setChangeMarks(editor.vim, TextRange(newStartOffset, newStartOffset + text.length))
+      }
+      Kind.NONE -> Unit
+    }
+  }
+
+  private enum class Kind { DELETE, REPLACE, INSERT, NONE }
+
+  private class CaretEdit(
+    val caret: Caret,
+    val startOffset: Int,
+    val endOffset: Int,
+    val text: CharSequence,
+    var kind: Kind,
+    val registerType: SelectionType?,
+    val listener: AppliedListener,
+  ) {
+    var newStartOffset = startOffset
+  }
+
+  companion object {
+    private const val BULK_CHANGE_THRESHOLD = 100
+  }
+}
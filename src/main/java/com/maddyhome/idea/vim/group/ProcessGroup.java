@@ -20,11 +20,10 @@ package com.maddyhome.idea.vim.group;
 
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.configurations.GeneralCommandLine;
-import com.intellij.execution.process.CapturingProcessHandler;
-import com.intellij.execution.process.ProcessAdapter;
-import com.intellij.execution.process.ProcessEvent;
-import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.process.OSProcessUtil;
 import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.progress.ProcessCanceledException;
@@ -32,7 +31,7 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressIndicatorProvider;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.util.execution.ParametersListUtil;
-import com.intellij.util.text.CharSequenceReader;
+import com.intellij.util.text.CharArrayUtil;
 import com.maddyhome.idea.vim.KeyHandler;
 import com.maddyhome.idea.vim.VimPlugin;
 import com.maddyhome.idea.vim.api.ExecutionContext;
@@ -42,8 +41,11 @@ import com.maddyhome.idea.vim.command.Command;
 import com.maddyhome.idea.vim.command.CommandState;
 import com.maddyhome.idea.vim.ex.ExException;
 import com.maddyhome.idea.vim.ex.InvalidCommandException;
+import com.maddyhome.idea.vim.helper.ChunkedTextBuffer;
+import com.maddyhome.idea.vim.helper.MessageHelper;
 import com.maddyhome.idea.vim.helper.UiHelper;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.options.OptionConstants;
 import com.maddyhome.idea.vim.options.OptionScope;
 import com.maddyhome.idea.vim.ui.ex.ExEntryPanel;
@@ -55,7 +57,12 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 public class ProcessGroup implements VimProcessGroup {
@@ -90,7 +97,7 @@ public class ProcessGroup implements VimProcessGroup {
     if (editor.isOneLineMode()) return;
 
     String initText = getRange(editor, cmd);
-    CommandState.getInstance(new IjVimEditor(editor)).pushModes(CommandState.Mode.CMD_LINE, CommandState.SubMode.NONE);
+    CommandState.getInstance(IjVimEditorKt.getVim(editor)).pushModes(CommandState.Mode.CMD_LINE, CommandState.SubMode.NONE);
     ExEntryPanel panel = ExEntryPanel.getInstance();
     panel.activate(editor, context, ":", initText, 1);
   }
@@ -119,7 +126,7 @@ public class ProcessGroup implements VimProcessGroup {
     panel.deactivate(true);
     boolean res = true;
     try {
-      CommandState.getInstance(new IjVimEditor(editor)).popModes();
+      CommandState.getInstance(IjVimEditorKt.getVim(editor)).popModes();
 
       logger.debug("processing command");
 
@@ -151,22 +158,22 @@ public class ProcessGroup implements VimProcessGroup {
   }
 
   public void cancelExEntry(final @NotNull Editor editor, boolean resetCaret) {
-    CommandState.getInstance(new IjVimEditor(editor)).popModes();
-    KeyHandler.getInstance().reset(new IjVimEditor(editor));
+    CommandState.getInstance(IjVimEditorKt.getVim(editor)).popModes();
+    KeyHandler.getInstance().reset(IjVimEditorKt.getVim(editor));
     ExEntryPanel panel = ExEntryPanel.getInstance();
     panel.deactivate(true, resetCaret);
   }
 
   public void startFilterCommand(@NotNull Editor editor, DataContext context, @NotNull Command cmd) {
     String initText = getRange(editor, cmd) + "!";
-    CommandState.getInstance(new IjVimEditor(editor)).pushModes(CommandState.Mode.CMD_LINE, CommandState.SubMode.NONE);
+    CommandState.getInstance(IjVimEditorKt.getVim(editor)).pushModes(CommandState.Mode.CMD_LINE, CommandState.SubMode.NONE);
     ExEntryPanel panel = ExEntryPanel.getInstance();
     panel.activate(editor, context, ":", initText, 1);
   }
 
   private @NotNull String getRange(Editor editor, @NotNull Command cmd) {
     String initText = "";
-    if (CommandState.getInstance(new IjVimEditor(editor)).getMode() == CommandState.Mode.VISUAL) {
+    if (CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode() == CommandState.Mode.VISUAL) {
       initText = "'<,'>";
     }
     else if (cmd.getRawCount() > 0) {
@@ -181,88 +188,151 @@ public class ProcessGroup implements VimProcessGroup {
     return initText;
   }
 
-  public @Nullable String executeCommand(@NotNull Editor editor, @NotNull String command, @Nullable CharSequence input, @Nullable String currentDirectoryPath)
+  /**
+   * Runs the command in the shell, feeding it {@code input} if it's not null.
+   * <p>
+   * The input is written to the process and its output is read on pooled threads chunk by chunk, so neither of them
+   * is copied as a whole. Stderr is redirected to stdout, as Vim does with the default 'shellredir', so the output
+   * keeps the order the command has written it in. The color codes are stripped from the output. The process is
+   * killed if its output grows over {@link #MAX_OUTPUT_LENGTH} characters.
+   *
+   * @return the output of the command, it's passed to the document as is
+   */
+  public @NotNull CharSequence executeCommand(@NotNull Editor editor, @NotNull String command, @Nullable CharSequence input, @Nullable String currentDirectoryPath)
     throws ExecutionException, ProcessCanceledException {
 
-    // This is a much simplified version of how Vim does this. We're using stdin/stdout directly, while Vim will
-    // redirect to temp files ('shellredir' and 'shelltemp') or use pipes. We don't support 'shellquote', because we're
-    // not handling redirection, but we do use 'shellxquote' and 'shellxescape', because these have defaults that work
-    // better with Windows. We also don't bother using ShellExecute for Windows commands beginning with `start`.
-    // Finally, we're also not bothering with the crazy space and backslash handling of the 'shell' options content.
     return ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
+      final GeneralCommandLine commandLine = createCommandLine(command, currentDirectoryPath);
+      final Charset charset = commandLine.getCharset();
+      final Process process = commandLine.createProcess();
 
-      final String shell = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellName, OptionConstants.shellName)).getValue();
-      final String shellcmdflag = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellcmdflagName, OptionConstants.shellcmdflagName)).getValue();
-      final String shellxescape = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellxescapeName, OptionConstants.shellxescapeName)).getValue();
-      final String shellxquote = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellxquoteName, OptionConstants.shellxquoteName)).getValue();
-
-      // For Win32. See :help 'shellxescape'
-      final String escapedCommand = shellxquote.equals("(")
-                                    ? doEscape(command, shellxescape, "^")
-                                    : command;
-      // Required for Win32+cmd.exe, defaults to "(". See :help 'shellxquote'
-      final String quotedCommand = shellxquote.equals("(")
-                                   ? "(" + escapedCommand + ")"
-                                   : (shellxquote.equals("\"(")
-                                      ? "\"(" + escapedCommand + ")\""
-                                      : shellxquote + escapedCommand + shellxquote);
-
-      final ArrayList<String> commands = new ArrayList<>();
-      commands.add(shell);
-      if (!shellcmdflag.isEmpty()) {
-        // Note that Vim also does a simple whitespace split for multiple parameters
-        commands.addAll(ParametersListUtil.parse(shellcmdflag));
-      }
-      commands.add(quotedCommand);
-
-      if (logger.isDebugEnabled()) {
-        logger.debug(String.format("shell=%s shellcmdflag=%s command=%s", shell, shellcmdflag, quotedCommand));
+      final ProgressIndicator progressIndicator = ProgressIndicatorProvider.getInstance().getProgressIndicator();
+      if (progressIndicator != null) {
+        progressIndicator.setIndeterminate(input == null || input.length() == 0);
       }
 
-      final GeneralCommandLine commandLine = new GeneralCommandLine(commands);
-      if (currentDirectoryPath != null) {
-        commandLine.setWorkDirectory(currentDirectoryPath);
-      }
-      final CapturingProcessHandler handler = new CapturingProcessHandler(commandLine);
-      if (input != null) {
-        handler.addProcessListener(new ProcessAdapter() {
-          @Override
-          public void startNotified(@NotNull ProcessEvent event) {
+      final OutputCollector output = new OutputCollector(process);
+      final Application application = ApplicationManager.getApplication();
+      final Future<?> stdin = application.executeOnPooledThread(() -> writeInput(process, input, charset, progressIndicator));
+      final Future<?> stdout = application.executeOnPooledThread(() -> output.read(process.getInputStream(), charset));
+
+      try {
+        while (!process.waitFor(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+          checkCanceled(process, progressIndicator);
+        }
+        // The output streams may be still open if the command has started a background process
+        for (Future<?> future : Arrays.asList(stdin, stdout)) {
+          while (true) {
             try {
-              final CharSequenceReader charSequenceReader = new CharSequenceReader(input);
-              final BufferedWriter outputStreamWriter = new BufferedWriter(new OutputStreamWriter(handler.getProcessInput()));
-              copy(charSequenceReader, outputStreamWriter);
-              outputStreamWriter.close();
+              future.get(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+              break;
             }
-            catch (IOException e) {
-              logger.error(e);
+            catch (TimeoutException e) {
+              checkCanceled(process, progressIndicator);
             }
           }
-        });
+        }
+      }
+      catch (InterruptedException e) {
+        OSProcessUtil.killProcessTree(process);
+        Thread.currentThread().interrupt();
+        throw new ProcessCanceledException(e);
+      }
+      catch (java.util.concurrent.ExecutionException e) {
+        throw new ExecutionException(e.getCause());
       }
-
-      final ProgressIndicator progressIndicator = ProgressIndicatorProvider.getInstance().getProgressIndicator();
-      final ProcessOutput output = handler.runProcessWithProgressIndicator(progressIndicator);
 
       lastCommand = command;
 
-      if (output.isCancelled()) {
-        // TODO: Vim will use whatever text has already been written to stdout
-        // For whatever reason, we're not getting any here, so just throw an exception
-        throw new ProcessCanceledException();
+      if (output.isOverflow()) {
+        throw new ExecutionException(MessageHelper.message("process.output.too.large", MAX_OUTPUT_LENGTH));
       }
 
-      final Integer exitCode = handler.getExitCode();
-      if (exitCode != null && exitCode != 0) {
+      final int exitCode = process.exitValue();
+      if (exitCode != 0) {
         VimPlugin.showMessage("shell returned " + exitCode);
         VimPlugin.indicateError();
       }
 
-      // Get stderr; stdout and strip colors, which are not handles properly.
-      return (output.getStderr() + output.getStdout()).replaceAll("\u001B\\[[;\\d]*m", "");
+      return output.getText();
     }, "IdeaVim - !" + command, true, editor.getProject());
   }
 
+  private static void checkCanceled(@NotNull Process process, @Nullable ProgressIndicator progressIndicator) {
+    if (progressIndicator != null && progressIndicator.isCanceled()) {
+      OSProcessUtil.killProcessTree(process);
+      // TODO: Vim will use whatever text has already been written to stdout
+      throw new ProcessCanceledException();
+    }
+  }
+
+  private @NotNull GeneralCommandLine createCommandLine(@NotNull String command, @Nullable String currentDirectoryPath) {
+    // This is a much simplified version of how Vim does this. We're using stdin/stdout directly, while Vim will
+    // redirect to temp files ('shellredir' and 'shelltemp') or use pipes. We don't support 'shellquote', because we're
+    // not handling redirection, but we do use 'shellxquote' and 'shellxescape', because these have defaults that work
+    // better with Windows. We also don't bother using ShellExecute for Windows commands beginning with `start`.
+    // Finally, we're also not bothering with the crazy space and backslash handling of the 'shell' options content.
+    final String shell = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellName, OptionConstants.shellName)).getValue();
+    final String shellcmdflag = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellcmdflagName, OptionConstants.shellcmdflagName)).getValue();
+    final String shellxescape = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellxescapeName, OptionConstants.shellxescapeName)).getValue();
+    final String shellxquote = ((VimString) VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL.INSTANCE, OptionConstants.shellxquoteName, OptionConstants.shellxquoteName)).getValue();
+
+    // For Win32. See :help 'shellxescape'
+    final String escapedCommand = shellxquote.equals("(")
+                                  ? doEscape(command, shellxescape, "^")
+                                  : command;
+    // Required for Win32+cmd.exe, defaults to "(". See :help 'shellxquote'
+    final String quotedCommand = shellxquote.equals("(")
+                                 ? "(" + escapedCommand + ")"
+                                 : (shellxquote.equals("\"(")
+                                    ? "\"(" + escapedCommand + ")\""
+                                    : shellxquote + escapedCommand + shellxquote);
+
+    final ArrayList<String> commands = new ArrayList<>();
+    commands.add(shell);
+    if (!shellcmdflag.isEmpty()) {
+      // Note that Vim also does a simple whitespace split for multiple parameters
+      commands.addAll(ParametersListUtil.parse(shellcmdflag));
+    }
+    commands.add(quotedCommand);
+
+    if (logger.isDebugEnabled()) {
+      logger.debug(String.format("shell=%s shellcmdflag=%s command=%s", shell, shellcmdflag, quotedCommand));
+    }
+
+    final GeneralCommandLine commandLine = new GeneralCommandLine(commands).withRedirectErrorStream(true);
+    if (currentDirectoryPath != null) {
+      commandLine.setWorkDirectory(currentDirectoryPath);
+    }
+    return commandLine;
+  }
+
+  /**
+   * Writes the input to the process chunk by chunk and closes its stdin
+   */
+  private static void writeInput(@NotNull Process process,
+                                 @Nullable CharSequence input,
+                                 @NotNull Charset charset,
+                                 @Nullable ProgressIndicator progressIndicator) {
+    try (Writer writer = new OutputStreamWriter(process.getOutputStream(), charset)) {
+      if (input == null) return;
+      final int length = input.length();
+      final char[] buf = new char[BUFFER_SIZE];
+      for (int start = 0; start < length; start += buf.length) {
+        final int count = Math.min(buf.length, length - start);
+        CharArrayUtil.getChars(input, buf, start, 0, count);
+        writer.write(buf, 0, count);
+        if (progressIndicator != null) {
+          progressIndicator.setFraction((double)(start + count) / length);
+        }
+      }
+    }
+    catch (IOException e) {
+      // The command doesn't have to read all the input (e.g. `head`) and the process may be killed
+      logger.debug(e);
+    }
+  }
+
   private String doEscape(String original, String charsToEscape, String escapeChar) {
     String result = original;
     for (char c : charsToEscape.toCharArray()) {
@@ -271,16 +341,121 @@ public class ProcessGroup implements VimProcessGroup {
     return result;
   }
 
-  // TODO: Java 10 has a transferTo method we could use instead
-  private void copy(@NotNull Reader from, @NotNull Writer to) throws IOException {
-    char[] buf = new char[2048];
-    int cnt;
-    while ((cnt = from.read(buf)) != -1) {
-      to.write(buf, 0, cnt);
+  /**
+   * Collects the output of the process, stderr is already redirected to stdout
+   */
+  private static final class OutputCollector {
+    private final @NotNull Process process;
+    private final @NotNull ChunkedTextBuffer text = new ChunkedTextBuffer();
+    private volatile boolean overflow = false;
+
+    OutputCollector(@NotNull Process process) {
+      this.process = process;
+    }
+
+    void read(@NotNull InputStream stream, @NotNull Charset charset) {
+      final ColorCodeStripper stripper = new ColorCodeStripper();
+      final char[] buf = new char[BUFFER_SIZE];
+      final char[] stripped = new char[BUFFER_SIZE + ColorCodeStripper.MAX_CODE_LENGTH + 1];
+      try (Reader reader = new InputStreamReader(stream, charset)) {
+        int count;
+        while ((count = reader.read(buf)) != -1) {
+          if (!append(stripped, stripper.strip(buf, count, stripped))) return;
+        }
+        append(stripped, stripper.flush(stripped));
+      }
+      catch (IOException e) {
+        // The stream is closed when the process is killed
+        logger.debug(e);
+      }
+    }
+
+    private boolean append(char @NotNull [] chars, int count) {
+      synchronized (text) {
+        if (overflow) return false;
+        if (text.length() + (long)count > MAX_OUTPUT_LENGTH) {
+          overflow = true;
+          OSProcessUtil.killProcessTree(process);
+          return false;
+        }
+        text.append(chars, 0, count);
+        return true;
+      }
+    }
+
+    boolean isOverflow() {
+      return overflow;
+    }
+
+    @NotNull CharSequence getText() {
+      synchronized (text) {
+        return text;
+      }
+    }
+  }
+
+  /**
+   * Removes the color codes ({@code ESC [ ... m}), which are not handled properly, from the output. The output is
+   * read in chunks, so a code may be split between two of them.
+   */
+  private static final class ColorCodeStripper {
+    static final int MAX_CODE_LENGTH = 32;
+
+    private final char[] pending = new char[MAX_CODE_LENGTH];
+    private int pendingLength = 0;
+
+    /**
+     * @return the number of characters written to {@code dest}
+     */
+    int strip(char @NotNull [] src, int count, char @NotNull [] dest) {
+      int written = 0;
+      for (int i = 0; i < count; i++) {
+        final char c = src[i];
+        if (pendingLength == 1 && c == '[' ||
+            pendingLength > 1 && pendingLength < MAX_CODE_LENGTH && (c == ';' || c >= '0' && c <= '9')) {
+          pending[pendingLength++] = c;
+          continue;
+        }
+        if (pendingLength > 1 && c == 'm') {
+          pendingLength = 0;
+          continue;
+        }
+        written += flush(dest, written);
+        if (c == '\u001B') {
+          pending[pendingLength++] = c;
+        }
+        else {
+          dest[written++] = c;
+        }
+      }
+      return written;
+    }
+
+    /**
+     * Writes an unfinished code as is, e.g. at the end of the output
+     */
+    int flush(char @NotNull [] dest) {
+      return flush(dest, 0);
+    }
+
+    private int flush(char @NotNull [] dest, int destPos) {
+      final int flushed = pendingLength;
+      System.arraycopy(pending, 0, dest, destPos, flushed);
+      pendingLength = 0;
+      return flushed;
     }
   }
 
   private String lastCommand;
 
+  /**
+   * Maximum number of characters of the command output. The output is inserted into the document, so the limit
+   * doesn't need to be much larger than the largest file that can be edited.
+   */
+  public static final int MAX_OUTPUT_LENGTH = 100 * 1024 * 1024;
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final long WAIT_INTERVAL_MS = 50;
+
   private static final Logger logger = Logger.getInstance(ProcessGroup.class.getName());
 }
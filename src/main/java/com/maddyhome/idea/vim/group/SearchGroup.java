@@ -47,6 +47,7 @@ import com.maddyhome.idea.vim.ex.ranges.LineRange;
 import com.maddyhome.idea.vim.helper.*;
 import com.maddyhome.idea.vim.history.HistoryConstants;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.options.OptionChangeListener;
 import com.maddyhome.idea.vim.options.OptionConstants;
 import com.maddyhome.idea.vim.options.OptionScope;
@@ -61,6 +62,7 @@ import com.maddyhome.idea.vim.vimscript.model.datatypes.VimString;
 import com.maddyhome.idea.vim.vimscript.model.expressions.Expression;
 import com.maddyhome.idea.vim.vimscript.model.expressions.SimpleExpression;
 import com.maddyhome.idea.vim.vimscript.model.functions.handlers.SubmatchFunctionHandler;
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles;
 import com.maddyhome.idea.vim.vimscript.parser.VimscriptParser;
 import kotlin.Pair;
 import kotlin.jvm.functions.Function1;
@@ -620,7 +622,7 @@ public class SearchGroup extends VimSearchGroupBase implements PersistentStateCo
     }
     else {
       // :h :&& - "Note that :s and :& don't keep the flags"
-      do_all = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(new IjVimEditor(editor)), OptionConstants.gdefaultName, OptionConstants.gdefaultName);
+      do_all = VimPlugin.getOptionService().isSet(new OptionScope.LOCAL(IjVimEditorKt.getVim(editor)), OptionConstants.gdefaultName, OptionConstants.gdefaultName);
       do_ask = false;
       do_error = true;
       do_ic = 0;
@@ -755,7 +757,7 @@ public class SearchGroup extends VimSearchGroupBase implements PersistentStateCo
       int nmatch = sp.vim_regexec_multi(regmatch, editor, lcount, lnum, searchcol);
       if (nmatch > 0) {
         if (firstMatch) {
-          VimPlugin.getMark().saveJumpLocation(new IjVimEditor(editor));
+          VimPlugin.getMark().saveJumpLocation(IjVimEditorKt.getVim(editor));
           firstMatch = false;
         }
 
@@ -858,7 +860,7 @@ public class SearchGroup extends VimSearchGroupBase implements PersistentStateCo
     if (!got_quit) {
       if (lastMatch != -1) {
         MotionGroup.moveCaret(editor, caret,
-          VimPlugin.getMotion().moveCaretToLineStartSkipLeading(new IjVimEditor(editor), editor.offsetToLogicalPosition(lastMatch).line));
+          VimPlugin.getMotion().moveCaretToLineStartSkipLeading(IjVimEditorKt.getVim(editor), editor.offsetToLogicalPosition(lastMatch).line));
       }
       else {
         VimPlugin.showMessage(MessageHelper.message(Msg.e_patnotf2, pattern));
@@ -1175,7 +1177,7 @@ public class SearchGroup extends VimSearchGroupBase implements PersistentStateCo
    * @return              The offset to the occurrence or -1 if not found
    */
   private int findItOffset(@NotNull Editor editor, int startOffset, int count, Direction dir) {
-    boolean wrap =  VimPlugin.getOptionService().isSet(OptionScope.GLOBAL.INSTANCE, OptionConstants.wrapscanName, OptionConstants.wrapscanName);
+    boolean wrap =  OptionHandles.wrapscan.isSet(null);
     logger.debug("Perform search. Direction: " + dir + " wrap: " + wrap);
 
     int offset = 0;
@@ -1251,7 +1253,7 @@ public class SearchGroup extends VimSearchGroupBase implements PersistentStateCo
       int newLine = EditorHelper.normalizeLine(editor, line + offset);
 
       // TODO: Don't move the caret!
-      res = VimPlugin.getMotion().moveCaretToLineStart(new IjVimEditor(editor), newLine);
+      res = VimPlugin.getMotion().moveCaretToLineStart(IjVimEditorKt.getVim(editor), newLine);
     }
     else if (hasEndOffset || offset != 0) {
       int base = hasEndOffset ? range.getEndOffset() - 1 : range.getStartOffset();
@@ -41,9 +41,12 @@ import com.maddyhome.idea.vim.command.isBlock
 import com.maddyhome.idea.vim.command.isChar
 import com.maddyhome.idea.vim.command.isLine
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.group.ColumnarEdit
 import com.maddyhome.idea.vim.group.MotionGroup
+import com.maddyhome.idea.vim.group.MultiCaretEdits
 import com.maddyhome.idea.vim.group.visual.VimSelection
 import com.maddyhome.idea.vim.helper.EditorHelper
+import com.maddyhome.idea.vim.helper.RepeatedCharSequence
 import com.maddyhome.idea.vim.helper.TestClipboardModel
 import com.maddyhome.idea.vim.helper.fileSize
 import com.maddyhome.idea.vim.helper.moveToInlayAwareOffset
@@ -210,11 +213,49 @@ class PutGroup {
     } else {
       EditorHelper.getOrderedCaretsList(editor)
     }
+    if (data.visualSelection == null && text.typeInRegister.isChar && myCarets.size > 1 &&
+      !shouldIndent(data.indent, text.text, data.count) && putCharacterwiseBatched(editor, myCarets, data, text)
+    ) {
+      return
+    }
     ApplicationManager.getApplication().runWriteAction {
       myCarets.forEach { caret -> putForCaret(editor, caret, data, additionalData, context, text) }
     }
   }
 
+  /**
+   * Puts the character-wise text for all carets at once, see [MultiCaretEdits]. The text that is indented after put
+   *   can't be planned and is put caret by caret.
+   *
+   * @return false if the changes can't be applied at once and nothing was put
+   */
+  private fun putCharacterwiseBatched(
+    editor: Editor,
+    carets: List<Caret>,
+    data: PutData,
+    text: ProcessedTextData,
+  ): Boolean {
+    val insertedText = if (data.count == 1) text.text else RepeatedCharSequence(text.text, data.count)
+    val edits = MultiCaretEdits(editor)
+    for (caret in carets) {
+      val startOffset = prepareDocumentAndGetStartOffsets(editor, caret, text.typeInRegister, data, emptyMap()).single()
+      edits.insert(caret, startOffset, insertedText) { newStartOffset ->
+        moveCaretToEndPosition(
+          editor,
+          caret,
+          newStartOffset,
+          newStartOffset + insertedText.length,
+          text.typeInRegister,
+          CommandState.SubMode.NONE,
+          data.caretAfterInsertedText
+        )
+      }
+    }
+    var applied = false
+    ApplicationManager.getApplication().runWriteAction { applied = edits.apply() }
+    return applied
+  }
+
   private fun putForCaret(
     editor: Editor,
     caret: Caret,
@@ -378,7 +419,7 @@ class PutGroup {
       val startOffset = point.startOffset
       point.dispose()
       if (!caret.isValid) return@forEach
-      val endOffset = if (data.indent) doIndent(
+      val endOffset = if (shouldIndent(data.indent, text.text, 1)) doIndent(
         editor,
         caret,
         context,
@@ -497,15 +538,15 @@ class PutGroup {
     val lineCount = StringUtil.getLineBreakCount(text) + 1
     if (currentLine + lineCount >= EditorHelper.getLineCount(editor)) {
       val limit = currentLine + lineCount - EditorHelper.getLineCount(editor)
-      for (i in 0 until limit) {
-        MotionGroup.moveCaret(editor, caret, editor.fileSize)
-        VimPlugin.getChange().insertText(editor, caret, "\n")
-      }
+      MotionGroup.moveCaret(editor, caret, editor.fileSize)
+      VimPlugin.getChange().insertText(editor, caret, "\n".repeat(limit))
     }
 
     val maxLen = getMaxSegmentLength(text)
     val tokenizer = StringTokenizer(text, "\n")
     var endOffset = startOffset
+    // Segments are put on the existing lines, so all the lines are changed at once
+    val blockEdit = if (mode == CommandState.SubMode.VISUAL_LINE) null else ColumnarEdit(editor)
     while (tokenizer.hasMoreTokens()) {
       var segment = tokenizer.nextToken()
       var origSegment = segment
@@ -521,27 +562,29 @@ class PutGroup {
       val pad = EditorHelper.pad(editor, context, currentLine, currentColumn)
 
       val insertOffset = editor.logicalPositionToOffset(LogicalPosition(currentLine, currentColumn))
-      MotionGroup.moveCaret(editor, caret, insertOffset)
       val insertedText = origSegment + segment.repeat(count - 1)
-      VimPlugin.getChange().insertText(editor, caret, insertedText)
       endOffset += insertedText.length
 
-      if (mode == CommandState.SubMode.VISUAL_LINE) {
+      if (blockEdit == null) {
+        MotionGroup.moveCaret(editor, caret, insertOffset)
+        VimPlugin.getChange().insertText(editor, caret, insertedText)
         MotionGroup.moveCaret(editor, caret, endOffset)
         VimPlugin.getChange().insertText(editor, caret, "\n")
         ++endOffset
       } else {
-        if (pad.isNotEmpty()) {
-          MotionGroup.moveCaret(editor, caret, insertOffset)
-          VimPlugin.getChange().insertText(editor, caret, pad)
-          endOffset += pad.length
-        }
+        // The padding goes before the segment if the line is too short
+        blockEdit.insert(insertOffset, pad + insertedText)
+        endOffset += pad.length
       }
 
       ++currentLine
     }
+    if (blockEdit != null && blockEdit.size > 0) {
+      blockEdit.apply()
+      VimPlugin.getMark().setMark(editor.vim, MARK_CHANGE_POS, blockEdit.newStartOffset(blockEdit.size - 1))
+    }
 
-    if (indent) endOffset = doIndent(editor, caret, context, startOffset, endOffset)
+    if (shouldIndent(indent, text, count)) endOffset = doIndent(editor, caret, context, startOffset, endOffset)
     moveCaretToEndPosition(editor, caret, startOffset, endOffset, type, mode, cursorAfter)
 
     return endOffset
@@ -560,10 +603,11 @@ class PutGroup {
     cursorAfter: Boolean,
   ): Int {
     MotionGroup.moveCaret(editor, caret, startOffset)
-    val insertedText = text.repeat(count)
+    // A large count doesn't build the whole inserted text, the document copies the repeated text by itself
+    val insertedText = if (count == 1) text else RepeatedCharSequence(text, count)
     VimPlugin.getChange().insertText(editor, caret, insertedText)
 
-    val endOffset = if (indent)
+    val endOffset = if (shouldIndent(indent, text, count))
       doIndent(editor, caret, context, startOffset, startOffset + insertedText.length)
     else
       startOffset + insertedText.length
@@ -619,15 +663,30 @@ class PutGroup {
   }
 
   private fun getMaxSegmentLength(text: String): Int {
-    val tokenizer = StringTokenizer(text, "\n")
     var maxLen = 0
-    while (tokenizer.hasMoreTokens()) {
-      val s = tokenizer.nextToken()
-      maxLen = max(s.length, maxLen)
+    var start = 0
+    while (start < text.length) {
+      val end = text.indexOf('\n', start).let { if (it == -1) text.length else it }
+      maxLen = max(end - start, maxLen)
+      start = end + 1
     }
     return maxLen
   }
 
+  /**
+   * Large texts are not indented after put: reformatting thousands of lines freezes the editor.
+   *
+   * [MAX_INDENTED_LINES] is the limit on the number of put lines. Above it the text is put as is, the same as with
+   *   `]p` in Vim, and `=` can still be used to indent it.
+   */
+  private fun shouldIndent(indent: Boolean, text: String, count: Int): Boolean {
+    if (!indent) return false
+    val lines = StringUtil.countNewLines(text).toLong() * count
+    if (lines <= MAX_INDENTED_LINES) return true
+    logger.debug("Skip indent of $lines put lines, the limit is $MAX_INDENTED_LINES")
+    return false
+  }
+
   private fun notifyAboutIdeaPut(project: Project?) {
     if (VimPlugin.getVimState().isIdeaPutNotified ||
       OptionConstants.clipboard_ideaput in (VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL, OptionConstants.clipboardName) as VimString).value ||
@@ -641,5 +700,6 @@ class PutGroup {
 
   companion object {
     private val logger = Logger.getInstance(PutGroup::class.java.name)
+    private const val MAX_INDENTED_LINES = 1000
   }
 }
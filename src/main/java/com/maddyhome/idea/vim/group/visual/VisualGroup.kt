@@ -35,7 +35,7 @@ import com.maddyhome.idea.vim.helper.subMode
 import com.maddyhome.idea.vim.helper.updateCaretsVisualAttributes
 import com.maddyhome.idea.vim.helper.vimLastColumn
 import com.maddyhome.idea.vim.helper.vimSelectionStart
-import com.maddyhome.idea.vim.newapi.IjVimEditor
+import com.maddyhome.idea.vim.newapi.vim
 
 /**
  * @author Alex Plate
@@ -162,7 +162,7 @@ private fun setVisualSelection(selectionStart: Int, selectionEnd: Int, caret: Ca
   val editor = caret.editor
   val subMode = editor.subMode
   val mode = editor.mode
-  val vimEditor = IjVimEditor(editor)
+  val vimEditor = editor.vim
   when (subMode) {
     CommandState.SubMode.VISUAL_CHARACTER -> {
       val (nativeStart, nativeEnd) = charToNativeSelection(vimEditor, start, end, mode)
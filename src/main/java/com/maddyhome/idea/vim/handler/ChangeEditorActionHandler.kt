@@ -33,6 +33,7 @@ import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.Command
 import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.group.MultiCaretEdits
 import com.maddyhome.idea.vim.helper.vimChangeActionSwitchMode
 import com.maddyhome.idea.vim.helper.vimLastColumn
 import com.maddyhome.idea.vim.newapi.ij
@@ -44,6 +45,7 @@ import com.maddyhome.idea.vim.newapi.ij
  * Use subclasses of this handler:
  *   - [ChangeEditorActionHandler.SingleExecution]
  *   - [ChangeEditorActionHandler.ForEachCaret]
+ *   - [ChangeEditorActionHandler.ForEachCaretBatched]
  */
 sealed class ChangeEditorActionHandler : EditorActionHandlerBase(false) {
 
@@ -62,6 +64,30 @@ sealed class ChangeEditorActionHandler : EditorActionHandlerBase(false) {
     ): Boolean
   }
 
+  /**
+   * This handler works as [ForEachCaret], but if there are several carets, they only plan their changes with [plan].
+   *   The changes of all carets are applied at once, see [MultiCaretEdits]. With a single caret, or if the planned
+   *   changes overlap or are cancelled, [execute] is called for each caret.
+   */
+  abstract class ForEachCaretBatched : ForEachCaret() {
+    /**
+     * Returns false if the command with this [argument] can't be planned
+     */
+    open fun canBatch(argument: Argument?): Boolean = true
+
+    /**
+     * Plans the change of [caret] in [edits]. Shouldn't change the document, registers or marks.
+     */
+    abstract fun plan(
+      editor: Editor,
+      caret: Caret,
+      context: DataContext,
+      argument: Argument?,
+      operatorArguments: OperatorArguments,
+      edits: MultiCaretEdits,
+    ): Boolean
+  }
+
   /**
    * This handler executes an action only once for all carets. That means that if you have 5 carets,
    *   [execute] will be called 1 time.
@@ -98,15 +124,19 @@ sealed class ChangeEditorActionHandler : EditorActionHandlerBase(false) {
     try {
       when (this) {
         is ForEachCaret -> {
-          editor.ij.caretModel.runForEachCaret(
-            { current ->
-              if (!current.isValid) return@runForEachCaret
-              if (!execute(editor.ij, current, context.ij, cmd.argument, operatorArguments)) {
-                worked.set(false)
-              }
-            },
-            true
-          )
+          val batched = this is ForEachCaretBatched && editor.ij.caretModel.caretCount > 1 &&
+            canBatch(cmd.argument) && executeBatched(editor.ij, context.ij, cmd.argument, operatorArguments, worked)
+          if (!batched) {
+            editor.ij.caretModel.runForEachCaret(
+              { current ->
+                if (!current.isValid) return@runForEachCaret
+                if (!execute(editor.ij, current, context.ij, cmd.argument, operatorArguments)) {
+                  worked.set(false)
+                }
+              },
+              true
+            )
+          }
         }
         is SingleExecution -> {
           worked.set(execute(editor.ij, context.ij, cmd.argument, operatorArguments))
@@ -135,4 +165,35 @@ sealed class ChangeEditorActionHandler : EditorActionHandlerBase(false) {
 
     return worked.get()
   }
+
+  /**
+   * @return false if the changes can't be applied at once and nothing was changed
+   */
+  private fun ForEachCaretBatched.executeBatched(
+    editor: Editor,
+    context: DataContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+    worked: Ref<Boolean>,
+  ): Boolean {
+    val edits = MultiCaretEdits(editor)
+    var planned = true
+    // Carets are planned in the same order as runForEachCaret in reverse order executes them
+    for (caret in editor.caretModel.allCarets.asReversed()) {
+      val plannedBefore = edits.size
+      if (!plan(editor, caret, context, argument, operatorArguments, edits)) {
+        planned = false
+      }
+      if (edits.size == plannedBefore) {
+        // The caret stays in its place, but it should follow the changes of other carets
+        edits.keep(caret) { caret.moveToOffset(it) }
+      }
+    }
+    if (!edits.apply()) return false
+
+    if (!planned || edits.hasFailures) {
+      worked.set(false)
+    }
+    return true
+  }
 }
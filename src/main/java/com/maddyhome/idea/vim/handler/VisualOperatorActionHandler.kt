@@ -51,7 +51,6 @@ import com.maddyhome.idea.vim.helper.vimLastColumn
 import com.maddyhome.idea.vim.helper.vimLastSelectionType
 import com.maddyhome.idea.vim.helper.vimLastVisualOperatorRange
 import com.maddyhome.idea.vim.helper.vimSelectionStart
-import com.maddyhome.idea.vim.newapi.IjVimEditor
 import com.maddyhome.idea.vim.newapi.ij
 import com.maddyhome.idea.vim.newapi.vim
 
@@ -209,7 +208,7 @@ sealed class VisualOperatorActionHandler : EditorActionHandlerBase(false) {
             primaryCaret to VimBlockSelection(
               primaryCaret.offset,
               end,
-              IjVimEditor(this), range.columns >= VimMotionGroupBase.LAST_COLUMN
+              this.vim, range.columns >= VimMotionGroupBase.LAST_COLUMN
             )
           )
         } else {
@@ -217,7 +216,7 @@ sealed class VisualOperatorActionHandler : EditorActionHandlerBase(false) {
           this.caretModel.allCarets.forEach { caret ->
             val range = caret.vimLastVisualOperatorRange ?: return@forEach
             val end = VisualOperation.calculateRange(this, range, 1, caret)
-            carets += caret to VimSelection.create(caret.offset, end, range.type, IjVimEditor(this))
+            carets += caret to VimSelection.create(caret.offset, end, range.type, this.vim)
           }
           carets.toMap()
         }
@@ -228,7 +227,7 @@ sealed class VisualOperatorActionHandler : EditorActionHandlerBase(false) {
           primaryCaret to VimBlockSelection(
             primaryCaret.vimSelectionStart,
             primaryCaret.offset,
-            IjVimEditor(this), primaryCaret.vimLastColumn >= VimMotionGroupBase.LAST_COLUMN
+            this.vim, primaryCaret.vimLastColumn >= VimMotionGroupBase.LAST_COLUMN
           )
         )
       }
@@ -241,7 +240,7 @@ sealed class VisualOperatorActionHandler : EditorActionHandlerBase(false) {
           caret.selectionStart,
           caret.selectionEnd,
           SelectionType.fromSubMode(subMode),
-          IjVimEditor(this)
+          this.vim
         )
       }
     }
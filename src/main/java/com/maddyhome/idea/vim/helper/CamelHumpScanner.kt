@@ -0,0 +1,154 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import kotlin.math.abs
+
+/**
+ * Finds the boundaries of camel humps: `fooBar`, `HTMLParser`, `foo_bar2` consist of two or three humps each.
+ *
+ * Characters are classified through a precomputed table instead of calling `Character.isUpperCase` and friends on
+ *   each step, and the motions keep the classes of the neighbouring characters in a sliding window, so every
+ *   character is classified once per scan.
+ */
+object CamelHumpScanner {
+  private const val UPPER = 1
+  private const val LOWER = 2
+  private const val DIGIT = 4
+  private const val LETTER = 8
+
+  /**
+   * Class of the offset outside of the text. Has no flags of a character class.
+   */
+  private const val OUTSIDE = 16
+
+  private val classes = ByteArray(Char.MAX_VALUE.code + 1) { code ->
+    val ch = code.toChar()
+    var charClass = 0
+    if (Character.isUpperCase(ch)) charClass = charClass or UPPER
+    if (Character.isLowerCase(ch)) charClass = charClass or LOWER
+    if (Character.isDigit(ch)) charClass = charClass or DIGIT
+    if (Character.isLetter(ch)) charClass = charClass or LETTER
+    charClass.toByte()
+  }
+
+  /**
+   * Finds the start of the [count]th hump after [start] (or before it if [count] is negative).
+   *
+   * @return the offset of the hump start or -1 if there are not enough humps
+   */
+  @JvmStatic
+  fun findNextStart(chars: CharSequence, start: Int, size: Int, count: Int): Int {
+    if (start < 0 || start >= size) return start
+
+    val step = if (count >= 0) 1 else -1
+    val target = abs(count)
+    var found = 0
+    var res = start
+    var pos = start + step
+    var prev = classAt(chars, pos - 1, size)
+    var cur = classAt(chars, pos, size)
+    var next = classAt(chars, pos + 1, size)
+    while (pos in 0 until size && found < target) {
+      if (isStart(prev, cur, next)) {
+        res = pos
+        found++
+      }
+      pos += step
+      if (step > 0) {
+        prev = cur
+        cur = next
+        next = classAt(chars, pos + 1, size)
+      } else {
+        next = cur
+        cur = prev
+        prev = classAt(chars, pos - 1, size)
+      }
+    }
+    return if (found < target) -1 else res
+  }
+
+  /**
+   * Finds the end of the [count]th hump after [start] (or before it if [count] is negative).
+   *
+   * @return the offset of the last character of the hump or -1 if there are not enough humps
+   */
+  @JvmStatic
+  fun findNextEnd(chars: CharSequence, start: Int, size: Int, count: Int): Int {
+    if (start < 0 || start >= size) return start
+
+    val step = if (count >= 0) 1 else -1
+    val target = abs(count)
+    var found = 0
+    var res = start
+    var pos = start + step
+    var cur = classAt(chars, pos, size)
+    var next = classAt(chars, pos + 1, size)
+    var afterNext = classAt(chars, pos + 2, size)
+    while (pos in 0 until size && found < target) {
+      if (isEnd(cur, next, afterNext)) {
+        res = pos
+        found++
+      }
+      pos += step
+      if (step > 0) {
+        cur = next
+        next = afterNext
+        afterNext = classAt(chars, pos + 2, size)
+      } else {
+        afterNext = next
+        next = cur
+        cur = classAt(chars, pos, size)
+      }
+    }
+    return if (found < target) -1 else res
+  }
+
+  @JvmStatic
+  fun isStart(chars: CharSequence, pos: Int, size: Int): Boolean =
+    isStart(classAt(chars, pos - 1, size), classAt(chars, pos, size), classAt(chars, pos + 1, size))
+
+  @JvmStatic
+  fun isEnd(chars: CharSequence, pos: Int, size: Int): Boolean =
+    isEnd(classAt(chars, pos, size), classAt(chars, pos + 1, size), classAt(chars, pos + 2, size))
+
+  /**
+   * Returns true if the character is a letter or a digit, i.e. it may be a part of a hump
+   */
+  @JvmStatic
+  fun isHumpChar(ch: Char): Boolean = classes[ch.code].toInt() and (UPPER or LOWER or DIGIT or LETTER) != 0
+
+  private fun classAt(chars: CharSequence, pos: Int, size: Int): Int {
+    return if (pos in 0 until size) classes[chars[pos].code].toInt() else OUTSIDE
+  }
+
+  private fun isStart(prev: Int, cur: Int, next: Int): Boolean = when {
+    cur and UPPER != 0 -> prev and UPPER == 0 || next == OUTSIDE || next and LOWER != 0
+    cur and LOWER != 0 -> prev and LETTER == 0
+    cur and DIGIT != 0 -> prev and DIGIT == 0
+    else -> false
+  }
+
+  private fun isEnd(cur: Int, next: Int, afterNext: Int): Boolean = when {
+    cur and UPPER != 0 -> next and LETTER == 0 || next and UPPER != 0 && afterNext and LOWER != 0
+    cur and LOWER != 0 -> next and LOWER == 0
+    cur and DIGIT != 0 -> next and DIGIT == 0
+    else -> false
+  }
+}
@@ -28,6 +28,15 @@ object CharacterHelper {
   const val CASE_UPPER = 'u'
   const val CASE_LOWER = 'l'
 
+  private val characterTypes = CharacterType.values()
+
+  /**
+   * Types of all the BMP characters (as [CharacterType] ordinals), so [charType] doesn't need to look up the Unicode
+   *   block and check 'iskeyword' for every scanned character. Only the characters below `0x100` depend on
+   *   'iskeyword', they are updated by [updateKeywordTypes].
+   */
+  private val typeTable = ByteArray(Char.MAX_VALUE.code + 1) { computeCharType(it.toChar()).ordinal.toByte() }
+
   /**
    * This returns the type of the supplied character. The logic is as follows:<br></br>
    * If the character is whitespace, `WHITESPACE` is returned.<br></br>
@@ -41,6 +50,20 @@ object CharacterHelper {
    */
   @JvmStatic
   fun charType(ch: Char, punctuationAsLetters: Boolean): CharacterType {
+    val type = characterTypes[typeTable[ch.code].toInt()]
+    return if (punctuationAsLetters && type == CharacterType.PUNCTUATION) CharacterType.KEYWORD else type
+  }
+
+  /**
+   * Recomputes the types of the characters that depend on 'iskeyword'. Should be called after the option changes.
+   */
+  fun updateKeywordTypes() {
+    for (code in 0 until '\u0100'.code) {
+      typeTable[code] = computeCharType(code.toChar()).ordinal.toByte()
+    }
+  }
+
+  private fun computeCharType(ch: Char): CharacterType {
     val block = UnicodeBlock.of(ch)
     return if (Character.isWhitespace(ch)) {
       CharacterType.WHITESPACE
@@ -52,7 +75,7 @@ object CharacterHelper {
       CharacterType.HALF_WIDTH_KATAKANA
     } else if (block == UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS) {
       CharacterType.CJK_UNIFIED_IDEOGRAPHS
-    } else if (punctuationAsLetters || KeywordOptionHelper.isKeyword(ch)) {
+    } else if (KeywordOptionHelper.isKeyword(ch)) {
       CharacterType.KEYWORD
     } else {
       CharacterType.PUNCTUATION
@@ -0,0 +1,92 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.util.text.CharArrayExternalizable
+
+/**
+ * Growable text stored in fixed size chunks, so appending never copies the text collected so far.
+ *
+ * Used to collect the output of external commands: the output may be large and its size isn't known in advance.
+ *   The buffer is passed to the document as is, the document copies it chunk by chunk.
+ */
+class ChunkedTextBuffer : CharSequence, CharArrayExternalizable {
+  private val chunks = ArrayList<CharArray>()
+
+  override var length: Int = 0
+    private set
+
+  fun append(chars: CharArray, start: Int, count: Int) {
+    var position = start
+    var remaining = count
+    while (remaining > 0) {
+      val offsetInChunk = length % CHUNK_SIZE
+      if (offsetInChunk == 0 && length / CHUNK_SIZE == chunks.size) chunks.add(CharArray(CHUNK_SIZE))
+      val chunk = chunks[length / CHUNK_SIZE]
+      val copied = minOf(remaining, CHUNK_SIZE - offsetInChunk)
+      System.arraycopy(chars, position, chunk, offsetInChunk, copied)
+      position += copied
+      remaining -= copied
+      length += copied
+    }
+  }
+
+  fun append(c: Char) {
+    val offsetInChunk = length % CHUNK_SIZE
+    if (offsetInChunk == 0 && length / CHUNK_SIZE == chunks.size) chunks.add(CharArray(CHUNK_SIZE))
+    chunks[length / CHUNK_SIZE][offsetInChunk] = c
+    length++
+  }
+
+  override fun get(index: Int): Char {
+    if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: $index, Length: $length")
+    return chunks[index / CHUNK_SIZE][index % CHUNK_SIZE]
+  }
+
+  override fun subSequence(startIndex: Int, endIndex: Int): CharSequence {
+    if (startIndex < 0 || endIndex > length || startIndex > endIndex) {
+      throw IndexOutOfBoundsException("Range: $startIndex..$endIndex, Length: $length")
+    }
+    val chars = CharArray(endIndex - startIndex)
+    getChars(startIndex, endIndex, chars, 0)
+    return String(chars)
+  }
+
+  override fun getChars(start: Int, end: Int, dest: CharArray, destPos: Int) {
+    var position = start
+    var destination = destPos
+    while (position < end) {
+      val offsetInChunk = position % CHUNK_SIZE
+      val copied = minOf(CHUNK_SIZE - offsetInChunk, end - position)
+      System.arraycopy(chunks[position / CHUNK_SIZE], offsetInChunk, dest, destination, copied)
+      position += copied
+      destination += copied
+    }
+  }
+
+  override fun toString(): String {
+    val chars = CharArray(length)
+    getChars(0, length, chars, 0)
+    return String(chars)
+  }
+
+  companion object {
+    private const val CHUNK_SIZE = 64 * 1024
+  }
+}
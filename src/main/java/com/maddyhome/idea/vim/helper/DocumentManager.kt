@@ -32,6 +32,7 @@ object DocumentManager {
   init {
     docListeners += MarkGroup.MarkUpdater.INSTANCE
     docListeners += SearchGroup.DocumentSearchListener.INSTANCE
+    docListeners += WordCountIndex.DocumentUpdater
   }
 
   fun addListeners(doc: Document) {
@@ -29,7 +29,7 @@ import com.maddyhome.idea.vim.api.VimEditor;
 import com.maddyhome.idea.vim.api.VimInjectorKt;
 import com.maddyhome.idea.vim.common.IndentConfig;
 import com.maddyhome.idea.vim.common.TextRange;
-import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.ui.ex.ExEntryPanel;
 import kotlin.Pair;
 import org.jetbrains.annotations.NotNull;
@@ -353,7 +353,7 @@ public class EditorHelper {
    * @return The normalized visual line number
    */
   public static int normalizeVisualLine(final @NotNull Editor editor, final int line) {
-    return Math.max(0, Math.min(line, getVisualLineCount(new IjVimEditor(editor)) - 1));
+    return Math.max(0, Math.min(line, getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1));
   }
 
   /**
@@ -676,7 +676,7 @@ public class EditorHelper {
 
     // Scroll the given visual line to the caret location, but do not scroll down passed the end of file, or the current
     // virtual space at the bottom of the screen
-    final int lastVisualLine = EditorHelper.getVisualLineCount(new IjVimEditor(editor)) - 1;
+    final int lastVisualLine = EditorHelper.getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1;
     final int yBottomLineOffset = max(getOffsetToScrollVisualLineToBottomOfScreen(editor, lastVisualLine), visibleArea.y);
     scrollVertically(editor, min(yVisualLine - caretScreenOffset - inlayOffset, yBottomLineOffset));
   }
@@ -727,7 +727,7 @@ public class EditorHelper {
     final int lineHeight = editor.getLineHeight();
 
     final int offset = y - ((screenHeight - lineHeight) / lineHeight / 2 * lineHeight);
-    final int lastVisualLine = EditorHelper.getVisualLineCount(new IjVimEditor(editor)) - 1;
+    final int lastVisualLine = EditorHelper.getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1;
     final int offsetForLastLineAtBottom = getOffsetToScrollVisualLineToBottomOfScreen(editor, lastVisualLine);
 
     // For `zz`, we want to use virtual space and move any line, including the last one, to the middle of the screen.
@@ -886,7 +886,7 @@ public class EditorHelper {
    */
   public static Pair<Boolean, Integer> scrollFullPageDown(final @NotNull Editor editor, int pages) {
     final Rectangle visibleArea = getVisibleArea(editor);
-    final int lastVisualLine = getVisualLineCount(new IjVimEditor(editor)) - 1;
+    final int lastVisualLine = getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1;
 
     int y = visibleArea.y + visibleArea.height;
     int topBound = visibleArea.y;
@@ -903,7 +903,7 @@ public class EditorHelper {
           caretVisualLine = lastVisualLine;
         }
         else {
-          caretVisualLine = getVisualLineCount(new IjVimEditor(editor)) - 1;
+          caretVisualLine = getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1;
           completed = false;
         }
         targetTopVisualLine = lastVisualLine;
@@ -937,7 +937,7 @@ public class EditorHelper {
   public static Pair<Boolean, Integer> scrollFullPageUp(final @NotNull Editor editor, int pages) {
     final Rectangle visibleArea = getVisibleArea(editor);
     final int lineHeight = editor.getLineHeight();
-    final int lastVisualLine = getVisualLineCount(new IjVimEditor(editor)) - 1;
+    final int lastVisualLine = getVisualLineCount(IjVimEditorKt.getVim(editor)) - 1;
 
     int y = visibleArea.y;
     int topBound = visibleArea.y;
@@ -0,0 +1,138 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.util.Key
+import java.util.*
+
+/**
+ * Empty lines of the document, i.e. paragraph boundaries for the paragraph and sentence motions and text objects.
+ *
+ * Lines are checked in blocks of [BLOCK_SIZE] lines when a block is first needed, so repeated motions don't check
+ *   the same lines again, and the nearest empty or non-empty line is found with [BitSet] lookups.
+ *
+ * The index is stored in the document and dropped when the document changes, see [forDocument].
+ */
+class EmptyLineIndex private constructor(private val document: Document, private val modificationStamp: Long) {
+  private val lineCount = document.lineCount
+  private val computedBlocks = BitSet()
+  private val emptyLines = BitSet()
+  private val blankLines = BitSet()
+
+  /**
+   * Same as [EditorHelper.isLineEmpty] for a line of the document
+   */
+  fun isLineEmpty(line: Int, allowBlanks: Boolean): Boolean {
+    if (document.textLength == 0 || line >= lineCount) return true
+    val existingLine = maxOf(line, 0)
+    ensureComputed(existingLine)
+    return lines(allowBlanks)[existingLine]
+  }
+
+  /**
+   * Finds the first empty line starting from [line] in the direction [dir]
+   *
+   * @return the line number or -1 if there is no such line
+   */
+  fun findEmptyLine(line: Int, dir: Int, allowBlanks: Boolean): Int {
+    if (line < 0 || line >= lineCount) return -1
+    val lines = lines(allowBlanks)
+    var block = line / BLOCK_SIZE
+    var from = line
+    while (block >= 0 && block * BLOCK_SIZE < lineCount) {
+      ensureComputed(from)
+      val found = if (dir > 0) lines.nextSetBit(from) else lines.previousSetBit(from)
+      if (found != -1 && found / BLOCK_SIZE == block) return found
+      block += dir
+      from = if (dir > 0) block * BLOCK_SIZE else block * BLOCK_SIZE + BLOCK_SIZE - 1
+    }
+    return -1
+  }
+
+  /**
+   * Skips empty lines starting from [line] in the direction [dir]
+   *
+   * @return the first non-empty line, or the line after the last one (before the first one) if there is no such
+   *   line. Lines outside the document are returned as is.
+   */
+  fun skipEmptyLines(line: Int, dir: Int, allowBlanks: Boolean): Int {
+    if (line < 0 || line >= lineCount) return line
+    val lines = lines(allowBlanks)
+    var block = line / BLOCK_SIZE
+    var from = line
+    while (block >= 0 && block * BLOCK_SIZE < lineCount) {
+      ensureComputed(from)
+      val found = if (dir > 0) lines.nextClearBit(from) else lines.previousClearBit(from)
+      if (found != -1 && found / BLOCK_SIZE == block) return minOf(found, lineCount)
+      block += dir
+      from = if (dir > 0) block * BLOCK_SIZE else block * BLOCK_SIZE + BLOCK_SIZE - 1
+    }
+    return if (dir > 0) lineCount else -1
+  }
+
+  private fun lines(allowBlanks: Boolean) = if (allowBlanks) blankLines else emptyLines
+
+  private fun ensureComputed(line: Int) {
+    val block = line / BLOCK_SIZE
+    if (computedBlocks[block]) return
+    computedBlocks.set(block)
+
+    val chars = document.charsSequence
+    val end = minOf((block + 1) * BLOCK_SIZE, lineCount)
+    for (i in block * BLOCK_SIZE until end) {
+      var offset = document.getLineStartOffset(i)
+      if (offset >= chars.length || chars[offset] == '\n') {
+        emptyLines.set(i)
+        blankLines.set(i)
+        continue
+      }
+      // A blank line at the end of the file without a new line is not empty
+      while (offset < chars.length) {
+        val ch = chars[offset]
+        if (ch == '\n') {
+          blankLines.set(i)
+          break
+        } else if (!Character.isWhitespace(ch)) {
+          break
+        }
+        offset++
+      }
+    }
+  }
+
+  companion object {
+    private const val BLOCK_SIZE = 256
+    private val DOCUMENT_INDEX = Key<EmptyLineIndex>("IdeaVimEmptyLineIndex")
+
+    /**
+     * Returns the index of the current document text. The index is reused until the document is changed.
+     */
+    @JvmStatic
+    fun forDocument(document: Document): EmptyLineIndex {
+      val stamp = document.modificationStamp
+      val index = document.getUserData(DOCUMENT_INDEX)
+      if (index != null && index.modificationStamp == stamp) return index
+
+      val newIndex = EmptyLineIndex(document, stamp)
+      document.putUserData(DOCUMENT_INDEX, newIndex)
+      return newIndex
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.util.Key
+
+/**
+ * Indentation of each line of the text: the number of spaces and tabs before the first other character.
+ *
+ * Blank lines (empty or consisting of spaces and tabs only) don't have an indent and are skipped by the searches.
+ * The minimal indent of each block of [BLOCK_SIZE] lines is kept as well, so looking for the closest line with a
+ *   smaller indent skips whole blocks of deeper indented lines.
+ *
+ * The index of a document is reused until the document changes, see [forDocument].
+ */
+class IndentIndex(chars: CharSequence) {
+  private val indents: IntArray
+  private val blockMinimums: IntArray
+
+  private var modificationStamp = -1L
+
+  init {
+    var lineCount = 1
+    for (i in chars.indices) {
+      if (chars[i] == '\n') lineCount++
+    }
+
+    indents = IntArray(lineCount)
+    var line = 0
+    var indent = 0
+    var inIndent = true
+    for (i in chars.indices) {
+      when (chars[i]) {
+        '\n' -> {
+          if (inIndent) indents[line] = BLANK
+          line++
+          indent = 0
+          inIndent = true
+        }
+        ' ', '\t' -> if (inIndent) indent++
+        else -> if (inIndent) {
+          indents[line] = indent
+          inIndent = false
+        }
+      }
+    }
+    if (inIndent) indents[line] = BLANK
+
+    blockMinimums = IntArray((lineCount + BLOCK_SIZE - 1) / BLOCK_SIZE) { block ->
+      var min = BLANK
+      for (l in block * BLOCK_SIZE until minOf((block + 1) * BLOCK_SIZE, lineCount)) {
+        min = minOf(min, indents[l])
+      }
+      min
+    }
+  }
+
+  val lineCount: Int
+    get() = indents.size
+
+  /**
+   * Finds the closest non-blank line before [line] with the indent smaller than [indent].
+   *
+   * @return the found line or -1
+   */
+  fun findLineAbove(line: Int, indent: Int): Int {
+    var l = minOf(line, lineCount) - 1
+    while (l >= 0) {
+      if (l % BLOCK_SIZE == BLOCK_SIZE - 1 && blockMinimums[l / BLOCK_SIZE] >= indent) {
+        l -= BLOCK_SIZE
+        continue
+      }
+      if (indents[l] < indent) return l
+      l--
+    }
+    return -1
+  }
+
+  /**
+   * Finds the closest non-blank line at or after [line] with the indent smaller than [indent].
+   *
+   * @return the found line or -1
+   */
+  fun findLineBelow(line: Int, indent: Int): Int {
+    var l = maxOf(line, 0)
+    while (l < lineCount) {
+      if (l % BLOCK_SIZE == 0 && blockMinimums[l / BLOCK_SIZE] >= indent) {
+        l += BLOCK_SIZE
+        continue
+      }
+      if (indents[l] < indent) return l
+      l++
+    }
+    return -1
+  }
+
+  companion object {
+    private const val BLOCK_SIZE = 64
+    private const val BLANK = Int.MAX_VALUE
+
+    private val DOCUMENT_INDEX = Key<IndentIndex>("IdeaVimIndentIndex")
+
+    /**
+     * Returns the index of the current document text. The index is reused until the document is changed.
+     */
+    @JvmStatic
+    fun forDocument(document: Document): IndentIndex {
+      val stamp = document.modificationStamp
+      val index = document.getUserData(DOCUMENT_INDEX)
+      if (index != null && index.modificationStamp == stamp) return index
+
+      val newIndex = IndentIndex(document.charsSequence)
+      newIndex.modificationStamp = stamp
+      document.putUserData(DOCUMENT_INDEX, newIndex)
+      return newIndex
+    }
+  }
+}
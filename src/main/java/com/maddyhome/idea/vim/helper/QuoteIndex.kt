@@ -0,0 +1,222 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.util.Key
+import com.maddyhome.idea.vim.common.TextRange
+import java.util.*
+
+/**
+ * Quote state of the text, used to check if a position is inside a string or a char literal (see [checkInString]).
+ *
+ * Checking a position requires all the quotes of its line, so checking every quote while walking over a long line
+ *   (e.g. in a minified file) rescans the line again and again. The index scans each line once, when it's first
+ *   needed, and keeps its quote changes, so a check is a binary search.
+ *
+ * The index of a document is shared between the searches and dropped when the document changes, see [forDocument].
+ */
+class QuoteIndex(private val chars: CharSequence) {
+  private val segments = TreeMap<Int, Segment>()
+  private var lastSegment: Segment? = null
+
+  private var modificationStamp = -1L
+
+  fun checkInString(currentPos: Int, str: Boolean): Boolean {
+    return segmentFor(currentPos).checkInString(currentPos, str)
+  }
+
+  /**
+   * Finds the quoted text containing [pos], from the opening quote to the closing one. Unlike [checkInString],
+   *   both `"` and `'` start a string of any length, which is closed by the next unescaped quote of the same kind
+   *   or by the end of the line. This is how the argument text object skips strings.
+   *
+   * @return the range including both quotes, or null if [pos] is not in quoted text
+   */
+  fun findQuotedText(pos: Int): TextRange? {
+    if (pos < 0 || pos >= chars.length) return null
+    return segmentFor(pos).findQuotedText(pos)
+  }
+
+  /**
+   * Finds the segment of the text that is analyzed for [pos]: it starts at the closest unescaped new line at or
+   *   before [pos] (or at the start of the text) and ends before the next unescaped new line.
+   */
+  private fun segmentFor(pos: Int): Segment {
+    val last = lastSegment
+    if (last != null && pos >= last.begin && pos < last.end) return last
+
+    // Positions outside the text are checked against the first line
+    val inText = pos >= 0 && pos < chars.length
+    val floor = segments.floorEntry(if (inText) pos else 0)?.value
+    val segment = if (floor != null && (pos < floor.end || !inText)) {
+      floor
+    } else {
+      val begin = if (inText) findSegmentBegin(pos, floor?.end ?: 0) else 0
+      Segment(begin, findSegmentEnd(begin)).also { segments[begin] = it }
+    }
+    lastSegment = segment
+    return segment
+  }
+
+  private fun findSegmentBegin(pos: Int, lowerBound: Int): Int {
+    var i = pos
+    while (i > lowerBound) {
+      if (isLineBreak(i)) return i
+      i--
+    }
+    return lowerBound
+  }
+
+  private fun findSegmentEnd(begin: Int): Int {
+    var i = begin + 1
+    while (i < chars.length) {
+      if (isLineBreak(i)) return i
+      i++
+    }
+    return chars.length
+  }
+
+  private fun isLineBreak(pos: Int): Boolean {
+    if (chars[pos] != '\n') return false
+    var backslashCounter = 0
+    var i = pos
+    while (i-- > 0 && chars[i] == '\\') {
+      backslashCounter++
+    }
+    return backslashCounter % 2 == 0
+  }
+
+  private inner class Segment(val begin: Int, val end: Int) {
+    private val changes: List<QuoteState> = quoteChanges(chars, begin).toList()
+
+    /**
+     * Starts and ends (the closing quotes) of the quoted texts for [findQuotedText], built on the first use.
+     *   The changes already have all the unescaped quotes of the segment, so the text isn't scanned again.
+     */
+    private val quotedTexts: IntArray by lazy {
+      val res = ArrayList<Int>()
+      var openPos = -1
+      var openChar = ' '
+      for (change in changes) {
+        if (openPos == -1) {
+          openPos = change.position
+          openChar = change.trigger
+        } else if (change.trigger == openChar) {
+          res += openPos
+          res += change.position
+          openPos = -1
+        }
+      }
+      if (openPos != -1) {
+        res += openPos
+        res += maxOf(openPos, end - 1)
+      }
+      res.toIntArray()
+    }
+
+    fun findQuotedText(pos: Int): TextRange? {
+      // Quoted texts don't overlap, so only the last one that starts at or before the position may contain it
+      var low = 0
+      var high = quotedTexts.size / 2
+      while (low < high) {
+        val mid = (low + high) ushr 1
+        if (quotedTexts[mid * 2] <= pos) low = mid + 1 else high = mid
+      }
+      if (low == 0) return null
+      val start = quotedTexts[(low - 1) * 2]
+      val close = quotedTexts[(low - 1) * 2 + 1]
+      return if (pos <= close) TextRange(start, close + 1) else null
+    }
+
+    // bounds are considered inside corresponding quotes
+    fun checkInString(currentPos: Int, str: Boolean): Boolean {
+      var beforeEnd = firstChangeAtOrAfter(currentPos)
+      var afterStart = beforeEnd
+      if (beforeEnd < changes.size && changes[beforeEnd].position == currentPos && beforeEnd + 1 < changes.size) {
+        // it is situation when cursor is on opening quote, so we must consider that we are inside quotes pair.
+        // Otherwise, the cursor is on closing quote and the change is considered to be after the position
+        beforeEnd++
+        afterStart++
+      }
+
+      val lastBeforePos = if (beforeEnd > 0) changes[beforeEnd - 1] else null
+
+      // if opening quote was found before pos (inQuote=true), it doesn't mean pos is in string, we need
+      // to find closing quote to be sure
+      var posInQuote = lastBeforePos?.inQuote?.let { if (it) null else it }
+
+      val lastOpenSingleQuotePosBeforeCurrentPos = lastBeforePos?.lastOpenSingleQuotePos ?: -1
+      var posInChar = if (lastOpenSingleQuotePosBeforeCurrentPos == -1) false else null
+
+      var inQuote: Boolean? = null
+
+      for (i in afterStart until changes.size) {
+        val (_, trigger, inQuoteAfter, lastOpenSingleQuotePosAfter) = changes[i]
+        inQuote = inQuoteAfter
+        if (posInQuote != null && posInChar != null) break
+        if (posInQuote == null && inQuoteAfter != null) {
+          if (trigger == '"') {
+            posInQuote = !inQuoteAfter
+          } else if (trigger == '\'') {
+            posInQuote = inQuoteAfter
+          }
+        }
+        if (posInChar == null && lastOpenSingleQuotePosAfter != lastOpenSingleQuotePosBeforeCurrentPos) {
+          if (trigger == '"' && lastOpenSingleQuotePosAfter == -1) {
+            posInChar = false
+          } else if (trigger == '\'') {
+            posInChar = lastOpenSingleQuotePosAfter == -1
+          }
+        }
+      }
+
+      return if (str) posInQuote != null && posInQuote && (inQuote == null || !inQuote) else posInChar != null && posInChar
+    }
+
+    private fun firstChangeAtOrAfter(pos: Int): Int {
+      var low = 0
+      var high = changes.size
+      while (low < high) {
+        val mid = (low + high) ushr 1
+        if (changes[mid].position < pos) low = mid + 1 else high = mid
+      }
+      return low
+    }
+  }
+
+  companion object {
+    private val DOCUMENT_INDEX = Key<QuoteIndex>("IdeaVimQuoteIndex")
+
+    /**
+     * Returns the index of the current document text. The index is reused until the document is changed.
+     */
+    @JvmStatic
+    fun forDocument(document: Document): QuoteIndex {
+      val stamp = document.modificationStamp
+      val index = document.getUserData(DOCUMENT_INDEX)
+      if (index != null && index.modificationStamp == stamp) return index
+
+      val newIndex = QuoteIndex(document.charsSequence)
+      newIndex.modificationStamp = stamp
+      document.putUserData(DOCUMENT_INDEX, newIndex)
+      return newIndex
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.util.text.CharArrayExternalizable
+
+/**
+ * [text] repeated [count] times, without building the whole string.
+ *
+ * The document copies the inserted text chunk by chunk, so a put with a large count doesn't need a string of the
+ *   whole inserted text.
+ */
+class RepeatedCharSequence(private val text: String, private val count: Int) : CharSequence,
+  CharArrayExternalizable {
+
+  init {
+    require(count >= 0) { "Negative count: $count" }
+  }
+
+  override val length: Int = Math.multiplyExact(text.length, count)
+
+  override fun get(index: Int): Char {
+    if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: $index, Length: $length")
+    return text[index % text.length]
+  }
+
+  override fun subSequence(startIndex: Int, endIndex: Int): CharSequence {
+    if (startIndex < 0 || endIndex > length || startIndex > endIndex) {
+      throw IndexOutOfBoundsException("Range: $startIndex..$endIndex, Length: $length")
+    }
+    val chars = CharArray(endIndex - startIndex)
+    getChars(startIndex, endIndex, chars, 0)
+    return String(chars)
+  }
+
+  override fun getChars(start: Int, end: Int, dest: CharArray, destPos: Int) {
+    val textLength = text.length
+    var position = start
+    var destination = destPos
+    while (position < end) {
+      val textStart = position % textLength
+      val textEnd = minOf(textLength, textStart + end - position)
+      text.toCharArray(dest, destination, textStart, textEnd)
+      destination += textEnd - textStart
+      position += textEnd - textStart
+    }
+  }
+
+  override fun toString(): String {
+    val chars = CharArray(length)
+    getChars(0, length, chars, 0)
+    return String(chars)
+  }
+}
@@ -35,7 +35,7 @@ import com.maddyhome.idea.vim.command.CommandState;
 import com.maddyhome.idea.vim.common.CharacterPosition;
 import com.maddyhome.idea.vim.common.Direction;
 import com.maddyhome.idea.vim.common.TextRange;
-import com.maddyhome.idea.vim.newapi.IjVimEditor;
+import com.maddyhome.idea.vim.newapi.IjVimEditorKt;
 import com.maddyhome.idea.vim.regexp.CharPointer;
 import com.maddyhome.idea.vim.regexp.RegExp;
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType;
@@ -49,11 +49,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import static com.maddyhome.idea.vim.helper.SearchHelperKtKt.checkInString;
 import static com.maddyhome.idea.vim.helper.SearchHelperKtKt.shouldIgnoreCase;
 
 /**
@@ -473,7 +469,7 @@ public class SearchHelper {
     if (pos < chars.length() && chars.charAt(pos) == type) {
       pos += dir.toInt();
     }
-    return findBlockLocation(chars, found, match, dir, pos, count, false);
+    return findBlockLocation(chars, QuoteIndex.forDocument(editor.getDocument()), found, match, dir, pos, count, false);
   }
 
   public static @Nullable TextRange findBlockRange(@NotNull Editor editor,
@@ -514,7 +510,8 @@ public class SearchHelper {
      * shifting the position allow to express which kind of interval we work on */
     if (rangeSelection) pos = Math.max(0, start - 1);
 
-    boolean initialPosIsInString = checkInString(chars, pos, true);
+    final QuoteIndex quotes = QuoteIndex.forDocument(editor.getDocument());
+    boolean initialPosIsInString = quotes.checkInString(pos, true);
 
     int bstart = -1;
     int bend = -1;
@@ -528,10 +525,13 @@ public class SearchHelper {
         int endOffset = quoteRange.getEndOffset();
         CharSequence subSequence = chars.subSequence(startOffset, endOffset);
         int inQuotePos = pos - startOffset;
-        int inQuoteStart = findBlockLocation(subSequence, close, type, Direction.BACKWARDS, inQuotePos, count, false);
+        QuoteIndex inQuoteQuotes = new QuoteIndex(subSequence);
+        int inQuoteStart =
+          findBlockLocation(subSequence, inQuoteQuotes, close, type, Direction.BACKWARDS, inQuotePos, count, false);
         if (inQuoteStart != -1) {
           startPosInStringFound = true;
-          int inQuoteEnd = findBlockLocation(subSequence, type, close, Direction.FORWARDS, inQuoteStart, 1, false);
+          int inQuoteEnd =
+            findBlockLocation(subSequence, inQuoteQuotes, type, close, Direction.FORWARDS, inQuoteStart, 1, false);
           if (inQuoteEnd != -1) {
             bstart = inQuoteStart + startOffset;
             bend = inQuoteEnd + startOffset;
@@ -541,9 +541,9 @@ public class SearchHelper {
     }
 
     if (!startPosInStringFound) {
-      bstart = findBlockLocation(chars, close, type, Direction.BACKWARDS, pos, count, false);
+      bstart = findBlockLocation(chars, quotes, close, type, Direction.BACKWARDS, pos, count, false);
       if (bstart != -1) {
-        bend = findBlockLocation(chars, type, close, Direction.FORWARDS, bstart, 1, false);
+        bend = findBlockLocation(chars, quotes, type, close, Direction.FORWARDS, bstart, 1, false);
       }
     }
 
@@ -663,7 +663,7 @@ public class SearchHelper {
       // Which character did we find and which should we now search for
       char found = getPairChars().charAt(loc);
       char match = getPairChars().charAt(loc + dir.toInt());
-      res = findBlockLocation(chars, found, match, dir, pos, 1, true);
+      res = findBlockLocation(chars, QuoteIndex.forDocument(editor.getDocument()), found, match, dir, pos, 1, true);
     }
 
     return res;
@@ -684,6 +684,7 @@ public class SearchHelper {
   }
 
   private static int findBlockLocation(@NotNull CharSequence chars,
+                                       @NotNull QuoteIndex quotes,
                                        char found,
                                        char match,
                                        @NotNull Direction dir,
@@ -692,21 +693,19 @@ public class SearchHelper {
                                        boolean allowInString) {
     int res = -1;
     int initialPos = pos;
-    Function<Integer, Integer> inCheckPosF = x -> dir == Direction.BACKWARDS && x > 0 ? x - 1 : x + 1;
-    final int inCheckPos = inCheckPosF.apply(pos);
-    boolean inString = checkInString(chars, inCheckPos, true);
+    final int step = dir.toInt();
+    final int inCheckPos = inStringCheckPosition(pos, dir);
+    boolean inString = quotes.checkInString(inCheckPos, true);
     boolean initialInString = inString;
-    boolean inChar = checkInString(chars, inCheckPos, false);
+    boolean inChar = quotes.checkInString(inCheckPos, false);
     int stack = 0;
     // Search to start or end of file, as appropriate
-    Set<Character> charsToSearch = new HashSet<>(Arrays.asList('\'', '"', '\n', match, found));
     while (pos >= 0 && pos < chars.length() && cnt > 0) {
-      @Nullable Pair<Character, Integer> ci = findPositionOfFirstCharacter(chars, pos, charsToSearch, false, dir);
-      if (ci == null) {
+      pos = findBlockCharacter(chars, pos, found, match, step);
+      if (pos == -1) {
         return -1;
       }
-      Character c = ci.getFirst();
-      pos = ci.getSecond();
+      char c = chars.charAt(pos);
       // If we found a match and we're not in a string...
       if (c == match && (allowInString ? initialInString == inString : !inString) && !inChar) {
         // We found our match
@@ -731,18 +730,37 @@ public class SearchHelper {
         }
         // We found the start/end of a string
         else if (!inChar) {
-          inString = checkInString(chars, inCheckPosF.apply(pos), true);
+          inString = quotes.checkInString(inStringCheckPosition(pos, dir), true);
         }
         else if (!inString) {
-          inChar = checkInString(chars, inCheckPosF.apply(pos), false);
+          inChar = quotes.checkInString(inStringCheckPosition(pos, dir), false);
         }
       }
-      pos += dir.toInt();
+      pos += step;
     }
 
     return res;
   }
 
+  private static int inStringCheckPosition(int pos, @NotNull Direction dir) {
+    return dir == Direction.BACKWARDS && pos > 0 ? pos - 1 : pos + 1;
+  }
+
+  /**
+   * Finds the next quote, new line, or one of the block characters, skipping the escaped ones
+   */
+  private static int findBlockCharacter(@NotNull CharSequence chars, int pos, char found, char match, int step) {
+    while (pos >= 0 && pos < chars.length()) {
+      final char c = chars.charAt(pos);
+      if ((c == '\'' || c == '"' || c == '\n' || c == match || c == found) &&
+          (pos == 0 || isQuoteWithoutEscape(chars, pos, c))) {
+        return pos;
+      }
+      pos += step;
+    }
+    return -1;
+  }
+
   /**
    * Returns true if [quote] is at this [pos] and it's not escaped (like \")
    */
@@ -867,16 +885,16 @@ public class SearchHelper {
       }
     }
 
+    final TagIndex tags = TagIndex.forDocument(editor.getDocument());
     while (true) {
-      final @Nullable Pair<TextRange, String> closingTag =
-        findUnmatchedClosingTag(sequence, searchStartPosition, count);
+      final @Nullable Pair<TextRange, String> closingTag = tags.findUnmatchedClosingTag(searchStartPosition, count);
       if (closingTag == null) {
         return null;
       }
       final TextRange closingTagTextRange = closingTag.getFirst();
       final String tagName = closingTag.getSecond();
 
-      TextRange openingTag = findUnmatchedOpeningTag(sequence, closingTagTextRange.getStartOffset(), tagName);
+      TextRange openingTag = tags.findUnmatchedOpeningTag(closingTagTextRange.getStartOffset(), tagName);
       if (openingTag == null) {
         return null;
       }
@@ -893,7 +911,7 @@ public class SearchHelper {
         selectionEndWithoutNewline++;
       }
 
-      final CommandState.Mode mode = CommandState.getInstance(new IjVimEditor(editor)).getMode();
+      final CommandState.Mode mode = CommandState.getInstance(IjVimEditorKt.getVim(editor)).getMode();
       if (mode == CommandState.Mode.VISUAL) {
         if (closingTagTextRange.getStartOffset() == selectionEndWithoutNewline &&
           openingTag.getEndOffset() == selectionStart) {
@@ -952,87 +970,6 @@ public class SearchHelper {
     return closingBracket != -1 && sequence.charAt(closingBracket - 1) != '/';
   }
 
-  private static @Nullable Pair<TextRange, String> findUnmatchedClosingTag(final @NotNull CharSequence sequence,
-                                                                           final int position,
-                                                                           int count) {
-    // The tag name may contain any characters except slashes, whitespace and '>'
-    final String tagNamePattern = "([^/\\s>]+)";
-    // An opening tag consists of '<' followed by a tag name, optionally some additional text after whitespace and a '>'
-    final String openingTagPattern = String.format("<%s(?:\\s[^>]*)?>", tagNamePattern);
-    final String closingTagPattern = String.format("</%s>", tagNamePattern);
-    final Pattern tagPattern = Pattern.compile(String.format("(?:%s)|(?:%s)", openingTagPattern, closingTagPattern));
-    final Matcher matcher = tagPattern.matcher(sequence.subSequence(position, sequence.length()));
-
-    final Deque<String> openTags = new ArrayDeque<>();
-
-    while (matcher.find()) {
-      boolean isClosingTag = matcher.group(1) == null;
-      if (isClosingTag) {
-        final String tagName = matcher.group(2);
-        // Ignore unmatched open tags. Either the file is malformed or it might be a tag like <br> that does not need to be closed.
-        while (!openTags.isEmpty() && !openTags.peek().equalsIgnoreCase(tagName)) {
-          openTags.pop();
-        }
-        if (openTags.isEmpty()) {
-          if (count <= 1) {
-            return new Pair<>(new TextRange(position + matcher.start(), position + matcher.end()), tagName);
-          }
-          else {
-            count--;
-          }
-        }
-        else {
-          openTags.pop();
-        }
-      }
-      else {
-        final String tagName = matcher.group(1);
-        openTags.push(tagName);
-      }
-    }
-    return null;
-  }
-
-  private static @Nullable TextRange findUnmatchedOpeningTag(@NotNull CharSequence sequence,
-                                                             int position,
-                                                             @NotNull String tagName) {
-    final String quotedTagName = Pattern.quote(tagName);
-    final String patternString = "(</%s>)"
-                                 // match closing tags
-                                 +
-                                 "|(<%s"
-                                 // or opening tags starting with tagName
-                                 +
-                                 "(\\s([^>]*"
-                                 // After at least one whitespace there might be additional text in the tag. E.g. <html lang="en">
-                                 +
-                                 "[^/])?)?>)";  // Slash is not allowed as last character (this would be a self closing tag).
-    final Pattern tagPattern =
-      Pattern.compile(String.format(patternString, quotedTagName, quotedTagName), Pattern.CASE_INSENSITIVE);
-    final Matcher matcher = tagPattern.matcher(sequence.subSequence(0, position + 1));
-    final Deque<TextRange> openTags = new ArrayDeque<>();
-
-    while (matcher.find()) {
-      final TextRange match = new TextRange(matcher.start(), matcher.end());
-      if (sequence.charAt(matcher.start() + 1) == '/') {
-        if (!openTags.isEmpty()) {
-          openTags.pop();
-        }
-      }
-      else {
-        openTags.push(match);
-      }
-    }
-
-    if (openTags.isEmpty()) {
-      return null;
-    }
-    else {
-      return openTags.pop();
-    }
-  }
-
-
   public static @Nullable TextRange findBlockQuoteInLineRange(@NotNull Editor editor,
                                                               @NotNull Caret caret,
                                                               char quote,
@@ -1080,103 +1017,21 @@ public class SearchHelper {
   }
 
   public static int findNextCamelStart(@NotNull Editor editor, @NotNull Caret caret, int count) {
-    CharSequence chars = editor.getDocument().getCharsSequence();
-    int pos = caret.getOffset();
-    int size = EditorHelperRt.getFileSize(editor);
-
-    int found = 0;
-    int step = count >= 0 ? 1 : -1;
-    if (pos < 0 || pos >= size) {
-      return pos;
-    }
-
-    int res = pos;
-    pos += step;
-    while (pos >= 0 && pos < size && found < Math.abs(count)) {
-      if (Character.isUpperCase(chars.charAt(pos))) {
-        if ((pos == 0 || !Character.isUpperCase(chars.charAt(pos - 1))) ||
-            (pos == size - 1 || Character.isLowerCase(chars.charAt(pos + 1)))) {
-          res = pos;
-          found++;
-        }
-      }
-      else if (Character.isLowerCase(chars.charAt(pos))) {
-        if (pos == 0 || !Character.isLetter(chars.charAt(pos - 1))) {
-          res = pos;
-          found++;
-        }
-      }
-      else if (Character.isDigit(chars.charAt(pos))) {
-        if (pos == 0 || !Character.isDigit(chars.charAt(pos - 1))) {
-          res = pos;
-          found++;
-        }
-      }
-
-      pos += step;
-    }
-
-    if (found < Math.abs(count)) {
-      res = -1;
-    }
-
-    return res;
+    return CamelHumpScanner.findNextStart(editor.getDocument().getCharsSequence(), caret.getOffset(),
+                                          EditorHelperRt.getFileSize(editor), count);
   }
 
   public static int findNextCamelEnd(@NotNull Editor editor, @NotNull Caret caret, int count) {
-    CharSequence chars = editor.getDocument().getCharsSequence();
-    int pos = caret.getOffset();
-    int size = EditorHelperRt.getFileSize(editor);
-
-    int found = 0;
-    int step = count >= 0 ? 1 : -1;
-    if (pos < 0 || pos >= size) {
-      return pos;
-    }
-
-    int res = pos;
-    pos += step;
-    while (pos >= 0 && pos < size && found < Math.abs(count)) {
-      if (Character.isUpperCase(chars.charAt(pos))) {
-        if (pos == size - 1 ||
-            !Character.isLetter(chars.charAt(pos + 1)) ||
-            (Character.isUpperCase(chars.charAt(pos + 1)) &&
-             pos < size - 2 &&
-             Character.isLowerCase(chars.charAt(pos + 2)))) {
-          res = pos;
-          found++;
-        }
-      }
-      else if (Character.isLowerCase(chars.charAt(pos))) {
-        if (pos == size - 1 || !Character.isLowerCase(chars.charAt(pos + 1))) {
-          res = pos;
-          found++;
-        }
-      }
-      else if (Character.isDigit(chars.charAt(pos))) {
-        if (pos == size - 1 || !Character.isDigit(chars.charAt(pos + 1))) {
-          res = pos;
-          found++;
-        }
-      }
-
-      pos += step;
-    }
-
-    if (found < Math.abs(count)) {
-      res = -1;
-    }
-
-    return res;
+    return CamelHumpScanner.findNextEnd(editor.getDocument().getCharsSequence(), caret.getOffset(),
+                                        EditorHelperRt.getFileSize(editor), count);
   }
 
   /**
    * This counts all the words in the file.
+   * The count is kept up to date with the document changes, see {@link WordCountIndex}.
    */
   public static @NotNull CountPosition countWords(@NotNull Editor editor) {
-    int size = EditorHelperRt.getFileSize(editor);
-
-    return countWords(editor, 0, size);
+    return WordCountIndex.countWords(editor.getDocument(), editor.getCaretModel().getOffset());
   }
 
   /**
@@ -1329,48 +1184,26 @@ public class SearchHelper {
                                                                               final boolean hex,
                                                                               final boolean octal) {
     List<Pair<TextRange, NumberType>> result = new ArrayList<>();
+    final CharSequence chars = editor.getDocument().getCharsSequence();
 
-
+    // Scan the document text in place, line by line, instead of copying the lines to strings
     for (int i = 0; i < textRange.size(); i++) {
-      int startOffset = textRange.getStartOffsets()[i];
-      String text = EditorHelper.getText(editor, startOffset, textRange.getEndOffsets()[i]);
-      String[] textChunks = text.split("\\n");
-      int chunkStart = 0;
-      for (String chunk : textChunks) {
-        Pair<TextRange, NumberType> number = findNumberInText(chunk, 0, alpha, hex, octal);
+      final int rangeEnd = Math.min(textRange.getEndOffsets()[i], chars.length());
+      int lineStart = textRange.getStartOffsets()[i];
+      while (lineStart < rangeEnd) {
+        int lineEnd = lineStart;
+        while (lineEnd < rangeEnd && chars.charAt(lineEnd) != '\n') {
+          lineEnd++;
+        }
 
+        Pair<TextRange, NumberType> number = findNumberInText(chars, lineStart, lineEnd, lineStart, alpha, hex, octal);
         if (number != null) {
-          result.add(new Pair<>(new TextRange(number.getFirst().getStartOffset() + startOffset + chunkStart,
-                                              number.getFirst().getEndOffset() + startOffset + chunkStart),
-                                number.getSecond()));
+          result.add(number);
         }
-        chunkStart += 1 + chunk.length();
+        lineStart = lineEnd + 1;
       }
     }
 
-    /*
-
-
-    int firstLine = editor.offsetToLogicalPosition(textRange.getStartOffset()).line;
-    int lastLine = editor.offsetToLogicalPosition(textRange.getEndOffset()).line;
-
-    int startOffset = textRange.getStartOffset();
-    for (int lineNumber = firstLine; lineNumber <= lastLine; lineNumber++) {
-      int endOffset = EditorHelper.getLineEndOffset(editor, lineNumber, true);
-      if (endOffset > textRange.getEndOffset()) endOffset = textRange.getEndOffset();
-
-      String text = EditorHelper.getText(editor, startOffset, endOffset);
-
-      TextRange numberRange = findNumberInText(text, 0, alpha, hex, octal);
-
-      if (numberRange == null) continue;
-
-      result.add(new TextRange(numberRange.getStartOffset() + startOffset, numberRange.getEndOffset() + startOffset));
-
-      startOffset = endOffset + 1;
-    }
-
-    */
     return result;
   }
 
@@ -1406,13 +1239,28 @@ public class SearchHelper {
                                                                        final boolean alpha,
                                                                        final boolean hex,
                                                                        final boolean octal) {
+    return findNumberInText(textInRange, 0, textInRange.length(), startPosOnLine, alpha, hex, octal);
+  }
+
+  /**
+   * Search for number in the line [lineStart, lineEnd) of the text from start position
+   *
+   * @return - text range with number, the offsets are in the whole text
+   */
+  private static @Nullable Pair<TextRange, NumberType> findNumberInText(final @NotNull CharSequence textInRange,
+                                                                        final int lineStart,
+                                                                        final int lineEnd,
+                                                                        int startPos,
+                                                                        final boolean alpha,
+                                                                        final boolean hex,
+                                                                        final boolean octal) {
 
     if (logger.isDebugEnabled()) {
-      logger.debug("text=" + textInRange);
+      logger.debug("text=" + textInRange.subSequence(lineStart, lineEnd));
     }
 
-    int pos = startPosOnLine;
-    int lineEndOffset = textInRange.length();
+    int pos = startPos;
+    int lineEndOffset = lineEnd;
 
     while (true) {
       // Skip over current whitespace if any
@@ -1430,22 +1278,26 @@ public class SearchHelper {
 
       if (hex) {
         // Ox and OX handling
+        // The prefix at the end of the line is not a hex number
         if (textInRange.charAt(pos) == '0' &&
-            pos < lineEndOffset - 1 &&
+            pos < lineEndOffset - 2 &&
             "xX".indexOf(textInRange.charAt(pos + 1)) >= 0) {
           pos += 2;
         }
-        else if ("xX".indexOf(textInRange.charAt(pos)) >= 0 && pos > 0 && textInRange.charAt(pos - 1) == '0') {
+        else if ("xX".indexOf(textInRange.charAt(pos)) >= 0 &&
+                 pos > lineStart &&
+                 pos < lineEndOffset - 1 &&
+                 textInRange.charAt(pos - 1) == '0') {
           pos++;
         }
 
         logger.debug("checking hex");
-        final Pair<Integer, Integer> range = findRange(textInRange, pos, false, true, false, false);
+        final Pair<Integer, Integer> range = findRange(textInRange, lineStart, lineEnd, pos, false, true, false, false);
         int start = range.getFirst();
         int end = range.getSecond();
 
         // Ox and OX
-        if (start >= 2 && textInRange.substring(start - 2, start).equalsIgnoreCase("0x")) {
+        if (start - 2 >= lineStart && end > start && isHexPrefix(textInRange, start - 2)) {
           logger.debug("found hex");
           return new Pair<>(new TextRange(start - 2, end), NumberType.HEX);
         }
@@ -1464,7 +1316,7 @@ public class SearchHelper {
 
     if (octal) {
       logger.debug("checking octal");
-      final Pair<Integer, Integer> range = findRange(textInRange, pos, false, false, true, false);
+      final Pair<Integer, Integer> range = findRange(textInRange, lineStart, lineEnd, pos, false, false, true, false);
       int start = range.getFirst();
       int end = range.getSecond();
 
@@ -1473,7 +1325,7 @@ public class SearchHelper {
       }
       if (textInRange.charAt(start) == '0' &&
           end > start &&
-          !(start > 0 && isNumberChar(textInRange.charAt(start - 1), false, false, false, true))) {
+          !(start > lineStart && isNumberChar(textInRange.charAt(start - 1), false, false, false, true))) {
         logger.debug("found octal");
         return new Pair<>(new TextRange(start, end), NumberType.OCT);
       }
@@ -1487,43 +1339,49 @@ public class SearchHelper {
       }
     }
 
-    final Pair<Integer, Integer> range = findRange(textInRange, pos, false, false, false, true);
+    final Pair<Integer, Integer> range = findRange(textInRange, lineStart, lineEnd, pos, false, false, false, true);
     int start = range.getFirst();
     int end = range.getSecond();
-    if (start > 0 && textInRange.charAt(start - 1) == '-') {
+    if (start > lineStart && textInRange.charAt(start - 1) == '-') {
       start--;
     }
 
     return new Pair<>(new TextRange(start, end), NumberType.DEC);
   }
 
+  private static boolean isHexPrefix(@NotNull CharSequence text, int offset) {
+    return text.charAt(offset) == '0' && (text.charAt(offset + 1) == 'x' || text.charAt(offset + 1) == 'X');
+  }
+
   /**
-   * Searches for digits block that matches parameters
+   * Searches for digits block that matches parameters in the line [lineStart, lineEnd)
    */
-  private static @NotNull Pair<Integer, Integer> findRange(final @NotNull String text,
+  private static @NotNull Pair<Integer, Integer> findRange(final @NotNull CharSequence text,
+                                                           final int lineStart,
+                                                           final int lineEnd,
                                                            final int pos,
                                                            final boolean alpha,
                                                            final boolean hex,
                                                            final boolean octal,
                                                            final boolean decimal) {
     int end = pos;
-    while (end < text.length() && isNumberChar(text.charAt(end), alpha, hex, octal, decimal || octal)) {
+    while (end < lineEnd && isNumberChar(text.charAt(end), alpha, hex, octal, decimal || octal)) {
       end++;
     }
     int start = pos;
-    while (start >= 0 && isNumberChar(text.charAt(start), alpha, hex, octal, decimal || octal)) {
+    while (start >= lineStart && start < lineEnd && isNumberChar(text.charAt(start), alpha, hex, octal, decimal || octal)) {
       start--;
     }
     if (start < end &&
-        (start == -1 ||
-         0 <= start &&
-         start < text.length() &&
+        (start == lineStart - 1 ||
+         lineStart <= start &&
+         start < lineEnd &&
          !isNumberChar(text.charAt(start), alpha, hex, octal, decimal || octal))) {
       start++;
     }
     if (octal) {
       for (int i = start; i < end; i++) {
-        if (!isNumberChar(text.charAt(i), false, false, true, false)) return new Pair<>(0, 0);
+        if (!isNumberChar(text.charAt(i), false, false, true, false)) return new Pair<>(lineStart, lineStart);
       }
     }
     return new Pair<>(start, end);
@@ -1929,7 +1787,7 @@ public class SearchHelper {
 
     int res = start;
     for (; count > 0 && res >= 0 && res <= max - 1; count--) {
-      res = findSentenceStart(editor, chars, res, max, dir, countCurrent, count > 1);
+      res = findSentenceStart(editor, chars, res, max, dir, countCurrent);
       if (res == 0 || res == max - 1) {
         count--;
         break;
@@ -1963,7 +1821,7 @@ public class SearchHelper {
 
     int res = start;
     for (; count > 0 && res >= 0 && res <= max - 1; count--) {
-      res = findSentenceEnd(editor, chars, res, max, dir, countCurrent && count == total, count > 1);
+      res = findSentenceEnd(editor, chars, res, max, dir, countCurrent && count == total);
       if (res == 0 || res == max - 1) {
         count--;
         break;
@@ -1988,19 +1846,18 @@ public class SearchHelper {
                                        int start,
                                        int max,
                                        int dir,
-                                       boolean countCurrent,
-                                       boolean multiple) {
+                                       boolean countCurrent) {
     // Save off the next paragraph since a paragraph is a valid sentence.
     int lline = editor.offsetToLogicalPosition(start).line;
-    int np = findNextParagraph(editor, lline, dir, false, multiple);
+    int np = findNextParagraph(editor, lline, dir, false);
 
     int end;
     // start < max was added to avoid exception and it may be incorrect
     if (start < max && chars.charAt(start) == '\n' && !countCurrent) {
-      end = findSentenceEnd(editor, chars, start, max, -1, false, multiple);
+      end = findSentenceEnd(editor, chars, start, max, -1, false);
     }
     else {
-      end = findSentenceEnd(editor, chars, start, max, -1, true, multiple);
+      end = findSentenceEnd(editor, chars, start, max, -1, true);
     }
     if (end == start && countCurrent && chars.charAt(end) == '\n') {
       return end;
@@ -2036,10 +1893,10 @@ public class SearchHelper {
     }
 
     if (dir > 0) {
-      end = findSentenceEnd(editor, chars, start, max, dir, true, multiple);
+      end = findSentenceEnd(editor, chars, start, max, dir, true);
     }
     else {
-      end = findSentenceEnd(editor, chars, pos, max, dir, countCurrent, multiple);
+      end = findSentenceEnd(editor, chars, pos, max, dir, countCurrent);
     }
 
     int res = end + 1;
@@ -2080,8 +1937,7 @@ public class SearchHelper {
                                      int start,
                                      int max,
                                      int dir,
-                                     boolean countCurrent,
-                                     boolean multiple) {
+                                     boolean countCurrent) {
     if (dir > 0 && start >= EditorHelperRt.getFileSize(editor) - 1) {
       return -1;
     }
@@ -2091,7 +1947,7 @@ public class SearchHelper {
 
     // Save off the next paragraph since a paragraph is a valid sentence.
     int lline = editor.offsetToLogicalPosition(start).line;
-    int np = findNextParagraph(editor, lline, dir, false, multiple);
+    int np = findNextParagraph(editor, lline, dir, false);
 
     // Sections are also end-of-sentence markers. However, { and } in column 1 don't count.
     // Since our section implementation only supports these and form-feed chars, we'll just
@@ -2247,10 +2103,10 @@ public class SearchHelper {
     boolean findend = dir < 1;
     // Even = start, odd = end
     int which;
-    int eprev = findSentenceEnd(editor, chars, start, max, -1, true, false);
-    int enext = findSentenceEnd(editor, chars, start, max, 1, true, false);
-    int sprev = findSentenceStart(editor, chars, start, max, -1, true, false);
-    int snext = findSentenceStart(editor, chars, start, max, 1, true, false);
+    int eprev = findSentenceEnd(editor, chars, start, max, -1, true);
+    int enext = findSentenceEnd(editor, chars, start, max, 1, true);
+    int sprev = findSentenceStart(editor, chars, start, max, -1, true);
+    int snext = findSentenceStart(editor, chars, start, max, 1, true);
     if (snext == eprev) // On blank line
     {
       if (dir < 0 && !oneway) {
@@ -2325,10 +2181,10 @@ public class SearchHelper {
     int res = start;
     for (; count > 0 && res >= 0 && res <= max - 1; count--) {
       if ((toggle && which % 2 == 1) || (isOuter && findend)) {
-        res = findSentenceEnd(editor, chars, res, max, dir, false, total > 1);
+        res = findSentenceEnd(editor, chars, res, max, dir, false);
       }
       else {
-        res = findSentenceStart(editor, chars, res, max, dir, false, total > 1);
+        res = findSentenceStart(editor, chars, res, max, dir, false);
       }
       if (res == 0 || res == max - 1) {
         count--;
@@ -2420,12 +2276,8 @@ public class SearchHelper {
     }
   }
 
-  private static int findNextParagraph(@NotNull Editor editor,
-                                       int lline,
-                                       int dir,
-                                       boolean allowBlanks,
-                                       boolean skipLines) {
-    int line = findNextParagraphLine(editor, lline, dir, allowBlanks, skipLines);
+  private static int findNextParagraph(@NotNull Editor editor, int lline, int dir, boolean allowBlanks) {
+    int line = findNextParagraphLine(editor, lline, dir, allowBlanks);
 
     if (line >= 0) {
       return EditorHelper.getLineStartOffset(editor, line);
@@ -2443,12 +2295,11 @@ public class SearchHelper {
 
     int maxline = EditorHelper.getLineCount(editor);
     int dir = count > 0 ? 1 : -1;
-    boolean skipLines = count > 1;
     count = Math.abs(count);
     int total = count;
 
     for (; count > 0 && line >= 0; count--) {
-      line = findNextParagraphLine(editor, line, dir, allowBlanks, skipLines);
+      line = findNextParagraphLine(editor, line, dir, allowBlanks);
     }
 
     if (total == 1 && line < 0) {
@@ -2461,40 +2312,15 @@ public class SearchHelper {
     return line;
   }
 
-  private static int findNextParagraphLine(@NotNull Editor editor,
-                                           int line,
-                                           int dir,
-                                           boolean allowBlanks,
-                                           boolean skipLines) {
-    int maxline = EditorHelper.getLineCount(editor);
-    int res = -1;
-
-    line = skipEmptyLines(editor, line, dir, allowBlanks);
-    while (line >= 0 && line < maxline && res == -1) {
-      if (EditorHelper.isLineEmpty(editor, line, allowBlanks)) {
-        res = line;
-        if (skipLines) {
-          line = skipEmptyLines(editor, line, dir, allowBlanks);
-        }
-      }
-
-      line += dir;
-    }
-
-    return res;
-  }
-
-  private static int skipEmptyLines(@NotNull Editor editor, int line, int dir, boolean allowBlanks) {
-    int maxline = EditorHelper.getLineCount(editor);
-    while (line >= 0 && line < maxline) {
-      if (!EditorHelper.isLineEmpty(editor, line, allowBlanks)) {
-        return line;
-      }
-
-      line += dir;
-    }
-
-    return line;
+  /**
+   * Finds the first empty line after the current paragraph, the empty lines the search starts on are skipped
+   *
+   * @return the line number or -1 if there is no such line
+   */
+  private static int findNextParagraphLine(@NotNull Editor editor, int line, int dir, boolean allowBlanks) {
+    final EmptyLineIndex emptyLines = EmptyLineIndex.forDocument(editor.getDocument());
+    line = emptyLines.skipEmptyLines(line, dir, allowBlanks);
+    return emptyLines.findEmptyLine(line, dir, allowBlanks);
   }
 
   public static @Nullable TextRange findParagraphRange(@NotNull Editor editor,
@@ -2503,13 +2329,14 @@ public class SearchHelper {
                                                        boolean isOuter) {
     int line = caret.getLogicalPosition().line;
     int maxline = EditorHelper.getLineCount(editor);
+    final EmptyLineIndex emptyLines = EmptyLineIndex.forDocument(editor.getDocument());
     if (logger.isDebugEnabled()) logger.debug("starting on line " + line);
     int sline;
     int eline;
     boolean fixstart = false;
     boolean fixend = false;
     if (isOuter) {
-      if (EditorHelper.isLineEmpty(editor, line, true)) {
+      if (emptyLines.isLineEmpty(line, true)) {
         sline = line;
       }
       else {
@@ -2521,7 +2348,7 @@ public class SearchHelper {
         return null;
       }
 
-      if (EditorHelper.isLineEmpty(editor, sline, true) && EditorHelper.isLineEmpty(editor, eline, true)) {
+      if (emptyLines.isLineEmpty(sline, true) && emptyLines.isLineEmpty(eline, true)) {
         if (sline == line) {
           eline--;
           fixstart = true;
@@ -2531,24 +2358,24 @@ public class SearchHelper {
           fixend = true;
         }
       }
-      else if (!EditorHelper.isLineEmpty(editor, eline, true) &&
-               !EditorHelper.isLineEmpty(editor, sline, true) &&
+      else if (!emptyLines.isLineEmpty(eline, true) &&
+               !emptyLines.isLineEmpty(sline, true) &&
                sline > 0) {
         sline--;
         fixstart = true;
       }
-      else if (EditorHelper.isLineEmpty(editor, eline, true)) {
+      else if (emptyLines.isLineEmpty(eline, true)) {
         fixend = true;
       }
-      else if (EditorHelper.isLineEmpty(editor, sline, true)) {
+      else if (emptyLines.isLineEmpty(sline, true)) {
         fixstart = true;
       }
     }
     else {
       sline = line;
-      if (!EditorHelper.isLineEmpty(editor, sline, true)) {
+      if (!emptyLines.isLineEmpty(sline, true)) {
         sline = findNextParagraphLine(editor, caret, -1, true);
-        if (EditorHelper.isLineEmpty(editor, sline, true)) {
+        if (emptyLines.isLineEmpty(sline, true)) {
           sline++;
         }
         eline = line;
@@ -2557,10 +2384,10 @@ public class SearchHelper {
         eline = line - 1;
       }
 
-      int which = EditorHelper.isLineEmpty(editor, sline, true) ? 0 : 1;
+      int which = emptyLines.isLineEmpty(sline, true) ? 0 : 1;
       for (int i = 0; i < count; i++) {
         if (which % 2 == 1) {
-          eline = findNextParagraphLine(editor, eline, 1, true, false) - 1;
+          eline = findNextParagraphLine(editor, eline, 1, true) - 1;
           if (eline < 0) {
             if (i == count - 1) {
               eline = maxline - 1;
@@ -2579,9 +2406,9 @@ public class SearchHelper {
       fixend = true;
     }
 
-    if (fixstart && EditorHelper.isLineEmpty(editor, sline, true)) {
+    if (fixstart && emptyLines.isLineEmpty(sline, true)) {
       while (sline > 0) {
-        if (EditorHelper.isLineEmpty(editor, sline - 1, true)) {
+        if (emptyLines.isLineEmpty(sline - 1, true)) {
           sline--;
         }
         else {
@@ -2590,9 +2417,9 @@ public class SearchHelper {
       }
     }
 
-    if (fixend && EditorHelper.isLineEmpty(editor, eline, true)) {
+    if (fixend && emptyLines.isLineEmpty(eline, true)) {
       while (eline < maxline - 1) {
-        if (EditorHelper.isLineEmpty(editor, eline + 1, true)) {
+        if (emptyLines.isLineEmpty(eline + 1, true)) {
           eline++;
         }
         else {
@@ -18,78 +18,15 @@
 
 package com.maddyhome.idea.vim.helper
 
-import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.common.Direction
 import com.maddyhome.idea.vim.helper.SearchHelper.findPositionOfFirstCharacter
-import com.maddyhome.idea.vim.options.OptionConstants
-import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles
 
-private data class State(val position: Int, val trigger: Char, val inQuote: Boolean?, val lastOpenSingleQuotePos: Int)
+internal data class QuoteState(val position: Int, val trigger: Char, val inQuote: Boolean?, val lastOpenSingleQuotePos: Int)
 
 // bounds are considered inside corresponding quotes
 fun checkInString(chars: CharSequence, currentPos: Int, str: Boolean): Boolean {
-  val begin = findPositionOfFirstCharacter(chars, currentPos, setOf('\n'), false, Direction.BACKWARDS)?.second ?: 0
-  val changes = quoteChanges(chars, begin)
-  // TODO: here we need to keep only the latest element in beforePos (if any) and
-  //   don't need atAndAfterPos to be eagerly collected
-  var (beforePos, atAndAfterPos) = changes.partition { it.position < currentPos }
-
-  var (atPos, afterPos) = atAndAfterPos.partition { it.position == currentPos }
-  assert(atPos.size <= 1) { "Multiple characters at position $currentPos in string $chars" }
-  if (atPos.isNotEmpty()) {
-    val atPosChange = atPos[0]
-    if (afterPos.isEmpty()) {
-      // it is situation when cursor is on closing quote, so we must consider that we are inside quotes pair
-      afterPos = afterPos.toMutableList()
-      afterPos.add(atPosChange)
-    } else {
-      // it is situation when cursor is on opening quote, so we must consider that we are inside quotes pair
-      beforePos = beforePos.toMutableList()
-      beforePos.add(atPosChange)
-    }
-  }
-
-  val lastBeforePos = beforePos.lastOrNull()
-
-  // if opening quote was found before pos (inQuote=true), it doesn't mean pos is in string, we need
-  // to find closing quote to be sure
-  var posInQuote = lastBeforePos?.inQuote?.let { if (it) null else it }
-
-  val lastOpenSingleQuotePosBeforeCurrentPos = lastBeforePos?.lastOpenSingleQuotePos ?: -1
-  var posInChar = if (lastOpenSingleQuotePosBeforeCurrentPos == -1) false else null
-
-  var inQuote: Boolean? = null
-
-  for ((_, trigger, inQuoteAfter, lastOpenSingleQuotePosAfter) in afterPos) {
-    inQuote = inQuoteAfter
-    if (posInQuote != null && posInChar != null) break
-    if (posInQuote == null && inQuoteAfter != null) {
-      // if we found double quote
-      if (trigger == '"') {
-        // then previously it has opposite value
-        posInQuote = !inQuoteAfter
-        // if we found single quote
-      } else if (trigger == '\'') {
-        // then we found closing single quote
-        posInQuote = inQuoteAfter
-      }
-    }
-    if (posInChar == null && lastOpenSingleQuotePosAfter != lastOpenSingleQuotePosBeforeCurrentPos) {
-      // if we found double quote and we reset position of last single quote
-      if (trigger == '"' && lastOpenSingleQuotePosAfter == -1) {
-        // then it means previously there supposed to be open single quote
-        posInChar = false
-        // if we found single quote
-      } else if (trigger == '\'') {
-        // if we reset position of last single quote
-        // it means we found closing single quote
-        // else it means we found opening single quote
-        posInChar = lastOpenSingleQuotePosAfter == -1
-      }
-    }
-  }
-
-  return if (str) posInQuote != null && posInQuote && (inQuote == null || !inQuote) else posInChar != null && posInChar
+  return QuoteIndex(chars).checkInString(currentPos, str)
 }
 
 // yields changes of inQuote and lastOpenSingleQuotePos during while iterating over chars
@@ -98,7 +35,7 @@ fun checkInString(chars: CharSequence, currentPos: Int, str: Boolean): Boolean {
 // - single quoted group may enclose only one character, maybe escaped,
 // - so distance between opening and closing single quotes cannot be more than 3
 // - bounds are considered inside corresponding quotes
-private fun quoteChanges(chars: CharSequence, begin: Int) = sequence {
+internal fun quoteChanges(chars: CharSequence, begin: Int) = sequence {
   // position of last found unpaired single quote
   var lastOpenSingleQuotePos = -1
   // whether we are in double quotes
@@ -160,7 +97,7 @@ private fun quoteChanges(chars: CharSequence, begin: Int) = sequence {
         }
       }
     }
-    yield(State(i, c, inQuote, lastOpenSingleQuotePos))
+    yield(QuoteState(i, c, inQuote, lastOpenSingleQuotePos))
     found =
       findPositionOfFirstCharacter(chars, i + Direction.FORWARDS.toInt(), charsToSearch, false, Direction.FORWARDS)
   }
@@ -179,7 +116,6 @@ private fun quoteChanges(chars: CharSequence, begin: Int) = sequence {
  * history, the smartcase option is applied, and `\<Work\>` will only match `Work`.
  */
 fun shouldIgnoreCase(pattern: String, ignoreSmartCaseOption: Boolean): Boolean {
-  val sc = VimPlugin.getOptionService().isSet(OptionScope.GLOBAL, OptionConstants.smartcaseName) &&
-    !ignoreSmartCaseOption
-  return VimPlugin.getOptionService().isSet(OptionScope.GLOBAL, OptionConstants.ignorecaseName) && !(sc && StringHelper.containsUpperCase(pattern))
+  val sc = OptionHandles.smartcase.isSet(null) && !ignoreSmartCaseOption
+  return OptionHandles.ignorecase.isSet(null) && !(sc && StringHelper.containsUpperCase(pattern))
 }
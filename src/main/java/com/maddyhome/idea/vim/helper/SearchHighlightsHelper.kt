@@ -33,10 +33,13 @@ import com.intellij.openapi.project.ProjectManager
 import com.intellij.ui.ColorUtil
 import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.diagnostic.TraceCategory
+import com.maddyhome.idea.vim.diagnostic.VimTracer
 import com.maddyhome.idea.vim.ex.ranges.LineRange
-import com.maddyhome.idea.vim.newapi.IjVimEditor
+import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.options.OptionConstants
 import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles
 import org.jetbrains.annotations.Contract
 import java.awt.Color
 import java.awt.Font
@@ -48,7 +51,9 @@ fun updateSearchHighlights(
   showHighlights: Boolean,
   forceUpdate: Boolean,
 ) {
-  updateSearchHighlights(pattern, shouldIgnoreSmartCase, showHighlights, -1, null, true, forceUpdate)
+  VimTracer.trace(TraceCategory.HIGHLIGHT, "updateSearchHighlights") {
+    updateSearchHighlights(pattern, shouldIgnoreSmartCase, showHighlights, -1, null, true, forceUpdate)
+  }
 }
 
 fun updateIncsearchHighlights(
@@ -60,8 +65,10 @@ fun updateIncsearchHighlights(
 ): Int {
   val searchStartOffset =
     if (searchRange != null) EditorHelper.getLineStartOffset(editor, searchRange.startLine) else caretOffset
-  val showHighlights = VimPlugin.getOptionService().isSet(OptionScope.LOCAL(IjVimEditor(editor)), OptionConstants.hlsearchName)
-  return updateSearchHighlights(pattern, false, showHighlights, searchStartOffset, searchRange, forwards, false)
+  val showHighlights = VimPlugin.getOptionService().isSet(OptionScope.LOCAL(editor.vim), OptionConstants.hlsearchName)
+  return VimTracer.trace(TraceCategory.HIGHLIGHT, "updateIncsearchHighlights") {
+    updateSearchHighlights(pattern, false, showHighlights, searchStartOffset, searchRange, forwards, false)
+  }
 }
 
 fun addSubstitutionConfirmationHighlight(editor: Editor, start: Int, end: Int): RangeHighlighter {
@@ -120,7 +127,7 @@ private fun updateSearchHighlights(
       } else if (shouldAddCurrentMatchSearchHighlight(pattern, showHighlights, initialOffset)) {
         // nohlsearch + incsearch
         val searchOptions = EnumSet.of(SearchOptions.WHOLE_FILE)
-        if (VimPlugin.getOptionService().isSet(OptionScope.GLOBAL, OptionConstants.wrapscanName)) {
+        if (OptionHandles.wrapscan.isSet(null)) {
           searchOptions.add(SearchOptions.WRAP)
         }
         if (shouldIgnoreSmartCase) searchOptions.add(SearchOptions.IGNORE_SMARTCASE)
@@ -182,7 +189,7 @@ private fun findClosestMatch(editor: Editor, results: List<TextRange>, initialOf
     }
     d2 - d1
   }
-  if (!VimPlugin.getOptionService().isSet(OptionScope.GLOBAL, OptionConstants.wrapscanName)) {
+  if (!OptionHandles.wrapscan.isSet(null)) {
     val start = max.startOffset
     if (forwards && start < initialOffset) {
       return -1
@@ -0,0 +1,232 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.util.Key
+import com.maddyhome.idea.vim.common.TextRange
+
+/**
+ * Opening and closing tags of the text, used by the `it` and `at` text objects.
+ *
+ * The text is tokenized once: every `<` that starts an opening tag (`<name ...>`) or a closing tag (`</name>`) is
+ *   stored together with the end of the tag. Any tag ends at the first `>` after its start, so the tags found by
+ *   a search that starts at some position are the stored ones that don't overlap the previous found tag.
+ * For the search of the opening tag, the tags with the given name are paired once per name, so the unmatched
+ *   opening tag before a position is found with a binary search.
+ *
+ * The index of a document is stored in the document and dropped when the document changes, see [forDocument].
+ */
+class TagIndex(private val chars: CharSequence) {
+  private var count = 0
+  private var starts = IntArray(16)
+  private var ends = IntArray(16)
+  private var nameEnds = IntArray(16)
+  private var closing = BooleanArray(16)
+
+  private val pairsByName = HashMap<String, NamedTagPairs>()
+  private var modificationStamp = -1L
+
+  init {
+    var i = 0
+    while (i < chars.length) {
+      if (chars[i] == '<') addTag(i)
+      i++
+    }
+  }
+
+  /**
+   * Finds the [count]th closing tag after [position] that doesn't have an opening tag after [position].
+   * Opening tags without closing tags are ignored.
+   *
+   * @return the range of the closing tag and its name
+   */
+  fun findUnmatchedClosingTag(position: Int, count: Int): Pair<TextRange, String>? {
+    var remaining = count
+    val openTags = ArrayDeque<String>()
+    var tag = firstTagAtOrAfter(position)
+    while (tag < this.count) {
+      val tagName = name(tag)
+      if (closing[tag]) {
+        // Ignore unmatched open tags. Either the file is malformed or it might be a tag like <br> that does not need to be closed.
+        while (openTags.isNotEmpty() && !openTags.last().equals(tagName, ignoreCase = true)) {
+          openTags.removeLast()
+        }
+        if (openTags.isEmpty()) {
+          if (remaining <= 1) {
+            return TextRange(starts[tag], ends[tag]) to tagName
+          } else {
+            remaining--
+          }
+        } else {
+          openTags.removeLast()
+        }
+      } else {
+        openTags.addLast(tagName)
+      }
+
+      // Tags that start inside the found one are not separate tags
+      val end = ends[tag]
+      while (tag < this.count && starts[tag] < end) tag++
+    }
+    return null
+  }
+
+  /**
+   * Finds the opening tag named [tagName] (case-insensitive) that is not closed before the position right after
+   *   [position]. Self-closing tags like `<a/>` are ignored.
+   */
+  fun findUnmatchedOpeningTag(position: Int, tagName: String): TextRange? {
+    return pairsByName.getOrPut(tagName) { NamedTagPairs(tagName) }.findUnmatchedOpeningTag(position + 1)
+  }
+
+  private fun addTag(start: Int) {
+    val isClosing = start + 1 < chars.length && chars[start + 1] == '/'
+    val nameStart = if (isClosing) start + 2 else start + 1
+    var nameEnd = nameStart
+    while (nameEnd < chars.length && chars[nameEnd].let { it != '/' && it != '>' && !isRegexWhitespace(it) }) {
+      nameEnd++
+    }
+    if (nameEnd == nameStart || nameEnd >= chars.length) return
+
+    val end = when {
+      chars[nameEnd] == '>' -> nameEnd + 1
+      // Attributes are allowed in opening tags only
+      !isClosing && isRegexWhitespace(chars[nameEnd]) -> {
+        var gt = nameEnd + 1
+        while (gt < chars.length && chars[gt] != '>') gt++
+        if (gt == chars.length) return
+        gt + 1
+      }
+      else -> return
+    }
+
+    if (count == starts.size) {
+      val size = count * 2
+      starts = starts.copyOf(size)
+      ends = ends.copyOf(size)
+      nameEnds = nameEnds.copyOf(size)
+      closing = closing.copyOf(size)
+    }
+    starts[count] = start
+    ends[count] = end
+    nameEnds[count] = nameEnd
+    closing[count] = isClosing
+    count++
+  }
+
+  private fun nameStart(tag: Int) = if (closing[tag]) starts[tag] + 2 else starts[tag] + 1
+
+  private fun name(tag: Int) = chars.subSequence(nameStart(tag), nameEnds[tag]).toString()
+
+  private fun firstTagAtOrAfter(position: Int): Int {
+    var low = 0
+    var high = count
+    while (low < high) {
+      val mid = (low + high) ushr 1
+      if (starts[mid] < position) low = mid + 1 else high = mid
+    }
+    return low
+  }
+
+  /**
+   * `\s` of regular expressions
+   */
+  private fun isRegexWhitespace(ch: Char) = ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\u000C' || ch == '\r'
+
+  /**
+   * Tags named [tagName] paired in the order of the text. For every tag, [topAfter] keeps the innermost opening tag
+   *   that is still open after this tag, and [parents] keeps the opening tag that was open before an opening tag.
+   */
+  private inner class NamedTagPairs(private val tagName: String) {
+    private var size = 0
+    private val tags = IntArray(count)
+    private val topAfter = IntArray(count)
+    private val parents = IntArray(count)
+
+    init {
+      var lastEnd = 0
+      var top = -1
+      for (tag in 0 until count) {
+        // Only one tag per each `>` is found, the others are a part of it
+        if (starts[tag] < lastEnd || !isNamedTag(tag)) continue
+        lastEnd = ends[tag]
+
+        tags[size] = tag
+        if (closing[tag]) {
+          if (top != -1) top = parents[top]
+        } else {
+          parents[size] = top
+          top = size
+        }
+        topAfter[size] = top
+        size++
+      }
+    }
+
+    fun findUnmatchedOpeningTag(regionEnd: Int): TextRange? {
+      // The tags that end after the region are not found
+      var low = 0
+      var high = size
+      while (low < high) {
+        val mid = (low + high) ushr 1
+        if (ends[tags[mid]] <= regionEnd) low = mid + 1 else high = mid
+      }
+      if (low == 0) return null
+      val top = topAfter[low - 1]
+      if (top == -1) return null
+      val tag = tags[top]
+      return TextRange(starts[tag], ends[tag])
+    }
+
+    private fun isNamedTag(tag: Int): Boolean {
+      val nameStart = nameStart(tag)
+      val nameEnd = nameEnds[tag]
+      if (nameEnd - nameStart != tagName.length) return false
+      for (i in tagName.indices) {
+        if (!equalsIgnoreAsciiCase(chars[nameStart + i], tagName[i])) return false
+      }
+      // Self-closing tags like `<a />` are not opening tags
+      return closing[tag] || chars[nameEnd] == '>' || ends[tag] - 2 == nameEnd || chars[ends[tag] - 2] != '/'
+    }
+
+    private fun equalsIgnoreAsciiCase(a: Char, b: Char): Boolean {
+      return a == b || a < '\u0080' && b < '\u0080' && a.lowercaseChar() == b.lowercaseChar()
+    }
+  }
+
+  companion object {
+    private val DOCUMENT_INDEX = Key<TagIndex>("IdeaVimTagIndex")
+
+    /**
+     * Returns the index of the current document text. The index is reused until the document is changed.
+     */
+    @JvmStatic
+    fun forDocument(document: Document): TagIndex {
+      val stamp = document.modificationStamp
+      val index = document.getUserData(DOCUMENT_INDEX)
+      if (index != null && index.modificationStamp == stamp) return index
+
+      val newIndex = TagIndex(document.charsSequence)
+      newIndex.modificationStamp = stamp
+      document.putUserData(DOCUMENT_INDEX, newIndex)
+      return newIndex
+    }
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.editor.event.DocumentListener
+import com.intellij.openapi.util.Key
+import com.maddyhome.idea.vim.helper.SearchHelper.CountPosition
+
+/**
+ * Word count of the document for `g CTRL-G`, the same as [SearchHelper.countWords] over the whole document gives.
+ *
+ * The words are counted as the stops of the WORD motion from the start of the document. Inside a line, a stop is
+ *   a non-blank character that starts the line, follows a blank or has another type than the previous character.
+ *   An empty line is a stop only right after a WORD, so the lines are kept in a tree where every node stores its
+ *   number of stops and the state after it for both possible states before it.
+ *
+ * The index is updated on document changes by recounting only the changed lines, see [DocumentUpdater].
+ *   The leaves are kept as a gap buffer: the unused leaves form a gap of empty lines that is moved to the changed line,
+ *   so inserting or removing lines only shifts the leaves between the previous change and this one.
+ */
+class WordCountIndex private constructor(document: Document) {
+  private var modificationStamp = document.modificationStamp
+  private var lineCount = 0
+  private var leaves = 1
+
+  /**
+   * The gap takes the leaves from [gapStart] until [gapStart] + [gapSize], the lines after it are moved by [gapSize]
+   */
+  private var gapStart = 0
+  private var gapSize = 0
+
+  /**
+   * Number of stops of the node, at `node * 2 + state before the node`
+   */
+  private var stops = IntArray(0)
+
+  /**
+   * State after the node, at `node * 2 + state before the node`
+   */
+  private var states = ByteArray(0)
+
+  init {
+    lineCount = document.lineCount
+    allocate(lineCount)
+    for (line in 0 until lineCount) {
+      setLine(document, line)
+    }
+    updateNodes()
+  }
+
+  /**
+   * Counts the words of the document and the number of the word at [offset]
+   */
+  fun countWords(document: Document, offset: Int): CountPosition {
+    val chars = document.charsSequence
+    val size = chars.length
+
+    // Stops at the end of the document
+    val endStops = if (!isBlank(chars[size - 1])) {
+      intArrayOf(size)
+    } else if (states[2 + AFTER_BLANK].toInt() == AFTER_WORD) {
+      intArrayOf(size - 1, size)
+    } else {
+      intArrayOf(size)
+    }
+    val count = 1 + stops[2 + AFTER_BLANK] + endStops.size
+
+    // Stops before the offset and whether there is a stop at the offset
+    val line = document.getLineNumber(offset)
+    val leaf = leafOf(line)
+    var before = 0
+    var state = AFTER_BLANK
+    var node = 1
+    var start = 0
+    var nodeSize = leaves
+    while (nodeSize > 1) {
+      nodeSize /= 2
+      if (start + nodeSize <= leaf) {
+        before += stops[node * 4 + state]
+        state = states[node * 4 + state].toInt()
+        start += nodeSize
+        node = node * 2 + 1
+      } else {
+        node *= 2
+      }
+    }
+
+    val lineStart = document.getLineStartOffset(line)
+    val lineEnd = document.getLineEndOffset(line)
+    var atOffset = false
+    if (lineStart == lineEnd && line < lineCount - 1 && state == AFTER_WORD) {
+      if (lineStart < offset) before++ else if (lineStart == offset) atOffset = true
+    }
+    for (pos in lineStart until minOf(lineEnd, offset + 1)) {
+      if (isStop(chars, pos, lineStart)) {
+        if (pos < offset) before++ else atOffset = true
+      }
+    }
+    for (stop in endStops) {
+      if (stop < offset) before++ else if (stop == offset) atOffset = true
+    }
+
+    val position = when {
+      atOffset -> before + 2
+      before < count - 1 -> if (before == 0) 1 else before + 1
+      else -> 0
+    }
+    return CountPosition(count, position)
+  }
+
+  private fun update(event: DocumentEvent) {
+    val document = event.document
+    val startLine = document.getLineNumber(event.offset)
+    val oldLines = event.oldFragment.count { it == '\n' }
+    val newLines = event.newFragment.count { it == '\n' }
+
+    if (oldLines != newLines) {
+      val newLineCount = lineCount + newLines - oldLines
+      if (newLineCount > leaves) grow(newLineCount)
+
+      // The first line of the change stays, the following ones are removed or taken from the gap
+      moveGap(startLine + 1)
+      if (newLines < oldLines) {
+        val removed = oldLines - newLines
+        for (leaf in gapStart + gapSize until gapStart + gapSize + removed) {
+          setEmptyLeaf(leaf)
+        }
+        updateLeaves(gapStart + gapSize, gapStart + gapSize + removed)
+        gapSize += removed
+      } else {
+        gapStart += newLines - oldLines
+        gapSize -= newLines - oldLines
+      }
+      lineCount = newLineCount
+    }
+
+    for (line in startLine..startLine + newLines) {
+      setLine(document, line)
+      val leaf = leafOf(line)
+      updateLeaves(leaf, leaf + 1)
+    }
+    modificationStamp = document.modificationStamp
+  }
+
+  private fun leafOf(line: Int) = if (line < gapStart) line else line + gapSize
+
+  /**
+   * Moves the gap to start before [line]. Only the leaves between the old and the new gap positions are moved.
+   */
+  private fun moveGap(line: Int) {
+    if (line == gapStart || gapSize == 0) {
+      gapStart = line
+      return
+    }
+    val from: Int
+    val to: Int
+    if (line < gapStart) {
+      System.arraycopy(stops, (leaves + line) * 2, stops, (leaves + line + gapSize) * 2, (gapStart - line) * 2)
+      System.arraycopy(states, (leaves + line) * 2, states, (leaves + line + gapSize) * 2, (gapStart - line) * 2)
+      from = line
+      to = gapStart + gapSize
+    } else {
+      System.arraycopy(stops, (leaves + gapStart + gapSize) * 2, stops, (leaves + gapStart) * 2, (line - gapStart) * 2)
+      System.arraycopy(states, (leaves + gapStart + gapSize) * 2, states, (leaves + gapStart) * 2, (line - gapStart) * 2)
+      from = gapStart
+      to = line + gapSize
+    }
+    gapStart = line
+    for (leaf in maxOf(from, gapStart) until minOf(to, gapStart + gapSize)) {
+      setEmptyLeaf(leaf)
+    }
+    updateLeaves(from, to)
+  }
+
+  /**
+   * Makes room for [lines] lines. The gap is moved to the end, so the lines keep their leaves.
+   */
+  private fun grow(lines: Int) {
+    moveGap(lineCount)
+    val oldLeaves = leaves
+    val oldStops = stops
+    val oldStates = states
+    allocate(lines)
+    System.arraycopy(oldStops, oldLeaves * 2, stops, leaves * 2, lineCount * 2)
+    System.arraycopy(oldStates, oldLeaves * 2, states, leaves * 2, lineCount * 2)
+    for (leaf in lineCount until lines) {
+      setEmptyLeaf(leaf)
+    }
+    gapStart = lineCount
+    gapSize = leaves - lineCount
+    updateNodes()
+  }
+
+  private fun allocate(lines: Int) {
+    leaves = Integer.highestOneBit(maxOf(lines, 1))
+    if (leaves < lines) leaves *= 2
+    stops = IntArray(leaves * 4)
+    states = ByteArray(leaves * 4)
+    for (leaf in lines until leaves) {
+      setEmptyLeaf(leaf)
+    }
+    gapStart = lines
+    gapSize = leaves - lines
+  }
+
+  /**
+   * Sets an empty leaf, which doesn't change the stops or the state, so the gap doesn't change the counts
+   */
+  private fun setEmptyLeaf(leaf: Int) {
+    val index = (leaves + leaf) * 2
+    stops[index + AFTER_WORD] = 0
+    stops[index + AFTER_BLANK] = 0
+    states[index + AFTER_WORD] = AFTER_WORD.toByte()
+    states[index + AFTER_BLANK] = AFTER_BLANK.toByte()
+  }
+
+  private fun setLine(document: Document, line: Int) {
+    val chars = document.charsSequence
+    val lineStart = document.getLineStartOffset(line)
+    val lineEnd = document.getLineEndOffset(line)
+    var lineStops = 0
+    var hasWord = false
+    for (pos in lineStart until lineEnd) {
+      if (!isBlank(chars[pos])) hasWord = true
+      if (isStop(chars, pos, lineStart)) lineStops++
+    }
+
+    val index = (leaves + leafOf(line)) * 2
+    stops[index + AFTER_WORD] = lineStops
+    stops[index + AFTER_BLANK] = lineStops
+    when {
+      hasWord -> {
+        states[index + AFTER_WORD] = AFTER_WORD.toByte()
+        states[index + AFTER_BLANK] = AFTER_WORD.toByte()
+      }
+      // An empty line right after a WORD is a stop. The last line doesn't end with a new line, so it isn't a stop.
+      lineStart == lineEnd && line < lineCount - 1 -> {
+        stops[index + AFTER_WORD]++
+        states[index + AFTER_WORD] = AFTER_BLANK.toByte()
+        states[index + AFTER_BLANK] = AFTER_BLANK.toByte()
+      }
+      else -> {
+        states[index + AFTER_WORD] = AFTER_WORD.toByte()
+        states[index + AFTER_BLANK] = AFTER_BLANK.toByte()
+      }
+    }
+  }
+
+  private fun updateNodes() {
+    for (node in leaves - 1 downTo 1) {
+      updateNode(node)
+    }
+  }
+
+  /**
+   * Updates the nodes above the leaves from [from] until [to]
+   */
+  private fun updateLeaves(from: Int, to: Int) {
+    if (from >= to) return
+    var first = (leaves + from) / 2
+    var last = (leaves + to - 1) / 2
+    while (first > 0) {
+      for (node in first..last) {
+        updateNode(node)
+      }
+      first /= 2
+      last /= 2
+    }
+  }
+
+  private fun updateNode(node: Int) {
+    val left = node * 4
+    val right = left + 2
+    for (state in AFTER_WORD..AFTER_BLANK) {
+      val middle = states[left + state].toInt()
+      stops[node * 2 + state] = stops[left + state] + stops[right + middle]
+      states[node * 2 + state] = states[right + middle]
+    }
+  }
+
+  /**
+   * Checks if the WORD motion stops at [pos]. The start of the document is not a stop.
+   */
+  private fun isStop(chars: CharSequence, pos: Int, lineStart: Int): Boolean {
+    if (pos == 0) return false
+    val type = CharacterHelper.charType(chars[pos], true)
+    return type != CharacterHelper.CharacterType.WHITESPACE &&
+      (pos == lineStart || CharacterHelper.charType(chars[pos - 1], true) != type)
+  }
+
+  private fun isBlank(ch: Char) = CharacterHelper.charType(ch, true) == CharacterHelper.CharacterType.WHITESPACE
+
+  /**
+   * Updates the word count indexes of the changed documents
+   */
+  object DocumentUpdater : DocumentListener {
+    override fun documentChanged(event: DocumentEvent) {
+      val index = event.document.getUserData(DOCUMENT_INDEX) ?: return
+      if (index.modificationStamp == event.oldTimeStamp) {
+        index.update(event)
+      }
+    }
+  }
+
+  companion object {
+    private const val AFTER_WORD = 0
+    private const val AFTER_BLANK = 1
+
+    private val DOCUMENT_INDEX = Key<WordCountIndex>("IdeaVimWordCountIndex")
+
+    /**
+     * Counts the words of the document and the number of the word at [offset], like [SearchHelper.countWords].
+     * The index is built for the first count and then kept up to date with the document changes.
+     */
+    @JvmStatic
+    fun countWords(document: Document, offset: Int): CountPosition {
+      if (document.textLength < 2) {
+        return SearchHelper.countWords(document.charsSequence, 0, document.textLength, offset)
+      }
+
+      var index = document.getUserData(DOCUMENT_INDEX)
+      if (index == null || index.modificationStamp != document.modificationStamp) {
+        index = WordCountIndex(document)
+        document.putUserData(DOCUMENT_INDEX, index)
+      }
+      return index.countWords(document, offset)
+    }
+  }
+}
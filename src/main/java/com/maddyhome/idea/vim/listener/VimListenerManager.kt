@@ -45,9 +45,12 @@ import com.maddyhome.idea.vim.VimKeyListener
 import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.VimTypedActionHandler
 import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.diagnostic.VimTracer
 import com.maddyhome.idea.vim.ex.ExOutputModel
 import com.maddyhome.idea.vim.group.EditorGroup
 import com.maddyhome.idea.vim.group.FileGroup
+import com.maddyhome.idea.vim.group.HistoryGroup
+import com.maddyhome.idea.vim.group.MarkGroup
 import com.maddyhome.idea.vim.group.MotionGroup
 import com.maddyhome.idea.vim.group.SearchGroup
 import com.maddyhome.idea.vim.group.visual.IdeaSelectionControl
@@ -118,6 +121,9 @@ object VimListenerManager {
       VimPlugin.getOptionService().addListener(OptionConstants.showcmdName, ShowCmdOptionChangeListener)
       VimPlugin.getOptionService().addListener(OptionConstants.guicursorName, GuicursorChangeListener)
       VimPlugin.getOptionService().addListener(OptionConstants.iskeywordName, KeywordOptionChangeListener, true)
+      VimPlugin.getOptionService().addListener(OptionConstants.ideajumplistsizeName, MarkGroup.JumpListSizeChangeListener.INSTANCE, true)
+      VimPlugin.getOptionService().addListener(OptionConstants.historyName, HistoryGroup.HistoryOptionChangeListener.INSTANCE, true)
+      VimPlugin.getOptionService().addListener(OptionConstants.ideatracetimeName, VimTracer.TraceTimeOptionChangeListener, true)
 
       EventFacade.getInstance().addEditorFactoryListener(VimEditorFactoryListener, VimPlugin.getInstance())
 
@@ -133,6 +139,9 @@ object VimListenerManager {
       VimPlugin.getOptionService().removeListener(OptionConstants.showcmdName, ShowCmdOptionChangeListener)
       VimPlugin.getOptionService().removeListener(OptionConstants.guicursorName, GuicursorChangeListener)
       VimPlugin.getOptionService().removeListener(OptionConstants.iskeywordName, KeywordOptionChangeListener)
+      VimPlugin.getOptionService().removeListener(OptionConstants.ideajumplistsizeName, MarkGroup.JumpListSizeChangeListener.INSTANCE)
+      VimPlugin.getOptionService().removeListener(OptionConstants.historyName, HistoryGroup.HistoryOptionChangeListener.INSTANCE)
+      VimPlugin.getOptionService().removeListener(OptionConstants.ideatracetimeName, VimTracer.TraceTimeOptionChangeListener)
 
       EventFacade.getInstance().removeEditorFactoryListener(VimEditorFactoryListener)
 
@@ -165,6 +174,8 @@ object VimListenerManager {
       VimPlugin.getEditor().editorCreated(editor)
 
       VimPlugin.getChange().editorCreated(editor)
+
+      VimPlugin.getMark().editorCreated(editor)
     }
 
     fun remove(editor: Editor, isReleased: Boolean) {
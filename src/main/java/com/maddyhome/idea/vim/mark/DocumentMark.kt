@@ -0,0 +1,103 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.mark
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.RangeMarker
+
+/**
+ * A mark that follows document changes by itself.
+ *
+ * While the document of the mark is open, the start of the marked line is tracked by a [RangeMarker], so the mark
+ *   doesn't need to be shifted on each document change. When the document is closed, the mark is materialized
+ *   back to a plain line number and the marker is released.
+ */
+class DocumentMark private constructor(
+  override val key: Char,
+  private var line: Int,
+  override val col: Int,
+  override val filename: String,
+  override val protocol: String?,
+) : Mark {
+
+  private var marker: RangeMarker? = null
+  private var cleared = false
+
+  override val logicalLine: Int
+    get() {
+      val currentMarker = marker ?: return line
+      if (!currentMarker.isValid) {
+        marker = null
+        return line
+      }
+      return currentMarker.document.getLineNumber(currentMarker.startOffset)
+    }
+
+  val isAnchored: Boolean
+    get() = marker?.isValid == true
+
+  /**
+   * Starts tracking the marked line in [document]. Does nothing if the line doesn't exist in the document.
+   */
+  fun anchor(document: Document) {
+    val currentLine = logicalLine
+    if (currentLine >= document.lineCount) return
+    marker?.dispose()
+    marker = document.createRangeMarker(document.getLineStartOffset(currentLine), document.getLineStartOffset(currentLine))
+    line = currentLine
+  }
+
+  /**
+   * Moves the mark to [newLine] and stops tracking it until the next [anchor] call.
+   *
+   * Should be used when the marked line start is about to be removed by a document change.
+   */
+  fun moveToLine(newLine: Int) {
+    marker?.dispose()
+    marker = null
+    line = newLine
+  }
+
+  /**
+   * Stores the current line of the mark and releases the marker
+   */
+  fun materialize() {
+    line = logicalLine
+    marker?.dispose()
+    marker = null
+  }
+
+  override fun isClear(): Boolean = cleared
+
+  override fun clear() {
+    materialize()
+    cleared = true
+  }
+
+  override fun toString(): String = "DocumentMark(key=$key, logicalLine=$logicalLine, col=$col, filename=$filename)"
+
+  companion object {
+    @JvmStatic
+    fun create(key: Char, logicalLine: Int, col: Int, filename: String, protocol: String?, document: Document?): DocumentMark {
+      val mark = DocumentMark(key, logicalLine, col, filename, protocol)
+      if (document != null) mark.anchor(document)
+      return mark
+    }
+  }
+}
@@ -56,7 +56,7 @@ fun changeRange(
   type: SelectionType,
   context: DataContext,
 ) {
-  val vimEditor = IjVimEditor(editor)
+  val vimEditor = editor.vim
   val vimRange = toVimRange(range, type)
 
   var col = 0
@@ -70,7 +70,7 @@ fun changeRange(
   }
 
   // Remove the range
-  val vimCaret = IjVimCaret(caret)
+  val vimCaret = caret.vim
   val indent = editor.offsetToLogicalPosition(vimEditor.indentForLine(vimCaret.getLine().line)).column
   val deletedInfo = injector.vimMachine.delete(vimRange, vimEditor, vimCaret)
   if (deletedInfo != null) {
@@ -116,10 +116,10 @@ fun deleteRange(
   range: TextRange,
   type: SelectionType,
 ): Boolean {
-  val vimEditor = IjVimEditor(editor)
+  val vimEditor = editor.vim
   val vimRange = toVimRange(range, type)
 
-  val vimCaret = IjVimCaret(caret)
+  val vimCaret = caret.vim
   vimCaret.caret.vimLastColumn = vimCaret.caret.inlayAwareVisualColumn
   val deletedInfo = injector.vimMachine.delete(vimRange, vimEditor, vimCaret)
   if (deletedInfo != null) {
@@ -158,7 +158,7 @@ fun deleteRange(
  * - `*` character doesn't appear when `o` in javadoc section
  */
 fun insertLineAround(editor: Editor, context: DataContext, shift: Int) {
-  val vimEditor: MutableVimEditor = IjVimEditor(editor)
+  val vimEditor: MutableVimEditor = editor.vim
   val project = editor.project
 
   VimPlugin.getChange().initInsert(editor, context, CommandState.Mode.INSERT)
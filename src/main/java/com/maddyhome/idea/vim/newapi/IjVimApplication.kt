@@ -59,7 +59,7 @@ class IjVimApplication : VimApplication {
   }
 
   override fun localEditors(): List<VimEditor> {
-    return com.maddyhome.idea.vim.helper.localEditors().map { IjVimEditor(it) }
+    return com.maddyhome.idea.vim.helper.localEditors().map { it.vim }
   }
 
   override fun runWriteCommand(editor: VimEditor, name: String?, groupId: Any?, command: Runnable) {
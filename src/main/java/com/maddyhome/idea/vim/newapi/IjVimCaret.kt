@@ -19,6 +19,7 @@
 package com.maddyhome.idea.vim.newapi
 
 import com.intellij.openapi.editor.Caret
+import com.intellij.openapi.util.Key
 import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.api.VimCaret
 import com.maddyhome.idea.vim.api.VimEditor
@@ -33,10 +34,16 @@ import com.maddyhome.idea.vim.group.visual.vimSetSystemSelectionSilently
 import com.maddyhome.idea.vim.helper.moveToInlayAwareOffset
 import com.maddyhome.idea.vim.helper.vimLastColumn
 import com.maddyhome.idea.vim.helper.vimSelectionStart
+import java.util.Collections
 
 class IjVimCaret(val caret: Caret) : VimCaret {
   override val editor: VimEditor
-    get() = IjVimEditor(caret.editor)
+    get() = caret.editor.vim
+
+  /**
+   * The list with this caret only, it's returned for the editor with a single caret
+   */
+  internal val asList: List<VimCaret> = Collections.singletonList(this)
   override val offset: Offset
     get() = caret.offset.offset
   override val vimLastColumn: Int
@@ -100,5 +107,11 @@ class IjVimCaret(val caret: Caret) : VimCaret {
 val VimCaret.ij: Caret
   get() = (this as IjVimCaret).caret
 
-val Caret.vim: VimCaret
-  get() = IjVimCaret(this)
+private val VIM_CARET_KEY = Key.create<IjVimCaret>("IdeaVim.vimCaret")
+
+/**
+ * The wrapper of this caret. It's created once and kept in the user data of the caret,
+ *   so it's released together with the caret.
+ */
+val Caret.vim: IjVimCaret
+  get() = getUserData(VIM_CARET_KEY) ?: putUserDataIfAbsent(VIM_CARET_KEY, IjVimCaret(this))
@@ -25,6 +25,8 @@ import com.intellij.openapi.editor.ScrollType
 import com.intellij.openapi.editor.VisualPosition
 import com.intellij.openapi.editor.event.CaretEvent
 import com.intellij.openapi.editor.event.CaretListener
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.util.UserDataHolderEx
 import com.intellij.openapi.vfs.VirtualFileManager
 import com.maddyhome.idea.vim.api.LineDeleteShift
 import com.maddyhome.idea.vim.api.MutableLinearEditor
@@ -121,27 +123,29 @@ class IjVimEditor(editor: Editor) : MutableLinearEditor() {
 
   override fun carets(): List<VimCaret> {
     return if (editor.inBlockSubMode) {
-      listOf(IjVimCaret(editor.caretModel.primaryCaret))
+      editor.caretModel.primaryCaret.vim.asList
     } else {
-      editor.caretModel.allCarets.map { IjVimCaret(it) }
+      nativeCarets()
     }
   }
 
   override fun nativeCarets(): List<VimCaret> {
-    return editor.caretModel.allCarets.map { IjVimCaret(it) }
+    val caretModel = editor.caretModel
+    if (caretModel.caretCount == 1) return caretModel.primaryCaret.vim.asList
+    return caretModel.allCarets.map { it.vim }
   }
 
   @Suppress("ideavimRunForEachCaret")
   override fun forEachCaret(action: (VimCaret) -> Unit) {
     if (editor.inBlockSubMode) {
-      action(IjVimCaret(editor.caretModel.primaryCaret))
+      action(editor.caretModel.primaryCaret.vim)
     } else {
-      editor.caretModel.runForEachCaret { action(IjVimCaret(it)) }
+      editor.caretModel.runForEachCaret { action(it.vim) }
     }
   }
 
   override fun primaryCaret(): VimCaret {
-    return IjVimCaret(editor.caretModel.primaryCaret)
+    return editor.caretModel.primaryCaret.vim
   }
 
   override fun isWritable(): Boolean {
@@ -310,7 +314,22 @@ class IjVimEditor(editor: Editor) : MutableLinearEditor() {
   }
 }
 
+private val VIM_EDITOR_KEY = Key.create<IjVimEditor>("IdeaVim.vimEditor")
+
+/**
+ * The wrapper of this editor. It's created once and kept in the user data of the editor,
+ *   so it's released together with the editor.
+ */
 val Editor.vim: IjVimEditor
-  get() = IjVimEditor(this)
+  get() {
+    getUserData(VIM_EDITOR_KEY)?.let { return it }
+    val vimEditor = IjVimEditor(this)
+    // Two threads may create the wrapper at the same time, only one of them is kept
+    return if (this is UserDataHolderEx) {
+      putUserDataIfAbsent(VIM_EDITOR_KEY, vimEditor)
+    } else {
+      vimEditor.also { putUserData(VIM_EDITOR_KEY, it) }
+    }
+  }
 val VimEditor.ij: Editor
   get() = (this as IjVimEditor).editor
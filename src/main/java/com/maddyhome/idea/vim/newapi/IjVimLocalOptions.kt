@@ -24,27 +24,31 @@ import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
 
 class IjVimLocalOptions : VimLocalOptions {
 
-  private val localValuesKey = Key<MutableMap<String, VimDataType>>("localOptions")
+  private val localValuesKey = Key<Array<VimDataType?>>("localOptions")
 
-  override fun getOptions(editor: VimEditor): Map<String, VimDataType> {
+  override fun getOption(editor: VimEditor, slot: Int): VimDataType? {
     val ijEditor = (editor as IjVimEditor).editor
 
-    return ijEditor.getUserData(localValuesKey) ?: emptyMap()
+    val values = ijEditor.getUserData(localValuesKey) ?: return null
+    return if (slot < values.size) values[slot] else null
   }
 
-  override fun setOption(editor: VimEditor, optionName: String, value: VimDataType) {
+  override fun setOption(editor: VimEditor, slot: Int, value: VimDataType) {
     val ijEditor = (editor as IjVimEditor).editor
 
-    if (ijEditor.getUserData(localValuesKey) == null) {
-      ijEditor.putUserData(localValuesKey, mutableMapOf(optionName to value))
-    } else {
-      ijEditor.getUserData(localValuesKey)!![optionName] = value
+    var values = ijEditor.getUserData(localValuesKey)
+    if (values == null || slot >= values.size) {
+      val newValues = arrayOfNulls<VimDataType>(maxOf(slot + 1, values?.size ?: 0))
+      values?.copyInto(newValues)
+      values = newValues
+      ijEditor.putUserData(localValuesKey, values)
     }
+    values[slot] = value
   }
 
   override fun reset(editor: VimEditor) {
     val ijEditor = (editor as IjVimEditor).editor
 
-    ijEditor.getUserData(localValuesKey)?.clear()
+    ijEditor.getUserData(localValuesKey)?.fill(null)
   }
 }
@@ -21,8 +21,11 @@ package com.maddyhome.idea.vim.newapi
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
 
+/**
+ * Editor local option values. Options are identified by their slots in the option service.
+ */
 interface VimLocalOptions {
-  fun getOptions(editor: VimEditor): Map<String, VimDataType>
-  fun setOption(editor: VimEditor, optionName: String, value: VimDataType)
+  fun getOption(editor: VimEditor, slot: Int): VimDataType?
+  fun setOption(editor: VimEditor, slot: Int, value: VimDataType)
   fun reset(editor: VimEditor)
 }
@@ -22,6 +22,8 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.LogicalPosition;
 import com.maddyhome.idea.vim.VimPlugin;
+import com.maddyhome.idea.vim.diagnostic.TraceCategory;
+import com.maddyhome.idea.vim.diagnostic.VimTracer;
 import com.maddyhome.idea.vim.helper.EditorHelper;
 import com.maddyhome.idea.vim.helper.MessageHelper;
 import com.maddyhome.idea.vim.helper.Msg;
@@ -458,6 +460,16 @@ public class RegExp {
      * of the structure of the compiled regexp.
      */
   public @Nullable regprog_T vim_regcomp(@Nullable String expr, int magic) {
+    final long startTime = VimTracer.start();
+    try {
+      return regcomp(expr, magic);
+    }
+    finally {
+      VimTracer.stop(TraceCategory.REGEX_COMPILE, "vim_regcomp", startTime);
+    }
+  }
+
+  private @Nullable regprog_T regcomp(@Nullable String expr, int magic) {
     regprog_T r;
     CharPointer scan;
     CharPointer longest;
@@ -2039,7 +2051,13 @@ public class RegExp {
     //reg_win = null;
     ireg_ic = rmp.rm_ic;
 
-    return (vim_regexec_both(line, col) != 0);
+    final long startTime = VimTracer.start();
+    try {
+      return (vim_regexec_both(line, col) != 0);
+    }
+    finally {
+      VimTracer.stop(TraceCategory.REGEX_EXEC, "vim_regexec", startTime);
+    }
   }
 
   /*
@@ -2069,7 +2087,13 @@ public class RegExp {
 
     /* Need to switch to buffer "buf" to make vim_iswordc() work. */
     //curbuf = buf;
-    r = vim_regexec_both(null, col);
+    final long startTime = VimTracer.start();
+    try {
+      r = vim_regexec_both(null, col);
+    }
+    finally {
+      VimTracer.stop(TraceCategory.REGEX_EXEC, "vim_regexec_multi", startTime);
+    }
     //curbuf = save_curbuf;
 
     return r;
@@ -4769,11 +4793,11 @@ public class RegExp {
     @NotNull lpos_T pos = new lpos_T();
   }
 
-  private static class regmatch_T {
-    regprog_T regprog;
-    @NotNull CharPointer[] startp = new CharPointer[NSUBEXP];
-    @NotNull CharPointer[] endp = new CharPointer[NSUBEXP];
-    boolean rm_ic;
+  public static class regmatch_T {
+    public @Nullable regprog_T regprog;
+    public @NotNull CharPointer[] startp = new CharPointer[NSUBEXP];
+    public @NotNull CharPointer[] endp = new CharPointer[NSUBEXP];
+    public boolean rm_ic;
   }
 
   public static class regmmatch_T {
@@ -43,7 +43,7 @@ internal class PluginState : ApplicationUsagesCollector() {
   companion object {
     private val GROUP = EventLogGroup("vim.common", 1)
 
-    val extensionNames = listOf("textobj-entire", "argtextobj", "ReplaceWithRegister", "vim-paragraph-motion", "highlightedyank", "multiple-cursors", "exchange", "NERDTree", "surround", "commentary", "matchit", "textobj-indent")
+    val extensionNames = listOf("textobj-entire", "argtextobj", "ReplaceWithRegister", "vim-paragraph-motion", "highlightedyank", "multiple-cursors", "exchange", "NERDTree", "surround", "commentary", "matchit", "textobj-indent", "textobj-variable-segment")
     val enabledExtensions = HashSet<String>()
 
     private val PLUGIN_ENABLED = EventFields.Boolean("is_plugin_enabled")
@@ -26,14 +26,15 @@ import com.intellij.openapi.project.Project;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.util.IJSwingUtilities;
 import com.maddyhome.idea.vim.VimPlugin;
+import com.maddyhome.idea.vim.ex.ExOutputModel;
 import com.maddyhome.idea.vim.helper.*;
 import com.maddyhome.idea.vim.options.OptionConstants;
 import com.maddyhome.idea.vim.options.OptionScope;
-import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import javax.swing.text.Position;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
@@ -44,14 +45,17 @@ import java.util.List;
 
 /**
  * This panel displays text in a <code>more</code> like window.
+ * <p>
+ * The lines of the {@link ExOutputModel} are shown in a list with a fixed line height, so only the lines of the
+ * visible page are rendered and the output can grow while the panel is shown.
  */
 public class ExOutputPanel extends JPanel {
   private final @NotNull Editor myEditor;
 
   private final @NotNull JLabel myLabel = new JLabel("more");
-  private final @NotNull JTextArea myText = new JTextArea();
-  private final @NotNull JScrollPane myScrollPane =
-    new JBScrollPane(myText, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+  private final @NotNull OutputListModel myLines;
+  private final @NotNull JList<String> myList;
+  private final @NotNull JScrollPane myScrollPane;
   private final @NotNull ComponentAdapter myAdapter;
   private boolean myAtEnd = false;
   private int myLineHeight = 0;
@@ -62,16 +66,25 @@ public class ExOutputPanel extends JPanel {
 
   private boolean myActive = false;
 
+  private static final int FONT_SAMPLE_LINES = 100;
+  private static final int TAB_SIZE = 8;
+
   private ExOutputPanel(@NotNull Editor editor) {
     myEditor = editor;
+    myLines = new OutputListModel(ExOutputModel.getInstance(editor));
+    myList = new OutputList(myLines);
+    myScrollPane =
+      new JBScrollPane(myList, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
 
-    // Create a text editor for the text and a label for the prompt
+    // Create a list for the lines of the output and a label for the prompt
     BorderLayout layout = new BorderLayout(0, 0);
     setLayout(layout);
     add(myScrollPane, BorderLayout.CENTER);
     add(myLabel, BorderLayout.SOUTH);
 
-    myText.setEditable(false);
+    myList.setCellRenderer(new LineRenderer());
+    // Cells aren't measured one by one: the width is the width of the panel, see OutputList
+    myList.setFixedCellWidth(1);
 
     myAdapter = new ComponentAdapter() {
       @Override
@@ -83,7 +96,7 @@ public class ExOutputPanel extends JPanel {
     // Setup some listeners to handle keystrokes
     MoreKeyListener moreKeyListener = new MoreKeyListener(this);
     addKeyListener(moreKeyListener);
-    myText.addKeyListener(moreKeyListener);
+    myList.addKeyListener(moreKeyListener);
 
     updateUI();
   }
@@ -101,24 +114,6 @@ public class ExOutputPanel extends JPanel {
     return panel;
   }
 
-  private static int countLines(@NotNull String text) {
-    if (text.length() == 0) {
-      return 0;
-    }
-
-    int count = 0;
-    int pos = -1;
-    while ((pos = text.indexOf('\n', pos + 1)) != -1) {
-      count++;
-    }
-
-    if (text.charAt(text.length() - 1) != '\n') {
-      count++;
-    }
-
-    return count;
-  }
-
   // Called automatically when the LAF is changed and the component is visible, and manually by the LAF listener handler
   @Override
   public void updateUI() {
@@ -128,37 +123,59 @@ public class ExOutputPanel extends JPanel {
 
     // Can be null when called from base constructor
     //noinspection ConstantConditions
-    if (myText != null && myLabel != null && myScrollPane != null) {
+    if (myList != null && myLabel != null && myScrollPane != null) {
       setFontForElements();
-      myText.setBorder(null);
+      myList.setBorder(null);
       myScrollPane.setBorder(null);
-      myLabel.setForeground(myText.getForeground());
+      myLabel.setForeground(myList.getForeground());
     }
   }
 
-  public void setText(@NotNull @Nls(capitalization = Nls.Capitalization.Sentence) String data) {
-    if (data.length() > 0 && data.charAt(data.length() - 1) == '\n') {
-      data = data.substring(0, data.length() - 1);
+  /**
+   * Shows the new output of the model from its start
+   */
+  public void outputChanged() {
+    myLines.fireChanged();
+    if (myActive) {
+      setFontForElements();
+      positionPanel();
     }
+    else if (hasOutput()) {
+      activate();
+    }
+  }
 
-    myText.setText(data);
-    myText.setFont(UiHelper.selectFont(data));
-    myText.setCaretPosition(0);
-    if (data.length() > 0) {
+  /**
+   * Shows the lines appended to the model. The panel grows while it has room, the scroll position is kept.
+   *
+   * @param oldLineCount the number of lines of the model before the output was appended
+   */
+  public void outputAppended(int oldLineCount) {
+    myLines.fireAppended(oldLineCount);
+    if (myActive) {
+      resizePanel();
+      updateScrollPosition();
+    }
+    else if (hasOutput()) {
       activate();
     }
   }
 
+  private boolean hasOutput() {
+    final int count = myLines.getSize();
+    return count > 1 || count == 1 && !myLines.getElementAt(0).isEmpty();
+  }
+
   @SuppressWarnings("ConstantConditions")
   @Override
   public Color getForeground() {
-    return myText != null ? myText.getForeground() : super.getForeground();
+    return myList != null ? myList.getForeground() : super.getForeground();
   }
 
   @SuppressWarnings("ConstantConditions")
   @Override
   public Color getBackground() {
-    return myText != null ? myText.getBackground() : super.getBackground();
+    return myList != null ? myList.getBackground() : super.getBackground();
   }
 
   /**
@@ -167,7 +184,6 @@ public class ExOutputPanel extends JPanel {
   public void deactivate(boolean refocusOwningEditor) {
     if (!myActive) return;
     myActive = false;
-    myText.setText("");
     if (refocusOwningEditor) {
       UiHelper.requestFocus(myEditor.getContentComponent());
     }
@@ -203,11 +219,18 @@ public class ExOutputPanel extends JPanel {
     }
 
     myActive = true;
-    UiHelper.requestFocus(myText);
+    UiHelper.requestFocus(myList);
   }
 
   private void setFontForElements() {
-    myText.setFont(UiHelper.selectFont(myText.getText()));
+    // Only the beginning of the output is checked, the whole output may be too large for this
+    final StringBuilder sample = new StringBuilder();
+    for (int i = 0; i < myLines.getSize() && i < FONT_SAMPLE_LINES; i++) {
+      sample.append(myLines.getElementAt(i));
+    }
+    final Font font = UiHelper.selectFont(sample.toString());
+    myList.setFont(font);
+    myList.setFixedCellHeight(myList.getFontMetrics(font).getHeight());
     myLabel.setFont(UiHelper.selectFont(myLabel.getText()));
   }
 
@@ -256,12 +279,19 @@ public class ExOutputPanel extends JPanel {
   }
 
   private void positionPanel() {
+    resizePanel();
+
+    myScrollPane.getVerticalScrollBar().setValue(0);
+    updateScrollPosition();
+  }
+
+  private void resizePanel() {
     final JComponent contentComponent = myEditor.getContentComponent();
     Container scroll = SwingUtilities.getAncestorOfClass(JScrollPane.class, contentComponent);
     setSize(scroll.getSize());
 
-    myLineHeight = myText.getFontMetrics(myText.getFont()).getHeight();
-    int count = countLines(myText.getText());
+    myLineHeight = myList.getFixedCellHeight();
+    int count = myLines.getSize();
     int visLines = getSize().height / myLineHeight - 1;
     int lines = Math.min(count, visLines);
     setSize(getSize().width,
@@ -275,8 +305,11 @@ public class ExOutputPanel extends JPanel {
                                             SwingUtilities.getRootPane(contentComponent).getGlassPane());
     bounds.setLocation(pos);
     setBounds(bounds);
+    // Update the scroll bars right away, they are used to find out if the end of the output is shown
+    validate();
+  }
 
-    myScrollPane.getVerticalScrollBar().setValue(0);
+  private void updateScrollPosition() {
     if (!VimPlugin.getOptionService().isSet(OptionScope.GLOBAL.INSTANCE, OptionConstants.moreName, OptionConstants.moreName)) {
       // FIX
       scrollOffset(100000);
@@ -354,6 +387,92 @@ public class ExOutputPanel extends JPanel {
     }
   }
 
+  /**
+   * Lines of the output model for the list. The line after the trailing new line of the output isn't shown.
+   */
+  private static final class OutputListModel extends AbstractListModel<String> {
+    private final @NotNull ExOutputModel myModel;
+
+    OutputListModel(@NotNull ExOutputModel model) {
+      myModel = model;
+    }
+
+    @Override
+    public int getSize() {
+      return myModel.getLineCount();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+      return myModel.getLine(index);
+    }
+
+    void fireChanged() {
+      fireContentsChanged(this, 0, Integer.MAX_VALUE);
+    }
+
+    void fireAppended(int oldSize) {
+      if (oldSize > 0) {
+        // The last line may have been continued
+        fireContentsChanged(this, oldSize - 1, oldSize - 1);
+      }
+      final int size = getSize();
+      if (size > oldSize) {
+        fireIntervalAdded(this, oldSize, size - 1);
+      }
+    }
+  }
+
+  private static final class OutputList extends JList<String> {
+    OutputList(@NotNull ListModel<String> model) {
+      super(model);
+    }
+
+    // Long lines are cut at the edge of the panel
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+      return true;
+    }
+
+    // There is no type-ahead search in the output, typed keys are handled by MoreKeyListener
+    @Override
+    public int getNextMatch(String prefix, int startIndex, Position.Bias bias) {
+      return -1;
+    }
+  }
+
+  private static final class LineRenderer extends DefaultListCellRenderer {
+    @Override
+    public Component getListCellRendererComponent(JList<?> list,
+                                                  Object value,
+                                                  int index,
+                                                  boolean isSelected,
+                                                  boolean cellHasFocus) {
+      // The output is read-only text, so the lines are never shown as selected
+      super.getListCellRendererComponent(list, expandTabs((String)value), index, false, false);
+      setBorder(null);
+      return this;
+    }
+
+    private static @NotNull String expandTabs(@NotNull String line) {
+      if (line.indexOf('\t') == -1) return line;
+      final StringBuilder builder = new StringBuilder(line.length() + TAB_SIZE);
+      for (int i = 0; i < line.length(); i++) {
+        final char c = line.charAt(i);
+        if (c == '\t') {
+          do {
+            builder.append(' ');
+          }
+          while (builder.length() % TAB_SIZE != 0);
+        }
+        else {
+          builder.append(c);
+        }
+      }
+      return builder.toString();
+    }
+  }
+
   public static class LafListener implements LafManagerListener {
     @Override
     public void lookAndFeelChanged(@NotNull LafManager source) {
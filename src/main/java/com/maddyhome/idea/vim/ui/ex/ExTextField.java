@@ -46,6 +46,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 
@@ -146,6 +148,7 @@ public class ExTextField extends JTextField {
       history = VimPlugin.getHistory().getEntries(hkey, 0, 0);
       histIndex = history.size();
     }
+    historyKey = hkey;
   }
 
   /**
@@ -166,25 +169,26 @@ public class ExTextField extends JTextField {
     }
 
     if (filter) {
-      for (int i = histIndex + dir; i >= 0 && i <= history.size(); i += dir) {
-        String txt;
-        if (i == history.size()) {
-          txt = lastEntry;
-        }
-        else {
-          HistoryEntry entry = history.get(i);
-          txt = entry.getEntry();
-        }
-
-        if (txt.startsWith(lastEntry)) {
-          updateText(txt);
-          histIndex = i;
-
-          return;
-        }
+      // Entries starting with the typed text are looked up in the history index instead of checking each entry
+      int number = histIndex == history.size() ? Integer.MAX_VALUE : history.get(histIndex).getNumber();
+      HistoryEntry entry = historyKey != null
+                           ? VimPlugin.getHistory().findEntryWithPrefix(historyKey, lastEntry, number, isUp)
+                           : null;
+      int index = entry != null
+                  ? Collections.binarySearch(history, entry, Comparator.comparingInt(HistoryEntry::getNumber))
+                  : -1;
+      if (index >= 0) {
+        updateText(entry.getEntry());
+        histIndex = index;
+      }
+      else if (!isUp) {
+        // There are no newer matching entries, return to the typed text
+        updateText(lastEntry);
+        histIndex = history.size();
+      }
+      else {
+        VimPlugin.indicateError();
       }
-
-      VimPlugin.indicateError();
     }
     else {
       histIndex += dir;
@@ -585,6 +589,7 @@ public class ExTextField extends JTextField {
   private String lastEntry;
   private String actualText;
   private List<HistoryEntry> history;
+  private @Nullable String historyKey;
   private int histIndex = 0;
   private @Nullable MultiStepAction currentAction;
   private char currentActionPromptCharacter;
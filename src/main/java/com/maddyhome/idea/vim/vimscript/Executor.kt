@@ -23,6 +23,8 @@ import com.intellij.openapi.diagnostic.logger
 import com.intellij.openapi.editor.Editor
 import com.intellij.openapi.editor.textarea.TextComponentEditorImpl
 import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.diagnostic.TraceCategory
+import com.maddyhome.idea.vim.diagnostic.VimTracer
 import com.maddyhome.idea.vim.ex.ExException
 import com.maddyhome.idea.vim.ex.FinishException
 import com.maddyhome.idea.vim.history.HistoryConstants
@@ -45,12 +47,12 @@ object Executor {
   fun execute(scriptString: String, editor: Editor, context: DataContext, skipHistory: Boolean, indicateErrors: Boolean = true, vimContext: VimLContext? = null): ExecutionResult {
     var finalResult: ExecutionResult = ExecutionResult.Success
 
-    val script = VimscriptParser.parse(scriptString)
+    val script = VimTracer.trace(TraceCategory.EX_PARSE, "parse") { VimscriptParser.parse(scriptString) }
     script.units.forEach { it.vimContext = vimContext ?: script }
 
     for (unit in script.units) {
       try {
-        val result = unit.execute(editor, context)
+        val result = VimTracer.trace(TraceCategory.EX_COMMAND, unit.javaClass.simpleName) { unit.execute(editor, context) }
         if (result is ExecutionResult.Error) {
           finalResult = ExecutionResult.Error
           if (indicateErrors) {
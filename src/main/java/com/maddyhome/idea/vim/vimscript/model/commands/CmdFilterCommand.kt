@@ -78,23 +78,22 @@ data class CmdFilterCommand(val ranges: Ranges, val argument: String) : Command.
     return try {
       if (ranges.size() == 0) {
         // Show command output in a window
-        VimPlugin.getProcess().executeCommand(editor, command, null, workingDirectory)?.let {
-          ExOutputModel.getInstance(editor).output(it)
-        }
+        val output = VimPlugin.getProcess().executeCommand(editor, command, null, workingDirectory)
+        ExOutputModel.getInstance(editor).output(output.toString())
         ExecutionResult.Success
       } else {
         // Filter
         val range = this.getTextRange(editor, false)
-        val input = editor.document.charsSequence.subSequence(range.startOffset, range.endOffset)
-        VimPlugin.getProcess().executeCommand(editor, command, input, workingDirectory)?.let {
-          ApplicationManager.getApplication().runWriteAction {
-            val start = editor.offsetToLogicalPosition(range.startOffset)
-            val end = editor.offsetToLogicalPosition(range.endOffset)
-            editor.document.replaceString(range.startOffset, range.endOffset, it)
-            val linesFiltered = end.line - start.line
-            if (linesFiltered > 2) {
-              VimPlugin.showMessage("$linesFiltered lines filtered")
-            }
+        // The immutable text is written to the process from a pooled thread while the command is running
+        val input = editor.document.immutableCharSequence.subSequence(range.startOffset, range.endOffset)
+        val output = VimPlugin.getProcess().executeCommand(editor, command, input, workingDirectory)
+        ApplicationManager.getApplication().runWriteAction {
+          val start = editor.offsetToLogicalPosition(range.startOffset)
+          val end = editor.offsetToLogicalPosition(range.endOffset)
+          editor.document.replaceString(range.startOffset, range.endOffset, output)
+          val linesFiltered = end.line - start.line
+          if (linesFiltered > 2) {
+            VimPlugin.showMessage("$linesFiltered lines filtered")
           }
         }
         ExecutionResult.Success
@@ -0,0 +1,79 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.vimscript.model.commands
+
+import com.intellij.openapi.actionSystem.DataContext
+import com.intellij.openapi.editor.Editor
+import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.diagnostic.VimTracer
+import com.maddyhome.idea.vim.ex.ExException
+import com.maddyhome.idea.vim.ex.ExOutputModel
+import com.maddyhome.idea.vim.ex.ranges.Ranges
+import com.maddyhome.idea.vim.helper.MessageHelper
+import com.maddyhome.idea.vim.helper.Msg
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.vimscript.model.ExecutionResult
+import java.io.File
+import java.io.IOException
+
+/**
+ * IdeaVim command, shows the time spent on the hot paths, see [VimTracer]
+ *
+ * `:ideaperf` shows the collected spans
+ * `:ideaperf on` and `:ideaperf off` start and stop tracing, the same as `:set ideatracetime` and `:set noideatracetime`
+ * `:ideaperf reset` drops the collected spans
+ * `:ideaperf dump {file}` writes the collected spans to {file}
+ */
+data class IdeaPerfCommand(val ranges: Ranges, val argument: String) : Command.SingleExecution(ranges, argument) {
+  override val argFlags = flags(RangeFlag.RANGE_FORBIDDEN, ArgumentFlag.ARGUMENT_OPTIONAL, Access.READ_ONLY)
+
+  override fun processCommand(editor: Editor, context: DataContext): ExecutionResult {
+    val subcommand = argument.trim().substringBefore(' ')
+    val parameter = argument.trim().substringAfter(' ', "").trim()
+    when (subcommand) {
+      "" -> ExOutputModel.getInstance(editor).output(report())
+      "on" -> VimPlugin.getOptionService().setOption(OptionScope.GLOBAL, OptionConstants.ideatracetimeName)
+      "off" -> VimPlugin.getOptionService().unsetOption(OptionScope.GLOBAL, OptionConstants.ideatracetimeName)
+      "reset" -> VimTracer.reset()
+      "dump" -> dump(editor, parameter)
+      else -> throw ExException(MessageHelper.message(Msg.E475, argument))
+    }
+    return ExecutionResult.Success
+  }
+
+  private fun report(): String {
+    return if (VimTracer.isEmpty()) MessageHelper.message("ideaperf.no.spans") else VimTracer.report()
+  }
+
+  private fun dump(editor: Editor, path: String) {
+    if (path.isEmpty()) throw ExException(MessageHelper.message("e471.argument.required"))
+    var file = File(if (path.startsWith("~")) System.getProperty("user.home") + path.substring(1) else path)
+    val basePath = editor.project?.basePath
+    if (!file.isAbsolute && basePath != null) {
+      file = File(basePath, file.path)
+    }
+    try {
+      file.writeText(report())
+    } catch (e: IOException) {
+      throw ExException(e.message)
+    }
+    VimPlugin.showMessage(MessageHelper.message("ideaperf.report.written", file.path))
+  }
+}
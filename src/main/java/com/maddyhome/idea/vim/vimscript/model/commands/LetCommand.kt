@@ -23,7 +23,6 @@ import com.intellij.openapi.editor.Editor
 import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.ex.ExException
 import com.maddyhome.idea.vim.ex.ranges.Ranges
-import com.maddyhome.idea.vim.newapi.IjVimEditor
 import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.options.OptionScope
 import com.maddyhome.idea.vim.vimscript.model.ExecutionResult
@@ -185,7 +184,7 @@ data class LetCommand(
           val newValue = operator.getNewValue(optionValue, expression.evaluate(editor, context, this))
           when (variable.scope) {
             Scope.GLOBAL_VARIABLE -> VimPlugin.getOptionService().setOptionValue(OptionScope.GLOBAL, variable.optionName, newValue, variable.originalString)
-            Scope.LOCAL_VARIABLE -> VimPlugin.getOptionService().setOptionValue(OptionScope.LOCAL(IjVimEditor(editor)), variable.optionName, newValue, variable.originalString)
+            Scope.LOCAL_VARIABLE -> VimPlugin.getOptionService().setOptionValue(OptionScope.LOCAL(editor.vim), variable.optionName, newValue, variable.originalString)
             else -> throw ExException("Invalid option scope")
           }
         } else {
@@ -38,8 +38,7 @@ data class PrintCommand(val ranges: Ranges, val argument: String) : Command.Sing
 
     val text = editor.document.getText(TextRange(textRange.startOffset, textRange.endOffset))
 
-    val exOutputModel = ExOutputModel.getInstance(editor)
-    exOutputModel.output((exOutputModel.text ?: "") + text)
+    ExOutputModel.getInstance(editor).append(text)
     return ExecutionResult.Success
   }
 }
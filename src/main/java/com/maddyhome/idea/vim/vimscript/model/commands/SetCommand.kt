@@ -27,7 +27,7 @@ import com.maddyhome.idea.vim.ex.ranges.Ranges
 import com.maddyhome.idea.vim.helper.EditorHelper
 import com.maddyhome.idea.vim.helper.MessageHelper
 import com.maddyhome.idea.vim.helper.Msg
-import com.maddyhome.idea.vim.newapi.IjVimEditor
+import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.option.OptionsManager
 import com.maddyhome.idea.vim.options.OptionScope
 import com.maddyhome.idea.vim.vimscript.model.ExecutionResult
@@ -66,7 +66,7 @@ data class SetLocalCommand(val ranges: Ranges, val argument: String) : Command.S
   override val argFlags = flags(RangeFlag.RANGE_OPTIONAL, ArgumentFlag.ARGUMENT_OPTIONAL, Access.READ_ONLY)
 
   override fun processCommand(editor: Editor, context: DataContext): ExecutionResult {
-    return if (parseOptionLine(editor, argument, OptionScope.LOCAL(IjVimEditor(editor)), failOnBad = true)) {
+    return if (parseOptionLine(editor, argument, OptionScope.LOCAL(editor.vim), failOnBad = true)) {
       ExecutionResult.Success
     } else {
       ExecutionResult.Error
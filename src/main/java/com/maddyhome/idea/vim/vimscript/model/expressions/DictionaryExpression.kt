@@ -20,6 +20,9 @@ package com.maddyhome.idea.vim.vimscript.model.expressions
 
 import com.intellij.openapi.actionSystem.DataContext
 import com.intellij.openapi.editor.Editor
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.vimscript.model.VimLContext
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDictionary
@@ -30,6 +33,10 @@ import com.maddyhome.idea.vim.vimscript.model.functions.DefinedFunctionHandler
 data class DictionaryExpression(val dictionary: LinkedHashMap<Expression, Expression>) : Expression() {
 
   override fun evaluate(editor: Editor, context: DataContext, vimContext: VimLContext): VimDataType {
+    return evaluate(editor.vim, context.vim, vimContext)
+  }
+
+  override fun evaluate(editor: VimEditor, context: ExecutionContext, vimContext: VimLContext): VimDataType {
     val dict = VimDictionary(linkedMapOf())
     for ((key, value) in dictionary) {
       val evaluatedVal = value.evaluate(editor, context, vimContext)
@@ -20,6 +20,9 @@ package com.maddyhome.idea.vim.vimscript.model.expressions
 
 import com.intellij.openapi.actionSystem.DataContext
 import com.intellij.openapi.editor.Editor
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.newapi.ij
 import com.maddyhome.idea.vim.vimscript.model.VimLContext
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
 
@@ -27,4 +30,12 @@ abstract class Expression {
 
   lateinit var originalString: String
   abstract fun evaluate(editor: Editor, context: DataContext, vimContext: VimLContext): VimDataType
+
+  /**
+   * Expressions that only combine values override this one and don't need the IJ editor,
+   *   so they are evaluated on any [VimEditor], e.g. the headless one of the benchmarks.
+   */
+  open fun evaluate(editor: VimEditor, context: ExecutionContext, vimContext: VimLContext): VimDataType {
+    return evaluate(editor.ij, context.ij, vimContext)
+  }
 }
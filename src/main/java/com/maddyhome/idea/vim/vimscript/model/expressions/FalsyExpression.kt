@@ -20,6 +20,9 @@ package com.maddyhome.idea.vim.vimscript.model.expressions
 
 import com.intellij.openapi.actionSystem.DataContext
 import com.intellij.openapi.editor.Editor
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.vimscript.model.VimLContext
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDictionary
@@ -28,6 +31,10 @@ import com.maddyhome.idea.vim.vimscript.model.datatypes.VimList
 class FalsyExpression(val left: Expression, val right: Expression) : Expression() {
 
   override fun evaluate(editor: Editor, context: DataContext, vimContext: VimLContext): VimDataType {
+    return evaluate(editor.vim, context.vim, vimContext)
+  }
+
+  override fun evaluate(editor: VimEditor, context: ExecutionContext, vimContext: VimLContext): VimDataType {
     val leftValue = left.evaluate(editor, context, vimContext)
     val isLeftTrue = when (leftValue) {
       is VimList -> leftValue.values.isNotEmpty()
@@ -20,6 +20,9 @@ package com.maddyhome.idea.vim.vimscript.model.expressions
 
 import com.intellij.openapi.actionSystem.DataContext
 import com.intellij.openapi.editor.Editor
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.vimscript.model.VimLContext
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimList
@@ -27,6 +30,10 @@ import com.maddyhome.idea.vim.vimscript.model.datatypes.VimList
 data class ListExpression(val list: MutableList<Expression>) : Expression() {
 
   override fun evaluate(editor: Editor, context: DataContext, vimContext: VimLContext): VimDataType {
+    return evaluate(editor.vim, context.vim, vimContext)
+  }
+
+  override fun evaluate(editor: VimEditor, context: ExecutionContext, vimContext: VimLContext): VimDataType {
     val evaluatedList = list.map { it.evaluate(editor, context, vimContext) }.toMutableList()
     return VimList(evaluatedList)
   }
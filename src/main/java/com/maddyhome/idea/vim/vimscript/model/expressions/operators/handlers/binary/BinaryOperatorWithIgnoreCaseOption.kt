@@ -18,10 +18,8 @@
 
 package com.maddyhome.idea.vim.vimscript.model.expressions.operators.handlers.binary
 
-import com.maddyhome.idea.vim.VimPlugin
-import com.maddyhome.idea.vim.options.OptionConstants
-import com.maddyhome.idea.vim.options.OptionScope
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles
 
 abstract class BinaryOperatorWithIgnoreCaseOption(
   private val caseInsensitiveImpl: BinaryOperatorHandler,
@@ -29,7 +27,7 @@ abstract class BinaryOperatorWithIgnoreCaseOption(
 ) : BinaryOperatorHandler() {
 
   private fun shouldIgnoreCase(): Boolean {
-    return VimPlugin.getOptionService().isSet(OptionScope.GLOBAL, OptionConstants.ignorecaseName)
+    return OptionHandles.ignorecase.isSet(null)
   }
 
   override fun performOperation(left: VimDataType, right: VimDataType): VimDataType {
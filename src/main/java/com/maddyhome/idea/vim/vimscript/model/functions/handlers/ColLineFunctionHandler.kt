@@ -25,7 +25,6 @@ import com.maddyhome.idea.vim.helper.EditorHelper
 import com.maddyhome.idea.vim.helper.inVisualMode
 import com.maddyhome.idea.vim.helper.vimLine
 import com.maddyhome.idea.vim.helper.vimSelectionStart
-import com.maddyhome.idea.vim.newapi.IjVimEditor
 import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.options.OptionConstants
 import com.maddyhome.idea.vim.options.OptionScope
@@ -79,7 +78,7 @@ private fun currentCol(editor: Editor): VimInt {
 
   // If virtualedit is set, the col is one more
   // XXX Should we also check the current mode?
-  if ((VimPlugin.getOptionService().getOptionValue(OptionScope.LOCAL(IjVimEditor(editor)), OptionConstants.virtualeditName) as VimString).value.isNotEmpty()) {
+  if ((VimPlugin.getOptionService().getOptionValue(OptionScope.LOCAL(editor.vim), OptionConstants.virtualeditName) as VimString).value.isNotEmpty()) {
     lineLength += 1
   }
 
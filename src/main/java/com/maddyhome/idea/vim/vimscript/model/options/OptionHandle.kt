@@ -0,0 +1,109 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.vimscript.model.options
+
+import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.options.OptionChangeListener
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimString
+import com.maddyhome.idea.vim.vimscript.services.OptionServiceImpl
+
+/**
+ * Typed access to an option for the code that reads it on each keystroke or search.
+ *
+ * The handle resolves the slot of the option once and then reads the value from the slot, so there is no lookup
+ *   by name and no cast of the value on each read. Editor local values are checked only if some editor has set
+ *   the option locally.
+ */
+sealed class OptionHandle(val name: String) {
+  internal val service: OptionServiceImpl by lazy { VimPlugin.getOptionServiceImpl() }
+
+  private var resolvedSlot = -1
+
+  internal val slot: Int
+    get() {
+      if (resolvedSlot < 0) {
+        resolvedSlot = service.getSlot(name)
+      }
+      return resolvedSlot
+    }
+
+  fun addListener(listener: OptionChangeListener<VimDataType>, executeOnAdd: Boolean = false) {
+    service.addListener(name, listener, executeOnAdd)
+  }
+
+  fun removeListener(listener: OptionChangeListener<VimDataType>) {
+    service.removeListener(name, listener)
+  }
+}
+
+class NumberOptionHandle(name: String) : OptionHandle(name) {
+  /**
+   * Returns the value of the option in [editor], or the global value if [editor] is null
+   */
+  fun get(editor: VimEditor?): Int = service.getIntValue(slot, editor)
+}
+
+class ToggleOptionHandle(name: String) : OptionHandle(name) {
+  /**
+   * Returns true if the option is set in [editor], or globally if [editor] is null
+   */
+  fun isSet(editor: VimEditor?): Boolean = service.getIntValue(slot, editor) != 0
+}
+
+class StringOptionHandle(name: String) : OptionHandle(name) {
+  /**
+   * Returns the value of the option in [editor], or the global value if [editor] is null
+   */
+  fun get(editor: VimEditor?): String = (service.getValue(slot, editor) as VimString).value
+}
+
+/**
+ * Handles of the options that are read on hot paths
+ */
+object OptionHandles {
+  @JvmField
+  val history = NumberOptionHandle(OptionConstants.historyName)
+
+  @JvmField
+  val ignorecase = ToggleOptionHandle(OptionConstants.ignorecaseName)
+
+  @JvmField
+  val iskeyword = StringOptionHandle(OptionConstants.iskeywordName)
+
+  @JvmField
+  val scrolljump = NumberOptionHandle(OptionConstants.scrolljumpName)
+
+  @JvmField
+  val scrolloff = NumberOptionHandle(OptionConstants.scrolloffName)
+
+  @JvmField
+  val sidescroll = NumberOptionHandle(OptionConstants.sidescrollName)
+
+  @JvmField
+  val sidescrolloff = NumberOptionHandle(OptionConstants.sidescrolloffName)
+
+  @JvmField
+  val smartcase = ToggleOptionHandle(OptionConstants.smartcaseName)
+
+  @JvmField
+  val wrapscan = ToggleOptionHandle(OptionConstants.wrapscanName)
+}
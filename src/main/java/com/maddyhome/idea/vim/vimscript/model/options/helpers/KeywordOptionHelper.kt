@@ -18,12 +18,10 @@
 
 package com.maddyhome.idea.vim.vimscript.model.options.helpers
 
-import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.helper.CharacterHelper
 import com.maddyhome.idea.vim.options.OptionChangeListener
-import com.maddyhome.idea.vim.options.OptionConstants
-import com.maddyhome.idea.vim.options.OptionScope
 import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
-import com.maddyhome.idea.vim.vimscript.model.datatypes.VimString
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles
 import org.apache.commons.lang.math.NumberUtils
 import java.util.regex.Pattern
 
@@ -42,7 +40,7 @@ object KeywordOptionHelper {
   fun updateSpecs() {
     keywordSpecs = valuesToValidatedAndReversedSpecs(
       parseValues(
-        (VimPlugin.getOptionService().getOptionValue(OptionScope.GLOBAL, OptionConstants.iskeywordName) as VimString).value
+        OptionHandles.iskeyword.get(null)
       )
     )!!.toMutableList()
   }
@@ -213,5 +211,6 @@ object KeywordOptionHelper {
 object KeywordOptionChangeListener : OptionChangeListener<VimDataType> {
   override fun processGlobalValueChange(oldValue: VimDataType?) {
     KeywordOptionHelper.updateSpecs()
+    CharacterHelper.updateKeywordTypes()
   }
 }
@@ -54,6 +54,7 @@ import com.maddyhome.idea.vim.vimscript.model.commands.GoToLineCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.GotoCharacterCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.HelpCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.HistoryCommand
+import com.maddyhome.idea.vim.vimscript.model.commands.IdeaPerfCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.JoinLinesCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.JumpsCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.LetCommand
@@ -452,6 +453,7 @@ object CommandVisitor : VimscriptBaseVisitor<Command>() {
     "histo" to HistoryCommand::class,
     "histor" to HistoryCommand::class,
     "history" to HistoryCommand::class,
+    "ideaperf" to IdeaPerfCommand::class,
     "j" to JoinLinesCommand::class,
     "jo" to JoinLinesCommand::class,
     "joi" to JoinLinesCommand::class,
@@ -24,9 +24,9 @@ import com.intellij.openapi.util.SystemInfo
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.ex.ExException
 import com.maddyhome.idea.vim.helper.localEditors
-import com.maddyhome.idea.vim.newapi.IjVimEditor
 import com.maddyhome.idea.vim.newapi.IjVimLocalOptions
 import com.maddyhome.idea.vim.newapi.VimLocalOptions
+import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.option.OptionsManager
 import com.maddyhome.idea.vim.options.OptionChangeListener
 import com.maddyhome.idea.vim.options.OptionConstants
@@ -138,6 +138,14 @@ internal class OptionServiceImpl : OptionService {
         }
       }
     },
+    object : NumberOption(OptionConstants.ideajumplistsizeName, OptionConstants.ideajumplistsizeAlias, 100) {
+      override fun checkIfValueValid(value: VimDataType, token: String) {
+        super.checkIfValueValid(value, token)
+        if ((value as VimInt).value <= 0) {
+          throw ExException("E487: Argument must be positive: $token")
+        }
+      }
+    },
     object : NumberOption(OptionConstants.undolevelsName, OptionConstants.undolevelsAlias, 1000) {
       override fun checkIfValueValid(value: VimDataType, token: String) {
         super.checkIfValueValid(value, token)
@@ -210,7 +218,35 @@ internal class OptionServiceImpl : OptionService {
 
     ToggleOption(OptionConstants.experimentalapiName, OptionConstants.experimentalapiAlias, true)
   )
-  private val globalValues = mutableMapOf<String, VimDataType>()
+
+  /**
+   * Values are stored by option slots. The slot of an option is assigned once and kept after the option is removed,
+   *   so [com.maddyhome.idea.vim.vimscript.model.options.OptionHandle] can read the values without name lookups.
+   */
+  private val slots = HashMap<String, Int>()
+  private var slotCount = 0
+  private var slotOptions = arrayOfNulls<Option<out VimDataType>>(INITIAL_SLOT_CAPACITY)
+
+  /**
+   * Explicitly set global values, null if the option has the default value
+   */
+  private var globalValues = arrayOfNulls<VimDataType>(INITIAL_SLOT_CAPACITY)
+
+  /**
+   * Current global values of number and toggle options
+   */
+  private var globalInts = IntArray(INITIAL_SLOT_CAPACITY)
+
+  /**
+   * False if no editor has a local value of the option, so the editor data doesn't need to be checked
+   */
+  private var hasLocalValues = BooleanArray(INITIAL_SLOT_CAPACITY)
+
+  init {
+    for (name in options.primaryKeys) {
+      registerSlot(options.get(name)!!)
+    }
+  }
 
   override fun setOptionValue(scope: OptionScope, optionName: String, value: VimDataType, token: String) {
     val option = options.get(optionName) ?: throw ExException("E518: Unknown option: $token")
@@ -258,21 +294,83 @@ internal class OptionServiceImpl : OptionService {
   }
 
   private fun setGlobalOptionValue(optionName: String, value: VimDataType) {
-    globalValues[optionName] = value
+    val slot = slots.getValue(optionName)
+    globalValues[slot] = value
+    if (value is VimInt) globalInts[slot] = value.value
   }
 
   private fun setLocalOptionValue(optionName: String, value: VimDataType, editor: VimEditor) {
-    localOptions.setOption(editor, optionName, value)
+    val slot = slots.getValue(optionName)
+    localOptions.setOption(editor, slot, value)
+    hasLocalValues[slot] = true
   }
 
   private fun getGlobalOptionValue(optionName: String): VimDataType? {
     val option = options.get(optionName) ?: return null
-    return globalValues[option.name] ?: options.get(option.name)?.getDefaultValue()
+    return getGlobalValue(slots.getValue(option.name))
   }
 
   private fun getLocalOptionValue(optionName: String, editor: VimEditor): VimDataType? {
     val option = options.get(optionName) ?: return null
-    return localOptions.getOptions(editor)[option.name] ?: getGlobalOptionValue(optionName)
+    return getValue(slots.getValue(option.name), editor)
+  }
+
+  /**
+   * Returns the slot of the option for the typed reads
+   */
+  internal fun getSlot(optionName: String): Int {
+    val option = options.get(optionName) ?: throw ExException("E518: Unknown option: $optionName")
+    return slots.getValue(option.name)
+  }
+
+  /**
+   * Returns the value of the option in [editor], or the global value if [editor] is null
+   */
+  internal fun getValue(slot: Int, editor: VimEditor?): VimDataType {
+    if (editor != null && hasLocalValues[slot]) {
+      val localValue = localOptions.getOption(editor, slot)
+      if (localValue != null) return localValue
+    }
+    return getGlobalValue(slot)
+  }
+
+  /**
+   * Same as [getValue], but for number and toggle options. Doesn't create any objects.
+   */
+  internal fun getIntValue(slot: Int, editor: VimEditor?): Int {
+    if (editor != null && hasLocalValues[slot]) {
+      val localValue = localOptions.getOption(editor, slot)
+      if (localValue != null) return (localValue as VimInt).value
+    }
+    return globalInts[slot]
+  }
+
+  private fun getGlobalValue(slot: Int): VimDataType {
+    return globalValues[slot] ?: slotOptions[slot]!!.getDefaultValue()
+  }
+
+  private fun registerSlot(option: Option<out VimDataType>) {
+    val existingSlot = slots[option.name]
+    if (existingSlot != null) {
+      // The option was removed and added back, its values are kept
+      slotOptions[existingSlot] = option
+      return
+    }
+    if (slotCount == slotOptions.size) {
+      val capacity = slotCount * 2
+      slotOptions = slotOptions.copyOf(capacity)
+      globalValues = globalValues.copyOf(capacity)
+      globalInts = globalInts.copyOf(capacity)
+      hasLocalValues = hasLocalValues.copyOf(capacity)
+    }
+    val slot = slotCount++
+    slots[option.name] = slot
+    slotOptions[slot] = option
+    globalInts[slot] = defaultIntValue(option)
+  }
+
+  private fun defaultIntValue(option: Option<out VimDataType>): Int {
+    return if (option is StringOption) 0 else (option.getDefaultValue() as VimInt).value
   }
 
   /**
@@ -356,9 +454,37 @@ internal class OptionServiceImpl : OptionService {
   }
 
   override fun resetAllOptions() {
-    globalValues.clear()
-    for (editor in localEditors()) {
-      localOptions.reset(IjVimEditor(editor))
+    val changedGlobal = ArrayList<Pair<Option<out VimDataType>, VimDataType>>()
+    val changedLocal = ArrayList<Triple<Option<out VimDataType>, VimDataType, VimEditor>>()
+    val editors = localEditors().map { it.vim }
+    for (slot in 0 until slotCount) {
+      val option = slotOptions[slot]!!
+      // Removed options keep their slot, but their listeners are not notified
+      val isRegistered = options.get(option.name) === option
+      val oldValue = globalValues[slot]
+      if (isRegistered && oldValue != null && oldValue != option.getDefaultValue()) {
+        changedGlobal += option to oldValue
+      }
+      if (isRegistered && hasLocalValues[slot]) {
+        for (editor in editors) {
+          val oldLocalValue = localOptions.getOption(editor, slot) ?: continue
+          changedLocal += Triple(option, oldLocalValue, editor)
+        }
+      }
+      globalValues[slot] = null
+      globalInts[slot] = defaultIntValue(option)
+    }
+    for (editor in editors) {
+      localOptions.reset(editor)
+    }
+    hasLocalValues.fill(false)
+
+    // The listeners are called after all the options are reset, so they don't see a mix of old and default values
+    for ((option, oldValue) in changedGlobal) {
+      option.onChanged(OptionScope.GLOBAL, oldValue)
+    }
+    for ((option, oldValue, editor) in changedLocal) {
+      option.onChanged(OptionScope.LOCAL(editor), oldValue)
     }
   }
 
@@ -379,6 +505,7 @@ internal class OptionServiceImpl : OptionService {
    */
   fun addOption(option: Option<out VimDataType>) {
     options.put(option.name, option.abbrev, option)
+    registerSlot(option)
   }
 
   override fun removeOption(optionName: String) {
@@ -409,6 +536,8 @@ internal class OptionServiceImpl : OptionService {
     val ideaRefactorModeValues = setOf("keep", "select", "visual")
     val ideaWriteValues = setOf("all", "file")
     val ideavimsupportValues = setOf("dialog", "singleline", "dialoglegacy")
+
+    private const val INITIAL_SLOT_CAPACITY = 128
   }
 }
 
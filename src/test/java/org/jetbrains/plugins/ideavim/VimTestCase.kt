@@ -150,6 +150,7 @@ abstract class VimTestCase : UsefulTestCase() {
     VimPlugin.getRegister().resetRegisters()
     VimPlugin.getSearch().resetState()
     VimPlugin.getMark().resetAllMarks()
+    VimPlugin.getDigraph().clearCustomDigraphs()
     VimPlugin.getChange().resetRepeat()
     VimPlugin.getKey().savedShortcutConflicts.clear()
 
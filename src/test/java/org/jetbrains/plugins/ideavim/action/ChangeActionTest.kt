@@ -128,6 +128,26 @@ class ChangeActionTest : VimTestCase() {
     doTest("~~", "hello wor${c}ld\n", "hello worLD\n", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
 
+  // |~|
+  fun testToggleCharCaseWithMultipleCarets() {
+    doTest(
+      "2~",
+      "${c}hello ${c}world\n${c}foo\n",
+      "HE${c}llo WO${c}rld\nFO${c}o\n",
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE
+    )
+  }
+
+  // |v_~|
+  fun testToggleCaseVisualBlock() {
+    doTest(
+      listOf("<C-V>", "j", "ll", "~"),
+      "h${c}ello world\nfoobar\n",
+      "h${c}ELLo world\nfOOBar\n",
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE
+    )
+  }
+
   fun testToggleCaseMotion() {
     doTest("g~w", "${c}FooBar Baz\n", "fOObAR Baz\n", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
@@ -584,11 +604,67 @@ quux
     doTest("3rX", "fo${c}obar\n", "fo${c}XXXr\n", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
 
+  // |r|
+  fun testReplaceOneCharWithMultipleCarets() {
+    doTest(
+      "rx",
+      """
+        ${c}foo ${c}bar
+        b${c}az
+        
+      """.trimIndent(),
+      """
+        ${c}xoo ${c}xar
+        b${c}xz
+        
+      """.trimIndent(),
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE
+    )
+  }
+
+  // |r|
+  fun testReplaceMultipleCharsWithCountAndMultipleCarets() {
+    doTest(
+      "2rX",
+      """
+        ${c}foo ${c}bar
+        ba${c}z
+        
+      """.trimIndent(),
+      """
+        ${c}XXo ${c}XXr
+        ba${c}z
+        
+      """.trimIndent(),
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE
+    )
+  }
+
   // |r|
   fun testReplaceMultipleCharsWithCountPastEndOfLine() {
     doTest("6rX", "fo${c}obar\n", "fo${c}obar\n", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
 
+  // |r|
+  fun testReplaceCharsInVisualBlock() {
+    doTest(
+      listOf("<C-V>", "jj", "l", "rZ"),
+      """
+        fo${c}obar
+        foo
+        foobaz
+        
+      """.trimIndent(),
+      """
+        foZZar
+        foZ
+        foZZaz
+        
+      """.trimIndent(),
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE
+    )
+  }
+
   // |r|
   @VimBehaviorDiffers(description = "Different caret position")
   fun testReplaceMultipleCharsWithVisual() {
@@ -151,4 +151,21 @@ public class ChangeNumberActionTest extends VimTestCase {
     doTest("<C-A>", "foo ->* bar 123\n", "foo ->* bar 12<caret>4\n", CommandState.Mode.COMMAND,
            CommandState.SubMode.NONE);
   }
+
+  public void testIncrementDecimalBiggerThanLong() {
+    doTest("<C-A>", "123456789012345678901", "123456789012345678902", CommandState.Mode.COMMAND,
+           CommandState.SubMode.NONE);
+  }
+
+  public void testIncrementLongHex() {
+    doTest("<C-A>", "0xfffffffffffffff", "0x1000000000000000", CommandState.Mode.COMMAND, CommandState.SubMode.NONE);
+  }
+
+  public void testDecrementHexZeroWrapsAround() {
+    doTest("<C-X>", "0x0", "0xffffffffffffffff", CommandState.Mode.COMMAND, CommandState.SubMode.NONE);
+  }
+
+  public void testIncrementHexPrefixWithoutDigits() {
+    doTest("<C-A>", "0x", "1x", CommandState.Mode.COMMAND, CommandState.SubMode.NONE);
+  }
 }
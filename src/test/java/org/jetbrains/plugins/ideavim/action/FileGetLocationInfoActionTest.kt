@@ -90,4 +90,18 @@ class FileGetLocationInfoActionTest : VimTestCase() {
     typeText(keys)
     assertEquals("Col 1 of 1; Line 7 of 7; Word 35 of 35; Character 167 of 166", VimPlugin.getMessage())
   }
+
+  fun `test get file info after the document is changed`() {
+    configureByText("${c}one two\nthree")
+    typeText(parseKeys("g<C-G>"))
+    typeText(parseKeys("o", "four five", "<Esc>", "g<C-G>"))
+    assertEquals("Col 9 of 9; Line 2 of 3; Word 4 of 6; Character 17 of 23", VimPlugin.getMessage())
+  }
+
+  fun `test get file info after lines are added and removed in different places`() {
+    configureByText("${c}one two\nthree")
+    typeText(parseKeys("g<C-G>"))
+    typeText(parseKeys("o", "four", "<Esc>", "gg", "O", "zero", "<Esc>", "G", "dd", "g<C-G>"))
+    assertEquals("Col 1 of 4; Line 3 of 3; Word 4 of 5; Character 14 of 17", VimPlugin.getMessage())
+  }
 }
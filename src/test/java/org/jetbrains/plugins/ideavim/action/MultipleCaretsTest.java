@@ -912,6 +912,13 @@ public class MultipleCaretsTest extends VimTestCase {
     assertState("on<caret>zz<caret>z<caret>z<caret>zzth<caret>z<caret>zz");
   }
 
+  // The length of each caret's own line is checked, not the length of the primary caret's line
+  @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
+  public void testChangeCharacterWithNewlineOnLinesOfDifferentLength() {
+    typeTextInFile(parseKeys("2r<CR>"), "abcd<caret>ef\n" + "<caret>abc\n");
+    assertState("abcd\n" + "<caret>\n" + "\n" + "<caret>c\n");
+  }
+
   @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
   public void testChangeCharactersAction() {
     typeTextInFile(parseKeys("4s", "<ESC>"), "on<caret>e two <caret>th<caret>ee four five\n");
@@ -1041,6 +1048,24 @@ public class MultipleCaretsTest extends VimTestCase {
     assertState("o<caret> four");
   }
 
+  @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
+  public void testDeleteMotionAction() {
+    typeTextInFile(parseKeys("dw"), "one <caret>two three <caret>four five\n");
+    assertState("one <caret>three <caret>five\n");
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
+  public void testDeleteMotionActionLinewise() {
+    typeTextInFile(parseKeys("dd"), "a<caret>bc\n" + "def\n" + "g<caret>hi\n" + "jkl\n");
+    assertState("<caret>def\n" + "<caret>jkl\n");
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
+  public void testDeleteMotionActionOverlapRange() {
+    typeTextInFile(parseKeys("d3l"), "<caret>a<caret>bcdefg\n");
+    assertState("<caret>g\n");
+  }
+
   @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
   public void testDeleteEndOfLineAction() {
     typeTextInFile(parseKeys("D"), "abcd<caret>e\n" +
@@ -1416,6 +1441,16 @@ public class MultipleCaretsTest extends VimTestCase {
     assertState(after);
   }
 
+  @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
+  public void testPutTextAfterCursorNoIndent() {
+    final String before = "<caret>qwe asd <caret>zxc rty <caret>fgh vbn";
+    final Editor editor = configureByText(before);
+    VimPlugin.getRegister().storeText(new IjVimEditor(editor), new TextRange(16, 19), SelectionType.CHARACTER_WISE, false);
+    typeText(parseKeys("2]p"));
+    final String after = "qfghfg<caret>hwe asd zfghfg<caret>hxc rty ffghfg<caret>hgh vbn";
+    assertState(after);
+  }
+
   @TestWithoutNeovim(reason = SkipNeovimReason.MULTICARET)
   public void testPutTextAfterCursorOverlapRange() {
     final String before = "<caret>q<caret>we asd zxc rty <caret>fgh vbn";
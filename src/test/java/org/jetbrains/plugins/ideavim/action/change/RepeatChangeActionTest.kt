@@ -316,4 +316,18 @@ class RepeatChangeActionTest : VimTestCase() {
     """.trimIndent()
     doTest(keys, before, after, CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
+
+  fun `test repeat counted insert`() {
+    val keys = listOf("3ia<Esc>", "w", ".")
+    val before = "${c}foo bar"
+    val after = "aaafoo aa${c}abar"
+    doTest(keys, before, after, CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
+
+  fun `test repeat insert with backspace`() {
+    val keys = listOf("iabc<BS>d<Esc>", "w", ".")
+    val before = "${c}foo bar"
+    val after = "abdfoo ab${c}dbar"
+    doTest(keys, before, after, CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
 }
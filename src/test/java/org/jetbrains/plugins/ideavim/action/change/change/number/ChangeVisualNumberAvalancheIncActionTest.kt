@@ -60,4 +60,10 @@ class ChangeVisualNumberAvalancheIncActionTest : VimTestCase() {
       CommandState.SubMode.NONE
     )
   }
+
+  fun `test inc visual avalanche on many lines`() {
+    val before = "number 1\n".repeat(200)
+    val after = (1..200).joinToString("") { "number ${it + 1}\n" }
+    doTest("VGg<C-A>", "$c$before", "$c$after", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
 }
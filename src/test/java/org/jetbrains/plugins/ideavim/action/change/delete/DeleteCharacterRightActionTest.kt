@@ -117,4 +117,45 @@ class DeleteCharacterRightActionTest : VimTestCase() {
     // type annotation
     assertVisualPosition(0, 4)
   }
+
+  fun `test delete character with multiple carets`() {
+    val keys = parseKeys("x")
+    val before = """
+            I ${c}found it in a legendary land
+            all ${c}rocks and ${c}lavender and tufted grass,
+            where it was settled on some sodden san${c}d
+    """.trimIndent()
+    val after = """
+            I ${c}ound it in a legendary land
+            all ${c}ocks and ${c}avender and tufted grass,
+            where it was settled on some sodden sa${c}n
+    """.trimIndent()
+    configureByText(before)
+    typeText(keys)
+    assertState(after)
+  }
+
+  fun `test delete multiple characters with multiple carets`() {
+    val keys = parseKeys("3x")
+    val before = """
+            I ${c}found it in a legendary land
+            all rocks and lavender and tufted gra${c}ss,
+    """.trimIndent()
+    val after = """
+            I ${c}nd it in a legendary land
+            all rocks and lavender and tufted gr${c}a
+    """.trimIndent()
+    configureByText(before)
+    typeText(keys)
+    assertState(after)
+  }
+
+  fun `test delete with overlapping carets`() {
+    val keys = parseKeys("3x")
+    val before = "I ${c}fo${c}und it in a legendary land"
+    val after = "I ${c}it in a legendary land"
+    configureByText(before)
+    typeText(keys)
+    assertState(after)
+  }
 }
@@ -57,6 +57,30 @@ class VisualBlockAppendActionTest : VimTestCase() {
     assertState(after)
   }
 
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT)
+  fun `test visual block append with dollar motion over tab indented lines`() {
+    configureByText("    ${c}foo\n\tbar\n    baz\n")
+    myFixture.editor.settings.setTabSize(4)
+    typeText(parseKeys("<C-V>", "jj", "$", "A", "X", "<Esc>"))
+    assertState("    fooX\n\tbarX\n    bazX\n")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT)
+  fun `test visual block append pads short lines`() {
+    val before = """
+            ${c}int first;
+            int b;
+            int third;
+    """.trimIndent()
+    typeTextInFile(parseKeys("<C-V>", "2j", "8l", "A", "X", "<Esc>"), before)
+    val after = """
+            int firstX;
+            int b;   X
+            int thirdX;
+    """.trimIndent()
+    assertState(after)
+  }
+
   @TestWithoutNeovim(SkipNeovimReason.MULTICARET)
   fun `test append in non block mode`() {
     doTest(
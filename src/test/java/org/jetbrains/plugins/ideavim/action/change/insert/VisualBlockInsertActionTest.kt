@@ -79,6 +79,15 @@ Xbar
     )
   }
 
+  // |CTRL-V| |v_b_I|
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT)
+  fun `test insert visual block over tab indented lines`() {
+    configureByText("    ${c}foo\n\tbar\n    baz\n")
+    myFixture.editor.settings.setTabSize(4)
+    typeText(parseKeys("<C-V>", "jj", "I", "X", "<Esc>"))
+    assertState("    ${c}Xfoo\n\tXbar\n    Xbaz\n")
+  }
+
   // VIM-632 |CTRL-V| |v_b_I|
   @TestWithoutNeovim(SkipNeovimReason.VISUAL_BLOCK_MODE)
   fun `test change visual block`() {
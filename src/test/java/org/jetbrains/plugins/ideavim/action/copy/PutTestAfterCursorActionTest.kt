@@ -34,6 +34,11 @@ class PutTestAfterCursorActionTest : VimTestCase() {
     doTest("\"4p", "This is my$c text", "This is my XXX$c text", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
 
+  fun `test put with count`() {
+    setRegister('4', "XY ")
+    doTest("\"44p", "This is my$c text", "This is my XY XY XY XY$c text", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
+
   @VimBehaviorDiffers(
     originalVimAfter = """
             A Discovery
@@ -487,4 +487,17 @@ class MotionInnerBlockTagActionTest : VimTestCase() {
     typeText(parseKeys("vit"))
     assertSelection("<")
   }
+
+  fun `test tag names ignore case and self closing tags`() {
+    configureByText("<Div>one <div/> <br /> <div>${c}two</DIV> three</div>\n")
+    typeText(parseKeys("v2it"))
+    assertSelection("one <div/> <br /> <div>two</DIV> three")
+  }
+
+  fun `test delete inner tag twice`() {
+    val keys = listOf("dit", "0fn", "dit")
+    val before = "<a>one <b>${c}two</b></a>\n"
+    val after = "<a></a>\n"
+    doTest(keys, before, after, CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
 }
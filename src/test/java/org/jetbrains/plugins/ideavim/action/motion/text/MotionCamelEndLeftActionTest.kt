@@ -25,4 +25,14 @@ class MotionCamelEndLeftActionTest : VimTestCase() {
   fun `test go with a single uppercase word`() {
     doTest("]b", "TES${c}T", "TES${c}T", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
+
+  fun `test go with count over acronyms and digits`() {
+    doTest(
+      "3]b",
+      "parseHTMLDocument2Jso${c}n",
+      "parseHTM${c}LDocument2Json",
+      CommandState.Mode.COMMAND,
+      CommandState.SubMode.NONE
+    )
+  }
 }
@@ -0,0 +1,108 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.action.motion.text
+
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class MotionParagraphNextActionTest : VimTestCase() {
+  fun `test move to next paragraph`() {
+    doTest(
+      "}",
+      """
+      A ${c}Discovery
+
+      I found it in a legendary land
+      all rocks and lavender and tufted grass,
+
+      where it was settled on some sodden sand
+      """.trimIndent(),
+      """
+      A Discovery
+      $c
+      I found it in a legendary land
+      all rocks and lavender and tufted grass,
+
+      where it was settled on some sodden sand
+      """.trimIndent(),
+    )
+  }
+
+  fun `test move to next paragraph with count`() {
+    doTest(
+      "2}",
+      """
+      A ${c}Discovery
+
+      I found it in a legendary land
+      all rocks and lavender and tufted grass,
+
+      where it was settled on some sodden sand
+      """.trimIndent(),
+      """
+      A Discovery
+
+      I found it in a legendary land
+      all rocks and lavender and tufted grass,
+      $c
+      where it was settled on some sodden sand
+      """.trimIndent(),
+    )
+  }
+
+  fun `test line with spaces is not a paragraph boundary`() {
+    doTest(
+      "}",
+      """
+      A ${c}Discovery
+      ${"   "}
+      I found it in a legendary land
+
+      where it was settled on some sodden sand
+      """.trimIndent(),
+      """
+      A Discovery
+      ${"   "}
+      I found it in a legendary land
+      $c
+      where it was settled on some sodden sand
+      """.trimIndent(),
+    )
+  }
+
+  fun `test move to next paragraph after adding empty line`() {
+    doTest(
+      listOf("}", "gg", "jo<Esc>", "gg", "}"),
+      """
+      A ${c}Discovery
+      I found it in a legendary land
+      all rocks and lavender and tufted grass,
+
+      where it was settled on some sodden sand
+      """.trimIndent(),
+      """
+      A Discovery
+      I found it in a legendary land
+      $c
+      all rocks and lavender and tufted grass,
+
+      where it was settled on some sodden sand
+      """.trimIndent(),
+    )
+  }
+}
@@ -232,6 +232,21 @@ class MotionPercentOrMatchActionTest : VimTestCase() {
     )
   }
 
+  fun `test motion skips bracket in quotes`() {
+    doTest(
+      "%", """$c(a ")" b)""",
+      """(a ")" b$c)""", CommandState.Mode.COMMAND, CommandState.SubMode.NONE
+    )
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "unpaired quote")
+  fun `test motion after removing quote`() {
+    doTest(
+      listOf("%", "0f\"x", "0%"), """$c(a ")" b)""",
+      """(a $c)" b)""", CommandState.Mode.COMMAND, CommandState.SubMode.NONE
+    )
+  }
+
   fun `test deleting with percent motion backward`() {
     doTest("d%", "(foo bar$c)", c, CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
   }
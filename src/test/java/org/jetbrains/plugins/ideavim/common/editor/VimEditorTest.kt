@@ -22,6 +22,7 @@ import com.intellij.openapi.application.runWriteAction
 import com.intellij.openapi.command.WriteCommandAction
 import com.maddyhome.idea.vim.common.offset
 import com.maddyhome.idea.vim.newapi.IjVimEditor
+import com.maddyhome.idea.vim.newapi.vim
 import org.jetbrains.plugins.ideavim.VimTestCase
 
 class VimEditorTest : VimTestCase() {
@@ -35,4 +36,16 @@ class VimEditorTest : VimTestCase() {
     }
     assertState("567890")
   }
+
+  fun `test wrappers are cached`() {
+    configureByText("${c}one ${c}two")
+    val vimEditor = myFixture.editor.vim
+    assertSame(vimEditor, myFixture.editor.vim)
+    assertSame(vimEditor, vimEditor.primaryCaret().editor)
+    assertSame(vimEditor.primaryCaret(), vimEditor.primaryCaret())
+    val carets = vimEditor.carets()
+    assertEquals(2, carets.size)
+    carets.zip(vimEditor.nativeCarets()).forEach { (caret, nativeCaret) -> assertSame(caret, nativeCaret) }
+    carets.zip(myFixture.editor.caretModel.allCarets).forEach { (caret, ijCaret) -> assertSame(caret, ijCaret.vim) }
+  }
 }
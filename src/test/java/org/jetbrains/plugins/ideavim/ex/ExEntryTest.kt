@@ -289,6 +289,67 @@ class ExEntryTest : VimTestCase() {
     assertExText("set digraph")
   }
 
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  fun `test matching command history returns to typed text`() {
+    typeExInput(":set digraph<CR>")
+    typeExInput(":digraph<CR>")
+    typeExInput(":set incsearch<CR>")
+
+    typeExInput(":set<Up>")
+    assertExText("set incsearch")
+    typeText("<Up>")
+    assertExText("set digraph")
+    typeText("<Down>")
+    assertExText("set incsearch")
+    typeText("<Down>")
+    assertExText("set")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  fun `test matching command history with repeated entry`() {
+    typeExInput(":set digraph<CR>")
+    typeExInput(":digraph<CR>")
+    typeExInput(":set incsearch<CR>")
+    typeExInput(":set digraph<CR>")
+
+    typeExInput(":set<Up>")
+    assertExText("set digraph")
+    typeText("<Up>")
+    assertExText("set incsearch")
+    typeText("<Up>")
+    assertExText("set incsearch")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  fun `test command history is limited by history option`() {
+    typeExInput(":set history=2<CR>")
+    typeExInput(":set digraph<CR>")
+    typeExInput(":set incsearch<CR>")
+
+    typeExInput(":<Up>")
+    assertExText("set incsearch")
+    typeText("<Up>")
+    assertExText("set digraph")
+    typeText("<Up>")
+    assertExText("set digraph")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  fun `test command history length is restored when options are reset`() {
+    typeExInput(":set history=2<CR>")
+    VimPlugin.getOptionService().resetAllOptions()
+    typeExInput(":set digraph<CR>")
+    typeExInput(":digraph<CR>")
+    typeExInput(":set incsearch<CR>")
+
+    typeExInput(":<Up>")
+    assertExText("set incsearch")
+    typeText("<Up>")
+    assertExText("digraph")
+    typeText("<Up>")
+    assertExText("set digraph")
+  }
+
   fun `test search history`() {
     typeExInput("/something cool<CR>")
     typeExInput("/not cool<CR>")
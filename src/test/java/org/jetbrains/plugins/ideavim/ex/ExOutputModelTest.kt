@@ -0,0 +1,62 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.ex
+
+import com.maddyhome.idea.vim.ex.ExOutputModel
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class ExOutputModelTest : VimTestCase() {
+  fun `test output is split into lines`() {
+    configureByText("${c}text")
+    val model = ExOutputModel.getInstance(myFixture.editor)
+    model.output("one\ntwo\n")
+    assertEquals(2, model.lineCount)
+    assertEquals("one", model.getLine(0))
+    assertEquals("two", model.getLine(1))
+    assertEquals("one\ntwo\n", model.text)
+  }
+
+  fun `test appended output continues the last line`() {
+    configureByText("${c}text")
+    val model = ExOutputModel.getInstance(myFixture.editor)
+    model.output("one\ntw")
+    model.append("o\nthree")
+    assertEquals(3, model.lineCount)
+    assertEquals("two", model.getLine(1))
+    assertEquals("one\ntwo\nthree", model.text)
+  }
+
+  fun `test append without output`() {
+    configureByText("${c}text")
+    val model = ExOutputModel.getInstance(myFixture.editor)
+    model.clear()
+    assertNull(model.text)
+    model.append("one\n")
+    assertEquals(1, model.lineCount)
+    assertEquals("one\n", model.text)
+  }
+
+  fun `test empty output`() {
+    configureByText("${c}text")
+    val model = ExOutputModel.getInstance(myFixture.editor)
+    model.output("")
+    assertEquals(0, model.lineCount)
+    assertEquals("", model.text)
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.ex.implementation.commands
+
+import com.intellij.openapi.util.SystemInfo
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class CmdFilterCommandTest : VimTestCase() {
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Caret position after the filter")
+  fun `test filter whole file`() {
+    if (SystemInfo.isWindows) return
+    configureByText(
+      """
+        ${c}one
+        two
+        three
+        
+      """.trimIndent()
+    )
+    enterCommand("%!tr a-z A-Z")
+    assertState(
+      """
+        ONE
+        TWO
+        THREE
+        
+      """.trimIndent()
+    )
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Caret position after the filter")
+  fun `test filter range`() {
+    if (SystemInfo.isWindows) return
+    configureByText(
+      """
+        ${c}one
+        two
+        three
+        four
+        
+      """.trimIndent()
+    )
+    enterCommand("2,3!tr a-z A-Z")
+    assertState(
+      """
+        one
+        TWO
+        THREE
+        four
+        
+      """.trimIndent()
+    )
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Caret position after the filter")
+  fun `test filter large text`() {
+    if (SystemInfo.isWindows) return
+    val text = (1..20000).joinToString(separator = "\n", postfix = "\n") { "line number $it" }
+    configureByText(text)
+    enterCommand("%!cat")
+    assertState(text)
+    assertPluginError(false)
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Caret position after the filter")
+  fun `test filter with failing command`() {
+    if (SystemInfo.isWindows) return
+    configureByText(
+      """
+        ${c}one
+        two
+        
+      """.trimIndent()
+    )
+    enterCommand("%!cat > /dev/null; exit 3")
+    assertState("")
+    assertPluginError(true)
+    assertPluginErrorMessageContains("shell returned 3")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Output of the shell command")
+  fun `test command output`() {
+    if (SystemInfo.isWindows) return
+    configureByText("${c}one")
+    enterCommand("!echo hello")
+    assertExOutput("hello\n")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Output of the shell command")
+  fun `test command output without colors`() {
+    if (SystemInfo.isWindows) return
+    configureByText("${c}one")
+    enterCommand("!printf '\\033[1;31mred\\033[0m plain\\n'")
+    assertExOutput("red plain\n")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Output of the shell command")
+  fun `test command output keeps the order of stdout and stderr`() {
+    if (SystemInfo.isWindows) return
+    configureByText("${c}one")
+    enterCommand("!echo one; echo two 1>&2; echo three")
+    assertExOutput("one\ntwo\nthree\n")
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.ex.implementation.commands
+
+import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class DigraphCommandTest : VimTestCase() {
+  fun `test default digraph`() {
+    configureByText("${c}\n")
+    typeText(parseKeys("i", "<C-K>a:", "<Esc>"))
+    assertState("${c}ä\n")
+  }
+
+  fun `test default digraph with reversed keys`() {
+    configureByText("${c}\n")
+    typeText(parseKeys("i", "<C-K>:a", "<Esc>"))
+    assertState("${c}ä\n")
+  }
+
+  fun `test custom digraph`() {
+    configureByText("${c}\n")
+    enterCommand("digraphs xy 9731")
+    typeText(parseKeys("i", "<C-K>xy", "<Esc>"))
+    assertState("${c}☃\n")
+  }
+
+  fun `test custom digraph overrides default one`() {
+    configureByText("${c}\n")
+    enterCommand("digraphs a: 246 o: 228")
+    typeText(parseKeys("i", "<C-K>a:", "<C-K>o:", "<Esc>"))
+    assertState("ö${c}ä\n")
+  }
+
+  fun `test ascii shows custom digraph`() {
+    configureByText("${c}☃")
+    enterCommand("digraphs xy 9731")
+    enterCommand("ascii")
+    assertEquals("<☃> 9731, Hex 2603, Oct 23003, Digr xy", VimPlugin.getMessage())
+  }
+
+  fun `test digraph without number`() {
+    configureByText("${c}\n")
+    enterCommand("digraphs xy")
+    assertPluginError(true)
+    assertPluginErrorMessageContains("E39: Number expected")
+  }
+
+  fun `test digraph outside of basic multilingual plane`() {
+    configureByText("${c}\n")
+    enterCommand("digraphs xy 128512")
+    assertPluginError(true)
+    assertPluginErrorMessageContains("E475: Invalid argument: 128512")
+  }
+}
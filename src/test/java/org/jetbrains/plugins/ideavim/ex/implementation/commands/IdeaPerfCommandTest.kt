@@ -0,0 +1,91 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.ex.implementation.commands
+
+import com.intellij.openapi.util.io.FileUtil
+import com.maddyhome.idea.vim.diagnostic.VimTracer
+import com.maddyhome.idea.vim.ex.ExOutputModel
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class IdeaPerfCommandTest : VimTestCase() {
+  override fun tearDown() {
+    VimTracer.isEnabled = false
+    VimTracer.reset()
+    super.tearDown()
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test spans are recorded when tracing is on`() {
+    configureByText("${c}one two three")
+    enterCommand("ideaperf on")
+    typeText(parseKeys("x", "w"))
+    enterCommand("ideaperf")
+    val output = ExOutputModel.getInstance(myFixture.editor).text!!
+    assertTrue(output.contains("Key handling"))
+    assertTrue(output.contains("VimDeleteCharacterRightAction"))
+    assertTrue(output.contains("VimMotionWordRightAction"))
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test nothing is recorded when tracing is off`() {
+    configureByText("${c}one two three")
+    typeText(parseKeys("x"))
+    assertTrue(VimTracer.isEmpty())
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test ideatracetime option turns tracing on`() {
+    configureByText("${c}one two three")
+    enterCommand("set ideatracetime")
+    assertTrue(VimTracer.isEnabled)
+    enterCommand("set noideatracetime")
+    assertFalse(VimTracer.isEnabled)
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test reset`() {
+    configureByText("${c}one two three")
+    enterCommand("ideaperf on")
+    typeText(parseKeys("x"))
+    enterCommand("ideaperf off")
+    enterCommand("ideaperf reset")
+    assertTrue(VimTracer.isEmpty())
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test dump`() {
+    configureByText("${c}one two three")
+    enterCommand("ideaperf on")
+    typeText(parseKeys("x"))
+    enterCommand("ideaperf off")
+    val file = FileUtil.createTempFile("ideaperf", ".txt", true)
+    enterCommand("ideaperf dump ${file.path}")
+    assertTrue(file.readText().contains("VimDeleteCharacterRightAction"))
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test invalid argument`() {
+    configureByText("${c}one two three")
+    enterCommand("ideaperf foo")
+    assertPluginError(true)
+  }
+}
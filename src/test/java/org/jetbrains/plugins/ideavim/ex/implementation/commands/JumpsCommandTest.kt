@@ -18,6 +18,7 @@
 
 package org.jetbrains.plugins.ideavim.ex.implementation.commands
 
+import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
 import org.jetbrains.plugins.ideavim.VimTestCase
 
@@ -92,6 +93,92 @@ class JumpsCommandTest : VimTestCase() {
     )
   }
 
+  fun `test jump to the same line replaces the old jump`() {
+    configureByText(
+      """I found ${c}it in a legendary land
+                      |all rocks and lavender and tufted grass,
+                      |where it was settled on some sodden sand
+                      |hard by the torrent of a mountain pass.
+                      |
+                      |The features it combines mark it as new
+                      |to science: shape and shade -- the special tinge,
+                      |akin to moonlight, tempering its blue,
+                      |the dingy underside, the checquered fringe.
+                      """.trimMargin()
+    )
+
+    enterSearch("sodden")
+    enterSearch("shape")
+    enterSearch("settled", false)
+    enterSearch("underside")
+
+    enterCommand("jumps")
+    assertExOutput(
+      """ jump line  col file/text
+                     |   3     1    8 I found it in a legendary land
+                     |   2     7   12 to science: shape and shade -- the special tinge,
+                     |   1     3   13 where it was settled on some sodden sand
+                     |>
+                     |""".trimMargin()
+    )
+  }
+
+  fun `test jump list size is limited by option`() {
+    configureByText(
+      """I found ${c}it in a legendary land
+                      |all rocks and lavender and tufted grass,
+                      |where it was settled on some sodden sand
+                      |hard by the torrent of a mountain pass.
+                      |
+                      |The features it combines mark it as new
+                      |to science: shape and shade -- the special tinge,
+                      |akin to moonlight, tempering its blue,
+                      |the dingy underside, the checquered fringe.
+                      """.trimMargin()
+    )
+
+    enterCommand("set ideajumplistsize=2")
+    enterSearch("sodden")
+    enterSearch("shape")
+    enterSearch("rocks", false)
+    enterSearch("underside")
+
+    enterCommand("jumps")
+    assertExOutput(
+      """ jump line  col file/text
+                     |   2     7   12 to science: shape and shade -- the special tinge,
+                     |   1     2    4 all rocks and lavender and tufted grass,
+                     |>
+                     |""".trimMargin()
+    )
+  }
+
+  fun `test jump list size is restored when options are reset`() {
+    configureByText(
+      """I found ${c}it in a legendary land
+                      |all rocks and lavender and tufted grass,
+                      |where it was settled on some sodden sand
+                      |hard by the torrent of a mountain pass.
+                      """.trimMargin()
+    )
+
+    enterCommand("set ideajumplistsize=2")
+    VimPlugin.getOptionService().resetAllOptions()
+    enterSearch("rocks")
+    enterSearch("sodden")
+    enterSearch("torrent")
+
+    enterCommand("jumps")
+    assertExOutput(
+      """ jump line  col file/text
+                     |   3     1    8 I found it in a legendary land
+                     |   2     2    4 all rocks and lavender and tufted grass,
+                     |   1     3   29 where it was settled on some sodden sand
+                     |>
+                     |""".trimMargin()
+    )
+  }
+
   fun `test list trims and truncates`() {
     val indent = " ".repeat(100)
     val text = "Really long line ".repeat(1000)
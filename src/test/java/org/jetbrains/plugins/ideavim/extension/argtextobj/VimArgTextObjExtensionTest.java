@@ -323,4 +323,20 @@ public class VimArgTextObjExtensionTest extends VimTestCase {
            CommandState.SubMode.NONE);
   }
 
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  public void testArgumentsAfterLongQuotedText() {
+    final StringBuilder prefix = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      prefix.append("\"s(").append(i).append(",\" + ");
+    }
+    final String before = prefix + "\"\"; f(a, \"b,<caret>c\", d)";
+    doTest(Lists.newArrayList("daa"), before, prefix + "\"\"; f(a<caret>, d)", CommandState.Mode.COMMAND,
+           CommandState.SubMode.NONE);
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  public void testDeleteArgumentsOneByOne() {
+    doTest(Lists.newArrayList("daa", "daa"), "f(\"a,b\", <caret>\"c,d\", \"e,f\")",
+           "f(\"a,b\"<caret>)", CommandState.Mode.COMMAND, CommandState.SubMode.NONE);
+  }
 }
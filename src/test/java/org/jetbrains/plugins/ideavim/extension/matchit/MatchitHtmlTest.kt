@@ -1034,4 +1034,16 @@ class MatchitHtmlTest : VimTestCase() {
       CommandState.Mode.COMMAND, CommandState.SubMode.NONE, HtmlFileType.INSTANCE
     )
   }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test jump between many different tags`() {
+    // Each tag name is a search pair of its own, so the first tags are searched for again after the others
+    val text = (1..20).joinToString("\n") { "<t$it>x</t$it>" }
+    doTest(
+      "0l%j".repeat(19) + "0l%" + "gg0l%",
+      text,
+      text.replaceFirst("</t1>", "<$c/t1>"),
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE, HtmlFileType.INSTANCE
+    )
+  }
 }
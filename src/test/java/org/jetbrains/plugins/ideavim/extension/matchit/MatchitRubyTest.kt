@@ -2484,6 +2484,42 @@ class MatchitRubyTest : VimTestCase() {
     )
   }
 
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test jump from if to end and back`() {
+    doTest(
+      "%%",
+      """
+        ${c}if some_boolean
+          puts "result is true"
+        end
+      """.trimIndent(),
+      """
+        ${c}if some_boolean
+          puts "result is true"
+        end
+      """.trimIndent(),
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE, "ruby.rb"
+    )
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test jump after changing the file`() {
+    doTest(
+      "%kwcwend<Esc>gg%",
+      """
+        ${c}if some_boolean
+          x = 1
+        end
+      """.trimIndent(),
+      """
+        if some_boolean
+          ${c}end = 1
+        end
+      """.trimIndent(),
+      CommandState.Mode.COMMAND, CommandState.SubMode.NONE, "ruby.rb"
+    )
+  }
+
   /*
    * Tests for embedded Ruby
    */
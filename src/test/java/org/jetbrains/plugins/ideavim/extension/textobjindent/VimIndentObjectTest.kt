@@ -269,4 +269,39 @@ class VimIndentObjectTest : JavaVimTestCase() {
     assertMode(CommandState.Mode.COMMAND)
     assertSelection(null)
   }
+
+  fun testDeleteLongIndentWithBlankLines() {
+    val before = buildString {
+      appendLine("one")
+      for (i in 1..100) {
+        appendLine(if (i == 40) "" else "  line $i")
+      }
+      appendLine("two")
+    }
+    doTest(StringHelper.parseKeys("50Gdii"), before, "one\ntwo\n")
+    assertMode(CommandState.Mode.COMMAND)
+    assertSelection(null)
+  }
+
+  fun testDeleteInnerIndentAfterChange() {
+    doTest(
+      StringHelper.parseKeys("3Gdd2Gdii"),
+      """
+        one
+          two
+        three
+          four
+          five
+        six
+
+      """.trimIndent(),
+      """
+        one
+        six
+
+      """.trimIndent()
+    )
+    assertMode(CommandState.Mode.COMMAND)
+    assertSelection(null)
+  }
 }
@@ -0,0 +1,56 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.extension.textobjvariablesegment
+
+import com.maddyhome.idea.vim.command.CommandState
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class VimTextObjVariableSegmentExtensionTest : VimTestCase() {
+  override fun setUp() {
+    super.setUp()
+    enableExtensions("textobj-variable-segment")
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test delete inner camel case segment`() {
+    doTest("div", "val foo${c}BarBaz = 1", "val foo${c}Baz = 1", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test delete inner segments with count`() {
+    doTest("d2iv", "get${c}HTMLParser2", "get${c}2", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test delete around snake case segment`() {
+    doTest("dav", "foo_b${c}ar_baz", "foo_${c}baz", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test delete around last kebab case segment`() {
+    doTest("dav", "font-s${c}ize: 1", "font${c}: 1", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  fun `test change inner segment`() {
+    doTest("civList<Esc>", "user${c}Names", "userLis${c}t", CommandState.Mode.COMMAND, CommandState.SubMode.NONE)
+  }
+}
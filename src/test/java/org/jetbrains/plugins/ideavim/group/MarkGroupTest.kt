@@ -0,0 +1,85 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.group
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.EditorFactory
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.mark.DocumentMark
+import com.maddyhome.idea.vim.newapi.vim
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimString
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class MarkGroupTest : VimTestCase() {
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test file mark survives closing and reopening the file`() {
+    val document = createDocument("marked.txt", "one\ntwo\nthree\n")
+    val factory = EditorFactory.getInstance()
+
+    var editor = factory.createEditor(document, myFixture.project)
+    VimPlugin.getMark().setMark(editor.vim, 'a', document.getLineStartOffset(2))
+    val mark = VimPlugin.getMark().getMark(editor.vim, 'a') as DocumentMark
+    factory.releaseEditor(editor)
+    assertFalse(mark.isAnchored)
+    assertEquals(2, mark.logicalLine)
+
+    editor = factory.createEditor(document, myFixture.project)
+    try {
+      assertTrue(mark.isAnchored)
+      WriteCommandAction.runWriteCommandAction(myFixture.project) { document.insertString(0, "zero\n") }
+      assertEquals(3, VimPlugin.getMark().getMark(editor.vim, 'a')?.logicalLine)
+    } finally {
+      factory.releaseEditor(editor)
+    }
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  fun `test marks are kept only for the number of files from viminfo`() {
+    VimPlugin.getOptionService()
+      .setOptionValue(OptionScope.GLOBAL, OptionConstants.viminfoName, VimString("'2,<50,s10,h"))
+    val factory = EditorFactory.getInstance()
+    val editors = (1..3).map { factory.createEditor(createDocument("file$it.txt", "text\n"), myFixture.project) }
+    try {
+      VimPlugin.getMark().setMark(editors[0].vim, 'a', 0)
+      val firstMark = VimPlugin.getMark().getMark(editors[0].vim, 'a') as DocumentMark
+      VimPlugin.getMark().setMark(editors[1].vim, 'a', 0)
+      VimPlugin.getMark().setMark(editors[2].vim, 'a', 0)
+
+      // The marks of the least recently used file are dropped and stop tracking the document
+      assertTrue(firstMark.isClear())
+      assertFalse(firstMark.isAnchored)
+      assertNotNull(VimPlugin.getMark().getMark(editors[2].vim, 'a'))
+      assertNotNull(VimPlugin.getMark().getMark(editors[1].vim, 'a'))
+      assertNull(VimPlugin.getMark().getMark(editors[0].vim, 'a'))
+    } finally {
+      editors.forEach { factory.releaseEditor(it) }
+    }
+  }
+
+  private fun createDocument(name: String, text: String): Document {
+    val file = myFixture.tempDirFixture.createFile(name, text)
+    return FileDocumentManager.getInstance().getDocument(file)!!
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.longrunning
+
+import com.intellij.testFramework.PlatformTestUtil
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+/**
+ * Character changes with a caret at the start of each line. Each line is `foo.bar(baz, qux);`
+ */
+class MultiCaretPerformanceTest : VimTestCase() {
+  fun `test delete character`() {
+    PlatformTestUtil.startPerformanceTest("x with many carets", 5000) {
+      configureByText((c + LINE).repeat(CARET_COUNT))
+      typeText(parseKeys("x"))
+      assertState((c + LINE.substring(1)).repeat(CARET_COUNT))
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test replace character`() {
+    PlatformTestUtil.startPerformanceTest("r with many carets", 5000) {
+      configureByText((c + LINE).repeat(CARET_COUNT))
+      typeText(parseKeys("3rx"))
+      assertState((c + "xxx" + LINE.substring(3)).repeat(CARET_COUNT))
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test toggle case`() {
+    PlatformTestUtil.startPerformanceTest("~ with many carets", 5000) {
+      configureByText((c + LINE).repeat(CARET_COUNT))
+      typeText(parseKeys("3~"))
+      assertState(("FOO$c" + LINE.substring(3)).repeat(CARET_COUNT))
+    }.attempts(1).assertTiming()
+  }
+
+  companion object {
+    private const val LINE = "foo.bar(baz, qux);\n"
+    private const val CARET_COUNT = 2000
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.longrunning
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.testFramework.PlatformTestUtil
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import com.sun.management.ThreadMXBean
+import org.jetbrains.plugins.ideavim.VimTestCase
+import java.lang.management.ManagementFactory
+
+/**
+ * Puts with a large count. The register has a single line: `foo.bar(baz, qux);`
+ */
+class PutPerformanceTest : VimTestCase() {
+  fun `test linewise put with count`() {
+    PlatformTestUtil.startPerformanceTest("p with a large count", 5000) {
+      configureByText(c + LINE)
+      typeText(parseKeys("yy", "${COUNT}p"))
+      assertEquals(COUNT + 2, myFixture.editor.document.lineCount)
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test characterwise put with count`() {
+    PlatformTestUtil.startPerformanceTest("characterwise p with a large count", 5000) {
+      configureByText(c + LINE)
+      typeText(parseKeys("y$", "${COUNT}p"))
+      assertEquals(LINE.length * (COUNT + 1) - COUNT, myFixture.editor.document.textLength)
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test put with count doesn't copy the inserted text`() {
+    val insertedText = LINE.repeat(COUNT)
+    // The document and the undo history keep their own copies of the text, so they are measured without the put
+    configureByText(c + LINE)
+    val documentAllocated = measureAllocatedBytes {
+      WriteCommandAction.runWriteCommandAction(myFixture.project) {
+        myFixture.editor.document.insertString(LINE.length, insertedText)
+      }
+    }
+
+    configureByText(c + LINE)
+    typeText(parseKeys("yy"))
+    val putAllocated = measureAllocatedBytes { typeText(parseKeys("${COUNT}p")) }
+    assertEquals(COUNT + 2, myFixture.editor.document.lineCount)
+
+    // Building the inserted text as a string, as text.repeat(count) does, takes at least half of these bytes
+    val insertedBytes = insertedText.length.toLong() * Char.SIZE_BYTES
+    val overhead = putAllocated - documentAllocated
+    assertTrue(
+      "Put allocated $overhead bytes more than inserting $insertedBytes bytes of text into the document",
+      overhead < insertedBytes / 4
+    )
+  }
+
+  private fun measureAllocatedBytes(action: () -> Unit): Long {
+    val threadBean = ManagementFactory.getThreadMXBean() as ThreadMXBean
+    val threadId = Thread.currentThread().id
+    val before = threadBean.getThreadAllocatedBytes(threadId)
+    action()
+    return threadBean.getThreadAllocatedBytes(threadId) - before
+  }
+
+  companion object {
+    private const val LINE = "foo.bar(baz, qux);\n"
+    private const val COUNT = 100_000
+  }
+}
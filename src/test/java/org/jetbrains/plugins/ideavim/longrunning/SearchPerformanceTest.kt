@@ -0,0 +1,52 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.longrunning
+
+import com.intellij.testFramework.PlatformTestUtil
+import com.maddyhome.idea.vim.helper.SearchHelper
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+/**
+ * Regex matching and sentence motions over a large buffer. These need an editor, so they are measured here
+ *   and not in the JMH benchmarks.
+ */
+class SearchPerformanceTest : VimTestCase() {
+  fun `test find all matches`() {
+    configureByText(c + LINE.repeat(LINE_COUNT))
+    PlatformTestUtil.startPerformanceTest("findAll over a large buffer", 5000) {
+      val ranges = SearchHelper.findAll(myFixture.editor, "\\<qu[xu]\\+\\>", 0, -1, true)
+      assertEquals(2 * LINE_COUNT, ranges.size)
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test next sentence motion`() {
+    PlatformTestUtil.startPerformanceTest(") over a large buffer", 5000) {
+      configureByText(c + LINE.repeat(LINE_COUNT))
+      typeText(parseKeys("${SENTENCES_PER_LINE * (LINE_COUNT - 1)})"))
+      assertOffset(LINE.length * (LINE_COUNT - 1))
+    }.attempts(1).assertTiming()
+  }
+
+  companion object {
+    private const val LINE = "Foo bar baz. Qux quux corge.\n"
+    private const val SENTENCES_PER_LINE = 2
+    private const val LINE_COUNT = 100_000
+  }
+}
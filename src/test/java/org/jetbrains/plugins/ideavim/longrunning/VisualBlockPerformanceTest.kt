@@ -0,0 +1,57 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.longrunning
+
+import com.intellij.testFramework.PlatformTestUtil
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+/**
+ * Visual block changes over all lines of a large buffer. Each line is `foo.bar(baz, qux);`
+ */
+class VisualBlockPerformanceTest : VimTestCase() {
+  fun `test block insert`() {
+    PlatformTestUtil.startPerformanceTest("block insert over a large buffer", 5000) {
+      configureByText(c + LINE.repeat(LINE_COUNT))
+      typeText(parseKeys("<C-V>", "${LINE_COUNT - 1}j", "I", "// ", "<Esc>"))
+      assertState(("// $LINE").repeat(LINE_COUNT))
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test block append to line ends`() {
+    PlatformTestUtil.startPerformanceTest("block append over a large buffer", 5000) {
+      configureByText(c + LINE.repeat(LINE_COUNT))
+      typeText(parseKeys("<C-V>", "${LINE_COUNT - 1}j", "$", "A", " //", "<Esc>"))
+      assertState(LINE.replace("\n", " //\n").repeat(LINE_COUNT))
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test block replace`() {
+    PlatformTestUtil.startPerformanceTest("block replace over a large buffer", 5000) {
+      configureByText(c + LINE.repeat(LINE_COUNT))
+      typeText(parseKeys("<C-V>", "${LINE_COUNT - 1}j", "2l", "rx"))
+      assertState(("xxx" + LINE.substring(3)).repeat(LINE_COUNT))
+    }.attempts(1).assertTiming()
+  }
+
+  companion object {
+    private const val LINE = "foo.bar(baz, qux);\n"
+    private const val LINE_COUNT = 10_000
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.longrunning
+
+import com.intellij.testFramework.PlatformTestUtil
+import com.maddyhome.idea.vim.helper.StringHelper.parseKeys
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+/**
+ * Word motions over a multi-megabyte buffer. Each line has 8 words: `foo . bar ( baz , qux );`
+ *
+ * The camel hump motions and the variable segment text objects use lines with 7 humps:
+ *   `foo Bar . baz Qux ( HTML Parser 2 );`
+ */
+class WordMotionPerformanceTest : VimTestCase() {
+  fun `test next word motion`() {
+    PlatformTestUtil.startPerformanceTest("w over a large buffer", 5000) {
+      configureByText(c + LINE.repeat(LINE_COUNT))
+      typeText(parseKeys("${WORDS_PER_LINE * (LINE_COUNT - 1)}w"))
+      assertOffset(LINE.length * (LINE_COUNT - 1))
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test word end motion`() {
+    PlatformTestUtil.startPerformanceTest("e over a large buffer", 5000) {
+      configureByText(c + LINE.repeat(LINE_COUNT))
+      typeText(parseKeys("${WORDS_PER_LINE * (LINE_COUNT - 1) + 1}e"))
+      assertOffset(LINE.length * (LINE_COUNT - 1) + 2)
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test next camel hump motion`() {
+    PlatformTestUtil.startPerformanceTest("[w over a large buffer", 5000) {
+      configureByText(c + CAMEL_LINE.repeat(LINE_COUNT))
+      typeText(parseKeys("${HUMPS_PER_LINE * (LINE_COUNT - 1)}[w"))
+      assertOffset(CAMEL_LINE.length * (LINE_COUNT - 1))
+    }.attempts(1).assertTiming()
+  }
+
+  fun `test previous camel hump motion`() {
+    PlatformTestUtil.startPerformanceTest("[b over a large buffer", 5000) {
+      configureByText(CAMEL_LINE.repeat(LINE_COUNT - 1) + c + CAMEL_LINE)
+      typeText(parseKeys("${HUMPS_PER_LINE * (LINE_COUNT - 1)}[b"))
+      assertOffset(0)
+    }.attempts(1).assertTiming()
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.PLUGIN)
+  fun `test variable segment text object with a large count`() {
+    enableExtensions("textobj-variable-segment")
+    PlatformTestUtil.startPerformanceTest("d{count}iv over a long identifier", 5000) {
+      configureByText(c + "fooBar".repeat(SEGMENTS / 2) + " = 1")
+      typeText(parseKeys("d${SEGMENTS}iv"))
+      assertState(" = 1")
+    }.attempts(1).assertTiming()
+  }
+
+  companion object {
+    private const val LINE = "foo.bar(baz, qux);\n"
+    private const val WORDS_PER_LINE = 8
+    private const val LINE_COUNT = 200_000
+
+    private const val CAMEL_LINE = "fooBar.bazQux(HTMLParser2);\n"
+    private const val HUMPS_PER_LINE = 7
+    private const val SEGMENTS = 200_000
+  }
+}
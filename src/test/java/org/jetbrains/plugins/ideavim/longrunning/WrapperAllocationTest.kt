@@ -0,0 +1,51 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.longrunning
+
+import com.maddyhome.idea.vim.newapi.vim
+import com.sun.management.ThreadMXBean
+import org.jetbrains.plugins.ideavim.VimTestCase
+import java.lang.management.ManagementFactory
+
+/**
+ * Allocations of the editor and caret wrappers. Measured with the thread allocation counter, so the results depend
+ *   on the JVM and are checked only with the long-running tests.
+ */
+class WrapperAllocationTest : VimTestCase() {
+  fun `test single caret access doesn't allocate`() {
+    configureByText("${c}one two")
+    val editor = myFixture.editor
+    val threadBean = ManagementFactory.getThreadMXBean() as ThreadMXBean
+    var validCarets = 0
+    // Warm up the code paths, so only the steady state is measured
+    repeat(ITERATIONS) { if (editor.vim.carets().first().isValid && editor.vim.primaryCaret().isValid) validCarets++ }
+
+    val before = threadBean.getThreadAllocatedBytes(Thread.currentThread().id)
+    repeat(ITERATIONS) { if (editor.vim.carets().first().isValid && editor.vim.primaryCaret().isValid) validCarets++ }
+    val allocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().id) - before
+
+    assertEquals(ITERATIONS * 2, validCarets)
+    // A wrapper per call would take at least 16 bytes per iteration
+    assertTrue("Allocated $allocated bytes", allocated < ITERATIONS * 4L)
+  }
+
+  companion object {
+    private const val ITERATIONS = 100_000
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.jetbrains.plugins.ideavim.option
+
+import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.newapi.vim
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimInt
+import com.maddyhome.idea.vim.vimscript.model.options.OptionHandles
+import junit.framework.TestCase
+import org.jetbrains.plugins.ideavim.VimTestCase
+
+class OptionHandleTest : VimTestCase() {
+  fun `test handle reads global value`() {
+    configureByText("\n")
+    TestCase.assertEquals(0, OptionHandles.scrolloff.get(null))
+    TestCase.assertTrue(OptionHandles.wrapscan.isSet(null))
+    TestCase.assertEquals("@,48-57,_", OptionHandles.iskeyword.get(null))
+
+    enterCommand("set so=5 nows isk+=-")
+
+    TestCase.assertEquals(5, OptionHandles.scrolloff.get(null))
+    TestCase.assertFalse(OptionHandles.wrapscan.isSet(null))
+    TestCase.assertEquals("@,48-57,_,-", OptionHandles.iskeyword.get(null))
+  }
+
+  fun `test handle reads local value`() {
+    configureByText("\n")
+    val editor = myFixture.editor.vim
+    enterCommand("set so=3")
+    VimPlugin.getOptionService().setOptionValue(OptionScope.LOCAL(editor), OptionConstants.scrolloffName, VimInt(7))
+
+    TestCase.assertEquals(7, OptionHandles.scrolloff.get(editor))
+    TestCase.assertEquals(3, OptionHandles.scrolloff.get(null))
+    TestCase.assertEquals(0, OptionHandles.sidescrolloff.get(editor))
+  }
+
+  fun `test handle reads default value after reset`() {
+    configureByText("\n")
+    enterCommand("set hi=10")
+    TestCase.assertEquals(10, OptionHandles.history.get(null))
+
+    VimPlugin.getOptionService().resetAllOptions()
+
+    TestCase.assertEquals(50, OptionHandles.history.get(null))
+  }
+}
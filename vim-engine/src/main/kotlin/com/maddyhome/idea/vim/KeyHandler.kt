@@ -36,7 +36,9 @@ import com.maddyhome.idea.vim.common.DigraphResult
 import com.maddyhome.idea.vim.common.MappingMode
 import com.maddyhome.idea.vim.common.Node
 import com.maddyhome.idea.vim.common.argumentCaptured
+import com.maddyhome.idea.vim.diagnostic.TraceCategory
 import com.maddyhome.idea.vim.diagnostic.VimLogger
+import com.maddyhome.idea.vim.diagnostic.VimTracer
 import com.maddyhome.idea.vim.diagnostic.debug
 import com.maddyhome.idea.vim.diagnostic.trace
 import com.maddyhome.idea.vim.diagnostic.vimLogger
@@ -63,6 +65,12 @@ class KeyHandler {
 
   private var handleKeyRecursionCount = 0
 
+  /**
+   * Mappings feed their keys back into [handleKey], so only the outermost call is traced. Otherwise the time spent
+   *   on a mapped key would be counted once for the typed key and once more for every key of the mapping.
+   */
+  private var tracedKeyDepth = 0
+
   /**
    * This is the main key handler for the Vim plugin. Every keystroke not handled directly by Idea is sent here for
    * processing.
@@ -72,7 +80,18 @@ class KeyHandler {
    * @param context The data context
    */
   fun handleKey(editor: VimEditor, key: KeyStroke, context: ExecutionContext) {
-    handleKey(editor, key, context, allowKeyMappings = true, mappingCompleted = false)
+    if (tracedKeyDepth > 0) {
+      handleKey(editor, key, context, allowKeyMappings = true, mappingCompleted = false)
+      return
+    }
+    tracedKeyDepth++
+    try {
+      VimTracer.trace(TraceCategory.KEY, "handleKey") {
+        handleKey(editor, key, context, allowKeyMappings = true, mappingCompleted = false)
+      }
+    } finally {
+      tracedKeyDepth--
+    }
   }
 
   /**
@@ -123,7 +142,10 @@ class KeyHandler {
     handleKeyRecursionCount++
     try {
       LOG.trace("Start key processing...")
-      if (!allowKeyMappings || !handleKeyMapping(editor, key, context, mappingCompleted)) {
+      val mappingHandled = allowKeyMappings && VimTracer.trace(TraceCategory.MAPPING, "handleKeyMapping") {
+        handleKeyMapping(editor, key, context, mappingCompleted)
+      }
+      if (!mappingHandled) {
         LOG.trace("Mappings processed, continue processing key.")
         if (isCommandCountKey(chKey, editorState)) {
           commandBuilder.addCountCharacter(key)
@@ -862,7 +884,9 @@ class KeyHandler {
       if (register != null) {
         injector.registerGroup.selectRegister(register)
       }
-      injector.actionExecutor.executeVimAction(editor, cmd.action, context, operatorArguments)
+      VimTracer.trace(TraceCategory.ACTION, cmd.action.id) {
+        injector.actionExecutor.executeVimAction(editor, cmd.action, context, operatorArguments)
+      }
       if (editorState.mode === CommandState.Mode.INSERT || editorState.mode === CommandState.Mode.REPLACE) {
         injector.changeGroup.processCommand(editor, cmd)
       }
@@ -330,7 +330,10 @@ object CommonStringHelper {
     return null
   }
 
-  private fun parseSpecialKey(s: String, modifiers: Int): KeyStroke? {
+  /**
+   * Parses the name of a special key without the angle brackets, e.g. `C-W` or `Esc`
+   */
+  fun parseSpecialKey(s: String, modifiers: Int = 0): KeyStroke? {
     val lower = s.lowercase(Locale.getDefault())
     val keyCode = getVimKeyName(lower)
     val typedChar = getVimTypedKeyName(lower)
@@ -0,0 +1,86 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.diagnostic
+
+import kotlin.math.ceil
+
+/**
+ * Histogram of durations in nanoseconds.
+ *
+ * Each power of two is split into [SUB_BUCKETS] buckets, so a percentile is reported with an error of at most 1/8
+ *   of its value. The histogram takes a fixed amount of memory, and recording a value costs a few bit operations.
+ */
+class LatencyHistogram {
+  private val counts = LongArray(BUCKET_COUNT)
+
+  var count: Long = 0
+    private set
+
+  var total: Long = 0
+    private set
+
+  var max: Long = 0
+    private set
+
+  val mean: Long
+    get() = if (count == 0L) 0 else total / count
+
+  fun record(nanos: Long) {
+    val value = nanos.coerceAtLeast(0)
+    counts[bucketIndex(value)]++
+    count++
+    total += value
+    if (value > max) max = value
+  }
+
+  /**
+   * Returns the value below which [percentile] percent of the recorded values fall. The value is the upper bound
+   *   of its bucket, but never more than [max].
+   */
+  fun percentile(percentile: Double): Long {
+    if (count == 0L) return 0
+    val rank = ceil(percentile / 100 * count).toLong().coerceIn(1, count)
+    var seen = 0L
+    for (i in counts.indices) {
+      seen += counts[i]
+      if (seen >= rank) return minOf(bucketUpperBound(i), max)
+    }
+    return max
+  }
+
+  companion object {
+    private const val SUB_BUCKET_BITS = 3
+    private const val SUB_BUCKETS = 1 shl SUB_BUCKET_BITS
+    private const val BUCKET_COUNT = (Long.SIZE_BITS - SUB_BUCKET_BITS) * SUB_BUCKETS
+
+    private fun bucketIndex(value: Long): Int {
+      if (value < SUB_BUCKETS) return value.toInt()
+      val shift = Long.SIZE_BITS - 1 - java.lang.Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS
+      val subBucket = (value ushr shift).toInt() and (SUB_BUCKETS - 1)
+      return (shift + 1) * SUB_BUCKETS + subBucket
+    }
+
+    private fun bucketUpperBound(index: Int): Long {
+      if (index < SUB_BUCKETS) return index.toLong()
+      val shift = index / SUB_BUCKETS - 1
+      val lowerBound = (SUB_BUCKETS + index % SUB_BUCKETS).toLong() shl shift
+      return lowerBound + (1L shl shift) - 1
+    }
+  }
+}
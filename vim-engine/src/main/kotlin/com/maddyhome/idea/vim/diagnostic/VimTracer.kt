@@ -0,0 +1,133 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.diagnostic
+
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.options.OptionChangeListener
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
+import java.util.EnumMap
+
+enum class TraceCategory(val title: String) {
+  KEY("Key handling"),
+  MAPPING("Mapping resolution"),
+  ACTION("Action execution"),
+  EX_PARSE("Ex parsing"),
+  EX_COMMAND("Ex command execution"),
+  REGEX_COMPILE("Regexp compilation"),
+  REGEX_EXEC("Regexp matching"),
+  HIGHLIGHT("Search highlights"),
+}
+
+/**
+ * Measures the time spent on the hot paths: key handling, mappings, actions, ex commands, regexps and search
+ *   highlights.
+ *
+ * Tracing is turned on with the `ideatracetime` option or with `:ideaperf on`. The durations are collected into
+ *   a [LatencyHistogram] per category and id, see [report]. When tracing is off, a span costs a single field read,
+ *   so the spans are kept in the production code.
+ */
+object VimTracer {
+  @JvmStatic
+  var isEnabled: Boolean = false
+
+  private val histograms = EnumMap<TraceCategory, MutableMap<String, LatencyHistogram>>(TraceCategory::class.java)
+
+  inline fun <T> trace(category: TraceCategory, id: String, block: () -> T): T {
+    if (!isEnabled) return block()
+    val startTime = System.nanoTime()
+    try {
+      return block()
+    } finally {
+      record(category, id, System.nanoTime() - startTime)
+    }
+  }
+
+  /**
+   * Returned by [start] when tracing is off. [System.nanoTime] may return any value, including 0 and negative ones,
+   *   so the sentinel is the one value that a real start time is never expected to have.
+   */
+  const val NOT_STARTED: Long = Long.MIN_VALUE
+
+  /**
+   * Starts a span in Java code, where [trace] can't be inlined.
+   *
+   * @return the start time to pass to [stop], or [NOT_STARTED] if tracing is off
+   */
+  @JvmStatic
+  fun start(): Long = if (isEnabled) System.nanoTime() else NOT_STARTED
+
+  @JvmStatic
+  fun stop(category: TraceCategory, id: String, startTime: Long) {
+    if (startTime == NOT_STARTED || !isEnabled) return
+    record(category, id, System.nanoTime() - startTime)
+  }
+
+  @JvmStatic
+  @Synchronized
+  fun record(category: TraceCategory, id: String, nanos: Long) {
+    histograms.getOrPut(category) { HashMap() }.getOrPut(id) { LatencyHistogram() }.record(nanos)
+  }
+
+  @Synchronized
+  fun reset() {
+    histograms.clear()
+  }
+
+  @Synchronized
+  fun isEmpty(): Boolean = histograms.isEmpty()
+
+  /**
+   * Returns a table of the spans grouped by category. The ids that took the most time in total go first.
+   */
+  @Synchronized
+  fun report(): String = buildString {
+    append(ROW_FORMAT.format("Span", "Count", "Mean", "p50", "p99", "Max"))
+    for ((category, byId) in histograms) {
+      append(category.title).append('\n')
+      for ((id, histogram) in byId.entries.sortedByDescending { it.value.total }) {
+        append(
+          ROW_FORMAT.format(
+            "  $id",
+            histogram.count.toString(),
+            formatNanos(histogram.mean),
+            formatNanos(histogram.percentile(50.0)),
+            formatNanos(histogram.percentile(99.0)),
+            formatNanos(histogram.max),
+          )
+        )
+      }
+    }
+  }
+
+  private fun formatNanos(nanos: Long): String = when {
+    nanos < 10_000 -> "$nanos ns"
+    nanos < 10_000_000 -> "${nanos / 1_000} us"
+    else -> "${nanos / 1_000_000} ms"
+  }
+
+  private const val ROW_FORMAT = "%-40s %8s %10s %10s %10s %10s\n"
+
+  object TraceTimeOptionChangeListener : OptionChangeListener<VimDataType> {
+    override fun processGlobalValueChange(oldValue: VimDataType?) {
+      isEnabled = injector.optionService.isSet(OptionScope.GLOBAL, OptionConstants.ideatracetimeName)
+    }
+  }
+}
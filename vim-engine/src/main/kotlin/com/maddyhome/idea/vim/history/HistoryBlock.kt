@@ -1,40 +1,102 @@
 package com.maddyhome.idea.vim.history
 
-import com.maddyhome.idea.vim.api.injector
-import com.maddyhome.idea.vim.options.OptionConstants
-import com.maddyhome.idea.vim.options.OptionScope
-import com.maddyhome.idea.vim.vimscript.model.datatypes.VimInt
+import java.util.TreeMap
 
-class HistoryBlock {
-  private val entries: MutableList<HistoryEntry> = ArrayList()
+/**
+ * History entries of a single kind (commands, searches, etc.), the oldest entry goes first.
+ *
+ * Entries are kept in a linked list, so dropping the oldest entry or moving a repeated entry to the end doesn't
+ *   shift the others. The entry with the same text is found through a hash index, and the entries starting with
+ *   a prefix through a sorted index. Both indexes are updated on every add, eviction and removal.
+ */
+class HistoryBlock(maxLength: Int = DEFAULT_MAX_LENGTH) {
+  private class Node(val entry: HistoryEntry) {
+    var prev: Node? = null
+    var next: Node? = null
+  }
+
+  private var first: Node? = null
+  private var last: Node? = null
+  private var size = 0
+  private val byText = HashMap<String, Node>()
+  private val sortedTexts = TreeMap<String, Node>()
 
   private var counter = 0
 
+  /**
+   * Maximum number of entries to keep. The oldest entries are dropped if there are more of them.
+   */
+  var maxLength: Int = maxLength.coerceAtLeast(0)
+    set(value) {
+      field = value.coerceAtLeast(0)
+      while (size > field) remove(first!!)
+    }
+
   fun addEntry(text: String) {
-    for (i in entries.indices) {
-      val entry = entries[i]
-      if (text == entry.entry) {
-        entries.removeAt(i)
-        break
-      }
+    counter++
+    byText[text]?.let { remove(it) }
+    if (maxLength == 0) return
+
+    if (size == maxLength) remove(first!!)
+
+    val node = Node(HistoryEntry(counter, text))
+    node.prev = last
+    last?.next = node
+    last = node
+    if (first == null) first = node
+    size++
+    byText[text] = node
+    sortedTexts[text] = node
+  }
+
+  /**
+   * Returns the entries from the oldest to the newest
+   */
+  fun getEntries(): List<HistoryEntry> {
+    val res = ArrayList<HistoryEntry>(size)
+    var node = first
+    while (node != null) {
+      res += node.entry
+      node = node.next
     }
-    entries.add(HistoryEntry(++counter, text))
-    if (entries.size > maxLength()) {
-      entries.removeAt(0)
+    return res
+  }
+
+  /**
+   * Finds the closest entry starting with [prefix] that is older (if [older] is true) or newer than the entry with
+   *   the number [number].
+   *
+   * Only the entries with this prefix are checked, they are found in the sorted index.
+   *
+   * @return the found entry or null if there is no such entry
+   */
+  fun findEntryWithPrefix(prefix: String, number: Int, older: Boolean): HistoryEntry? {
+    var found: HistoryEntry? = null
+    for ((text, node) in sortedTexts.tailMap(prefix, true)) {
+      if (!text.startsWith(prefix)) break
+      val candidate = node.entry
+      if (older) {
+        if (candidate.number < number && (found == null || candidate.number > found.number)) found = candidate
+      } else {
+        if (candidate.number > number && (found == null || candidate.number < found.number)) found = candidate
+      }
     }
+    return found
   }
 
-  fun getEntries(): List<HistoryEntry> {
-    return entries
+  private fun remove(node: Node) {
+    val prev = node.prev
+    val next = node.next
+    if (prev == null) first = next else prev.next = next
+    if (next == null) last = prev else next.prev = prev
+    node.prev = null
+    node.next = null
+    size--
+    byText.remove(node.entry.entry)
+    sortedTexts.remove(node.entry.entry)
   }
 
   companion object {
-    private fun maxLength(): Int {
-      return (injector.optionService
-        .getOptionValue(
-          OptionScope.GLOBAL, OptionConstants.historyName,
-          OptionConstants.historyName
-        ) as VimInt).value
-    }
+    const val DEFAULT_MAX_LENGTH = 50
   }
-}
\ No newline at end of file
+}
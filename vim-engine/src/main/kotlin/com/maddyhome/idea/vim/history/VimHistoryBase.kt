@@ -6,6 +6,15 @@ import com.maddyhome.idea.vim.diagnostic.vimLogger
 open class VimHistoryBase : VimHistory {
   val histories: MutableMap<String, HistoryBlock> = HashMap()
 
+  /**
+   * Maximum number of entries in each history. Updated from the 'history' option.
+   */
+  var maxLength: Int = HistoryBlock.DEFAULT_MAX_LENGTH
+    set(value) {
+      field = value
+      histories.values.forEach { it.maxLength = value }
+    }
+
   override fun addEntry(key: String, text: String) {
     logger.debug { "Add entry '$text' to $key" }
 
@@ -19,7 +28,6 @@ open class VimHistoryBase : VimHistory {
     val block = blocks(key)
 
     val entries = block.getEntries()
-    val res = ArrayList<HistoryEntry>()
     if (myFirst < 0) {
       myFirst = if (-myFirst > entries.size) {
         Integer.MAX_VALUE
@@ -41,17 +49,24 @@ open class VimHistoryBase : VimHistory {
 
     logger.debug { "first=$myFirst\nlast=$myLast" }
 
-    for (entry in entries) {
-      if (entry.number in myFirst..myLast) {
-        res.add(entry)
-      }
-    }
+    if (myFirst > myLast) return emptyList()
+
+    // Entry numbers grow with the index, so the range is found with the binary search
+    val fromIndex = entries.binarySearchBy(myFirst) { it.number }.let { if (it < 0) -it - 1 else it }
+    val toIndex = entries.binarySearchBy(myLast) { it.number }.let { if (it < 0) -it - 1 else it + 1 }
+    return if (fromIndex < toIndex) entries.subList(fromIndex, toIndex) else emptyList()
+  }
 
-    return res
+  /**
+   * Finds the closest history entry starting with [prefix] that is older (if [older] is true) or newer than the entry
+   *   with the number [number]. Used for the history recall in the command line.
+   */
+  fun findEntryWithPrefix(key: String, prefix: String, number: Int, older: Boolean): HistoryEntry? {
+    return blocks(key).findEntryWithPrefix(prefix, number, older)
   }
 
   private fun blocks(key: String): HistoryBlock {
-    return histories.getOrPut(key) { HistoryBlock() }
+    return histories.getOrPut(key) { HistoryBlock(maxLength) }
   }
 
   companion object {
@@ -0,0 +1,195 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.mark
+
+/**
+ * Fixed capacity list of jumps, the oldest jump goes first.
+ *
+ * Jumps are stored in a ring buffer, so dropping the oldest jump from a full list doesn't shift the others.
+ * Only one jump per line is kept: the jump to the same line of the same file is found with an index
+ *   instead of scanning the whole list. Removing that jump leaves a hole in the buffer. A Fenwick tree counts
+ *   the jumps in the buffer slots, so a jump is found by its index without squeezing the holes out. The holes
+ *   are squeezed out only when a jump is added to a full buffer.
+ */
+class JumpList(capacity: Int) : AbstractList<Jump>() {
+  private var buffer = arrayOfNulls<Jump>(capacity)
+  private var head = 0
+
+  /**
+   * Number of the buffer slots from [head] in use, including the holes
+   */
+  private var used = 0
+  private var count = 0
+
+  /**
+   * Fenwick tree over the buffer slots, 1 for a slot with a jump and 0 for an empty slot
+   */
+  private var occupied = IntArray(capacity + 1)
+
+  /**
+   * Positions of the jumps in the index are absolute: the slot of the jump is `position - removedFromHead`
+   *   slots after [head]. This way dropping the oldest jump doesn't require updating the index.
+   */
+  private var removedFromHead = 0L
+  private val positions = HashMap<JumpKey, Long>()
+
+  override val size: Int
+    get() = count
+
+  var capacity: Int
+    get() = buffer.size
+    set(value) {
+      require(value > 0) { "Jump list capacity should be positive: $value" }
+      while (count > value) removeFirst()
+      rebuild(value)
+    }
+
+  override fun get(index: Int): Jump {
+    if (index < 0 || index >= count) throw IndexOutOfBoundsException("Index: $index, Size: $count")
+    if (count == used) return buffer[slot(index)]!!
+    // The jumps in the slots before the head are the ones that wrapped around to the end of the list
+    val beforeHead = countBefore(head)
+    val fromHead = count - beforeHead
+    val physical = if (index < fromHead) select(beforeHead + index) else select(index - fromHead)
+    return buffer[physical]!!
+  }
+
+  /**
+   * Adds the jump to the end of the list. The jump to the same line is removed from the list,
+   *   the oldest jump is dropped if the list is full.
+   */
+  fun push(jump: Jump) {
+    val key = JumpKey(jump.filepath, jump.logicalLine)
+    val existing = positions.remove(key)
+    if (existing != null) {
+      removeAt((existing - removedFromHead).toInt())
+    }
+    if (used == buffer.size) {
+      if (count < used) rebuild(buffer.size) else removeFirst()
+    }
+    val slot = slot(used)
+    buffer[slot] = jump
+    addOccupied(slot, 1)
+    positions[key] = removedFromHead + used
+    used++
+    count++
+  }
+
+  fun reset() {
+    buffer.fill(null)
+    occupied.fill(0)
+    head = 0
+    used = 0
+    count = 0
+    removedFromHead = 0
+    positions.clear()
+  }
+
+  private fun removeFirst() {
+    val jump = buffer[head]!!
+    positions.remove(JumpKey(jump.filepath, jump.logicalLine))
+    buffer[head] = null
+    addOccupied(head, -1)
+    count--
+    trimHead()
+  }
+
+  /**
+   * Leaves a hole in place of the jump in the slot [relativeSlot]. The holes at the ends of the list are dropped
+   *   right away.
+   */
+  private fun removeAt(relativeSlot: Int) {
+    val slot = slot(relativeSlot)
+    buffer[slot] = null
+    addOccupied(slot, -1)
+    count--
+    trimHead()
+    while (used > 0 && buffer[slot(used - 1)] == null) used--
+  }
+
+  private fun trimHead() {
+    while (used > 0 && buffer[head] == null) {
+      head = (head + 1) % buffer.size
+      used--
+      removedFromHead++
+    }
+  }
+
+  /**
+   * Moves the jumps to the start of a buffer of [capacity] slots without the holes between them
+   */
+  private fun rebuild(capacity: Int) {
+    val newBuffer = arrayOfNulls<Jump>(capacity)
+    var next = 0
+    for (i in 0 until used) {
+      val jump = buffer[slot(i)] ?: continue
+      newBuffer[next] = jump
+      positions[JumpKey(jump.filepath, jump.logicalLine)] = removedFromHead + next
+      next++
+    }
+    buffer = newBuffer
+    head = 0
+    used = count
+    occupied = IntArray(capacity + 1)
+    for (i in 0 until count) addOccupied(i, 1)
+  }
+
+  private fun slot(index: Int): Int = (head + index) % buffer.size
+
+  private fun addOccupied(slot: Int, delta: Int) {
+    var i = slot + 1
+    while (i < occupied.size) {
+      occupied[i] += delta
+      i += i and -i
+    }
+  }
+
+  /**
+   * Number of the jumps in the slots before [slot]
+   */
+  private fun countBefore(slot: Int): Int {
+    var i = slot
+    var res = 0
+    while (i > 0) {
+      res += occupied[i]
+      i -= i and -i
+    }
+    return res
+  }
+
+  /**
+   * Slot of the jump with the index [k] counting the jumps from the start of the buffer
+   */
+  private fun select(k: Int): Int {
+    var position = 0
+    var remaining = k + 1
+    var step = Integer.highestOneBit(occupied.size - 1)
+    while (step > 0) {
+      val next = position + step
+      if (next < occupied.size && occupied[next] < remaining) {
+        position = next
+        remaining -= occupied[next]
+      }
+      step = step shr 1
+    }
+    return position
+  }
+
+  private data class JumpKey(val filepath: String, val line: Int)
+}
@@ -3,15 +3,29 @@ package com.maddyhome.idea.vim.mark
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimString
 import java.util.*
 
 abstract class VimMarkGroupBase : VimMarkGroup {
+  /**
+   * Marks of the files, the least recently used file goes first.
+   * The number of files is limited by the `'` item of the 'viminfo' option.
+   */
   @JvmField
-  protected val fileMarks = HashMap<String, FileMarks<Char, Mark>>()
+  protected val fileMarks: LinkedHashMap<String, FileMarks<Char, Mark>> =
+    object : LinkedHashMap<String, FileMarks<Char, Mark>>(16, 0.75f, true) {
+      override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, FileMarks<Char, Mark>>?): Boolean {
+        if (size <= maxFileMarksCount()) return false
+        if (eldest != null) releaseFileMarks(eldest.value)
+        return true
+      }
+    }
   @JvmField
   protected val globalMarks = HashMap<Char, Mark>()
   @JvmField
-  protected val jumps: MutableList<Jump> = ArrayList<Jump>()
+  protected val jumps = JumpList(SAVE_JUMP_COUNT)
   @JvmField
   protected var jumpSpot = -1
 
@@ -30,8 +44,47 @@ abstract class VimMarkGroupBase : VimMarkGroup {
 
   companion object {
     const val SAVE_JUMP_COUNT = 100
+    const val DEFAULT_FILE_MARKS_COUNT = 100
+  }
+
+  /**
+   * Maximum number of files to remember the marks for. Taken from the `'` item of the 'viminfo' option.
+   */
+  protected fun maxFileMarksCount(): Int {
+    val viminfo = (injector.optionService.getOptionValue(OptionScope.GLOBAL, OptionConstants.viminfoName) as VimString).value
+    for (item in viminfo.split(",")) {
+      if (item.startsWith("'")) {
+        return item.substring(1).toIntOrNull()?.coerceAtLeast(1) ?: DEFAULT_FILE_MARKS_COUNT
+      }
+    }
+    return DEFAULT_FILE_MARKS_COUNT
+  }
+
+  /**
+   * Clears the marks of a file that is dropped from the marks store, so they release the resources
+   *   they hold (e.g. document markers). Global marks are still reachable from [globalMarks] and are kept.
+   */
+  private fun releaseFileMarks(marks: FileMarks<Char, Mark>) {
+    for (mark in marks.values) {
+      if (globalMarks[mark.key] !== mark && !isSystemMark(mark)) {
+        mark.clear()
+      }
+    }
   }
 
+  /**
+   * Creates a file or global mark at the given position.
+   * Implementations may return a mark that follows the document changes by itself.
+   */
+  protected open fun createMark(editor: VimEditor, ch: Char, line: Int, col: Int, path: String): Mark {
+    return VimMark(ch, line, col, path, editor.extractProtocol())
+  }
+
+  /**
+   * System marks are shared with the IDE (e.g. bookmarks) and must not be cleared when overwritten
+   */
+  protected open fun isSystemMark(mark: Mark): Boolean = false
+
   override fun addJump(editor: VimEditor, reset: Boolean) {
     addJump(editor, editor.primaryCaret().offset.point, reset)
   }
@@ -40,27 +93,22 @@ abstract class VimMarkGroupBase : VimMarkGroup {
     val path = editor.getPath() ?: return
 
     val lp = editor.offsetToLogicalPosition(offset)
-    val jump = Jump(lp.line, lp.column, path)
-    val filename = jump.filepath
-
-    for (i in jumps.indices) {
-      val j = jumps[i]
-      if (filename == j.filepath && j.logicalLine == jump.logicalLine) {
-        jumps.removeAt(i)
-        break
-      }
-    }
-
-    jumps.add(jump)
+    jumps.push(Jump(lp.line, lp.column, path))
 
     if (reset) {
       jumpSpot = -1
     } else {
       jumpSpot++
     }
+  }
 
-    if (jumps.size > SAVE_JUMP_COUNT) {
-      jumps.removeAt(0)
+  /**
+   * Sets the maximum number of jumps to remember. The oldest jumps are dropped if there are more of them.
+   */
+  fun setJumpListSize(size: Int) {
+    jumps.capacity = size
+    if (jumpSpot >= jumps.size) {
+      jumpSpot = jumps.size - 1
     }
   }
 
@@ -169,18 +217,21 @@ abstract class VimMarkGroupBase : VimMarkGroup {
     if (VimMarkConstants.FILE_MARKS.indexOf(myCh) >= 0) {
       val fmarks = getFileMarks(path)
 
-      val mark = VimMark(myCh, lp.line, lp.column, path, editor.extractProtocol())
-      fmarks[myCh] = mark
+      val mark = createMark(editor, myCh, lp.line, lp.column, path)
+      val oldMark = fmarks.put(myCh, mark)
+      if (oldMark != null && !isSystemMark(oldMark)) {
+        oldMark.clear()
+      }
     } else if (VimMarkConstants.GLOBAL_MARKS.indexOf(myCh) >= 0) {
       val fmarks = getFileMarks(path)
 
       var mark = createSystemMark(myCh, lp.line, lp.column, editor)
       if (mark == null) {
-        mark = VimMark(myCh, lp.line, lp.column, path, editor.extractProtocol())
+        mark = createMark(editor, myCh, lp.line, lp.column, path)
       }
       fmarks[myCh] = mark
       val oldMark = globalMarks.put(myCh, mark)
-      if (oldMark is VimMark) {
+      if (oldMark != null && oldMark !== mark && !isSystemMark(oldMark)) {
         oldMark.clear()
       }
     }// Global marks get set to both the file and the global list of marks
@@ -266,9 +317,11 @@ abstract class VimMarkGroupBase : VimMarkGroup {
   }
 
   override fun resetAllMarks() {
+    fileMarks.values.forEach { releaseFileMarks(it) }
+    globalMarks.values.filterNot { isSystemMark(it) }.forEach { it.clear() }
     globalMarks.clear()
     fileMarks.clear()
-    jumps.clear()
+    jumps.reset()
   }
 
   override fun removeMark(ch: Char, mark: Mark) {
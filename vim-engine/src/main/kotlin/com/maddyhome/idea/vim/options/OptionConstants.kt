@@ -205,5 +205,8 @@ class OptionConstants {
 
     const val ideaglobalmodeName = "ideaglobalmode"
     const val ideaglobalmodeAlias = "ideaglobalmode"
+
+    const val ideajumplistsizeName = "ideajumplistsize"
+    const val ideajumplistsizeAlias = "ideajumplistsize"
   }
 }
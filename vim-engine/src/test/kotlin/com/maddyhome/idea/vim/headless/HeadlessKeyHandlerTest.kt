@@ -0,0 +1,136 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.KeyHandler
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.helper.mode
+import com.maddyhome.idea.vim.register.RegisterConstants.UNNAMED_REGISTER
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class HeadlessKeyHandlerTest {
+  private lateinit var vim: HeadlessVimInjector
+
+  @BeforeEach
+  fun setUp() {
+    vim = HeadlessVimInjector.install()
+  }
+
+  @Test
+  fun `test word motions`() {
+    val editor = vim.createEditor("Hello world, foo_bar baz\n")
+    typeText(editor, "w")
+    assertEquals(6, editor.primaryCaret().offset.point)
+    typeText(editor, "w")
+    assertEquals(11, editor.primaryCaret().offset.point)
+    typeText(editor, "2w")
+    assertEquals(21, editor.primaryCaret().offset.point)
+    typeText(editor, "b")
+    assertEquals(13, editor.primaryCaret().offset.point)
+    typeText(editor, "0W")
+    assertEquals(6, editor.primaryCaret().offset.point)
+    typeText(editor, "0e")
+    assertEquals(4, editor.primaryCaret().offset.point)
+  }
+
+  @Test
+  fun `test line motions`() {
+    val editor = vim.createEditor("one\n  two\nthree")
+    typeText(editor, "j_")
+    assertEquals(6, editor.primaryCaret().offset.point)
+    typeText(editor, "k")
+    assertEquals(2, editor.primaryCaret().offset.point)
+    typeText(editor, "G")
+    assertEquals(10, editor.primaryCaret().offset.point)
+    typeText(editor, "$")
+    assertEquals(14, editor.primaryCaret().offset.point)
+    typeText(editor, "gg")
+    assertEquals(0, editor.primaryCaret().offset.point)
+  }
+
+  @Test
+  fun `test vertical motion keeps the column`() {
+    val editor = vim.createEditor("abcdef\nab\nabcdef")
+    typeText(editor, "4lj")
+    assertEquals(8, editor.primaryCaret().offset.point)
+    typeText(editor, "j")
+    assertEquals(14, editor.primaryCaret().offset.point)
+  }
+
+  @Test
+  fun `test insert text`() {
+    val editor = vim.createEditor("one")
+    typeText(editor, "ixy")
+    assertEquals(CommandState.Mode.INSERT, editor.mode)
+    typeText(editor, "<Esc>")
+    assertEquals("xyone", editor.text().toString())
+    assertEquals(CommandState.Mode.COMMAND, editor.mode)
+    assertEquals(1, editor.primaryCaret().offset.point)
+    typeText(editor, "\$a!<Esc>")
+    assertEquals("xyone!", editor.text().toString())
+    assertEquals(5, editor.primaryCaret().offset.point)
+  }
+
+  @Test
+  fun `test delete characters`() {
+    val editor = vim.createEditor("abcdef")
+    typeText(editor, "2x")
+    assertEquals("cdef", editor.text().toString())
+    assertEquals(0, editor.primaryCaret().offset.point)
+    typeText(editor, "\$x")
+    assertEquals("cde", editor.text().toString())
+    assertEquals(2, editor.primaryCaret().offset.point)
+    assertEquals("f", vim.registerGroup.getRegister(UNNAMED_REGISTER)?.text)
+  }
+
+  @Test
+  fun `test commands with multiple carets`() {
+    val editor = vim.createEditor("one two\none two")
+    editor.addCaret(8)
+    typeText(editor, "wx")
+    assertEquals("one wo\none wo", editor.text().toString())
+    assertEquals(listOf(4, 11), editor.carets().map { it.offset.point })
+    typeText(editor, "iX<Esc>")
+    assertEquals("one Xwo\none Xwo", editor.text().toString())
+  }
+
+  @Test
+  fun `test wrong command indicates error`() {
+    val editor = vim.createEditor("one")
+    typeText(editor, "h")
+    assertTrue(vim.messages.isError())
+    typeText(editor, "l")
+    assertFalse(vim.messages.isError())
+    typeText(editor, "Q")
+    assertTrue(vim.messages.isError())
+    assertEquals(1, editor.primaryCaret().offset.point)
+  }
+
+  private fun typeText(editor: VimEditor, keys: String) {
+    val context = HeadlessExecutionContext(editor)
+    for (key in vim.parser.parseKeys(keys)) {
+      KeyHandler.getInstance().handleKey(editor, key, context)
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.common.VimRange
+import com.maddyhome.idea.vim.common.offset
+import com.maddyhome.idea.vim.register.RegisterConstants.UNNAMED_REGISTER
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class HeadlessVimEditorTest {
+  private lateinit var vim: HeadlessVimInjector
+
+  @BeforeEach
+  fun setUp() {
+    vim = HeadlessVimInjector.install()
+  }
+
+  @Test
+  fun `test document follows random edits`() {
+    val random = Random(42)
+    val expected = StringBuilder("one\ntwo\n\nthree")
+    val document = HeadlessDocument(expected)
+    repeat(2000) {
+      if (expected.isNotEmpty() && random.nextBoolean()) {
+        val start = random.nextInt(expected.length)
+        val end = (start + random.nextInt(8)).coerceAtMost(expected.length)
+        expected.delete(start, end)
+        document.deleteString(start, end)
+      } else {
+        val offset = random.nextInt(expected.length + 1)
+        val text = List(random.nextInt(1, 6)) { "ab\n"[random.nextInt(3)] }.joinToString("")
+        expected.insert(offset, text)
+        document.insertString(offset, text)
+      }
+      assertDocument(expected.toString(), document)
+    }
+  }
+
+  @Test
+  fun `test line count`() {
+    assertEquals(1, HeadlessDocument("").lineCount)
+    assertEquals(1, HeadlessDocument("abc").lineCount)
+    assertEquals(2, HeadlessDocument("abc\n").lineCount)
+    assertEquals(3, HeadlessDocument("\n\n").lineCount)
+  }
+
+  @Test
+  fun `test carets are shifted by edits`() {
+    val editor = vim.createEditor("one\ntwo\nthree\n")
+    val primary = editor.primaryCaret()
+    primary.moveToOffset(5)
+    val secondary = editor.addCaret(10)!!
+
+    editor.insertText(0.offset, "zero\n")
+    assertEquals(10, primary.offset.point)
+    assertEquals(15, secondary.offset.point)
+
+    editor.deleteRange(8.offset, 13.offset)
+    assertEquals(8, primary.offset.point)
+    assertEquals(10, secondary.offset.point)
+  }
+
+  @Test
+  fun `test delete line stores register and change mark`() {
+    val editor = vim.createEditor("one\ntwo\nthree\n")
+    val caret = editor.primaryCaret()
+    caret.moveToOffset(5)
+
+    vim.vimMachine.delete(VimRange.Line.Offsets(5.offset, 5.offset), editor, caret)
+
+    assertEquals("one\nthree\n", editor.text().toString())
+    val register = vim.registerGroup.getRegister(UNNAMED_REGISTER)
+    assertNotNull(register)
+    assertEquals("two\n", register!!.text)
+    assertEquals(1, vim.markGroup.getMark(editor, '.')!!.logicalLine)
+  }
+
+  private fun assertDocument(expected: String, document: HeadlessDocument) {
+    assertEquals(expected, document.charsSequence.toString())
+    val lines = expected.split('\n')
+    assertEquals(lines.size, document.lineCount)
+    var start = 0
+    for ((line, text) in lines.withIndex()) {
+      assertEquals(start, document.getLineStartOffset(line))
+      assertEquals(start + text.length, document.getLineEndOffset(line))
+      assertEquals(line, document.getLineNumber(start + text.length))
+      start += text.length + 1
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.KeyHandler
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.helper.commandState
+import com.maddyhome.idea.vim.helper.mode
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import javax.swing.KeyStroke
+import kotlin.random.Random
+
+/**
+ * The random actions property test of the IDE module for the headless editor.
+ *
+ * JetCheck isn't available to the engine tests, so the scenarios are generated with a fixed seed. The keys are taken
+ *   from the current command trie, with some plain characters to type text and counts. If a scenario fails, the error
+ *   contains its seed and the typed keys.
+ */
+class RandomActionsPropertyTest {
+  private lateinit var vim: HeadlessVimInjector
+
+  @BeforeEach
+  fun setUp() {
+    vim = HeadlessVimInjector.install()
+  }
+
+  @Test
+  fun `test random actions`() {
+    checkScenarios(carets = 1)
+  }
+
+  @Test
+  fun `test random actions with multiple carets`() {
+    checkScenarios(carets = 3)
+  }
+
+  private fun checkScenarios(carets: Int) {
+    repeat(SCENARIOS) { scenario ->
+      val seed = SEED + scenario
+      val random = Random(seed)
+      val editor = vim.createEditor(text)
+      editor.primaryCaret().moveToOffset(randomOffset(editor, random))
+      repeat(carets - 1) { editor.addCaret(randomOffset(editor, random)) }
+
+      val context = HeadlessExecutionContext(editor)
+      val typedKeys = mutableListOf<KeyStroke>()
+      try {
+        repeat(COMMANDS) {
+          val key = nextKey(editor, random)
+          typedKeys.add(key)
+          KeyHandler.getInstance().handleKey(editor, key, context)
+          checkCarets(editor)
+        }
+      } catch (e: Throwable) {
+        throw AssertionError("Scenario with seed $seed failed, keys: $typedKeys", e)
+      }
+    }
+  }
+
+  private fun nextKey(editor: HeadlessVimEditor, random: Random): KeyStroke {
+    val trie = editor.commandState.commandBuilder.getCurrentTrie()
+    if (trie.isEmpty() || random.nextInt(4) == 0) {
+      return KeyStroke.getKeyStroke(TYPED_CHARS[random.nextInt(TYPED_CHARS.length)])
+    }
+    val keys = trie.keys.sortedBy { it.toString() }
+    return keys[random.nextInt(keys.size)]
+  }
+
+  private fun randomOffset(editor: HeadlessVimEditor, random: Random): Int {
+    return vim.engineEditorHelper.normalizeOffset(editor, random.nextInt(editor.document.textLength), false)
+  }
+
+  private fun checkCarets(editor: HeadlessVimEditor) {
+    val offsets = editor.carets().map { it.offset.point }
+    assertEquals(offsets.distinct(), offsets, "Carets at the same offset")
+    for (offset in offsets) {
+      assertTrue(offset in 0..editor.document.textLength, "Caret is out of the document: $offset")
+      if (editor.mode == CommandState.Mode.COMMAND) {
+        val lineStart = editor.lineStartForOffset(offset)
+        val lineEnd = editor.lineEndForOffset(offset)
+        assertTrue(offset < lineEnd || offset == lineStart, "Caret is after the end of line in normal mode: $offset")
+      }
+    }
+  }
+
+  companion object {
+    private const val SEED = 42
+    private const val SCENARIOS = 100
+    private const val COMMANDS = 50
+    private const val TYPED_CHARS = "ab 1"
+
+    private val text = """
+              I found it in a legendary land
+              all rocks and lavender and tufted grass,
+              where it was settled on some sodden sand
+              hard by the torrent of a mountain pass.
+    """.trimIndent()
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+/**
+ * Mutable text with a gap at the last edit position.
+ *
+ * Edits next to each other (typing, repeated deletes) only move the gap boundaries, the text after the gap is moved
+ *   when the edit position changes or the gap is filled up.
+ */
+class GapBuffer(text: CharSequence = "") : CharSequence {
+  private var buffer = CharArray(maxOf(text.length * 2, MIN_CAPACITY))
+  private var gapStart = text.length
+  private var gapEnd = buffer.size
+
+  init {
+    for (i in text.indices) buffer[i] = text[i]
+  }
+
+  override val length: Int
+    get() = buffer.size - (gapEnd - gapStart)
+
+  override fun get(index: Int): Char {
+    if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: $index, Length: $length")
+    return if (index < gapStart) buffer[index] else buffer[index + gapEnd - gapStart]
+  }
+
+  override fun subSequence(startIndex: Int, endIndex: Int): CharSequence = substring(startIndex, endIndex)
+
+  fun substring(startIndex: Int, endIndex: Int): String {
+    checkRange(startIndex, endIndex)
+    val gapLength = gapEnd - gapStart
+    return when {
+      endIndex <= gapStart -> String(buffer, startIndex, endIndex - startIndex)
+      startIndex >= gapStart -> String(buffer, startIndex + gapLength, endIndex - startIndex)
+      else -> {
+        val builder = StringBuilder(endIndex - startIndex)
+        builder.append(buffer, startIndex, gapStart - startIndex)
+        builder.append(buffer, gapEnd, endIndex - gapStart)
+        builder.toString()
+      }
+    }
+  }
+
+  fun insert(offset: Int, text: CharSequence) {
+    checkRange(offset, offset)
+    if (text.isEmpty()) return
+    moveGap(offset)
+    ensureGap(text.length)
+    for (i in text.indices) buffer[gapStart + i] = text[i]
+    gapStart += text.length
+  }
+
+  fun delete(startOffset: Int, endOffset: Int) {
+    checkRange(startOffset, endOffset)
+    if (startOffset == endOffset) return
+    moveGap(startOffset)
+    gapEnd += endOffset - startOffset
+  }
+
+  override fun toString(): String = substring(0, length)
+
+  private fun moveGap(offset: Int) {
+    if (offset < gapStart) {
+      val count = gapStart - offset
+      System.arraycopy(buffer, offset, buffer, gapEnd - count, count)
+      gapStart -= count
+      gapEnd -= count
+    } else if (offset > gapStart) {
+      val count = offset - gapStart
+      System.arraycopy(buffer, gapEnd, buffer, gapStart, count)
+      gapStart += count
+      gapEnd += count
+    }
+  }
+
+  private fun ensureGap(size: Int) {
+    if (gapEnd - gapStart >= size) return
+    val tailLength = buffer.size - gapEnd
+    val newBuffer = CharArray(maxOf(buffer.size * 2, length + size + MIN_CAPACITY))
+    System.arraycopy(buffer, 0, newBuffer, 0, gapStart)
+    System.arraycopy(buffer, gapEnd, newBuffer, newBuffer.size - tailLength, tailLength)
+    gapEnd = newBuffer.size - tailLength
+    buffer = newBuffer
+  }
+
+  private fun checkRange(startOffset: Int, endOffset: Int) {
+    if (startOffset < 0 || endOffset > length || startOffset > endOffset) {
+      throw IndexOutOfBoundsException("Range: $startOffset..$endOffset, Length: $length")
+    }
+  }
+
+  companion object {
+    private const val MIN_CAPACITY = 16
+  }
+}
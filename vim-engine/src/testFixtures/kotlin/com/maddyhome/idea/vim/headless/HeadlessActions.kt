@@ -0,0 +1,178 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimMotionGroupBase
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.Argument
+import com.maddyhome.idea.vim.command.Command
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.command.MotionType
+import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.common.VimRange
+import com.maddyhome.idea.vim.common.including
+import com.maddyhome.idea.vim.handler.Motion
+import com.maddyhome.idea.vim.handler.MotionActionHandler
+import com.maddyhome.idea.vim.handler.VimActionHandler
+import com.maddyhome.idea.vim.handler.toMotion
+import com.maddyhome.idea.vim.handler.toMotionOrError
+import com.maddyhome.idea.vim.helper.commandState
+
+/*
+ * The actions of the IDE module that the headless tests need, written against the engine API. They behave like
+ *   the IDE actions for the plain text, but don't support the IDE features: there is no undo, no repeat of the
+ *   inserted text, no virtual space and no visual mode.
+ */
+
+class HeadlessMotionLeftAction : MotionActionHandler.ForEachCaret() {
+  override val motionType: MotionType = MotionType.EXCLUSIVE
+
+  override fun getOffset(
+    editor: VimEditor,
+    caret: VimCaret,
+    context: ExecutionContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+  ): Motion {
+    return injector.motion.getOffsetOfHorizontalMotion(editor, caret, -operatorArguments.count1, false)
+      .toMotionOrError()
+  }
+}
+
+class HeadlessMotionRightAction : MotionActionHandler.ForEachCaret() {
+  override val motionType: MotionType = MotionType.EXCLUSIVE
+
+  override fun getOffset(
+    editor: VimEditor,
+    caret: VimCaret,
+    context: ExecutionContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+  ): Motion {
+    return injector.motion.getOffsetOfHorizontalMotion(editor, caret, operatorArguments.count1, true)
+      .toMotionOrError()
+  }
+}
+
+class HeadlessMotionFirstColumnAction : MotionActionHandler.ForEachCaret() {
+  override val motionType: MotionType = MotionType.EXCLUSIVE
+
+  override fun getOffset(
+    editor: VimEditor,
+    caret: VimCaret,
+    context: ExecutionContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+  ): Motion {
+    return injector.motion.moveCaretToLineStart(editor, caret.getLine().line).toMotion()
+  }
+}
+
+class HeadlessMotionLastColumnAction : MotionActionHandler.ForEachCaret() {
+  override val motionType: MotionType = MotionType.INCLUSIVE
+
+  override fun getOffset(
+    editor: VimEditor,
+    caret: VimCaret,
+    context: ExecutionContext,
+    argument: Argument?,
+    operatorArguments: OperatorArguments,
+  ): Motion {
+    val line = injector.engineEditorHelper.normalizeLine(editor, caret.getLine().line + operatorArguments.count1 - 1)
+    return injector.motion.moveCaretToLineEnd(editor, line, false).toMotion()
+  }
+
+  override fun postMove(editor: VimEditor, caret: VimCaret, context: ExecutionContext, cmd: Command) {
+    injector.engineEditorHelper.updateLastColumn(caret, VimMotionGroupBase.LAST_COLUMN)
+  }
+}
+
+class HeadlessInsertBeforeCursorAction : VimActionHandler.SingleExecution() {
+  override val type: Command.Type = Command.Type.INSERT
+
+  override fun execute(
+    editor: VimEditor,
+    context: ExecutionContext,
+    cmd: Command,
+    operatorArguments: OperatorArguments,
+  ): Boolean {
+    editor.commandState.pushModes(CommandState.Mode.INSERT, CommandState.SubMode.NONE)
+    return true
+  }
+}
+
+class HeadlessInsertAfterCursorAction : VimActionHandler.SingleExecution() {
+  override val type: Command.Type = Command.Type.INSERT
+
+  override fun execute(
+    editor: VimEditor,
+    context: ExecutionContext,
+    cmd: Command,
+    operatorArguments: OperatorArguments,
+  ): Boolean {
+    editor.forEachCaret { caret ->
+      val offset = caret.offset.point
+      if (offset < editor.lineEndForOffset(offset)) caret.moveToOffset(offset + 1)
+    }
+    editor.commandState.pushModes(CommandState.Mode.INSERT, CommandState.SubMode.NONE)
+    return true
+  }
+}
+
+class HeadlessInsertExitModeAction : VimActionHandler.SingleExecution() {
+  override val type: Command.Type = Command.Type.INSERT
+
+  override fun execute(
+    editor: VimEditor,
+    context: ExecutionContext,
+    cmd: Command,
+    operatorArguments: OperatorArguments,
+  ): Boolean {
+    editor.commandState.popModes()
+    // The caret leaves the inserted text, as in vim
+    editor.forEachCaret { caret ->
+      val offset = caret.offset.point
+      if (offset > editor.lineStartForOffset(offset)) caret.moveToOffset(offset - 1)
+    }
+    return true
+  }
+}
+
+class HeadlessDeleteCharacterRightAction : VimActionHandler.ForEachCaret() {
+  override val type: Command.Type = Command.Type.DELETE
+
+  override fun execute(
+    editor: VimEditor,
+    caret: VimCaret,
+    context: ExecutionContext,
+    cmd: Command,
+    operatorArguments: OperatorArguments,
+  ): Boolean {
+    val start = caret.offset.point
+    val end = minOf(start + operatorArguments.count1, editor.lineEndForOffset(start))
+    if (start >= end) return false
+
+    injector.vimMachine.delete(VimRange.Character.Range(start including end), editor, caret) ?: return false
+    caret.moveToOffset(injector.engineEditorHelper.normalizeOffset(editor, start, false))
+    return true
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+/**
+ * Text of a [HeadlessVimEditor] with an index of the line starts.
+ *
+ * Lines are counted the same way as in the IntelliJ document: the text `"abc\n"` has two lines, the empty text has
+ *   one line. The line end offset doesn't include the new line character.
+ *
+ * The line index doesn't shift all the following line starts on each edit. The starts after the last edited line
+ *   are stored without the pending shift, and the shift is applied when a line before or after them is edited. So
+ *   a sequence of edits on the same line costs the same as a single edit.
+ */
+class HeadlessDocument(text: CharSequence = "") {
+  private val chars = GapBuffer(text)
+
+  private var lineStarts = IntArray(INITIAL_LINE_CAPACITY)
+  private var lines = 0
+
+  /**
+   * The starts of the lines from [shiftFrom] are stored without [pendingShift]
+   */
+  private var shiftFrom = 0
+  private var pendingShift = 0
+
+  init {
+    addLineStart(0)
+    for (i in text.indices) {
+      if (text[i] == '\n') addLineStart(i + 1)
+    }
+    shiftFrom = lines
+  }
+
+  val charsSequence: CharSequence
+    get() = chars
+
+  val textLength: Int
+    get() = chars.length
+
+  val lineCount: Int
+    get() = lines
+
+  fun getText(startOffset: Int, endOffset: Int): String = chars.substring(startOffset, endOffset)
+
+  fun getLineStartOffset(line: Int): Int {
+    checkLine(line)
+    return if (line >= shiftFrom) lineStarts[line] + pendingShift else lineStarts[line]
+  }
+
+  fun getLineEndOffset(line: Int): Int {
+    checkLine(line)
+    return if (line == lines - 1) chars.length else getLineStartOffset(line + 1) - 1
+  }
+
+  fun getLineNumber(offset: Int): Int {
+    if (offset < 0 || offset > chars.length) throw IndexOutOfBoundsException("Offset: $offset, Length: ${chars.length}")
+    var low = 0
+    var high = lines - 1
+    while (low < high) {
+      val mid = (low + high + 1) ushr 1
+      if (getLineStartOffset(mid) <= offset) low = mid else high = mid - 1
+    }
+    return low
+  }
+
+  fun insertString(offset: Int, text: CharSequence) {
+    if (text.isEmpty()) return
+    val line = getLineNumber(offset)
+    chars.insert(offset, text)
+
+    moveShift(line + 1)
+    pendingShift += text.length
+
+    val newLines = text.count { it == '\n' }
+    if (newLines == 0) return
+    insertLineSlots(line + 1, newLines)
+    var slot = line + 1
+    for (i in text.indices) {
+      if (text[i] == '\n') lineStarts[slot++] = offset + i + 1 - pendingShift
+    }
+  }
+
+  fun deleteString(startOffset: Int, endOffset: Int) {
+    if (startOffset == endOffset) return
+    val startLine = getLineNumber(startOffset)
+    val endLine = getLineNumber(endOffset)
+    chars.delete(startOffset, endOffset)
+
+    // The lines starting inside the deleted range are joined to the start line
+    moveShift(endLine + 1)
+    pendingShift -= endOffset - startOffset
+    removeLineSlots(startLine + 1, endLine - startLine)
+  }
+
+  fun setText(text: CharSequence) {
+    deleteString(0, textLength)
+    insertString(0, text)
+  }
+
+  override fun toString(): String = chars.toString()
+
+  private fun moveShift(line: Int) {
+    if (line < shiftFrom) {
+      for (i in line until shiftFrom) lineStarts[i] -= pendingShift
+    } else {
+      for (i in shiftFrom until line) lineStarts[i] += pendingShift
+    }
+    shiftFrom = line
+  }
+
+  private fun addLineStart(offset: Int) {
+    ensureLineCapacity(lines + 1)
+    lineStarts[lines++] = offset
+  }
+
+  private fun insertLineSlots(line: Int, count: Int) {
+    ensureLineCapacity(lines + count)
+    System.arraycopy(lineStarts, line, lineStarts, line + count, lines - line)
+    lines += count
+  }
+
+  private fun removeLineSlots(line: Int, count: Int) {
+    if (count == 0) return
+    System.arraycopy(lineStarts, line + count, lineStarts, line, lines - line - count)
+    lines -= count
+    shiftFrom -= count
+  }
+
+  private fun ensureLineCapacity(capacity: Int) {
+    if (capacity > lineStarts.size) {
+      lineStarts = lineStarts.copyOf(maxOf(capacity, lineStarts.size * 2))
+    }
+  }
+
+  private fun checkLine(line: Int) {
+    if (line < 0 || line >= lines) throw IndexOutOfBoundsException("Line: $line, Line count: $lines")
+  }
+
+  companion object {
+    private const val INITIAL_LINE_CAPACITY = 16
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.EngineEditorHelper
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimLogicalPosition
+import com.maddyhome.idea.vim.api.VimVisualPosition
+import com.maddyhome.idea.vim.common.TextRange
+
+/**
+ * [EngineEditorHelper] for editors without folds and inlays: a visual line is the same as a logical one.
+ *
+ * The methods work the same way as the ones of `EditorHelper` in the IDE.
+ */
+class HeadlessEditorHelper : EngineEditorHelper {
+  override fun normalizeOffset(editor: VimEditor, offset: Int, allowEnd: Boolean): Int {
+    val normalizedOffset = offset.coerceIn(0, editor.fileSize().toInt())
+    val line = editor.offsetToLogicalPosition(normalizedOffset).line
+    return normalizeOffset(editor, line, normalizedOffset, allowEnd)
+  }
+
+  override fun normalizeOffset(editor: VimEditor, line: Int, offset: Int, allowEnd: Boolean): Int {
+    if (fileSize(editor, allowEnd) == 0) return 0
+    val min = getLineStartOffset(editor, line)
+    val max = getLineEndOffset(editor, line, allowEnd)
+    return offset.coerceAtMost(max).coerceAtLeast(min)
+  }
+
+  override fun getText(editor: VimEditor, range: TextRange): String {
+    if (range.size() == 1) return getText(editor, range.startOffset, range.endOffset)
+    val result = StringBuilder()
+    val max = range.maxLength
+    for (i in 0 until range.size()) {
+      if (i > 0 && result.isNotEmpty() && result[result.length - 1] != '\n') {
+        result.append('\n')
+      }
+      val line = getText(editor, range.startOffsets[i], range.endOffsets[i])
+      if (line.isEmpty()) {
+        repeat(max) { result.append(' ') }
+      } else {
+        result.append(line)
+      }
+    }
+    return result.toString()
+  }
+
+  override fun getOffset(editor: VimEditor, line: Int, column: Int): Int {
+    return editor.logicalPositionToOffset(VimLogicalPosition(line, column))
+  }
+
+  override fun logicalLineToVisualLine(editor: VimEditor, line: Int): Int = line
+
+  override fun visualLineToLogicalLine(editor: VimEditor, line: Int): Int = normalizeLine(editor, line)
+
+  override fun normalizeVisualLine(editor: VimEditor, line: Int): Int = normalizeLine(editor, line)
+
+  override fun normalizeVisualColumn(editor: VimEditor, line: Int, col: Int, allowEnd: Boolean): Int {
+    val length = editor.lineLength(normalizeLine(editor, line))
+    return col.coerceAtMost(length - if (allowEnd) 0 else 1).coerceAtLeast(0)
+  }
+
+  override fun amountOfInlaysBeforeVisualPosition(editor: VimEditor, pos: VimVisualPosition): Int = 0
+
+  override fun getVisualLineCount(editor: VimEditor): Int = editor.lineCount()
+
+  /**
+   * Carets of the headless editor are moved by the engine only, so the last column is always up to date
+   */
+  override fun prepareLastColumn(caret: VimCaret): Int = caret.vimLastColumn
+
+  override fun updateLastColumn(caret: VimCaret, prevLastColumn: Int) {
+    (caret as HeadlessVimCaret).vimLastColumn = prevLastColumn
+  }
+
+  override fun getLineEndOffset(editor: VimEditor, line: Int, allowEnd: Boolean): Int {
+    return editor.getLineEndOffset(line, allowEnd)
+  }
+
+  override fun getLineStartOffset(editor: VimEditor, line: Int): Int {
+    return when {
+      line < 0 -> 0
+      line >= editor.lineCount() -> editor.fileSize().toInt()
+      else -> editor.logicalPositionToOffset(VimLogicalPosition(line, 0))
+    }
+  }
+
+  override fun getLineEndForOffset(editor: VimEditor, offset: Int): Int = editor.lineEndForOffset(offset)
+
+  override fun normalizeLine(editor: VimEditor, line: Int): Int =
+    line.coerceAtMost(editor.lineCount() - 1).coerceAtLeast(0)
+
+  private fun getText(editor: VimEditor, start: Int, end: Int): String {
+    if (start == end) return ""
+    val startOffset = normalizeOffset(editor, start, true)
+    val endOffset = normalizeOffset(editor, end, true)
+    return editor.text().subSequence(startOffset, endOffset).toString()
+  }
+
+  private fun fileSize(editor: VimEditor, includeEndNewLine: Boolean): Int {
+    val text = editor.text()
+    val length = text.length
+    return if (includeEndNewLine || length == 0 || text[length - 1] != '\n') length else length - 1
+  }
+}
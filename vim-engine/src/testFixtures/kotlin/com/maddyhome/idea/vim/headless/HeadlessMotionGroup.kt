@@ -0,0 +1,81 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimLogicalPosition
+import com.maddyhome.idea.vim.api.VimMotionGroupBase
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.OptionScope
+
+/**
+ * Motions of a [HeadlessVimEditor]. There is no screen, so the scrolling motions aren't supported, and `%` needs
+ *   the IDE to find the matching pair.
+ */
+class HeadlessMotionGroup : VimMotionGroupBase() {
+  override fun moveCaretToLineStartSkipLeading(editor: VimEditor, line: Int): Int {
+    val start = injector.engineEditorHelper.getLineStartOffset(editor, line)
+    val end = injector.engineEditorHelper.getLineEndOffset(editor, line, true)
+    val chars = editor.text()
+    return (start until end).firstOrNull { !Character.isWhitespace(chars[it]) } ?: end
+  }
+
+  override fun moveCaretToLineWithStartOfLineOption(editor: VimEditor, logicalLine: Int, caret: VimCaret): Int {
+    if (injector.optionService.isSet(
+        OptionScope.LOCAL(editor),
+        OptionConstants.startoflineName,
+        OptionConstants.startoflineName
+      )
+    ) {
+      return moveCaretToLineStartSkipLeading(editor, logicalLine)
+    }
+
+    // Same as MotionGroup.moveCaretToLineWithSameColumn
+    var col = caret.vimLastColumn
+    var line = logicalLine
+    if (logicalLine < 0) {
+      line = 0
+      col = 0
+    } else if (logicalLine >= editor.lineCount()) {
+      line = injector.engineEditorHelper.normalizeLine(editor, editor.lineCount() - 1)
+      col = editor.lineLength(line)
+    }
+    val column = injector.engineEditorHelper.normalizeVisualColumn(editor, line, col, false)
+    return editor.logicalPositionToOffset(VimLogicalPosition(line, column))
+  }
+
+  override fun scrollFullPageDown(editor: VimEditor, caret: VimCaret, pages: Int): Boolean =
+    unsupported("scrollFullPageDown")
+
+  override fun scrollFullPageUp(editor: VimEditor, caret: VimCaret, pages: Int): Boolean =
+    unsupported("scrollFullPageUp")
+
+  override fun moveCaretToMatchingPair(editor: VimEditor, caret: VimCaret): Int = unsupported("moveCaretToMatchingPair")
+
+  override fun moveCaretToLinePercent(editor: VimEditor, caret: VimCaret, count: Int): Int {
+    // Same as MotionGroup.moveCaretToLinePercent
+    return moveCaretToLineWithStartOfLineOption(
+      editor,
+      injector.engineEditorHelper.normalizeLine(editor, (editor.lineCount() * count.coerceIn(0, 100) + 99) / 100 - 1),
+      caret
+    )
+  }
+}
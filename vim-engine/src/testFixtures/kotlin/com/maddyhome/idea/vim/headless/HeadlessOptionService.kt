@@ -0,0 +1,240 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.ex.ExException
+import com.maddyhome.idea.vim.options.LocalOptionChangeListener
+import com.maddyhome.idea.vim.options.OptionChangeListener
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.options.OptionService
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimDataType
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimInt
+import com.maddyhome.idea.vim.vimscript.model.datatypes.VimString
+import java.util.*
+
+/**
+ * In-memory [OptionService] with the options used by the engine. Other options can be added with [addOption].
+ *
+ * The default values are the same as in the IDE. Values aren't validated, except for the option type.
+ */
+class HeadlessOptionService : OptionService {
+  private class Option(val name: String, val abbrev: String, val defaultValue: VimDataType, val isToggle: Boolean) {
+    val listeners = mutableListOf<OptionChangeListener<VimDataType>>()
+  }
+
+  private val options = HashMap<String, Option>()
+  private val abbrevs = HashMap<String, Option>()
+  private val globalValues = HashMap<String, VimDataType>()
+  private val localValues = WeakHashMap<VimEditor, MutableMap<String, VimDataType>>()
+
+  init {
+    addToggleOption(OptionConstants.digraphName, OptionConstants.digraphAlias, false)
+    addToggleOption(OptionConstants.gdefaultName, OptionConstants.gdefaultAlias, false)
+    addToggleOption(OptionConstants.hlsearchName, OptionConstants.hlsearchAlias, false)
+    addToggleOption(OptionConstants.ideaglobalmodeName, OptionConstants.ideaglobalmodeAlias, false)
+    addToggleOption(OptionConstants.ideatracetimeName, OptionConstants.ideatracetimeAlias, false)
+    addToggleOption(OptionConstants.ignorecaseName, OptionConstants.ignorecaseAlias, false)
+    addToggleOption(OptionConstants.incsearchName, OptionConstants.incsearchAlias, false)
+    addToggleOption(OptionConstants.showmodeName, OptionConstants.showmodeAlias, false)
+    addToggleOption(OptionConstants.smartcaseName, OptionConstants.smartcaseAlias, false)
+    addToggleOption(OptionConstants.startoflineName, OptionConstants.startoflineAlias, true)
+    addToggleOption(OptionConstants.timeoutName, OptionConstants.timeoutAlias, true)
+    addToggleOption(OptionConstants.wrapscanName, OptionConstants.wrapscanAlias, true)
+    addOption(OptionConstants.historyName, OptionConstants.historyAlias, VimInt(50))
+    addOption(OptionConstants.ideajumplistsizeName, OptionConstants.ideajumplistsizeAlias, VimInt(100))
+    addOption(OptionConstants.maxmapdepthName, OptionConstants.maxmapdepthAlias, VimInt(20))
+    addOption(OptionConstants.scrolloffName, OptionConstants.scrolloffAlias, VimInt(0))
+    addOption(OptionConstants.timeoutlenName, OptionConstants.timeoutlenAlias, VimInt(1000))
+    addOption(
+      OptionConstants.clipboardName,
+      OptionConstants.clipboardAlias,
+      VimString("ideaput,autoselect,exclude:cons\\|linux"),
+    )
+    addOption(OptionConstants.iskeywordName, OptionConstants.iskeywordAlias, VimString("@,48-57,_"))
+    addOption(
+      OptionConstants.keymodelName, OptionConstants.keymodelAlias,
+      VimString("${OptionConstants.keymodel_continueselect},${OptionConstants.keymodel_stopselect}")
+    )
+    addOption(OptionConstants.matchpairsName, OptionConstants.matchpairsAlias, VimString("(:),{:},[:]"))
+    addOption(OptionConstants.nrformatsName, OptionConstants.nrformatsAlias, VimString("hex"))
+    addOption(OptionConstants.selectionName, OptionConstants.selectionAlias, VimString("inclusive"))
+    addOption(OptionConstants.selectmodeName, OptionConstants.selectmodeAlias, VimString(""))
+    addOption(OptionConstants.viminfoName, OptionConstants.viminfoAlias, VimString("'100,<50,s10,h"))
+    addOption(OptionConstants.virtualeditName, OptionConstants.virtualeditAlias, VimString(""))
+  }
+
+  /**
+   * Adds a number or a string option, the type is taken from [defaultValue]
+   */
+  fun addOption(name: String, abbrev: String, defaultValue: VimDataType) {
+    register(Option(name, abbrev, defaultValue, isToggle = false))
+  }
+
+  fun addToggleOption(name: String, abbrev: String, defaultValue: Boolean) {
+    register(Option(name, abbrev, if (defaultValue) VimInt.ONE else VimInt.ZERO, isToggle = true))
+  }
+
+  override fun getOptionValue(scope: OptionScope, optionName: String, token: String): VimDataType {
+    val option = getOption(optionName, token)
+    if (scope is OptionScope.LOCAL) {
+      localValues[scope.editor]?.get(option.name)?.let { return it }
+    }
+    return globalValues[option.name] ?: option.defaultValue
+  }
+
+  override fun setOptionValue(scope: OptionScope, optionName: String, value: VimDataType, token: String) {
+    val option = getOption(optionName, token)
+    if (value.javaClass != option.defaultValue.javaClass) throw ExException("E474: Invalid argument: $token")
+    val oldValue = getOptionValue(scope, option.name)
+    when (scope) {
+      is OptionScope.LOCAL -> {
+        localValues.getOrPut(scope.editor) { HashMap() }[option.name] = value
+        option.listeners.forEach {
+          if (it is LocalOptionChangeListener) it.processLocalValueChange(oldValue, scope.editor)
+        }
+      }
+      is OptionScope.GLOBAL -> {
+        globalValues[option.name] = value
+        option.listeners.forEach { it.processGlobalValueChange(oldValue) }
+      }
+    }
+  }
+
+  override fun contains(scope: OptionScope, optionName: String, value: String): Boolean {
+    return getValues(scope, optionName)?.contains(value) ?: false
+  }
+
+  override fun getValues(scope: OptionScope, optionName: String): List<String>? {
+    val option = options[optionName] ?: abbrevs[optionName] ?: return null
+    val value = getOptionValue(scope, option.name) as? VimString ?: return null
+    return if (value.value.isEmpty()) emptyList() else value.value.split(",")
+  }
+
+  override fun appendValue(scope: OptionScope, optionName: String, value: String, token: String) {
+    val currentValue = getOptionValue(scope, optionName, token)
+    val newValue = when (currentValue) {
+      is VimInt -> VimInt(currentValue.value + parseInt(value, token))
+      else -> VimString(joinValues(currentValue.asString(), value))
+    }
+    setOptionValue(scope, optionName, newValue, token)
+  }
+
+  override fun prependValue(scope: OptionScope, optionName: String, value: String, token: String) {
+    val currentValue = getOptionValue(scope, optionName, token)
+    val newValue = when (currentValue) {
+      is VimInt -> VimInt(currentValue.value * parseInt(value, token))
+      else -> VimString(joinValues(value, currentValue.asString()))
+    }
+    setOptionValue(scope, optionName, newValue, token)
+  }
+
+  override fun removeValue(scope: OptionScope, optionName: String, value: String, token: String) {
+    val currentValue = getOptionValue(scope, optionName, token)
+    val newValue = when (currentValue) {
+      is VimInt -> VimInt(currentValue.value - parseInt(value, token))
+      else -> VimString(currentValue.asString().split(",").filter { it != value }.joinToString(","))
+    }
+    setOptionValue(scope, optionName, newValue, token)
+  }
+
+  override fun isSet(scope: OptionScope, optionName: String, token: String): Boolean {
+    val option = getOption(optionName, token)
+    return option.isToggle && getOptionValue(scope, option.name).asBoolean()
+  }
+
+  override fun isDefault(scope: OptionScope, optionName: String, token: String): Boolean {
+    return getOptionValue(scope, optionName, token) == getOption(optionName, token).defaultValue
+  }
+
+  override fun resetDefault(scope: OptionScope, optionName: String, token: String) {
+    setOptionValue(scope, optionName, getOption(optionName, token).defaultValue, token)
+  }
+
+  override fun resetAllOptions() {
+    globalValues.clear()
+    localValues.clear()
+  }
+
+  override fun isToggleOption(optionName: String): Boolean {
+    return (options[optionName] ?: abbrevs[optionName])?.isToggle ?: false
+  }
+
+  override fun setOption(scope: OptionScope, optionName: String, token: String) {
+    setOptionValue(scope, getToggleOption(optionName, token).name, VimInt.ONE, token)
+  }
+
+  override fun unsetOption(scope: OptionScope, optionName: String, token: String) {
+    setOptionValue(scope, getToggleOption(optionName, token).name, VimInt.ZERO, token)
+  }
+
+  override fun toggleOption(scope: OptionScope, optionName: String, token: String) {
+    val option = getToggleOption(optionName, token)
+    val newValue = if (getOptionValue(scope, option.name).asBoolean()) VimInt.ZERO else VimInt.ONE
+    setOptionValue(scope, option.name, newValue, token)
+  }
+
+  override fun getOptions(): Set<String> = options.keys
+
+  override fun getAbbrevs(): Set<String> = abbrevs.keys
+
+  override fun removeOption(optionName: String) {
+    val option = options[optionName] ?: abbrevs[optionName] ?: return
+    options.remove(option.name)
+    abbrevs.remove(option.abbrev)
+  }
+
+  override fun addListener(optionName: String, listener: OptionChangeListener<VimDataType>, executeOnAdd: Boolean) {
+    val option = getOption(optionName, optionName)
+    option.listeners.add(listener)
+    if (executeOnAdd) {
+      listener.processGlobalValueChange(getOptionValue(OptionScope.GLOBAL, option.name))
+    }
+  }
+
+  override fun removeListener(optionName: String, listener: OptionChangeListener<VimDataType>) {
+    getOption(optionName, optionName).listeners.remove(listener)
+  }
+
+  private fun register(option: Option) {
+    options[option.name] = option
+    abbrevs[option.abbrev] = option
+  }
+
+  private fun getOption(optionName: String, token: String): Option {
+    return options[optionName] ?: abbrevs[optionName] ?: throw ExException("E518: Unknown option: $token")
+  }
+
+  private fun getToggleOption(optionName: String, token: String): Option {
+    val option = getOption(optionName, token)
+    if (!option.isToggle) throw ExException("E474: Invalid argument: $token")
+    return option
+  }
+
+  private fun parseInt(value: String, token: String): Int {
+    return value.toIntOrNull() ?: throw ExException("E521: Number required after =: $token")
+  }
+
+  private fun joinValues(first: String, second: String): String = when {
+    first.isEmpty() -> second
+    second.isEmpty() -> first
+    else -> "$first,$second"
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimSearchHelper
+import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.helper.SearchOptions
+import java.util.*
+import kotlin.math.abs
+
+/**
+ * Word search of a [HeadlessVimEditor], the same as in `SearchHelper` of the IDE module.
+ *
+ * The keyword characters are the ones of the default 'iskeyword' value: letters, digits and `_`. There are no
+ *   separate classes for the CJK characters. The sentence, paragraph, section and pattern search aren't supported.
+ */
+class HeadlessSearchHelper : VimSearchHelper {
+  override fun findNextWord(editor: VimEditor, searchFrom: Int, count: Int, bigWord: Boolean): Int {
+    val chars = editor.text()
+    val size = editor.fileSize().toInt()
+    val step = if (count >= 0) 1 else -1
+
+    var res = searchFrom
+    for (i in 0 until abs(count)) {
+      res = findNextWordOne(chars, res, size, step, bigWord)
+      if (res == searchFrom || res == 0 || res == size - 1) {
+        break
+      }
+    }
+    return res
+  }
+
+  override fun findNextWordEnd(editor: VimEditor, caret: VimCaret, count: Int, bigWord: Boolean): Int {
+    val chars = editor.text()
+    val pos = caret.offset.point
+    val size = editor.fileSize().toInt()
+    val step = if (count >= 0) 1 else -1
+
+    var res = pos
+    for (i in 0 until abs(count)) {
+      res = findNextWordEndOne(chars, res, size, step, bigWord)
+      if (res == pos || res == 0 || res == size - 1) {
+        break
+      }
+    }
+    return res
+  }
+
+  override fun findNextParagraph(editor: VimEditor, caret: VimCaret, count: Int, allowBlanks: Boolean): Int =
+    unsupported("findNextParagraph")
+
+  override fun findNextSentenceStart(
+    editor: VimEditor,
+    caret: VimCaret,
+    count: Int,
+    countCurrent: Boolean,
+    requireAll: Boolean,
+  ): Int = unsupported("findNextSentenceStart")
+
+  override fun findSection(editor: VimEditor, caret: VimCaret, type: Char, dir: Int, count: Int): Int =
+    unsupported("findSection")
+
+  override fun findNextCamelEnd(editor: VimEditor, caret: VimCaret, count: Int): Int = unsupported("findNextCamelEnd")
+
+  override fun findNextSentenceEnd(
+    editor: VimEditor,
+    caret: VimCaret,
+    count: Int,
+    countCurrent: Boolean,
+    requireAll: Boolean,
+  ): Int = unsupported("findNextSentenceEnd")
+
+  override fun findNextCamelStart(editor: VimEditor, caret: VimCaret, count: Int): Int =
+    unsupported("findNextCamelStart")
+
+  override fun findMethodEnd(editor: VimEditor, caret: VimCaret, count: Int): Int = unsupported("findMethodEnd")
+
+  override fun findMethodStart(editor: VimEditor, caret: VimCaret, count: Int): Int = unsupported("findMethodStart")
+
+  override fun findUnmatchedBlock(editor: VimEditor, caret: VimCaret, type: Char, count: Int): Int =
+    unsupported("findUnmatchedBlock")
+
+  override fun findPattern(
+    editor: VimEditor,
+    pattern: String?,
+    startOffset: Int,
+    count: Int,
+    searchOptions: EnumSet<SearchOptions>?,
+  ): TextRange? = unsupported("findPattern")
+
+  private enum class CharType { KEYWORD, PUNCTUATION, WHITESPACE }
+
+  private fun charType(ch: Char, bigWord: Boolean): CharType = when {
+    Character.isWhitespace(ch) -> CharType.WHITESPACE
+    bigWord || ch == '_' || Character.isLetterOrDigit(ch) -> CharType.KEYWORD
+    else -> CharType.PUNCTUATION
+  }
+
+  private fun findNextWordOne(chars: CharSequence, start: Int, size: Int, step: Int, bigWord: Boolean): Int {
+    var found = false
+    var pos = if (start < size) start else minOf(size, chars.length - 1)
+    // For back searches, skip any current whitespace so we start at the end of a word
+    if (step < 0 && pos > 0) {
+      if (charType(chars[pos - 1], bigWord) == CharType.WHITESPACE) {
+        pos = skipSpace(chars, pos - 1, step, size) + 1
+      }
+      if (pos > 0 && charType(chars[pos], bigWord) != charType(chars[pos - 1], bigWord)) {
+        pos += step
+      }
+    }
+    var res = pos
+    if (pos < 0 || pos >= size) {
+      return pos
+    }
+
+    var type = charType(chars[pos], bigWord)
+    if (type == CharType.WHITESPACE && step < 0 && pos > 0) {
+      type = charType(chars[pos - 1], bigWord)
+    }
+
+    pos += step
+    while (pos in 0 until size && !found) {
+      val newType = charType(chars[pos], bigWord)
+      if (newType != type) {
+        if (newType == CharType.WHITESPACE && step >= 0) {
+          pos = skipSpace(chars, pos, step, size)
+          res = pos
+        } else if (step < 0) {
+          res = pos + 1
+        } else {
+          res = pos
+        }
+        found = true
+      }
+      pos += step
+    }
+
+    return when {
+      found -> res.coerceIn(0, size - 1)
+      pos <= 0 -> 0
+      pos >= size -> size
+      else -> res
+    }
+  }
+
+  private fun findNextWordEndOne(chars: CharSequence, start: Int, size: Int, step: Int, bigWord: Boolean): Int {
+    var found = false
+    var pos = start
+    // For forward searches, skip any current whitespace so we start at the start of a word
+    if (step > 0 && pos < size - 1) {
+      if (charType(chars[pos + 1], bigWord) == CharType.WHITESPACE) {
+        pos = skipSpace(chars, pos + 1, step, size) - 1
+      }
+      if (pos < size - 1 && charType(chars[pos], bigWord) != charType(chars[pos + 1], bigWord)) {
+        pos += step
+      }
+    }
+    var res = pos
+    if (pos < 0 || pos >= size) {
+      return pos
+    }
+
+    var type = charType(chars[pos], bigWord)
+    if (type == CharType.WHITESPACE && step >= 0 && pos < size - 1) {
+      type = charType(chars[pos + 1], bigWord)
+    }
+
+    pos += step
+    while (pos in 0 until size && !found) {
+      val newType = charType(chars[pos], bigWord)
+      if (newType != type) {
+        if (step >= 0) {
+          res = pos - 1
+        } else if (newType == CharType.WHITESPACE) {
+          pos = skipSpace(chars, pos, step, size)
+          res = pos
+        } else {
+          res = pos
+        }
+        found = true
+      }
+      pos += step
+    }
+
+    return when {
+      found -> res.coerceIn(0, size - 1)
+      pos == size -> size - 1
+      else -> res
+    }
+  }
+
+  /**
+   * Skips the whitespace starting with [offset], an empty line is a word of its own
+   */
+  private fun skipSpace(chars: CharSequence, offset: Int, step: Int, size: Int): Int {
+    var pos = offset
+    var prev = 0.toChar()
+    while (pos in 0 until size) {
+      val c = chars[pos]
+      if (c == '\n' && c == prev) break
+      if (charType(c, false) != CharType.WHITESPACE) break
+      prev = c
+      pos += step
+    }
+    return if (pos < size) pos else size - 1
+  }
+}
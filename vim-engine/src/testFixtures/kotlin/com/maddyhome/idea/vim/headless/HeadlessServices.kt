@@ -0,0 +1,461 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.action.motion.text.MotionBigWordEndLeftAction
+import com.maddyhome.idea.vim.action.motion.text.MotionBigWordEndRightAction
+import com.maddyhome.idea.vim.action.motion.text.MotionBigWordLeftAction
+import com.maddyhome.idea.vim.action.motion.text.MotionBigWordRightAction
+import com.maddyhome.idea.vim.action.motion.text.MotionWordEndLeftAction
+import com.maddyhome.idea.vim.action.motion.text.MotionWordEndRightAction
+import com.maddyhome.idea.vim.action.motion.text.MotionWordLeftAction
+import com.maddyhome.idea.vim.action.motion.text.MotionWordRightAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionDownAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionDownLess1FirstNonSpaceAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionDownNotLineWiseAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionGotoLineFirstAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionGotoLineLastAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionGotoLineLastEndAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionUpAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionUpFirstNonSpaceAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionUpNotLineWiseAction
+import com.maddyhome.idea.vim.api.ExEntryPanel
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.ExecutionContextManager
+import com.maddyhome.idea.vim.api.NativeAction
+import com.maddyhome.idea.vim.api.NativeActionManager
+import com.maddyhome.idea.vim.api.VimActionExecutor
+import com.maddyhome.idea.vim.api.VimActionsInitiator
+import com.maddyhome.idea.vim.api.VimApplication
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimChangeGroup
+import com.maddyhome.idea.vim.api.VimClipboardManager
+import com.maddyhome.idea.vim.api.VimDigraphGroup
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimEnabler
+import com.maddyhome.idea.vim.api.VimKeyGroup
+import com.maddyhome.idea.vim.api.VimMessages
+import com.maddyhome.idea.vim.api.VimStringParser
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.Command
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.command.SelectionType
+import com.maddyhome.idea.vim.common.CommandPartNode
+import com.maddyhome.idea.vim.common.CommonStringHelper
+import com.maddyhome.idea.vim.common.MappingMode
+import com.maddyhome.idea.vim.common.OperatedRange
+import com.maddyhome.idea.vim.common.RootNode
+import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.VimMachine
+import com.maddyhome.idea.vim.common.VimRange
+import com.maddyhome.idea.vim.common.addLeafs
+import com.maddyhome.idea.vim.common.offset
+import com.maddyhome.idea.vim.diagnostic.VimLogger
+import com.maddyhome.idea.vim.handler.EditorActionHandlerBase
+import com.maddyhome.idea.vim.helper.mode
+import com.maddyhome.idea.vim.key.KeyMappingLayer
+import com.maddyhome.idea.vim.key.MappingInfoLayer
+import com.maddyhome.idea.vim.mark.Mark
+import com.maddyhome.idea.vim.mark.VimMarkConstants.MARK_CHANGE_POS
+import com.maddyhome.idea.vim.mark.VimMarkGroupBase
+import com.maddyhome.idea.vim.register.VimRegisterGroupBase
+import java.awt.event.KeyEvent
+import java.util.EnumMap
+import javax.swing.KeyStroke
+
+class HeadlessRegisterGroup : VimRegisterGroupBase()
+
+/**
+ * Marks of the headless editors. There are no IDE navigation and bookmarks, so all the marks are plain vim marks.
+ */
+class HeadlessMarkGroup : VimMarkGroupBase() {
+  override fun includeCurrentCommandAsNavigation(editor: VimEditor) = Unit
+
+  override fun createSystemMark(ch: Char, line: Int, col: Int, editor: VimEditor): Mark? = null
+}
+
+/**
+ * Clipboard that lives in memory, so the tests don't touch the system clipboard
+ */
+class HeadlessClipboardManager : VimClipboardManager {
+  var text: String? = null
+
+  override fun getClipboardTextAndTransferableData(): Pair<String, List<Any>?>? = text?.let { it to emptyList() }
+
+  override fun setClipboardText(text: String, rawText: String, transferableData: List<Any>): Any? {
+    this.text = text
+    return text
+  }
+
+  override fun getTransferableData(vimEditor: VimEditor, textRange: TextRange, text: String): List<Any> = emptyList()
+
+  override fun preprocessText(
+    vimEditor: VimEditor,
+    textRange: TextRange,
+    text: String,
+    transferableData: List<*>,
+  ): String = text
+}
+
+/**
+ * Keeps the last status bar message and the error flag so the tests can check them.
+ * The message keys are returned as is, there are no bundles outside the IDE.
+ */
+class HeadlessMessages : VimMessages {
+  private var statusBarMessage: String? = null
+  private var error = false
+
+  override fun showStatusBarMessage(message: String?) {
+    statusBarMessage = message
+  }
+
+  override fun getStatusBarMessage(): String? = statusBarMessage
+
+  override fun indicateError() {
+    error = true
+  }
+
+  override fun clearError() {
+    error = false
+  }
+
+  override fun isError(): Boolean = error
+
+  override fun message(key: String): String = key
+
+  override fun updateStatusBar() = Unit
+}
+
+/**
+ * Parses the plain characters and the special keys in angle brackets. Unlike the IDE parser, `<Leader>` isn't
+ *   expanded and backslash escapes aren't supported.
+ */
+class HeadlessStringParser : VimStringParser {
+  override val plugKeyStroke: KeyStroke = parseKeys("<Plug>")[0]
+
+  override fun parseKeys(vararg strings: String): List<KeyStroke> {
+    val result = ArrayList<KeyStroke>()
+    for (s in strings) {
+      var i = 0
+      while (i < s.length) {
+        val c = s[i]
+        if (c == '<') {
+          val end = s.indexOf('>', i + 1)
+          // A single character in brackets is taken literally, as in the IDE parser
+          if (end > i + 2) {
+            val key = CommonStringHelper.parseSpecialKey(s.substring(i + 1, end))
+            if (key != null) {
+              result.add(key)
+              i = end + 1
+              continue
+            }
+          }
+        }
+        result.add(
+          when {
+            c == '\t' || c == '\n' -> KeyStroke.getKeyStroke(c.code, 0)
+            c < ' ' -> controlKey(c)
+            else -> KeyStroke.getKeyStroke(c)
+          }
+        )
+        i++
+      }
+    }
+    return result
+  }
+
+  override fun stringToKeys(string: String): List<KeyStroke> {
+    return string.map { c ->
+      when {
+        c == '\t' || c == '\n' -> KeyStroke.getKeyStroke(c)
+        c < ' ' -> controlKey(c)
+        else -> KeyStroke.getKeyStroke(c)
+      }
+    }
+  }
+
+  private fun controlKey(c: Char): KeyStroke {
+    val code = if (c == '\u0000') KeyEvent.VK_AT else c.code + 'A'.code - 1
+    return KeyStroke.getKeyStroke(code, KeyEvent.CTRL_DOWN_MASK)
+  }
+}
+
+/**
+ * Key roots with the engine motions and the [headless actions][HeadlessInsertBeforeCursorAction] that replace the
+ *   IDE ones for the plain text, registered with the keys of `VimActions.xml`. The commands that need the IDE
+ *   (`:`, `/`, visual mode, undo, etc.) aren't registered, use [registerAction] to add more. There are no key
+ *   mappings.
+ */
+class HeadlessKeyGroup(private val parser: VimStringParser) : VimKeyGroup {
+  private val keyRoots = EnumMap<MappingMode, CommandPartNode<VimActionsInitiator>>(MappingMode::class.java)
+
+  init {
+    registerAction(MappingMode.NXO, "h") { HeadlessMotionLeftAction() }
+    registerAction(MappingMode.NXO, "l") { HeadlessMotionRightAction() }
+    registerAction(MappingMode.NXO, "0") { HeadlessMotionFirstColumnAction() }
+    registerAction(MappingMode.NXO, "$") { HeadlessMotionLastColumnAction() }
+    registerAction(MappingMode.NXO, "w") { MotionWordRightAction() }
+    registerAction(MappingMode.NXO, "W", "<C-Right>") { MotionBigWordRightAction() }
+    registerAction(MappingMode.NXO, "b") { MotionWordLeftAction() }
+    registerAction(MappingMode.NXO, "B", "<C-Left>") { MotionBigWordLeftAction() }
+    registerAction(MappingMode.NXO, "e") { MotionWordEndRightAction() }
+    registerAction(MappingMode.NXO, "E") { MotionBigWordEndRightAction() }
+    registerAction(MappingMode.NXO, "ge") { MotionWordEndLeftAction() }
+    registerAction(MappingMode.NXO, "gE") { MotionBigWordEndLeftAction() }
+    registerAction(MappingMode.NXO, "j") { MotionDownAction() }
+    registerAction(MappingMode.NXO, "gj") { MotionDownNotLineWiseAction() }
+    registerAction(MappingMode.NXO, "k") { MotionUpAction() }
+    registerAction(MappingMode.NXO, "gk") { MotionUpNotLineWiseAction() }
+    registerAction(MappingMode.NXO, "-") { MotionUpFirstNonSpaceAction() }
+    registerAction(MappingMode.NXO, "_") { MotionDownLess1FirstNonSpaceAction() }
+    registerAction(MappingMode.NXO, "gg", "<C-Home>") { MotionGotoLineFirstAction() }
+    registerAction(MappingMode.NXO, "G") { MotionGotoLineLastAction() }
+    registerAction(MappingMode.NXO, "<C-End>") { MotionGotoLineLastEndAction() }
+    registerAction(MappingMode.N, "x") { HeadlessDeleteCharacterRightAction() }
+    registerAction(MappingMode.N, "i") { HeadlessInsertBeforeCursorAction() }
+    registerAction(MappingMode.N, "a") { HeadlessInsertAfterCursorAction() }
+    registerAction(MappingMode.I, "<C-[>", "<C-C>", "<Esc>") { HeadlessInsertExitModeAction() }
+  }
+
+  override fun getKeyRoot(mappingMode: MappingMode): CommandPartNode<VimActionsInitiator> {
+    return keyRoots.getOrPut(mappingMode) { RootNode() }
+  }
+
+  override fun getKeyMappingLayer(mode: MappingMode): KeyMappingLayer = EMPTY_LAYER
+
+  /**
+   * Registers the action for each of [keys] in [modes]. The action is created on the first use and then reused,
+   *   the same as the actions of `VimActions.xml`.
+   */
+  fun registerAction(modes: Set<MappingMode>, vararg keys: String, action: () -> EditorActionHandlerBase) {
+    val holder = HeadlessActionHolder(action)
+    for (key in keys) {
+      val keyStrokes = parser.parseKeys(key)
+      for (mode in modes) {
+        getKeyRoot(mode).addLeafs(keyStrokes, holder)
+      }
+    }
+  }
+
+  private class HeadlessActionHolder(factory: () -> EditorActionHandlerBase) : VimActionsInitiator {
+    private val action by lazy(factory)
+
+    override fun getInstance(): EditorActionHandlerBase = action
+  }
+
+  private companion object {
+    val EMPTY_LAYER = object : KeyMappingLayer {
+      override fun isPrefix(keys: Iterable<KeyStroke>): Boolean = false
+      override fun getLayer(keys: Iterable<KeyStroke>): MappingInfoLayer? = null
+    }
+  }
+}
+
+/**
+ * Runs the vim actions right away. There are no IDE actions, so the native actions and `<Esc>` in normal mode
+ *   aren't handled.
+ */
+class HeadlessActionExecutor : VimActionExecutor {
+  // The same ids as in IdeActions
+  override val ACTION_EDITOR_NEXT_TEMPLATE_VARIABLE: String = "NextTemplateVariable"
+  override val ACTION_COLLAPSE_ALL_REGIONS: String = "CollapseAllRegions"
+  override val ACTION_COLLAPSE_REGION: String = "CollapseRegion"
+  override val ACTION_COLLAPSE_REGION_RECURSIVELY: String = "CollapseRegionRecursively"
+  override val ACTION_EXPAND_ALL_REGIONS: String = "ExpandAllRegions"
+  override val ACTION_EXPAND_REGION: String = "ExpandRegion"
+  override val ACTION_EXPAND_REGION_RECURSIVELY: String = "ExpandRegionRecursively"
+
+  override fun executeAction(action: NativeAction, context: ExecutionContext): Boolean = false
+
+  override fun executeAction(name: String, context: ExecutionContext): Boolean = false
+
+  override fun executeCommand(editor: VimEditor?, runnable: Runnable, name: String?, groupId: Any?) = runnable.run()
+
+  override fun executeEsc(context: ExecutionContext): Boolean = false
+
+  override fun executeVimAction(
+    editor: VimEditor,
+    cmd: EditorActionHandlerBase,
+    context: ExecutionContext,
+    operatorArguments: OperatorArguments,
+  ) {
+    cmd.execute(editor, context, operatorArguments)
+  }
+}
+
+/**
+ * Types the keys of insert mode at every caret. The inserted text isn't stored for the repeat, and replace and
+ *   select modes aren't supported.
+ */
+class HeadlessChangeGroup : VimChangeGroup {
+  override fun processCommand(editor: VimEditor, cmd: Command) = Unit
+
+  override fun processKey(editor: VimEditor, context: ExecutionContext, key: KeyStroke): Boolean {
+    val char = when {
+      key.keyCode == KeyEvent.VK_ENTER -> '\n'
+      key.keyCode == KeyEvent.VK_TAB -> '\t'
+      key.keyChar == KeyEvent.CHAR_UNDEFINED || key.keyChar < ' ' -> return false
+      key.modifiers and (KeyEvent.CTRL_DOWN_MASK or KeyEvent.ALT_DOWN_MASK) != 0 -> return false
+      else -> key.keyChar
+    }
+    if (!editor.isWritable() || editor.mode != CommandState.Mode.INSERT) return false
+
+    editor.forEachCaret { caret ->
+      val offset = caret.offset.point
+      editor.insertText(offset.offset, char.toString())
+      caret.moveToOffset(offset + 1)
+    }
+    return true
+  }
+
+  override fun processKeyInSelectMode(editor: VimEditor, context: ExecutionContext, key: KeyStroke): Boolean = false
+}
+
+/**
+ * The ex entry panel is never shown
+ */
+class HeadlessExEntryPanel : ExEntryPanel {
+  override fun isActive(): Boolean = false
+
+  override fun clearCurrentAction() = Unit
+
+  override fun setCurrentActionPromptCharacter(char: Char) = Unit
+}
+
+/**
+ * Runs everything on the calling thread, there is no EDT and no undo outside the IDE
+ */
+class HeadlessApplication(private val editors: () -> List<VimEditor>) : VimApplication {
+  override fun isMainThread(): Boolean = true
+
+  override fun invokeLater(action: () -> Unit, editor: VimEditor) = action()
+
+  override fun isUnitTest(): Boolean = true
+
+  override fun postKey(stroke: KeyStroke, editor: VimEditor) = Unit
+
+  override fun localEditors(): List<VimEditor> = editors()
+
+  override fun runWriteCommand(editor: VimEditor, name: String?, groupId: Any?, command: Runnable) = command.run()
+
+  override fun runReadCommand(editor: VimEditor, name: String?, groupId: Any?, command: Runnable) = command.run()
+}
+
+class HeadlessExecutionContext(override val context: VimEditor) : ExecutionContext {
+  override fun updateEditor(editor: VimEditor): ExecutionContext = HeadlessExecutionContext(editor)
+}
+
+class HeadlessExecutionContextManager : ExecutionContextManager {
+  override fun onEditor(editor: VimEditor, prevContext: ExecutionContext?): ExecutionContext {
+    return HeadlessExecutionContext(editor)
+  }
+
+  override fun onCaret(caret: VimCaret, prevContext: ExecutionContext): ExecutionContext = prevContext
+}
+
+class HeadlessDigraphGroup : VimDigraphGroup {
+  override fun getDigraph(ch1: Char, ch2: Char): Char = ch2
+}
+
+class HeadlessEnabler : VimEnabler {
+  override fun isEnabled(): Boolean = true
+}
+
+class HeadlessNativeActionManager : NativeActionManager {
+  override val enterAction: NativeAction? = null
+  override val createLineAboveCaret: NativeAction? = null
+  override val joinLines: NativeAction? = null
+  override val indentLines: NativeAction? = null
+  override val saveAll: NativeAction? = null
+  override val saveCurrent: NativeAction? = null
+}
+
+/**
+ * Same as the IDE machine: the deleted text goes to the register and the change marks are updated
+ */
+class HeadlessVimMachine : VimMachine {
+  override fun delete(range: VimRange, editor: VimEditor, caret: VimCaret): OperatedRange? {
+    editor as HeadlessVimEditor
+    caret as HeadlessVimCaret
+    // Update the last column before we delete, or we might be retrieving the data for a line that no longer exists
+    caret.vimLastColumn = editor.offsetToLogicalPosition(caret.offset.point).column
+
+    val operatedText = editor.deleteDryRun(range) ?: return null
+
+    val normalizedRange = operatedText.toNormalizedTextRange(editor)
+    injector.registerGroup.storeText(editor, normalizedRange, operatedText.toType(), true)
+
+    editor.delete(range)
+
+    val start = normalizedRange.startOffset
+    injector.markGroup.setMark(editor, MARK_CHANGE_POS, start)
+    injector.markGroup.setChangeMarks(editor, TextRange(start, start + 1))
+
+    return operatedText
+  }
+
+  private fun OperatedRange.toNormalizedTextRange(editor: HeadlessVimEditor): TextRange {
+    return when (this) {
+      is OperatedRange.Block -> throw UnsupportedOperationException("Block deletion is not available without the IDE")
+      is OperatedRange.Lines -> {
+        val startOffset = editor.document.getLineStartOffset(lineAbove.line)
+        val endOffset = editor.document.getLineEndOffset(lineAbove.line + linesOperated)
+        TextRange(startOffset, endOffset)
+      }
+      is OperatedRange.Characters -> TextRange(leftOffset.point, rightOffset.point)
+    }
+  }
+
+  private fun OperatedRange.toType(): SelectionType = when (this) {
+    is OperatedRange.Characters -> SelectionType.CHARACTER_WISE
+    is OperatedRange.Lines -> SelectionType.LINE_WISE
+    is OperatedRange.Block -> SelectionType.BLOCK_WISE
+  }
+}
+
+/**
+ * Warnings go to stderr and errors fail the test, as the IDE logger does in the unit test mode.
+ *   Debug and info messages are dropped unless [isVerbose] is set, e.g. with `-Dideavim.headless.verbose=true`,
+ *   so they don't get mixed into the test and benchmark output.
+ */
+class HeadlessLogger(private val name: String) : VimLogger {
+  override fun isTrace(): Boolean = false
+
+  override fun trace(data: String) = Unit
+
+  override fun isDebug(): Boolean = isVerbose
+
+  override fun debug(data: String) {
+    if (isVerbose) System.err.println("[$name] $data")
+  }
+
+  override fun warn(message: String) = System.err.println("[$name] WARN: $message")
+
+  override fun error(message: String) = throw AssertionError("[$name] $message")
+
+  override fun info(message: String) {
+    if (isVerbose) System.err.println("[$name] $message")
+  }
+
+  companion object {
+    @JvmStatic
+    var isVerbose: Boolean = java.lang.Boolean.getBoolean("ideavim.headless.verbose")
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimVisualPosition
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.common.EditorLine
+import com.maddyhome.idea.vim.common.Offset
+import com.maddyhome.idea.vim.common.offset
+
+/**
+ * Caret of a [HeadlessVimEditor].
+ *
+ * There are no folds, soft wraps and inlays, so the visual position is the same as the logical one. The visual
+ *   selection is character-wise and inclusive, like with the default value of the 'selection' option.
+ */
+class HeadlessVimCaret internal constructor(override val editor: HeadlessVimEditor, offset: Int) : VimCaret {
+  private var currentOffset = offset
+  private var currentSelectionStart = offset
+  private var currentSelectionEnd = offset
+  private var vimSelectionStartValue: Int? = null
+  private var valid = true
+
+  override val offset: Offset
+    get() = currentOffset.offset
+
+  override var vimLastColumn: Int = editor.offsetToLogicalPosition(offset).column
+
+  override val selectionStart: Int
+    get() = currentSelectionStart
+
+  override val selectionEnd: Int
+    get() = currentSelectionEnd
+
+  override var vimSelectionStart: Int
+    get() = vimSelectionStartValue ?: vimLeadSelectionOffset.also { vimSelectionStartValue = it }
+    set(value) {
+      vimSelectionStartValue = value
+    }
+
+  override val vimLeadSelectionOffset: Int
+    get() = when {
+      !hasSelection() -> currentOffset
+      currentOffset == selectionStart -> (selectionEnd - 1).coerceAtLeast(0)
+      else -> selectionStart
+    }
+
+  override val isValid: Boolean
+    get() = valid
+
+  /**
+   * Moves the caret, the visual selection started with [vimSetSelection] follows the caret
+   */
+  override fun moveToOffset(offset: Int) {
+    if (offset < 0 || offset > editor.document.textLength || !isValid) return
+    val oldOffset = currentOffset
+    currentOffset = offset
+    if (oldOffset != offset) {
+      vimLastColumn = editor.offsetToLogicalPosition(offset).column
+    }
+    val start = vimSelectionStartValue
+    if (start != null) {
+      setInclusiveSelection(start, offset)
+    }
+  }
+
+  override fun offsetForLineStartSkipLeading(line: Int): Int {
+    return injector.motion.moveCaretToLineStartSkipLeading(editor, line)
+  }
+
+  override fun getLine(): EditorLine.Pointer {
+    return EditorLine.Pointer.init(editor.document.getLineNumber(currentOffset), editor)
+  }
+
+  override fun hasSelection(): Boolean = selectionStart != selectionEnd
+
+  override fun vimSetSystemSelectionSilently(start: Int, end: Int) {
+    setSelection(start, end)
+  }
+
+  override fun moveToInlayAwareOffset(newOffset: Int) {
+    currentOffset = newOffset.coerceIn(0, editor.document.textLength)
+  }
+
+  override fun vimSetSelection(start: Int, end: Int, moveCaretToSelectionEnd: Boolean) {
+    vimSelectionStartValue = start
+    setInclusiveSelection(start, end)
+    if (moveCaretToSelectionEnd) moveToInlayAwareOffset(end)
+  }
+
+  override fun getVisualPosition(): VimVisualPosition {
+    val position = editor.offsetToLogicalPosition(currentOffset)
+    return VimVisualPosition(position.line, position.column)
+  }
+
+  fun setSelection(start: Int, end: Int) {
+    val length = editor.document.textLength
+    currentSelectionStart = minOf(start, end).coerceIn(0, length)
+    currentSelectionEnd = maxOf(start, end).coerceIn(0, length)
+  }
+
+  fun removeSelection() {
+    currentSelectionStart = currentOffset
+    currentSelectionEnd = currentOffset
+  }
+
+  fun vimSelectionStartClear() {
+    vimSelectionStartValue = null
+  }
+
+  /**
+   * Keeps the caret and the selection at the same text after the document change at [offset]
+   */
+  internal fun documentChanged(offset: Int, oldLength: Int, newLength: Int) {
+    currentOffset = shift(currentOffset, offset, oldLength, newLength)
+    currentSelectionStart = shift(currentSelectionStart, offset, oldLength, newLength)
+    currentSelectionEnd = shift(currentSelectionEnd, offset, oldLength, newLength)
+    vimSelectionStartValue = vimSelectionStartValue?.let { shift(it, offset, oldLength, newLength) }
+  }
+
+  internal fun invalidate() {
+    valid = false
+  }
+
+  private fun setInclusiveSelection(start: Int, end: Int) {
+    setSelection(minOf(start, end), maxOf(start, end) + 1)
+  }
+
+  private fun shift(position: Int, offset: Int, oldLength: Int, newLength: Int): Int = when {
+    position <= offset -> position
+    position >= offset + oldLength -> position + newLength - oldLength
+    else -> offset + newLength.coerceAtMost(position - offset)
+  }
+
+  override fun toString(): String = "HeadlessVimCaret(offset=$currentOffset, selection=$selectionStart..$selectionEnd)"
+}
@@ -0,0 +1,291 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.LineDeleteShift
+import com.maddyhome.idea.vim.api.MutableLinearEditor
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimCaretListener
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimLogicalPosition
+import com.maddyhome.idea.vim.api.VimVisualPosition
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.command.SelectionType
+import com.maddyhome.idea.vim.common.EditorLine
+import com.maddyhome.idea.vim.common.Offset
+import com.maddyhome.idea.vim.common.Pointer
+import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.VimScrollType
+import com.maddyhome.idea.vim.common.offset
+
+/**
+ * [VimEditor] that keeps the text and the carets in memory and doesn't need the IntelliJ platform.
+ *
+ * The editor has no folds, soft wraps, inlays and guarded blocks, a tab takes a single column, and the visual
+ *   positions are the same as the logical ones. Use it together with [HeadlessVimInjector] to run the engine code
+ *   in plain unit tests and benchmarks.
+ */
+class HeadlessVimEditor(text: CharSequence = "", private val path: String? = DEFAULT_PATH) : MutableLinearEditor() {
+  val document = HeadlessDocument(text)
+
+  private val caretList = mutableListOf(HeadlessVimCaret(this, 0))
+  private var primary = caretList[0]
+  private val caretListeners = mutableListOf<VimCaretListener>()
+
+  /**
+   * Mode and pending command of this editor, see [HeadlessVimInjector.commandStateFor]
+   */
+  internal var commandState: CommandState? = null
+
+  var writable: Boolean = true
+
+  override val lfMakesNewLine: Boolean = true
+
+  override var vimLastSelectionType: SelectionType? = null
+
+  override fun fileSize(): Long = document.textLength.toLong()
+
+  override fun text(): CharSequence = document.charsSequence
+
+  override fun lineCount(): Int = document.lineCount
+
+  override fun getLineRange(line: EditorLine.Pointer): Pair<Offset, Offset> {
+    return document.getLineStartOffset(line.line).offset to document.getLineEndOffset(line.line).offset
+  }
+
+  override fun getLine(offset: Offset): EditorLine.Pointer {
+    return EditorLine.Pointer.init(document.getLineNumber(offset.point), this)
+  }
+
+  override fun getText(left: Offset, right: Offset): CharSequence = document.getText(left.point, right.point)
+
+  override fun charAt(offset: Pointer): Char = document.charsSequence[offset.point]
+
+  override fun deleteRange(leftOffset: Offset, rightOffset: Offset) {
+    val start = leftOffset.point
+    val end = rightOffset.point
+    document.deleteString(start, end)
+    caretList.forEach { it.documentChanged(start, end - start, 0) }
+  }
+
+  override fun insertText(atPosition: Offset, text: CharSequence) {
+    document.insertString(atPosition.point, text)
+    caretList.forEach { it.documentChanged(atPosition.point, 0, text.length) }
+  }
+
+  override fun addLine(atPosition: EditorLine.Offset): EditorLine.Pointer {
+    // The new line character is inserted before the new line character of the previous line, like in IjVimEditor
+    val offset = if (atPosition.line < lineCount()) {
+      (document.getLineStartOffset(atPosition.line) - 1).coerceAtLeast(0)
+    } else {
+      document.textLength
+    }
+    insertText(offset.offset, "\n")
+    return EditorLine.Pointer.init(atPosition.line, this)
+  }
+
+  /**
+   * Replaces the text of the document, the carets are moved to the start of the text
+   */
+  fun setText(text: CharSequence) {
+    document.setText(text)
+    removeSecondaryCarets()
+    primary.removeSelection()
+    primary.vimSelectionStartClear()
+    primary.moveToOffset(0)
+  }
+
+  override fun carets(): List<VimCaret> = nativeCarets()
+
+  override fun nativeCarets(): List<VimCaret> {
+    if (caretList.size == 1) return caretList.toList()
+    return caretList.sortedBy { it.offset.point }
+  }
+
+  override fun forEachCaret(action: (VimCaret) -> Unit) {
+    nativeCarets().forEach { if (it.isValid) action(it) }
+    mergeCarets()
+  }
+
+  override fun primaryCaret(): VimCaret = primary
+
+  /**
+   * Adds a caret at [offset] and makes it primary, the same as the IntelliJ caret model does
+   *
+   * @return the new caret or null if there is a caret at this offset already
+   */
+  fun addCaret(offset: Int): HeadlessVimCaret? {
+    if (caretList.any { it.offset.point == offset }) return null
+    val caret = HeadlessVimCaret(this, offset)
+    caretList.add(caret)
+    primary = caret
+    return caret
+  }
+
+  fun removeCaret(caret: HeadlessVimCaret) {
+    if (caretList.size == 1 || !caretList.remove(caret)) return
+    caret.invalidate()
+    if (primary == caret) primary = caretList.last()
+    caretListeners.forEach { it.caretRemoved(caret) }
+  }
+
+  override fun removeSecondaryCarets() {
+    caretList.filter { it != primary }.forEach { removeCaret(it) }
+  }
+
+  override fun isWritable(): Boolean = writable
+
+  override fun search(
+    pair: Pair<Offset, Offset>,
+    editor: VimEditor,
+    shiftType: LineDeleteShift,
+  ): Pair<Pair<Offset, Offset>, LineDeleteShift> {
+    // There are no guarded blocks
+    return pair to shiftType
+  }
+
+  override fun updateCaretsVisualAttributes() {}
+
+  override fun updateCaretsVisualPosition() {}
+
+  override fun lineEndForOffset(offset: Int): Int {
+    return document.getLineEndOffset(document.getLineNumber(offset.coerceIn(0, document.textLength)))
+  }
+
+  override fun lineStartForOffset(offset: Int): Int {
+    return document.getLineStartOffset(document.getLineNumber(offset.coerceIn(0, document.textLength)))
+  }
+
+  override fun offsetToLogicalPosition(offset: Int): VimLogicalPosition {
+    val normalizedOffset = offset.coerceIn(0, document.textLength)
+    val line = document.getLineNumber(normalizedOffset)
+    return VimLogicalPosition(line, normalizedOffset - document.getLineStartOffset(line))
+  }
+
+  override fun logicalPositionToOffset(position: VimLogicalPosition): Int {
+    if (position.line >= lineCount()) return document.textLength
+    if (position.line < 0) return 0
+    val start = document.getLineStartOffset(position.line)
+    return (start + position.column).coerceIn(start, document.getLineEndOffset(position.line))
+  }
+
+  override fun lineLength(line: Int): Int {
+    return document.getLineEndOffset(line) - document.getLineStartOffset(line)
+  }
+
+  override fun visualPositionToOffset(position: VimVisualPosition): Offset {
+    return logicalPositionToOffset(VimLogicalPosition(position.line, position.column)).offset
+  }
+
+  override fun vimSetSystemBlockSelectionSilently(start: VimLogicalPosition, end: VimLogicalPosition) {
+    removeSecondaryCarets()
+    val startColumn = minOf(start.column, end.column)
+    val endColumn = maxOf(start.column, end.column)
+    val step = if (start.line <= end.line) 1 else -1
+    var line = start.line
+    var caret = primary
+    while (true) {
+      val selectionStart = logicalPositionToOffset(VimLogicalPosition(line, startColumn))
+      val selectionEnd = logicalPositionToOffset(VimLogicalPosition(line, endColumn))
+      if (line != start.line) caret = addCaret(selectionEnd) ?: caret
+      caret.moveToInlayAwareOffset(selectionEnd)
+      caret.setSelection(selectionStart, selectionEnd)
+      if (line == end.line) break
+      line += step
+    }
+  }
+
+  override fun getLineEndOffset(line: Int, allowEnd: Boolean): Int {
+    return when {
+      line < 0 -> 0
+      line >= lineCount() -> fileSize(allowEnd)
+      else -> {
+        val startOffset = document.getLineStartOffset(line)
+        val endOffset = document.getLineEndOffset(line)
+        endOffset - if (startOffset == endOffset || allowEnd) 0 else 1
+      }
+    }
+  }
+
+  override fun addCaretListener(listener: VimCaretListener) {
+    caretListeners.add(listener)
+  }
+
+  override fun removeCaretListener(listener: VimCaretListener) {
+    caretListeners.remove(listener)
+  }
+
+  override fun isDisposed(): Boolean = false
+
+  override fun removeSelection() {
+    primary.removeSelection()
+  }
+
+  override fun getPath(): String? = path
+
+  override fun extractProtocol(): String? = null
+
+  override fun exitSelectModeNative(adjustCaret: Boolean) {
+    val state = injector.commandStateFor(this)
+    if (state.mode != CommandState.Mode.SELECT) return
+    state.popModes()
+    for (caret in caretList) {
+      caret.removeSelection()
+      caret.vimSelectionStartClear()
+      if (adjustCaret) {
+        val offset = caret.offset.point
+        if (offset == lineEndForOffset(offset) && offset != lineStartForOffset(offset)) {
+          caret.moveToInlayAwareOffset(offset - 1)
+        }
+      }
+    }
+  }
+
+  override fun exitVisualModeNative() {
+    val state = injector.commandStateFor(this)
+    caretList.forEach { it.removeSelection() }
+    if (state.mode != CommandState.Mode.VISUAL) return
+    vimLastSelectionType = SelectionType.fromSubMode(state.subMode)
+    injector.markGroup.setVisualSelectionMarks(this, TextRange(primary.vimSelectionStart, primary.offset.point))
+    caretList.forEach { it.vimSelectionStartClear() }
+    state.subMode = CommandState.SubMode.NONE
+    state.popModes()
+  }
+
+  override fun scrollToCaret(type: VimScrollType) {}
+
+  private fun fileSize(includeEndNewLine: Boolean): Int {
+    val length = document.textLength
+    return if (includeEndNewLine || length == 0 || document.charsSequence[length - 1] != '\n') length else length - 1
+  }
+
+  private fun mergeCarets() {
+    val seen = HashSet<Int>()
+    for (caret in nativeCarets()) {
+      if (!seen.add(caret.offset.point)) removeCaret(caret as HeadlessVimCaret)
+    }
+  }
+
+  override fun toString(): String = "HeadlessVimEditor(path=$path, carets=$caretList)"
+
+  companion object {
+    const val DEFAULT_PATH = "/headless.txt"
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * IdeaVim - Vim emulator for IDEs based on the IntelliJ platform
+ * Copyright (C) 2003-2022 The IdeaVim authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.EngineEditorHelper
+import com.maddyhome.idea.vim.api.ExEntryPanel
+import com.maddyhome.idea.vim.api.ExecutionContextManager
+import com.maddyhome.idea.vim.api.NativeActionManager
+import com.maddyhome.idea.vim.api.VimActionExecutor
+import com.maddyhome.idea.vim.api.VimApplication
+import com.maddyhome.idea.vim.api.VimChangeGroup
+import com.maddyhome.idea.vim.api.VimClipboardManager
+import com.maddyhome.idea.vim.api.VimDigraphGroup
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimEnabler
+import com.maddyhome.idea.vim.api.VimInjector
+import com.maddyhome.idea.vim.api.VimKeyGroup
+import com.maddyhome.idea.vim.api.VimLookupManager
+import com.maddyhome.idea.vim.api.VimMessages
+import com.maddyhome.idea.vim.api.VimMotionGroup
+import com.maddyhome.idea.vim.api.VimProcessGroup
+import com.maddyhome.idea.vim.api.VimSearchGroup
+import com.maddyhome.idea.vim.api.VimSearchHelper
+import com.maddyhome.idea.vim.api.VimStringParser
+import com.maddyhome.idea.vim.api.VimTemplateManager
+import com.maddyhome.idea.vim.api.VimVisualMotionGroup
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.common.VimMachine
+import com.maddyhome.idea.vim.diagnostic.VimLogger
+import com.maddyhome.idea.vim.mark.VimMarkGroup
+import com.maddyhome.idea.vim.options.OptionService
+import com.maddyhome.idea.vim.register.VimRegisterGroup
+import java.util.WeakHashMap
+
+/**
+ * [VimInjector] for the in-memory document and carets of [HeadlessVimEditor].
+ *
+ * It covers the editor API, registers, marks, options and messages, and [com.maddyhome.idea.vim.KeyHandler] can
+ *   run the commands of [HeadlessKeyGroup]: the engine motions, `hl0$`, `x`, `i`, `a` and typing in insert mode.
+ *   The services that are still implemented in the IDE module (visual mode, search, ex commands, lookups,
+ *   templates, etc.) throw [UnsupportedOperationException]. The code that needs them has to be tested with the
+ *   IDE fixture.
+ *
+ * ```
+ * val vim = HeadlessVimInjector.install()
+ * val editor = vim.createEditor("Hello world\n")
+ * KeyHandler.getInstance().handleKey(editor, KeyStroke.getKeyStroke('w'), HeadlessExecutionContext(editor))
+ * ```
+ */
+class HeadlessVimInjector : VimInjector {
+  private val editors = mutableListOf<HeadlessVimEditor>()
+  private val otherCommandStates = WeakHashMap<VimEditor, CommandState>()
+
+  // The groups subscribe to the options in their constructors, so they are created on the first use
+  private val registerGroupLazy = lazy { HeadlessRegisterGroup() }
+  private val markGroupLazy = lazy { HeadlessMarkGroup() }
+
+  override val parser: VimStringParser = HeadlessStringParser()
+  override val messages: VimMessages = HeadlessMessages()
+  override val application: VimApplication = HeadlessApplication { editors.toList() }
+  override val executionContextManager: ExecutionContextManager = HeadlessExecutionContextManager()
+  override val digraphGroup: VimDigraphGroup = HeadlessDigraphGroup()
+  override val vimMachine: VimMachine = HeadlessVimMachine()
+  override val enabler: VimEnabler = HeadlessEnabler()
+  override val optionService: OptionService = HeadlessOptionService()
+  override val nativeActionManager: NativeActionManager = HeadlessNativeActionManager()
+  override val keyGroup: VimKeyGroup = HeadlessKeyGroup(parser)
+  override val engineEditorHelper: EngineEditorHelper = HeadlessEditorHelper()
+  override val clipboardManager: VimClipboardManager = HeadlessClipboardManager()
+  override val motion: VimMotionGroup = HeadlessMotionGroup()
+  override val searchHelper: VimSearchHelper = HeadlessSearchHelper()
+  override val changeGroup: VimChangeGroup = HeadlessChangeGroup()
+  override val actionExecutor: VimActionExecutor = HeadlessActionExecutor()
+  override val exEntryPanel: ExEntryPanel = HeadlessExEntryPanel()
+
+  override val registerGroup: VimRegisterGroup by registerGroupLazy
+  override val registerGroupIfCreated: VimRegisterGroup?
+    get() = if (registerGroupLazy.isInitialized()) registerGroupLazy.value else null
+  override val markGroup: VimMarkGroup by markGroupLazy
+
+  override val processGroup: VimProcessGroup
+    get() = unsupported("processGroup")
+  override val visualMotionGroup: VimVisualMotionGroup
+    get() = unsupported("visualMotionGroup")
+  override val lookupManager: VimLookupManager
+    get() = unsupported("lookupManager")
+  override val templateManager: VimTemplateManager
+    get() = unsupported("templateManager")
+  override val searchGroup: VimSearchGroup
+    get() = unsupported("searchGroup")
+
+  /**
+   * Creates an editor that is reported by [VimApplication.localEditors]
+   */
+  fun createEditor(text: CharSequence = ""): HeadlessVimEditor {
+    val editor = HeadlessVimEditor(text, "/headless${editors.size}.txt")
+    editors.add(editor)
+    return editor
+  }
+
+  override fun commandStateFor(editor: VimEditor): CommandState {
+    if (editor is HeadlessVimEditor) {
+      return editor.commandState ?: CommandState(editor).also { editor.commandState = it }
+    }
+    return otherCommandStates.getOrPut(editor) { CommandState(editor) }
+  }
+
+  override fun <T : Any> getLogger(clazz: Class<T>): VimLogger = HeadlessLogger(clazz.simpleName)
+
+  companion object {
+    /**
+     * Creates a new injector and makes it the current one. The previous editors, registers and marks are dropped.
+     */
+    @JvmStatic
+    fun install(): HeadlessVimInjector {
+      val headless = HeadlessVimInjector()
+      injector = headless
+      return headless
+    }
+  }
+}
+
+internal fun unsupported(feature: String): Nothing {
+  throw UnsupportedOperationException("$feature is not available without the IDE, use the IDE test fixture")
+}